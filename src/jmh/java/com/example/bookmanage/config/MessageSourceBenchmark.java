@@ -0,0 +1,96 @@
+package com.example.bookmanage.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+/**
+ * エラー処理で使用するメッセージ取得のベンチマーク<br />
+ * 従来のMessageSource(ResourceBundleMessageSource, ReloadableResourceBundleMessageSource)と
+ * PreloadedMessageSourceで、コントローラと同じ呼び出し方(ロケールがnull)のメッセージ取得時間を比較する。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageSourceBenchmark {
+
+    /**
+     * エラー処理で取得するメッセージのコード
+     */
+    private static final String CODE = "error.validation";
+
+    /**
+     * 引数付きのメッセージのコード
+     */
+    private static final String CODE_WITH_ARGS = "validation.max-size";
+
+    /**
+     * 引数付きのメッセージの引数
+     */
+    private static final Object[] ARGS = { "タイトル", 30 };
+
+    /**
+     * 従来のThymeleaf用のメッセージソース
+     */
+    private MessageSource resourceBundle;
+
+    /**
+     * 従来のvalidation用のメッセージソース(cache-duration=-1)
+     */
+    private MessageSource reloadable;
+
+    /**
+     * 起動時に読み込むメッセージソース
+     */
+    private MessageSource preloaded;
+
+    @Setup
+    public void setUp() {
+        ResourceBundleMessageSource bundle = new ResourceBundleMessageSource();
+        bundle.setDefaultEncoding("UTF-8");
+        bundle.setBasenames("messages", "ValidationMessages");
+        resourceBundle = bundle;
+
+        ReloadableResourceBundleMessageSource reloadableBundle = new ReloadableResourceBundleMessageSource();
+        reloadableBundle.setDefaultEncoding("UTF-8");
+        reloadableBundle.setBasenames("classpath:messages", "classpath:ValidationMessages");
+        reloadable = reloadableBundle;
+
+        preloaded = new PreloadedMessageSource("messages", "ValidationMessages");
+    }
+
+    @Benchmark
+    public String resourceBundle() {
+        return resourceBundle.getMessage(CODE, null, null);
+    }
+
+    @Benchmark
+    public String reloadable() {
+        return reloadable.getMessage(CODE, null, null);
+    }
+
+    @Benchmark
+    public String preloaded() {
+        return preloaded.getMessage(CODE, null, null);
+    }
+
+    @Benchmark
+    public String resourceBundleWithArgs() {
+        return resourceBundle.getMessage(CODE_WITH_ARGS, ARGS, null);
+    }
+
+    @Benchmark
+    public String preloadedWithArgs() {
+        return preloaded.getMessage(CODE_WITH_ARGS, ARGS, null);
+    }
+
+}
@@ -0,0 +1,119 @@
+package com.example.bookmanage.exception;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 書籍が存在しない場合のエラー処理のベンチマーク<br />
+ * 指定した深さのスタックで書籍が見つからなかった場合に、呼び出し元に伝えてログ用の文字列を生成するまでの時間を比較する。<br />
+ *
+ * stackTrace：従来の例外(スタックトレースを取得し、ログにスタックトレースを出力する)<br />
+ * stackless：BookManageException(スタックトレースを取得せず、ログにメッセージのみを出力する)<br />
+ * optional：例外を使わず、空のOptionalを返却する
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ErrorPathBenchmark {
+
+    /**
+     * 書籍が見つからなかった時のスタックの深さ(Spring MVCのコントローラからリポジトリまでは100前後)
+     */
+    @Param({ "20", "100" })
+    private int depth;
+
+    /**
+     * 書籍のID
+     */
+    private long id = 1;
+
+    @Benchmark
+    public String stackTrace() {
+        try {
+            throwStackTrace(depth);
+            return null;
+        } catch (StackTraceNotFoundException e) {
+            StringWriter writer = new StringWriter();
+            e.printStackTrace(new PrintWriter(writer));
+            return writer.toString();
+        }
+    }
+
+    @Benchmark
+    public String stackless() {
+        try {
+            throwStackless(depth);
+            return null;
+        } catch (BookNotFoundException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    public String optional() {
+        return findBook(depth).map(Object::toString)
+                              .orElseGet(() -> "Book is not found. (id = " + id + ")");
+    }
+
+    /**
+     * 指定した深さでスタックトレースを取得する例外を発生させる。
+     *
+     * @param remaining 残りの深さ
+     * @throws StackTraceNotFoundException 必ず発生する
+     */
+    private void throwStackTrace(int remaining) throws StackTraceNotFoundException {
+        if (remaining == 0) {
+            throw new StackTraceNotFoundException(id);
+        }
+        throwStackTrace(remaining - 1);
+    }
+
+    /**
+     * 指定した深さでスタックトレースを取得しない例外を発生させる。
+     *
+     * @param remaining 残りの深さ
+     * @throws BookNotFoundException 必ず発生する
+     */
+    private void throwStackless(int remaining) throws BookNotFoundException {
+        if (remaining == 0) {
+            throw new BookNotFoundException(id);
+        }
+        throwStackless(remaining - 1);
+    }
+
+    /**
+     * 指定した深さで空のOptionalを返却する。
+     *
+     * @param remaining 残りの深さ
+     * @return 空のOptional
+     */
+    private Optional<Object> findBook(int remaining) {
+        if (remaining == 0) {
+            return Optional.empty();
+        }
+        return findBook(remaining - 1);
+    }
+
+    /**
+     * 従来と同じくスタックトレースを取得する例外
+     */
+    @SuppressWarnings("serial")
+    private static class StackTraceNotFoundException extends Exception {
+
+        StackTraceNotFoundException(long id) {
+            super(String.format("Book is not found. (id = %d)", id));
+        }
+
+    }
+
+}
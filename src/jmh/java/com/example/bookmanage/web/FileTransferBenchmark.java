@@ -0,0 +1,151 @@
+package com.example.bookmanage.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * ファイルをレスポンスに書き込む方法のベンチマーク<br />
+ * ループバックのソケット(受信側は読み捨てる)に、指定したサイズのファイルを書き込むスループットを比較する。<br />
+ *
+ * readAllBytes：ファイル全体をバイト配列に読み込んでから書き込む(コントローラでbyte[]を返却する場合)<br />
+ * streamCopy：InputStream#transferToで8KBずつコピーする(従来のResourceHttpMessageConverter)<br />
+ * transferTo：FileChannel#transferToでソケットに直接転送する(FileTransfer, Tomcatのsendfile)<br />
+ * mapped：ファイルをメモリにマップし、ソケットに書き込む
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileTransferBenchmark {
+
+    /**
+     * ファイルのサイズ(表紙の画像の上限は2MB、バックアップは数十MB)
+     */
+    @Param({ "65536", "2097152", "33554432" })
+    private int size;
+
+    /**
+     * 書き込むファイル
+     */
+    private Path file;
+
+    /**
+     * 受け付け側のソケット
+     */
+    private ServerSocketChannel server;
+
+    /**
+     * 書き込み先のソケット
+     */
+    private SocketChannel client;
+
+    /**
+     * 書き込み先のソケットのストリーム
+     */
+    private OutputStream clientStream;
+
+    /**
+     * 受信したデータを読み捨てるスレッド
+     */
+    private Thread drainer;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] content = new byte[size];
+        new Random(1).nextBytes(content);
+        file = Files.createTempFile("file-transfer", ".bin");
+        Files.write(file, content);
+
+        server = ServerSocketChannel.open()
+                                    .bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(server.getLocalAddress());
+        SocketChannel accepted = server.accept();
+        clientStream = Channels.newOutputStream(client);
+        drainer = Thread.ofPlatform()
+                        .daemon()
+                        .start(() -> drain(accepted));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException, InterruptedException {
+        client.close();
+        drainer.join();
+        server.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void readAllBytes() throws IOException {
+        clientStream.write(Files.readAllBytes(file));
+    }
+
+    @Benchmark
+    public long streamCopy() throws IOException {
+        try (InputStream input = Files.newInputStream(file)) {
+            return input.transferTo(clientStream);
+        }
+    }
+
+    @Benchmark
+    public long transferTo() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long transferred = 0;
+            while (transferred < size) {
+                transferred += channel.transferTo(transferred, size - transferred, client);
+            }
+            return transferred;
+        }
+    }
+
+    @Benchmark
+    public long mapped() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long written = 0;
+            while (buffer.hasRemaining()) {
+                written += client.write(buffer);
+            }
+            return written;
+        }
+    }
+
+    /**
+     * 受信したデータを、ソケットが閉じられるまで読み捨てる。
+     *
+     * @param channel 受信側のソケット
+     */
+    private static void drain(SocketChannel channel) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+        try (channel) {
+            while (channel.read(buffer) >= 0) {
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            // 書き込み側が閉じた場合
+        }
+    }
+
+}
@@ -0,0 +1,359 @@
+package com.example.bookmanage.load;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import com.example.bookmanage.BookmanageApplication;
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.repository.BookRepository;
+import com.example.bookmanage.web.BookManageHttpSession;
+
+/**
+ * 書籍管理システムの負荷テスト<br />
+ * 組み込みのWebサーバを起動し、複数のユーザが同時に、ログイン→書籍一覧→書籍の参照→登録→編集画面→更新→削除を繰り返す。<br />
+ * ユーザはテストの間だけ追加するアカウントに順に割り当て、アカウント(テナント)ごとに書籍を事前に登録する。
+ * アカウント数を同時ユーザ数より少なくした場合は、複数のユーザが同じアカウントを共有する。<br />
+ * 操作ごとのスループットと応答時間のパーセンタイルを出力し、閾値を超えた場合は失敗する。<br />
+ * "./gradlew loadTest -PloadTest.users=20 -PloadTest.accounts=5 -PloadTest.books=1000"のように、同時ユーザ数や書籍数を指定して実行する。<br />
+ * ユーザごとのリクエスト数の制限(rate limit)は、負荷をかけられるように無効にする。
+ */
+@SpringBootTest(classes = BookmanageApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+        "bookmanage.rate-limit.enabled=false" })
+class BookManageLoadTests {
+
+    /**
+     * 同時に操作するユーザ数
+     */
+    private static final int USERS = Integer.getInteger("loadTest.users", 10);
+
+    /**
+     * ログインに使用するアカウント数(テナント数。既定は同時ユーザ数と同じで、ユーザごとに別のアカウントを使用する)
+     */
+    private static final int ACCOUNTS = Math.max(1, Math.min(USERS, Integer.getInteger("loadTest.accounts", USERS)));
+
+    /**
+     * 負荷テスト用のアカウントのユーザ名の書式(パスワードはユーザ名と同じ)
+     */
+    private static final String ACCOUNT_NAME = "load-user-%03d";
+
+    /**
+     * アカウントごとに事前に登録しておく書籍数
+     */
+    private static final int BOOKS = Integer.getInteger("loadTest.books", 200);
+
+    /**
+     * ユーザごとの操作の繰り返し回数
+     */
+    private static final int ITERATIONS = Integer.getInteger("loadTest.iterations", 20);
+
+    /**
+     * 計測前に1ユーザで操作を繰り返す回数(JITコンパイル前の応答時間を計測から除く)
+     */
+    private static final int WARMUP_ITERATIONS = Integer.getInteger("loadTest.warmupIterations", 5);
+
+    /**
+     * 操作ごとの応答時間の95パーセンタイルの上限(ミリ秒)
+     */
+    private static final double MAX_P95_MILLIS = doubleProperty("loadTest.maxP95Millis", 1000);
+
+    /**
+     * 全操作のスループットの下限(リクエスト数/秒)
+     */
+    private static final double MIN_THROUGHPUT = doubleProperty("loadTest.minThroughput", 10);
+
+    /**
+     * エラー率の上限(0～1)
+     */
+    private static final double MAX_ERROR_RATE = doubleProperty("loadTest.maxErrorRate", 0);
+
+    /**
+     * Webサーバのポート番号
+     */
+    @LocalServerPort
+    private int port;
+
+    /**
+     * 書籍のリポジトリ
+     */
+    @Autowired
+    private BookRepository repository;
+
+    /**
+     * 認証できるユーザ情報(負荷テストの間だけアカウントを追加する)
+     */
+    @Autowired
+    private InMemoryUserDetailsManager userDetailsManager;
+
+    /**
+     * パスワードのエンコーダ
+     */
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    @WithMockUser(username = "user", password = "user", authorities = "ROLE_USER")
+    void 同時に操作した場合に_応答時間_スループット_エラー率が閾値内であることの確認() throws Exception {
+        Map<String, List<Long>> catalogs = createAccounts();
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        try {
+            String firstAccount = account(0);
+            runJourney(-1, firstAccount, catalogs.get(firstAccount), WARMUP_ITERATIONS, new LoadStatistics());
+
+            LoadStatistics statistics = new LoadStatistics();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int user = 0; user < USERS; user++) {
+                int userNo = user;
+                String username = account(user % ACCOUNTS);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    runJourney(userNo, username, catalogs.get(username), ITERATIONS, statistics);
+                    return null;
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            report(statistics, elapsedNanos);
+        } finally {
+            executor.shutdownNow();
+            for (int i = 0; i < ACCOUNTS; i++) {
+                userDetailsManager.deleteUser(account(i));
+            }
+        }
+    }
+
+    /**
+     * 負荷テスト用のアカウントを追加し、アカウント(テナント)ごとに書籍一覧に表示する書籍を登録する。
+     *
+     * @return アカウントのユーザ名ごとの、登録した書籍のID
+     */
+    private Map<String, List<Long>> createAccounts() {
+        Map<String, List<Long>> catalogs = new LinkedHashMap<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            String username = account(i);
+            userDetailsManager.createUser(User.withUsername(username)
+                                              .password(passwordEncoder.encode(username))
+                                              .authorities("ROLE_USER")
+                                              .build());
+            catalogs.put(username, createCatalog(username));
+        }
+        return catalogs;
+    }
+
+    /**
+     * 書籍一覧に表示する書籍を登録する(登録者はテストメソッドの@WithMockUser)。
+     *
+     * @param tenant 書籍を所有するテナント(アカウントのユーザ名)
+     * @return 登録した書籍のID
+     */
+    private List<Long> createCatalog(String tenant) {
+        List<Book> books = IntStream.range(0, BOOKS)
+                                    .mapToObj(i -> Book.builder()
+                                                       .title(String.format("catalog-%05d", i))
+                                                       .author("catalog-author")
+                                                       .tenant(tenant)
+                                                       .build())
+                                    .toList();
+        return repository.saveAll(books)
+                         .stream()
+                         .map(Book::getId)
+                         .toList();
+    }
+
+    /**
+     * 負荷テスト用のアカウントのユーザ名を返却する。
+     *
+     * @param accountNo アカウントの番号
+     * @return ユーザ名
+     */
+    private static String account(int accountNo) {
+        return String.format(ACCOUNT_NAME, accountNo);
+    }
+
+    /**
+     * 1ユーザ分の操作を繰り返す。
+     *
+     * @param userNo ユーザの番号(登録する書籍のタイトルに使用する)
+     * @param username ログインするアカウントのユーザ名
+     * @param catalog 事前にアカウントのテナントに登録した書籍のID
+     * @param iterations 繰り返し回数
+     * @param statistics 計測結果
+     * @throws InterruptedException 通信中に割り込まれた場合
+     */
+    private void runJourney(int userNo, String username, List<Long> catalog, int iterations,
+            LoadStatistics statistics) throws InterruptedException {
+        BookManageHttpSession session = new BookManageHttpSession("http://localhost:" + port);
+        boolean loggedIn = measure(statistics, "login", () -> session.login(username, username)
+                                                                     .uri()
+                                                                     .getPath()
+                                                                     .endsWith("/books"));
+        if (!loggedIn) {
+            return;
+        }
+
+        for (int i = 0; i < iterations; i++) {
+            String title = String.format("load-%d-%05d", userNo, i);
+            String updatedTitle = title + "-upd";
+            long catalogId = catalog.get(ThreadLocalRandom.current()
+                                                          .nextInt(catalog.size()));
+
+            measure(statistics, "list", () -> ok(session.get("/books")));
+            measure(statistics, "view", () -> {
+                String html = session.get("/books/" + catalogId)
+                                     .body();
+                return BookManageHttpSession.version(html) >= 0;
+            });
+
+            long[] id = { -1 };
+            boolean created = measure(statistics, "create", () -> {
+                id[0] = BookManageHttpSession.bookId(session.createBook(title, "load-author")
+                                                            .body(), title);
+                return id[0] > 0;
+            });
+            if (!created) {
+                continue;
+            }
+
+            long[] version = { -1 };
+            measure(statistics, "edit", () -> {
+                version[0] = BookManageHttpSession.version(session.get("/books/" + id[0])
+                                                                  .body());
+                return version[0] >= 0;
+            });
+            measure(statistics, "update", () -> session.updateBook(id[0], updatedTitle, "load-author", version[0])
+                                                       .body()
+                                                       .contains(updatedTitle));
+            measure(statistics, "delete", () -> !session.deleteBook(id[0])
+                                                        .body()
+                                                        .contains(updatedTitle));
+        }
+    }
+
+    /**
+     * 操作の応答時間を計測して記録する(通信エラーはエラーとして記録する)。
+     *
+     * @param statistics 計測結果
+     * @param step 操作の名前
+     * @param operation 操作(成功した場合、trueを返却する)
+     * @return 操作が成功した場合、true
+     * @throws InterruptedException 通信中に割り込まれた場合
+     */
+    private static boolean measure(LoadStatistics statistics, String step, Operation operation)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = operation.run();
+        } catch (IOException e) {
+            success = false;
+        }
+        statistics.record(step, System.nanoTime() - start, success);
+        return success;
+    }
+
+    /**
+     * 集計結果を出力し、閾値と比較する。
+     *
+     * @param statistics 計測結果
+     * @param elapsedNanos 負荷テスト全体の経過時間(ナノ秒)
+     * @throws IOException 集計結果の出力に失敗した場合
+     */
+    private static void report(LoadStatistics statistics, long elapsedNanos) throws IOException {
+        Map<String, LoadStatistics.Summary> summaries = statistics.summarize(elapsedNanos);
+        LoadStatistics.Summary total = statistics.total(elapsedNanos);
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("users=%d, accounts=%d, books=%d, iterations=%d, elapsed=%d ms%n", USERS, ACCOUNTS,
+                BOOKS, ITERATIONS, elapsedNanos / 1_000_000));
+        summaries.forEach((step, summary) -> report.append(String.format("%-8s %s%n", step, summary)));
+        report.append(String.format("%-8s %s%n", "total", total));
+        System.out.print(report);
+
+        String reportFile = System.getProperty("loadTest.reportFile");
+        if (reportFile != null) {
+            Path path = Path.of(reportFile);
+            Files.createDirectories(path.getParent());
+            Files.writeString(path, report, StandardCharsets.UTF_8);
+        }
+
+        List<Executable> thresholds = new ArrayList<>();
+        summaries.forEach((step, summary) -> thresholds.add(() -> assertTrue(summary.p95() <= MAX_P95_MILLIS,
+                () -> String.format("%s: p95 %.1f ms > %.1f ms", step, summary.p95(), MAX_P95_MILLIS))));
+        thresholds.add(() -> assertTrue(total.throughput() >= MIN_THROUGHPUT,
+                () -> String.format("throughput %.1f/s < %.1f/s", total.throughput(), MIN_THROUGHPUT)));
+        thresholds.add(() -> assertTrue(total.errorRate() <= MAX_ERROR_RATE,
+                () -> String.format("error rate %.4f > %.4f", total.errorRate(), MAX_ERROR_RATE)));
+        assertAll(thresholds);
+    }
+
+    /**
+     * レスポンスが正常(200)かどうかを返却する。
+     *
+     * @param response レスポンス
+     * @return 正常の場合、true
+     */
+    private static boolean ok(HttpResponse<String> response) {
+        return response.statusCode() == 200;
+    }
+
+    /**
+     * システムプロパティを数値で返却する。
+     *
+     * @param key キー
+     * @param defaultValue 未設定の場合の値
+     * @return システムプロパティの値
+     */
+    private static double doubleProperty(String key, double defaultValue) {
+        String value = System.getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value);
+    }
+
+    /**
+     * 計測する操作
+     */
+    @FunctionalInterface
+    private interface Operation {
+
+        /**
+         * 操作を実行する。
+         *
+         * @return 成功した場合、true
+         * @throws IOException 通信エラーが発生した場合
+         * @throws InterruptedException 通信中に割り込まれた場合
+         */
+        boolean run() throws IOException, InterruptedException;
+
+    }
+
+}
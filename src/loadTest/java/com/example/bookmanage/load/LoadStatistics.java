@@ -0,0 +1,163 @@
+package com.example.bookmanage.load;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 負荷テストの計測結果<br />
+ * 操作(ログイン、書籍一覧の表示など)ごとに、応答時間とエラー件数を記録し、スループットとパーセンタイルを集計する。
+ */
+public class LoadStatistics {
+
+    /**
+     * 操作ごとの応答時間(ナノ秒)
+     */
+    private final Map<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * 操作ごとのエラー件数
+     */
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    /**
+     * 操作の名前(記録した順)
+     */
+    private final List<String> steps = new ArrayList<>();
+
+    /**
+     * 操作の応答時間を記録する。
+     *
+     * @param step 操作の名前
+     * @param nanos 応答時間(ナノ秒)
+     * @param success 成功した場合、true
+     */
+    public void record(String step, long nanos, boolean success) {
+        latencies.computeIfAbsent(step, this::register)
+                 .add(nanos);
+        if (!success) {
+            errors.computeIfAbsent(step, k -> new AtomicLong())
+                  .incrementAndGet();
+        }
+    }
+
+    /**
+     * 操作ごとの集計結果を返却する。
+     *
+     * @param elapsedNanos 負荷テスト全体の経過時間(ナノ秒)
+     * @return 操作ごとの集計結果(記録した順)
+     */
+    public Map<String, Summary> summarize(long elapsedNanos) {
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        synchronized (steps) {
+            for (String step : steps) {
+                long[] sorted = latencies.get(step)
+                                         .stream()
+                                         .mapToLong(Long::longValue)
+                                         .sorted()
+                                         .toArray();
+                AtomicLong error = errors.get(step);
+                summaries.put(step, new Summary(sorted, error == null ? 0 : error.get(), elapsedNanos));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * 全操作の集計結果を返却する。
+     *
+     * @param elapsedNanos 負荷テスト全体の経過時間(ナノ秒)
+     * @return 全操作の集計結果
+     */
+    public Summary total(long elapsedNanos) {
+        long[] sorted = latencies.values()
+                                 .stream()
+                                 .flatMap(ConcurrentLinkedQueue::stream)
+                                 .mapToLong(Long::longValue)
+                                 .sorted()
+                                 .toArray();
+        long error = errors.values()
+                           .stream()
+                           .mapToLong(AtomicLong::get)
+                           .sum();
+        return new Summary(sorted, error, elapsedNanos);
+    }
+
+    /**
+     * 操作を記録した順に登録する。
+     *
+     * @param step 操作の名前
+     * @return 応答時間を記録するキュー
+     */
+    private ConcurrentLinkedQueue<Long> register(String step) {
+        synchronized (steps) {
+            steps.add(step);
+        }
+        return new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * 集計結果
+     *
+     * @param count リクエスト数
+     * @param errors エラー件数
+     * @param throughput スループット(リクエスト数/秒)
+     * @param p50 応答時間の50パーセンタイル(ミリ秒)
+     * @param p95 応答時間の95パーセンタイル(ミリ秒)
+     * @param p99 応答時間の99パーセンタイル(ミリ秒)
+     * @param max 応答時間の最大値(ミリ秒)
+     */
+    public record Summary(long count, long errors, double throughput, double p50, double p95, double p99, double max) {
+
+        /**
+         * コンストラクタ
+         *
+         * @param sorted 昇順に並べた応答時間(ナノ秒)
+         * @param errors エラー件数
+         * @param elapsedNanos 負荷テスト全体の経過時間(ナノ秒)
+         */
+        Summary(long[] sorted, long errors, long elapsedNanos) {
+            this(sorted.length, errors, sorted.length / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1)),
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                    percentile(sorted, 1.0));
+        }
+
+        /**
+         * エラー率を返却する。
+         *
+         * @return エラー率(0～1)
+         */
+        public double errorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%6d  errors=%4d  throughput=%8.1f/s  p50=%7.1f ms  p95=%7.1f ms  p99=%7.1f ms  max=%7.1f ms",
+                    count, errors, throughput, p50, p95, p99, max);
+        }
+
+        /**
+         * 応答時間のパーセンタイルを返却する(nearest-rank法)。
+         *
+         * @param sorted 昇順に並べた応答時間(ナノ秒)
+         * @param percentile パーセンタイル(0～1)
+         * @return 応答時間(ミリ秒、記録がない場合は0)
+         */
+        static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile * sorted.length);
+            long nanos = sorted[Math.max(rank, 1) - 1];
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+    }
+
+}
@@ -2,11 +2,15 @@ package com.example.bookmanage;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import com.example.bookmanage.config.BookmanageRuntimeHints;
 
 /**
  * 書籍管理システムのSpringApplication
  */
 @SpringBootApplication
+@ImportRuntimeHints(BookmanageRuntimeHints.class)
 public class BookmanageApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,50 @@
+package com.example.bookmanage.config;
+
+import java.io.IOException;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.bookmanage.service.impl.BookBackupServiceImpl;
+import com.example.bookmanage.service.impl.BookDedupFilter;
+import com.example.bookmanage.service.impl.TenantBookCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 書籍のバックアップ・復元のConfiguration<br />
+ * "/admin/backups"でバックアップの取得・ダウンロード・復元ができる
+ * (メトリクスはbookmanage.book.backup.duration, bookmanage.book.backup.rows, bookmanage.book.backup.progressで参照できる)。<br />
+ * 管理者のみが稀に使用するため、サービスは初回アクセス時に生成する(@Lazy)。
+ */
+@Configuration
+@EnableConfigurationProperties(BookBackupProperties.class)
+public class BookBackupConfig {
+
+    /**
+     * 書籍のバックアップ・復元のサービスを返却する。
+     *
+     * @param properties 書籍のバックアップ・復元の設定値
+     * @param jdbcTemplate JdbcTemplate
+     * @param transactionManager トランザクションマネージャ
+     * @param bookCache テナントごとの書籍一覧のキャッシュ
+     * @param dedupFilter 書籍の重複判定キーのBloomフィルタ
+     * @param meterRegistry メトリクスのレジストリ
+     * @return BookBackupServiceImpl
+     * @throws IOException ディレクトリを作成できない場合
+     */
+    @Bean
+    @Lazy
+    public BookBackupServiceImpl bookBackupService(BookBackupProperties properties, JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager, TenantBookCache bookCache, BookDedupFilter dedupFilter,
+            MeterRegistry meterRegistry) throws IOException {
+        return new BookBackupServiceImpl(properties.getDirectory(), properties.getMaxFiles(),
+                properties.getFetchSize(), properties.getBatchSize(), jdbcTemplate, transactionManager, bookCache,
+                dedupFilter, meterRegistry);
+    }
+
+}
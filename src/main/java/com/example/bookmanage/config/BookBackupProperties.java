@@ -0,0 +1,36 @@
+package com.example.bookmanage.config;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 書籍のバックアップ・復元の設定値
+ */
+@Data
+@ConfigurationProperties(prefix = "bookmanage.book-backup")
+public class BookBackupProperties {
+
+    /**
+     * バックアップのファイルを保存するディレクトリ
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "bookmanage", "backups");
+
+    /**
+     * 保持するバックアップのファイル数の上限(超えた場合、古いファイルから削除する)
+     */
+    private int maxFiles = 10;
+
+    /**
+     * バックアップ時に、データベースから一度に取得する件数
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * 復元時に、1回のバッチで登録する件数
+     */
+    private int batchSize = 1000;
+
+}
@@ -0,0 +1,61 @@
+package com.example.bookmanage.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.bookmanage.service.impl.BookDedupFilter;
+import com.example.bookmanage.service.impl.IdempotencyKeyStore;
+import com.example.bookmanage.service.impl.TenantBookCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 書籍管理システムのキャッシュのConfiguration<br />
+ * テナントごとの書籍一覧のキャッシュと、冪等キーごとの登録・更新の結果を設定する
+ * (メトリクスはcache.gets{cache=books}, cache.gets{cache=idempotency}などで参照できる)。
+ * 書籍の重複判定キーのBloomフィルタも設定する(メトリクスはbookmanage.book.dedup.checksで参照できる)。
+ */
+@Configuration
+@EnableConfigurationProperties({ BookCacheProperties.class, IdempotencyProperties.class,
+        BookDedupProperties.class })
+public class BookCacheConfig {
+
+    /**
+     * テナントごとの書籍一覧のキャッシュを返却する。
+     *
+     * @param properties キャッシュの設定値
+     * @param meterRegistry メトリクスのレジストリ
+     * @return TenantBookCache
+     */
+    @Bean
+    public TenantBookCache tenantBookCache(BookCacheProperties properties, MeterRegistry meterRegistry) {
+        return new TenantBookCache(properties.getMaximumWeight(), properties.getExpireAfterAccess(), meterRegistry);
+    }
+
+    /**
+     * 冪等キーごとの登録・更新の結果を返却する。
+     *
+     * @param properties 冪等キーの設定値
+     * @param meterRegistry メトリクスのレジストリ
+     * @return IdempotencyKeyStore
+     */
+    @Bean
+    public IdempotencyKeyStore idempotencyKeyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        return new IdempotencyKeyStore(properties.getMaximumSize(), properties.getExpireAfterWrite(), meterRegistry);
+    }
+
+    /**
+     * 書籍の重複判定キーのBloomフィルタを返却する。
+     *
+     * @param properties Bloomフィルタの設定値
+     * @param meterRegistry メトリクスのレジストリ
+     * @return BookDedupFilter
+     */
+    @Bean
+    public BookDedupFilter bookDedupFilter(BookDedupProperties properties, MeterRegistry meterRegistry) {
+        return new BookDedupFilter(properties.getExpectedInsertions(), properties.getFalsePositiveProbability(),
+                meterRegistry);
+    }
+
+}
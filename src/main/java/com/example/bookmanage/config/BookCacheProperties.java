@@ -0,0 +1,26 @@
+package com.example.bookmanage.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * テナントごとの書籍一覧のキャッシュの設定値
+ */
+@Data
+@ConfigurationProperties(prefix = "bookmanage.book-cache")
+public class BookCacheProperties {
+
+    /**
+     * キャッシュする書籍数の上限(全テナントの合計)
+     */
+    private long maximumWeight = 100_000;
+
+    /**
+     * 参照されなくなってから破棄するまでの時間
+     */
+    private Duration expireAfterAccess = Duration.ofMinutes(30);
+
+}
@@ -0,0 +1,56 @@
+package com.example.bookmanage.config;
+
+import java.io.IOException;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.bookmanage.service.impl.BookCoverStorage;
+import com.example.bookmanage.service.impl.CoverThumbnailCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 書籍の表紙の画像のConfiguration<br />
+ * 表紙の画像の保存先と、縮小画像のキャッシュ(メモリとディスク)を設定する
+ * (メトリクスはcache.gets{cache=cover-thumbnails}, bookmanage.book.cover.thumbnailsで参照できる)。
+ */
+@Configuration
+@EnableConfigurationProperties(BookCoverProperties.class)
+public class BookCoverConfig {
+
+    /**
+     * 表紙の画像の保存先を返却する。
+     *
+     * @param properties 表紙の画像の設定値
+     * @return BookCoverStorage
+     * @throws IOException ディレクトリを作成できない場合
+     */
+    @Bean
+    public BookCoverStorage bookCoverStorage(BookCoverProperties properties) throws IOException {
+        long maxSize = properties.getMaxSize()
+                                 .toBytes();
+        return new BookCoverStorage(properties.getDirectory(), maxSize, properties.getMaxPixels());
+    }
+
+    /**
+     * 表紙の縮小画像のキャッシュを返却する。
+     *
+     * @param properties 表紙の画像の設定値
+     * @param meterRegistry メトリクスのレジストリ
+     * @return CoverThumbnailCache
+     * @throws IOException ディレクトリを作成できない場合
+     */
+    @Bean
+    public CoverThumbnailCache coverThumbnailCache(BookCoverProperties properties, MeterRegistry meterRegistry)
+            throws IOException {
+        long memoryCacheSize = properties.getThumbnailMemoryCacheSize()
+                                         .toBytes();
+        long diskCacheSize = properties.getThumbnailDiskCacheSize()
+                                       .toBytes();
+        return new CoverThumbnailCache(properties.getThumbnailDirectory(), properties.getThumbnailWidth(),
+                memoryCacheSize, diskCacheSize, meterRegistry);
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.example.bookmanage.config;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * 書籍の表紙の画像の設定値
+ */
+@Data
+@ConfigurationProperties(prefix = "bookmanage.book-cover")
+public class BookCoverProperties {
+
+    /**
+     * 表紙の画像を保存するディレクトリ(書籍のIDごとのディレクトリに保存する)
+     */
+    private Path directory = Path.of(System.getProperty("java.io.tmpdir"), "bookmanage", "covers");
+
+    /**
+     * 表紙の画像のサイズの上限
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(2);
+
+    /**
+     * 表紙の画像の画素数の上限(縮小画像の生成時に、展開後の画像でヒープを使い切らないようにする)
+     */
+    private long maxPixels = 25_000_000;
+
+    /**
+     * 縮小画像の幅(ピクセル)
+     */
+    private int thumbnailWidth = 96;
+
+    /**
+     * 縮小画像を保存するディレクトリ
+     */
+    private Path thumbnailDirectory = Path.of(System.getProperty("java.io.tmpdir"), "bookmanage", "thumbnails");
+
+    /**
+     * メモリにキャッシュする縮小画像のサイズの上限
+     */
+    private DataSize thumbnailMemoryCacheSize = DataSize.ofMegabytes(16);
+
+    /**
+     * ディスクにキャッシュする縮小画像のサイズの上限
+     */
+    private DataSize thumbnailDiskCacheSize = DataSize.ofMegabytes(256);
+
+}
@@ -0,0 +1,24 @@
+package com.example.bookmanage.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 書籍の重複判定キーのBloomフィルタの設定値
+ */
+@Data
+@ConfigurationProperties(prefix = "bookmanage.book-dedup")
+public class BookDedupProperties {
+
+    /**
+     * 想定する書籍の登録件数(全テナントの合計、超えると誤判定が増えてSQLの発行が増える)
+     */
+    private long expectedInsertions = 100_000;
+
+    /**
+     * 想定する登録件数での誤判定率
+     */
+    private double falsePositiveProbability = 0.01;
+
+}
@@ -0,0 +1,40 @@
+package com.example.bookmanage.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.repository.BookRepository;
+import com.example.bookmanage.service.impl.BookCoverStorage;
+import com.example.bookmanage.service.impl.BookPurgeJob;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 書籍の削除のConfiguration<br />
+ * 削除した書籍の物理削除(BookPurgeJob)を保守処理として設定する(実行間隔はJobConfigで設定する。
+ * メトリクスはbookmanage.book.purgedで参照できる)。
+ */
+@Configuration
+@EnableConfigurationProperties(BookDeleteProperties.class)
+public class BookDeleteConfig {
+
+    /**
+     * 削除した書籍の物理削除を返却する。
+     *
+     * @param properties 書籍の削除の設定値
+     * @param bookRepository 書籍のリポジトリ
+     * @param transactionTemplate トランザクションのテンプレート
+     * @param coverStorage 表紙の画像の保存先
+     * @param meterRegistry メトリクスのレジストリ
+     * @return BookPurgeJob
+     */
+    @Bean
+    public BookPurgeJob bookPurgeJob(BookDeleteProperties properties, BookRepository bookRepository,
+            TransactionTemplate transactionTemplate, BookCoverStorage coverStorage, MeterRegistry meterRegistry) {
+        return new BookPurgeJob(bookRepository, transactionTemplate, coverStorage, properties.getUndoWindow(),
+                meterRegistry);
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.example.bookmanage.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 書籍の削除(論理削除、削除の取り消し、物理削除)の設定値<br />
+ * 物理削除の実行間隔と件数は、保守処理(bookmanage.job.schedules.book-purge)で設定する。
+ */
+@Data
+@ConfigurationProperties(prefix = "bookmanage.book-delete")
+public class BookDeleteProperties {
+
+    /**
+     * 削除を取り消せる時間(過ぎた書籍は物理削除の対象になる)
+     */
+    private Duration undoWindow = Duration.ofSeconds(30);
+
+}
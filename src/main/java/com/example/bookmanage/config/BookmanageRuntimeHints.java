@@ -0,0 +1,63 @@
+package com.example.bookmanage.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import com.example.bookmanage.domain.AbstractEntity;
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.form.BookManagementForm;
+import com.example.bookmanage.job.JobStatus;
+import com.example.bookmanage.metrics.PerformanceSnapshot;
+import com.example.bookmanage.service.BackupFile;
+import com.example.bookmanage.service.BackupStatus;
+import com.example.bookmanage.trace.Span;
+import com.example.bookmanage.trace.Trace;
+
+/**
+ * 書籍管理システムのnative image用のRuntimeHints<br />
+ *
+ * 以下を登録している。<br />
+ * ModelMapperとThymeleafがリフレクションで参照するエンティティ、フォーム情報(Lombokで生成したメソッドを含む)。<br />
+ * 管理者用画面のThymeleafがリフレクションで参照するトレース、メトリクス、保守処理・バックアップの状態。<br />
+ * logback-spring.xmlで設定しているAppender。<br />
+ * 独自に設定しているThymeleafのテンプレートとメッセージプロパティ。
+ */
+public class BookmanageRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // ModelMapperのマッピングとThymeleafの式でgetter/setterを呼び出すクラス
+        for (Class<?> type : new Class<?>[] { AbstractEntity.class, Book.class, BookManagementForm.class }) {
+            hints.reflection()
+                 .registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS,
+                         MemberCategory.INTROSPECT_PUBLIC_METHODS, MemberCategory.DECLARED_FIELDS);
+        }
+        // 管理者用画面のThymeleafの式でgetterを呼び出すクラス
+        for (Class<?> type : new Class<?>[] { Trace.class, Span.class, PerformanceSnapshot.class,
+                PerformanceSnapshot.Endpoint.class, PerformanceSnapshot.Cache.class, PerformanceSnapshot.Pool.class,
+                PerformanceSnapshot.Jvm.class, JobStatus.class, BackupStatus.class, BackupFile.class }) {
+            hints.reflection()
+                 .registerType(type, MemberCategory.INVOKE_PUBLIC_METHODS, MemberCategory.INTROSPECT_PUBLIC_METHODS);
+        }
+
+        // logback-spring.xmlで設定しているAppender
+        hints.reflection()
+             .registerType(DropCountingAsyncAppender.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                     MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // ThymeleafMvcConfigでテンプレートリゾルバを独自に設定しているため、テンプレートを登録する
+        hints.resources()
+             .registerPattern("templates/*.html")
+             .registerPattern("templates/fragments/*.html")
+             .registerPattern("templates/admin/*.html");
+        // ログ出力の設定
+        hints.resources()
+             .registerPattern("logback-spring.xml");
+        // メッセージプロパティ
+        hints.resources()
+             .registerResourceBundle("messages")
+             .registerResourceBundle("ValidationMessages");
+    }
+
+}
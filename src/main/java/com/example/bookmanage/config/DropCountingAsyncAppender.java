@@ -0,0 +1,91 @@
+package com.example.bookmanage.config;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 破棄したログの件数を数える非同期のAppender(logback-spring.xmlで設定する)<br />
+ *
+ * ログの出力(ファイル、コンソールへの書き込み)は別スレッドで行い、リクエストのスレッドはキューに積むだけにする。
+ * キューが溢れそうな場合は、リクエストのスレッドを待たせずにログを破棄する(neverBlock)。<br />
+ * 破棄したログの件数は以下の2種類に分けて数え、メトリクスとして公開する。<br />
+ * discarded：キューの残りがdiscardingThresholdを下回ったため破棄したINFO以下のログ<br />
+ * overflow：キューが満杯のため破棄したWARN以上のログ(件数は概算)
+ */
+public class DropCountingAsyncAppender extends AsyncAppender implements MeterBinder {
+
+    /**
+     * キューの残りが少ないため破棄したログの件数
+     */
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * キューが満杯のため破棄したログの件数
+     */
+    private final LongAdder overflow = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // キューが満杯の場合、neverBlockのため親クラスで破棄される(discardingThresholdで破棄されるものは除く)
+        if (isNeverBlock() && getRemainingCapacity() == 0
+                && !(getDiscardingThreshold() > 0 && super.isDiscardable(event))) {
+            overflow.increment();
+        }
+        super.append(event);
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        // キューの残りがdiscardingThresholdを下回った場合のみ呼び出される
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            discarded.increment();
+        }
+        return discardable;
+    }
+
+    /**
+     * キューの残りが少ないため破棄したログの件数を返却する。
+     *
+     * @return 件数
+     */
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    /**
+     * キューが満杯のため破棄したログの件数を返却する。
+     *
+     * @return 件数
+     */
+    public long getOverflowCount() {
+        return overflow.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("bookmanage.logging.events.dropped", this,
+                DropCountingAsyncAppender::getDiscardedCount)
+                       .description("非同期のAppenderが破棄したログの件数")
+                       .tag("appender", getName())
+                       .tag("reason", "discarded")
+                       .register(registry);
+        FunctionCounter.builder("bookmanage.logging.events.dropped", this,
+                DropCountingAsyncAppender::getOverflowCount)
+                       .description("非同期のAppenderが破棄したログの件数")
+                       .tag("appender", getName())
+                       .tag("reason", "overflow")
+                       .register(registry);
+        Gauge.builder("bookmanage.logging.queue.remaining", this, DropCountingAsyncAppender::getRemainingCapacity)
+             .description("ログのキューの残り")
+             .tag("appender", getName())
+             .register(registry);
+    }
+
+}
@@ -0,0 +1,218 @@
+package com.example.bookmanage.config;
+
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import javax.sql.DataSource;
+
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.UserDetailsManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.example.bookmanage.health.BookDedupFilterWarmup;
+import com.example.bookmanage.health.ConnectionPoolHealthIndicator;
+import com.example.bookmanage.health.ConnectionPoolPrimer;
+import com.example.bookmanage.health.InFlightRequestFilter;
+import com.example.bookmanage.health.ModelMapperWarmup;
+import com.example.bookmanage.health.PageWarmup;
+import com.example.bookmanage.health.PoolExhaustionHealthIndicator;
+import com.example.bookmanage.health.StuckRequestHealthIndicator;
+import com.example.bookmanage.health.WarmupHealthIndicator;
+import com.example.bookmanage.health.WarmupRunner;
+import com.example.bookmanage.health.WarmupTask;
+import com.example.bookmanage.health.WarmupTrafficReset;
+import com.example.bookmanage.repository.BookRepository;
+import com.example.bookmanage.service.impl.BookDedupFilter;
+import com.example.bookmanage.trace.TraceCollector;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 書籍管理システムのヘルスチェックのConfiguration<br />
+ *
+ * 以下のHealthIndicatorを設定している(グループはapplication.propertiesで設定する)。<br />
+ * readiness：ウォームアップの終了(warmup)、コネクションプールの状態(connectionPool)。<br />
+ * liveness：コネクションプールの枯渇(poolExhaustion)、停止しているリクエストのスレッド(stuckRequest)。<br />
+ * 起動時のウォームアップ(WarmupTaskのBeanを@Orderの順に実行する)と、処理中のリクエストを記録するFilterも設定する。<br />
+ * ウォームアップは、コネクションプール→重複判定キーのBloomフィルタ→ModelMapper→画面(自身へのリクエスト)の順に行い、
+ * 最後に画面のウォームアップのリクエストの記録(メトリクス、トレース)を破棄する。
+ */
+@Configuration
+@EnableConfigurationProperties(HealthProperties.class)
+public class HealthConfig {
+
+    /**
+     * ヘルスチェックの設定値
+     */
+    private final HealthProperties properties;
+
+    /**
+     * コンストラクタ
+     *
+     * @param properties ヘルスチェックの設定値
+     */
+    public HealthConfig(HealthProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * ウォームアップの状態を返却する。
+     *
+     * @return WarmupHealthIndicator
+     */
+    @Bean
+    public WarmupHealthIndicator warmupHealthIndicator() {
+        return new WarmupHealthIndicator();
+    }
+
+    /**
+     * 起動時のウォームアップを実行するApplicationRunnerを返却する。
+     *
+     * @param tasks ウォームアップの処理
+     * @return WarmupRunner
+     */
+    @Bean
+    public WarmupRunner warmupRunner(ObjectProvider<WarmupTask> tasks) {
+        List<WarmupTask> enabledTasks = properties.isWarmupEnabled() ? tasks.orderedStream()
+                                                                            .toList()
+                : List.of();
+        return new WarmupRunner(enabledTasks, warmupHealthIndicator());
+    }
+
+    /**
+     * コネクションプールのウォームアップを返却する(最初に実行する)。
+     *
+     * @param dataSource DataSource
+     * @return ConnectionPoolPrimer
+     */
+    @Bean
+    @Order(100)
+    public ConnectionPoolPrimer connectionPoolPrimer(DataSource dataSource) {
+        return new ConnectionPoolPrimer(dataSource);
+    }
+
+    /**
+     * 書籍の重複判定キーのBloomフィルタのウォームアップを返却する。
+     *
+     * @param bookRepository 書籍のリポジトリ
+     * @param dedupFilter 書籍の重複判定キーのBloomフィルタ
+     * @param transactionManager トランザクションマネージャ
+     * @return BookDedupFilterWarmup
+     */
+    @Bean
+    @Order(150)
+    public BookDedupFilterWarmup bookDedupFilterWarmup(BookRepository bookRepository, BookDedupFilter dedupFilter,
+            PlatformTransactionManager transactionManager) {
+        return new BookDedupFilterWarmup(bookRepository, dedupFilter, transactionManager);
+    }
+
+    /**
+     * ModelMapperのウォームアップを返却する。
+     *
+     * @param modelMapper エンティティとフォーム情報のマッパー
+     * @return ModelMapperWarmup
+     */
+    @Bean
+    @Order(200)
+    public ModelMapperWarmup modelMapperWarmup(ModelMapper modelMapper) {
+        return new ModelMapperWarmup(modelMapper);
+    }
+
+    /**
+     * 画面のウォームアップを返却する。<br />
+     * Webサーバが起動していない場合(MockMvcのテストなど)は何もしない。
+     *
+     * @param context アプリケーションコンテキスト
+     * @param environment 環境
+     * @param userDetailsManager ウォームアップ用のユーザを登録・削除するUserDetailsManager
+     * @param passwordEncoder パスワードのエンコーダ
+     * @return PageWarmup
+     */
+    @Bean
+    @Order(300)
+    public PageWarmup pageWarmup(ApplicationContext context, Environment environment,
+            UserDetailsManager userDetailsManager, PasswordEncoder passwordEncoder) {
+        IntSupplier port = () -> {
+            if (context instanceof WebServerApplicationContext webContext && webContext.getWebServer() != null) {
+                return webContext.getWebServer().getPort();
+            }
+            return -1;
+        };
+        return new PageWarmup(port, environment.getProperty("server.servlet.context-path", ""),
+                properties.getWarmupIterations(), properties.getWarmupUsername(), properties.getWarmupAdminPages(),
+                userDetailsManager, passwordEncoder);
+    }
+
+    /**
+     * ウォームアップのリクエストの記録の破棄を返却する(画面のウォームアップの後に実行する)。
+     *
+     * @param meterRegistry メトリクスのレジストリ
+     * @param traceCollector 終了したトレースの保存先
+     * @return WarmupTrafficReset
+     */
+    @Bean
+    @Order(400)
+    public WarmupTrafficReset warmupTrafficReset(MeterRegistry meterRegistry,
+            ObjectProvider<TraceCollector> traceCollector) {
+        return new WarmupTrafficReset(meterRegistry, traceCollector);
+    }
+
+    /**
+     * コネクションプールの状態を返却する。
+     *
+     * @param dataSource DataSource
+     * @return ConnectionPoolHealthIndicator
+     */
+    @Bean
+    public ConnectionPoolHealthIndicator connectionPoolHealthIndicator(DataSource dataSource) {
+        return new ConnectionPoolHealthIndicator(dataSource);
+    }
+
+    /**
+     * コネクションプールの枯渇を返却する。
+     *
+     * @param dataSource DataSource
+     * @return PoolExhaustionHealthIndicator
+     */
+    @Bean
+    public PoolExhaustionHealthIndicator poolExhaustionHealthIndicator(DataSource dataSource) {
+        return new PoolExhaustionHealthIndicator(dataSource, properties.getPoolExhaustionTimeout());
+    }
+
+    /**
+     * InFlightRequestFilterをFilterに設定するためのBeanを返却する(全てのリクエストを記録するため、最初に実行する)。<br />
+     * 表紙の画像のアップロードとバックアップのダウンロードは、長時間の処理とみなす。
+     *
+     * @return InFlightRequestFilterをFilterに設定するためのBean
+     */
+    @Bean
+    public FilterRegistrationBean<InFlightRequestFilter> inFlightRequestFilter() {
+        FilterRegistrationBean<InFlightRequestFilter> filterRegBean = new FilterRegistrationBean<>(
+                new InFlightRequestFilter(properties.getLongRunningRequests()));
+        filterRegBean.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return filterRegBean;
+    }
+
+    /**
+     * 停止しているリクエストのスレッドを返却する。
+     *
+     * @return StuckRequestHealthIndicator
+     */
+    @Bean
+    public StuckRequestHealthIndicator stuckRequestHealthIndicator() {
+        return new StuckRequestHealthIndicator(inFlightRequestFilter().getFilter(),
+                properties.getStuckRequestTimeout(), properties.getStuckRequestThreshold());
+    }
+
+}
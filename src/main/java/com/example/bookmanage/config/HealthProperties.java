@@ -0,0 +1,61 @@
+package com.example.bookmanage.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * ヘルスチェック(readiness, liveness)の設定値
+ */
+@Data
+@ConfigurationProperties(prefix = "bookmanage.health")
+public class HealthProperties {
+
+    /**
+     * 起動時のウォームアップを行うか否か(行わない場合も、readinessはウォームアップの終了を待つ)
+     */
+    private boolean warmupEnabled = true;
+
+    /**
+     * 画面のウォームアップで同じリクエストを繰り返す回数
+     */
+    private int warmupIterations = 10;
+
+    /**
+     * 画面のウォームアップでログインするユーザ名(ウォームアップの間だけ登録する、実在のユーザと重複しない名前)<br />
+     * 空の場合、ログインが必要な画面はウォームアップしない。
+     */
+    private String warmupUsername = "warmup";
+
+    /**
+     * 画面のウォームアップで表示する管理者用画面のパス(管理者用画面のトップは常に表示する)<br />
+     * バックアップの画面は、初回の使用まで生成を遅らせるサービス(@Lazy)を生成するため含めない。
+     */
+    private List<String> warmupAdminPages = List.of("/admin/jobs", "/admin/performance", "/admin/traces",
+            "/admin/queries");
+
+    /**
+     * コネクションプールの枯渇が続いた場合に、livenessをDOWNとする時間
+     */
+    private Duration poolExhaustionTimeout = Duration.ofSeconds(30);
+
+    /**
+     * 処理中のリクエストがある場合に、スレッドが停止しているとみなしてlivenessをDOWNとする時間
+     */
+    private Duration stuckRequestTimeout = Duration.ofMinutes(2);
+
+    /**
+     * livenessをDOWNとする停止しているリクエストの件数(Tomcatの最大スレッド数200の5%)
+     */
+    private int stuckRequestThreshold = 10;
+
+    /**
+     * 停止の検知の対象外とする、長時間の処理とみなすリクエスト("HTTPメソッド パスのパターン")
+     */
+    private List<String> longRunningRequests = List.of("POST /books/*/cover", "PUT /books/*/cover",
+            "GET /admin/backups/*");
+
+}
@@ -0,0 +1,26 @@
+package com.example.bookmanage.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * 冪等キーごとの登録・更新の結果の設定値
+ */
+@Data
+@ConfigurationProperties(prefix = "bookmanage.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * 保持する結果の件数の上限(全テナントの合計)
+     */
+    private long maximumSize = 10_000;
+
+    /**
+     * 結果を保持する時間(再送を同じ結果とみなす時間)
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+}
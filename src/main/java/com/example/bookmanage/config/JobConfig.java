@@ -0,0 +1,139 @@
+package com.example.bookmanage.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.health.InFlightRequestFilter;
+import com.example.bookmanage.job.JobLockManager;
+import com.example.bookmanage.job.JobScheduler;
+import com.example.bookmanage.job.MaintenanceJob;
+import com.example.bookmanage.repository.BookRepository;
+import com.example.bookmanage.repository.JobLockRepository;
+import com.example.bookmanage.service.BookManageService;
+import com.example.bookmanage.service.impl.BookCacheRebuildJob;
+import com.example.bookmanage.service.impl.BookDedupFilter;
+import com.example.bookmanage.service.impl.BookDedupReindexJob;
+import com.example.bookmanage.service.impl.BookStatisticsJob;
+import com.example.bookmanage.service.impl.TenantBookCache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 保守処理のConfiguration<br />
+ * MaintenanceJobのBean(物理削除はBookDeleteConfigで設定する)をJobSchedulerに登録し、設定した間隔で実行する
+ * ("/admin/jobs"で進捗の参照、実行・一時停止・再開ができる)。
+ * 混雑の判定には、InFlightRequestFilterが記録している処理中のリクエスト数を使用する。
+ */
+@Configuration
+@EnableConfigurationProperties(JobProperties.class)
+public class JobConfig {
+
+    /**
+     * 保守処理の設定値
+     */
+    private final JobProperties properties;
+
+    /**
+     * コンストラクタ
+     *
+     * @param properties 保守処理の設定値
+     */
+    public JobConfig(JobProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 保守処理のロックを返却する。<br />
+     * ノードはプロセス(pid@ホスト名)とコンテキストごとの乱数で識別する。
+     *
+     * @param jobLockRepository 保守処理のロックのリポジトリ
+     * @param transactionTemplate トランザクションのテンプレート
+     * @return JobLockManager
+     */
+    @Bean
+    public JobLockManager jobLockManager(JobLockRepository jobLockRepository,
+            TransactionTemplate transactionTemplate) {
+        String owner = ManagementFactory.getRuntimeMXBean()
+                                        .getName() + "/" + UUID.randomUUID()
+                                                               .toString()
+                                                               .substring(0, 8);
+        return new JobLockManager(jobLockRepository, transactionTemplate, owner, properties.getLockLease());
+    }
+
+    /**
+     * 保守処理のスケジューラを返却する。
+     *
+     * @param jobLockManager 保守処理のロック
+     * @param inFlightRequestFilter 処理中のリクエストを記録するFilter
+     * @param jobs 保守処理
+     * @param meterRegistry メトリクスのレジストリ
+     * @return JobScheduler
+     */
+    @Bean
+    public JobScheduler jobScheduler(JobLockManager jobLockManager,
+            FilterRegistrationBean<InFlightRequestFilter> inFlightRequestFilter, ObjectProvider<MaintenanceJob> jobs,
+            MeterRegistry meterRegistry) {
+        InFlightRequestFilter filter = inFlightRequestFilter.getFilter();
+        JobScheduler scheduler = new JobScheduler(jobLockManager, filter::count, properties.getMaxInFlightRequests(),
+                properties.getChunkPause(), meterRegistry);
+        jobs.orderedStream()
+            .forEach(job -> {
+                JobProperties.Schedule schedule = properties.getSchedules()
+                                                            .getOrDefault(job.getName(), new JobProperties.Schedule());
+                scheduler.register(job, schedule.isEnabled() ? schedule.getInterval() : null,
+                        schedule.getChunkSize());
+            });
+        return scheduler;
+    }
+
+    /**
+     * 書籍の重複判定キーの再索引付けを返却する。
+     *
+     * @param bookRepository 書籍のリポジトリ
+     * @param transactionTemplate トランザクションのテンプレート
+     * @param dedupFilter 書籍の重複判定キーのBloomフィルタ
+     * @param meterRegistry メトリクスのレジストリ
+     * @return BookDedupReindexJob
+     */
+    @Bean
+    public BookDedupReindexJob bookDedupReindexJob(BookRepository bookRepository,
+            TransactionTemplate transactionTemplate, BookDedupFilter dedupFilter, MeterRegistry meterRegistry) {
+        return new BookDedupReindexJob(bookRepository, transactionTemplate, dedupFilter, meterRegistry);
+    }
+
+    /**
+     * 書籍の統計情報の更新を返却する。
+     *
+     * @param bookRepository 書籍のリポジトリ
+     * @param transactionTemplate トランザクションのテンプレート
+     * @param meterRegistry メトリクスのレジストリ
+     * @return BookStatisticsJob
+     */
+    @Bean
+    public BookStatisticsJob bookStatisticsJob(BookRepository bookRepository, TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        return new BookStatisticsJob(bookRepository, transactionTemplate, meterRegistry);
+    }
+
+    /**
+     * テナントごとの書籍一覧のキャッシュの再構築を返却する。
+     *
+     * @param bookRepository 書籍のリポジトリ
+     * @param bookCache テナントごとの書籍一覧のキャッシュ
+     * @param service 書籍管理システムのサービス
+     * @return BookCacheRebuildJob
+     */
+    @Bean
+    public BookCacheRebuildJob bookCacheRebuildJob(BookRepository bookRepository, TenantBookCache bookCache,
+            BookManageService service) {
+        return new BookCacheRebuildJob(bookRepository, bookCache, service);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.example.bookmanage.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 保守処理(物理削除、再索引付け、統計情報の更新、キャッシュの再構築)の設定値
+ */
+@Data
+@ConfigurationProperties(prefix = "bookmanage.job")
+public class JobProperties {
+
+    /**
+     * チャンクの間の待ち時間(リクエストの処理にデータベースを空ける)
+     */
+    private Duration chunkPause = Duration.ofMillis(100);
+
+    /**
+     * 処理中のリクエスト数の上限(超えている場合、リクエストが減るまで次のチャンクを処理しない)
+     */
+    private int maxInFlightRequests = 4;
+
+    /**
+     * ロックの有効期間(ノードが停止した場合、過ぎた後に他のノードが実行できる)
+     */
+    private Duration lockLease = Duration.ofMinutes(5);
+
+    /**
+     * 保守処理の名前ごとの実行間隔と件数(設定の無い保守処理は、管理者用画面から実行した場合のみ実行する)
+     */
+    private Map<String, Schedule> schedules = new LinkedHashMap<>(Map.of(
+            "book-purge", new Schedule(true, Duration.ofMinutes(1), 500),
+            "book-dedup-reindex", new Schedule(false, Duration.ofDays(1), 500),
+            "book-statistics", new Schedule(true, Duration.ofHours(1), 1),
+            "book-cache-rebuild", new Schedule(false, Duration.ofDays(1), 50)));
+
+    /**
+     * 保守処理の実行間隔と件数
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Schedule {
+
+        /**
+         * 実行間隔ごとに実行するか否か(falseの場合、管理者用画面から実行した場合のみ実行する)
+         */
+        private boolean enabled = true;
+
+        /**
+         * 実行間隔(前回の開始から次回の開始まで。前回が終了していない場合は実行しない)
+         */
+        private Duration interval = Duration.ofHours(1);
+
+        /**
+         * 1チャンクで処理する件数の上限
+         */
+        private int chunkSize = 500;
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.example.bookmanage.config;
+
+import java.util.Iterator;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.bookmanage.web.MdcFilter;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * 書籍管理システムのログ出力のConfiguration<br />
+ *
+ * ログの出力先(非同期のAppender、JSON形式)はlogback-spring.xmlで設定している。ここでは以下を設定する。<br />
+ * MDCにリクエストIDを設定するFilter(Spring Securityのログにも出力するため、Spring Securityのフィルタの前に実行する。
+ * ユーザIDはSpring Securityのフィルタの中でMdcUserFilterが設定する)。<br />
+ * 非同期のAppenderが破棄したログの件数のメトリクス。
+ */
+@Configuration
+public class LoggingConfig {
+
+    /**
+     * MdcFilterをFilterに設定するためのBeanを返却する。
+     *
+     * @return MdcFilterをFilterに設定するためのBean
+     */
+    @Bean
+    public FilterRegistrationBean<MdcFilter> mdcFilter() {
+        FilterRegistrationBean<MdcFilter> filterRegBean = new FilterRegistrationBean<>(new MdcFilter());
+        filterRegBean.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return filterRegBean;
+    }
+
+    /**
+     * ルートロガーに設定されている非同期のAppenderのメトリクスを登録するBeanを返却する。
+     *
+     * @return MeterBinder
+     */
+    @Bean
+    public MeterBinder asyncAppenderMetrics() {
+        return registry -> {
+            if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+                return;
+            }
+            Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME)
+                                                                 .iteratorForAppenders();
+            while (appenders.hasNext()) {
+                if (appenders.next() instanceof DropCountingAsyncAppender appender) {
+                    appender.bindTo(registry);
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.example.bookmanage.config;
+
+import org.modelmapper.ModelMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 書籍管理システムのModelMapperのConfiguration<br />
+ * マッピング情報(TypeMap)を使い回すため、ModelMapperをシングルトンのBeanとして定義している。
+ */
+@Configuration
+public class ModelMapperConfig {
+
+    /**
+     * ModelMapperを返却する。
+     *
+     * @return ModelMapper
+     */
+    @Bean
+    public ModelMapper modelMapper() {
+        return new ModelMapper();
+    }
+
+}
@@ -0,0 +1,158 @@
+package com.example.bookmanage.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.context.support.AbstractMessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+/**
+ * 起動時にメッセージプロパティを全て読み込むMessageSource<br />
+ *
+ * 指定したベース名のプロパティファイル(ロケール別のファイルを含む)を読み込み、
+ * ロケールごとに親ロケールのメッセージをマージした変更不可能なテーブルを作成する。
+ * メッセージの取得はテーブルの参照のみで行い、ファイルの再読み込みや排他制御は行わない。
+ * Thymeleaf、Bean Validation、コントローラで共通して使用する。
+ */
+public class PreloadedMessageSource extends AbstractMessageSource {
+
+    /**
+     * プロパティファイルの拡張子
+     */
+    private static final String SUFFIX = ".properties";
+
+    /**
+     * ロケールごとのメッセージ(コード→メッセージ)
+     */
+    private final Map<Locale, Map<String, String>> messages;
+
+    /**
+     * ロケールごとのMessageFormat(コード→MessageFormat)
+     */
+    private final Map<Locale, Map<String, MessageFormat>> formats;
+
+    /**
+     * 要求されたロケールと、使用するテーブルのロケールの対応(初回の要求時に決定する)
+     */
+    private final Map<Locale, Locale> resolvedLocales = new ConcurrentHashMap<>();
+
+    /**
+     * コンストラクタ
+     *
+     * @param basenames メッセージプロパティのベース名(例："messages")
+     */
+    public PreloadedMessageSource(String... basenames) {
+        Map<Locale, Properties> loaded = load(basenames);
+        Map<Locale, Map<String, String>> messageTable = new HashMap<>();
+        Map<Locale, Map<String, MessageFormat>> formatTable = new HashMap<>();
+        for (Locale locale : loaded.keySet()) {
+            // 親ロケール(ルート→言語→言語_国)の順に上書きしてマージする
+            Map<String, String> merged = new HashMap<>();
+            for (Locale candidate : List.of(Locale.ROOT, Locale.of(locale.getLanguage()), locale)) {
+                Properties properties = loaded.get(candidate);
+                if (properties != null) {
+                    properties.stringPropertyNames()
+                              .forEach(code -> merged.put(code, properties.getProperty(code)));
+                }
+            }
+            Map<String, MessageFormat> mergedFormats = new HashMap<>();
+            merged.forEach((code, message) -> mergedFormats.put(code, createMessageFormat(message, locale)));
+            messageTable.put(locale, Map.copyOf(merged));
+            formatTable.put(locale, Map.copyOf(mergedFormats));
+        }
+        messageTable.putIfAbsent(Locale.ROOT, Map.of());
+        formatTable.putIfAbsent(Locale.ROOT, Map.of());
+        this.messages = Map.copyOf(messageTable);
+        this.formats = Map.copyOf(formatTable);
+    }
+
+    @Override
+    protected String resolveCodeWithoutArguments(String code, Locale locale) {
+        return messages.get(tableLocale(locale))
+                       .get(code);
+    }
+
+    @Override
+    protected MessageFormat resolveCode(String code, Locale locale) {
+        return formats.get(tableLocale(locale))
+                      .get(code);
+    }
+
+    /**
+     * 要求されたロケールに対して使用するテーブルのロケールを返却する。<br />
+     * 言語_国→言語→ルートの順に、存在するテーブルを探す。
+     *
+     * @param locale 要求されたロケール(nullの場合、デフォルトのロケール)
+     * @return テーブルのロケール
+     */
+    private Locale tableLocale(Locale locale) {
+        Locale requested = locale != null ? locale : Locale.getDefault();
+        if (messages.containsKey(requested)) {
+            return requested;
+        }
+        return resolvedLocales.computeIfAbsent(requested, l -> {
+            Locale language = Locale.of(l.getLanguage());
+            return messages.containsKey(language) ? language : Locale.ROOT;
+        });
+    }
+
+    /**
+     * ベース名に該当するプロパティファイルを、ロケールごとに読み込む。
+     *
+     * @param basenames ベース名
+     * @return ロケールごとのプロパティ
+     */
+    private static Map<Locale, Properties> load(String... basenames) {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Map<Locale, Properties> loaded = new HashMap<>();
+        try {
+            for (String basename : basenames) {
+                for (Resource resource : resolver.getResources("classpath*:" + basename + "*" + SUFFIX)) {
+                    Locale locale = toLocale(basename, resource.getFilename());
+                    if (locale != null) {
+                        PropertiesLoaderUtils.fillProperties(loaded.computeIfAbsent(locale, l -> new Properties()),
+                                new EncodedResource(resource, StandardCharsets.UTF_8));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return loaded;
+    }
+
+    /**
+     * ファイル名からロケールを取得する(例："messages_ja_JP.properties"→ja_JP、"messages.properties"→ルート)。
+     *
+     * @param basename ベース名
+     * @param filename ファイル名
+     * @return ロケール(ベース名に該当しないファイルの場合、null)
+     */
+    private static Locale toLocale(String basename, String filename) {
+        if (filename == null || !filename.startsWith(basename) || !filename.endsWith(SUFFIX)) {
+            return null;
+        }
+        String suffix = filename.substring(basename.length(), filename.length() - SUFFIX.length());
+        if (suffix.isEmpty()) {
+            return Locale.ROOT;
+        }
+        if (!suffix.startsWith("_")) {
+            return null;
+        }
+        String[] parts = suffix.substring(1)
+                               .split("_");
+        return parts.length == 1 ? Locale.of(parts[0]) : Locale.of(parts[0], parts[1]);
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.example.bookmanage.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.example.bookmanage.web.RateLimitInterceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 書籍管理システムのリクエスト数制限のConfiguration<br />
+ * 書籍の登録・更新・削除・削除の取り消し・表紙の画像の登録("/books", "/books/{id}", "/books/{id}/restore",
+ * "/books/{id}/cover")にRateLimitInterceptorを設定する(表紙の画像の参照(GET)は制限しない)。
+ * 制限値は、RateLimitInterceptorがハンドラのパスのパターンから決めたエンドポイントごとに設定する。
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    /**
+     * リクエスト数の制限値
+     */
+    private final RateLimitProperties properties;
+
+    /**
+     * メトリクスのレジストリ
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * コンストラクタ
+     *
+     * @param properties リクエスト数の制限値
+     * @param meterRegistry メトリクスのレジストリ
+     */
+    public RateLimitConfig(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * リクエスト数を制限するInterceptorを返却する。
+     *
+     * @return RateLimitInterceptor
+     */
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor() {
+        return new RateLimitInterceptor(properties, meterRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor())
+                .addPathPatterns("/books", "/books/*", "/books/*/restore", "/books/*/cover");
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.example.bookmanage.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 書籍の登録・更新・削除のリクエスト数の制限値<br />
+ * 認証済みのユーザごとに、エンドポイント(create, update, delete, restore, cover)単位で制限する。
+ */
+@Data
+@ConfigurationProperties(prefix = "bookmanage.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 制限を行うか否か
+     */
+    private boolean enabled = true;
+
+    /**
+     * エンドポイントごとの制限値
+     */
+    private Map<String, Limit> endpoints = new LinkedHashMap<>(Map.of(
+            "create", new Limit(10, 5),
+            "update", new Limit(20, 10),
+            "delete", new Limit(10, 5),
+            "restore", new Limit(10, 5),
+            "cover", new Limit(10, 2)));
+
+    /**
+     * 制限値
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        /**
+         * 連続して受け付けるリクエスト数(バケットの容量)
+         */
+        private int capacity;
+
+        /**
+         * 1秒あたりに回復するリクエスト数
+         */
+        private double permitsPerSecond;
+
+    }
+
+}
@@ -4,28 +4,56 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.context.annotation.Lazy;
 import org.thymeleaf.dialect.IDialect;
 import org.thymeleaf.extras.springsecurity6.dialect.SpringSecurityDialect;
+import org.thymeleaf.spring6.ISpringTemplateEngine;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 import org.thymeleaf.spring6.templateresolver.SpringResourceTemplateResolver;
 import org.thymeleaf.spring6.view.ThymeleafViewResolver;
 
 /**
  * 書籍管理システムのThymeleafのConfiguration<br />
- * thymeleaf.extras.springsecurity6をMVCコントローラで使用するために設定している。
+ * thymeleaf.extras.springsecurity6をMVCコントローラで使用するために設定している。<br />
+ * テンプレートのキャッシュはspring.thymeleaf.cache(開発時はdevtoolsがfalseにする)に従い、
+ * 起動時のウォームアップで解析したテンプレートを以降のリクエストで使い回す。<br />
+ * テンプレートエンジンと追加のダイアレクトは@Lazyとし、コンテキストの起動時ではなく最初の描画(通常は起動時のウォームアップ)で生成する。
  */
 @Configuration
 public class ThymeleafMvcConfig {
 
+    /**
+     * メッセージソース(WebMvcConfigで定義している共通のメッセージソース)
+     */
+    private final MessageSource messageSource;
+
+    /**
+     * Thymeleafの設定値
+     */
+    private final ThymeleafProperties properties;
+
+    /**
+     * コンストラクタ
+     *
+     * @param messageSource メッセージソース
+     * @param properties Thymeleafの設定値
+     */
+    public ThymeleafMvcConfig(MessageSource messageSource, ThymeleafProperties properties) {
+        this.messageSource = messageSource;
+        this.properties = properties;
+    }
+
     @Bean
+    @Lazy
     public SpringTemplateEngine templateEngine() {
         SpringTemplateEngine templateEngine = new SpringTemplateEngine();
         templateEngine.setAdditionalDialects(additionalDialects());
         templateEngine.setTemplateResolver(templateResolver());
-        templateEngine.setTemplateEngineMessageSource(messageSource());
+        templateEngine.setTemplateEngineMessageSource(messageSource);
         return templateEngine;
     }
 
@@ -35,30 +63,30 @@ public class ThymeleafMvcConfig {
         templateResolver.setPrefix("classpath:/templates/");
         templateResolver.setSuffix(".html");
         templateResolver.setTemplateMode("HTML5");
-        templateResolver.setCacheable(false);
+        templateResolver.setCacheable(properties.isCache());
         return templateResolver;
     }
 
     @Bean
+    @Lazy
     public Set<IDialect> additionalDialects() {
         return new HashSet<>(Arrays.asList(new SpringSecurityDialect()));
     }
 
+    /**
+     * ビューリゾルバを生成する。<br />
+     * テンプレートエンジンは遅延解決のプロキシで受け取り、最初の描画まで生成しない。
+     *
+     * @param templateEngine テンプレートエンジン
+     * @return ビューリゾルバ
+     */
     @Bean
-    public ThymeleafViewResolver thymeleafViewResolver() {
+    public ThymeleafViewResolver thymeleafViewResolver(@Lazy ISpringTemplateEngine templateEngine) {
         ThymeleafViewResolver resolver = new ThymeleafViewResolver();
-        resolver.setTemplateEngine(templateEngine());
+        resolver.setTemplateEngine(templateEngine);
         resolver.setCharacterEncoding("UTF-8");
         resolver.setOrder(1);
         return resolver;
     }
 
-    @Bean
-    public ResourceBundleMessageSource messageSource() {
-        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
-        messageSource.setDefaultEncoding("UTF-8");
-        messageSource.setBasename("messages");
-        return messageSource;
-    }
-
 }
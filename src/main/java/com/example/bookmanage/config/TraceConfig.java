@@ -0,0 +1,108 @@
+package com.example.bookmanage.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.bookmanage.trace.QueryGuard;
+import com.example.bookmanage.trace.TraceCollector;
+import com.example.bookmanage.trace.TraceFilter;
+import com.example.bookmanage.trace.TraceQueryListener;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * 書籍管理システムのリクエストのトレースのConfiguration<br />
+ *
+ * 以下を設定している。<br />
+ * リクエストごとにトレースを開始・終了するFilter(MdcFilterの後に実行する)。<br />
+ * 実行したSQLをトレースに記録するため、DataSourceをdatasource-proxyでラップする。<br />
+ * 終了したトレースの保存先(メモリ上、"/admin/traces"で参照する)。<br />
+ * 終了したトレースのSQLの件数・繰り返しの検査(結果は"/admin/queries"で参照する)。<br />
+ * コントローラ、サービス、リポジトリの区間はBookManageAspectで記録する。
+ */
+@Configuration
+@EnableConfigurationProperties(TraceProperties.class)
+@ConditionalOnProperty(prefix = "bookmanage.trace", name = "enabled", matchIfMissing = true)
+public class TraceConfig {
+
+    /**
+     * 終了したトレースの保存先を返却する。
+     *
+     * @param properties トレースの設定値
+     * @return TraceCollector
+     */
+    @Bean
+    public TraceCollector traceCollector(TraceProperties properties) {
+        return new TraceCollector(properties.getCapacity());
+    }
+
+    /**
+     * 終了したトレースのSQLの検査を返却する。
+     *
+     * @param properties トレースの設定値
+     * @return QueryGuard
+     */
+    @Bean
+    public QueryGuard queryGuard(TraceProperties properties) {
+        TraceProperties.QueryBudget budget = properties.getQueryBudget();
+        return new QueryGuard(budget.getDefaultLimit(), budget.getEndpoints(), budget.getRepeatThreshold());
+    }
+
+    /**
+     * TraceFilterをFilterに設定するためのBeanを返却する。
+     *
+     * @param collector 終了したトレースの保存先
+     * @param guard 終了したトレースのSQLの検査
+     * @return TraceFilterをFilterに設定するためのBean
+     */
+    @Bean
+    public FilterRegistrationBean<TraceFilter> traceFilter(TraceCollector collector, QueryGuard guard) {
+        FilterRegistrationBean<TraceFilter> filterRegBean = new FilterRegistrationBean<>(
+                new TraceFilter(collector, guard));
+        filterRegBean.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        return filterRegBean;
+    }
+
+    /**
+     * 実行したSQLをトレースに記録するリスナーを返却する。
+     *
+     * @param properties トレースの設定値
+     * @return TraceQueryListener
+     */
+    @Bean
+    public TraceQueryListener traceQueryListener(TraceProperties properties) {
+        return new TraceQueryListener(properties.getSlowQueryThreshold(), properties.isRecordParameters());
+    }
+
+    /**
+     * DataSourceをdatasource-proxyでラップするBeanPostProcessorを返却する。
+     *
+     * @param listener 実行したSQLをトレースに記録するリスナー
+     * @return BeanPostProcessor
+     */
+    @Bean
+    public static BeanPostProcessor traceDataSourcePostProcessor(ObjectProvider<TraceQueryListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                                                 .name(beanName)
+                                                 .listener(listener.getObject())
+                                                 .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.example.bookmanage.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * リクエストのトレースの設定値
+ */
+@Data
+@ConfigurationProperties(prefix = "bookmanage.trace")
+public class TraceProperties {
+
+    /**
+     * トレースを行うか否か
+     */
+    private boolean enabled = true;
+
+    /**
+     * メモリ上に保持するトレースの件数
+     */
+    private int capacity = 200;
+
+    /**
+     * SQLの処理時間の閾値(超えた場合、警告のログを出力する)
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(100);
+
+    /**
+     * SQLのパラメータを記録するか否か
+     */
+    private boolean recordParameters = true;
+
+    /**
+     * リクエストごとのSQLの件数の上限
+     */
+    private QueryBudget queryBudget = new QueryBudget();
+
+    /**
+     * リクエストごとのSQLの件数の上限
+     */
+    @Data
+    public static class QueryBudget {
+
+        /**
+         * SQLの件数の上限(ハンドラごとの上限がない場合)
+         */
+        private int defaultLimit = 10;
+
+        /**
+         * ハンドラ(コントローラのクラス名.メソッド名)ごとのSQLの件数の上限
+         */
+        private Map<String, Integer> endpoints = new LinkedHashMap<>();
+
+        /**
+         * 同じSQLの実行回数の上限(超えた場合、N+1問題の疑いとして警告のログを出力する)
+         */
+        private int repeatThreshold = 5;
+
+    }
+
+}
@@ -1,24 +1,49 @@
 package com.example.bookmanage.config;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.context.MessageSource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
 import org.springframework.validation.Validator;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.filter.HiddenHttpMethodFilter;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import com.example.bookmanage.web.FileResourceHttpMessageConverter;
+import com.example.bookmanage.web.FileResourceRegionHttpMessageConverter;
 
 /**
  * 書籍管理システムのConfiguration
  *
- * 以下を実装している。 PUT/DELETEをPOSTするためにHiddenHttpMehotdFilterをFilterとして設定する。 validationで使用するメッセージプロパティのエンコードをUTF-8に設定する。
+ * 以下を実装している。 PUT/DELETEをPOSTするためにHiddenHttpMehotdFilterをFilterとして設定する。 画面、validation、コントローラで共通して使用するメッセージソースを設定する。
+ * 静的リソース(css, js)のURLにハッシュ値を付与し、長期間キャッシュさせる。
+ * コントローラが返却するファイルは、バイト配列にコピーせずFileChannel#transferTo(sendfile)で書き込む。
  */
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    /**
+     * 静的リソースのキャッシュ期間(日)
+     */
+    private static final long STATIC_RESOURCE_CACHE_DAYS = 365;
+
+    /**
+     * 長期間キャッシュさせる静的リソースのディレクトリ
+     */
+    private static final String[] STATIC_RESOURCE_DIRECTORIES = { "css", "js" };
+
     /**
      * HiddenHttpMehotdFilterをFilterに設定するためのBeanを返却する。
      *
@@ -33,17 +58,76 @@ public class WebMvcConfig implements WebMvcConfigurer {
     }
 
     /**
-     * validationで使用するメッセージプロパティのエンコードにUTF-8を設定したLocalValidatorFactoryBeanを返却する。
+     * ThymeleafのリンクURL(@{...})の静的リソースのパスを、ハッシュ値付きのパスに変換するFilterを返却する。
+     *
+     * @return ResourceUrlEncodingFilter
+     */
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+
+    /**
+     * 静的リソース(css, js)のハンドラを設定する。<br />
+     * URLにファイル内容のハッシュ値を付与するため、内容が変わらない限り再取得させない(immutable)。
+     * ビルド時に生成したgzip, brotli圧縮版があれば、Accept-Encodingに応じて返却する。
+     *
+     * @param registry ResourceHandlerRegistry
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        CacheControl cacheControl = CacheControl.maxAge(STATIC_RESOURCE_CACHE_DAYS, TimeUnit.DAYS)
+                                                .cachePublic()
+                                                .immutable();
+        for (String directory : STATIC_RESOURCE_DIRECTORIES) {
+            registry.addResourceHandler("/" + directory + "/**")
+                    .addResourceLocations("classpath:/static/" + directory + "/")
+                    .setCacheControl(cacheControl)
+                    .resourceChain(true)
+                    .addResolver(new EncodedResourceResolver())
+                    .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+        }
+    }
+
+    /**
+     * ResourceとResourceRegionのHttpMessageConverterを、ファイルをFileChannel#transferToで書き込むものに置き換える。<br />
+     * 順序は変えないため、他の型の変換には影響しない。
+     *
+     * @param converters HttpMessageConverterのリスト
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.replaceAll(converter -> {
+            if (converter.getClass() == ResourceHttpMessageConverter.class) {
+                return new FileResourceHttpMessageConverter();
+            }
+            if (converter.getClass() == ResourceRegionHttpMessageConverter.class) {
+                return new FileResourceRegionHttpMessageConverter();
+            }
+            return converter;
+        });
+    }
+
+    /**
+     * 画面、validation、コントローラで共通して使用するメッセージソースを返却する。<br />
+     * messages.propertiesとValidationMessages.propertiesを起動時に読み込み、以降は再読み込みしない。
+     *
+     * @return メッセージソース
+     */
+    @Bean
+    public MessageSource messageSource() {
+        return new PreloadedMessageSource("messages", "ValidationMessages");
+    }
+
+    /**
+     * 共通のメッセージソースを使用するLocalValidatorFactoryBeanを返却する。
      *
      * @return LocalValidatorFactoryBean
      */
     @Override
     public Validator getValidator() {
         LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
-        ReloadableResourceBundleMessageSource messageSource = new ReloadableResourceBundleMessageSource();
-        messageSource.setBasename("classpath:ValidationMessages");
-        messageSource.setDefaultEncoding("UTF-8");
-        validator.setValidationMessageSource(messageSource);
+        validator.setValidationMessageSource(messageSource());
         return validator;
     }
 
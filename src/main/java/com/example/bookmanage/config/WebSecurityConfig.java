@@ -13,15 +13,19 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.context.SecurityContextHolderFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
+import com.example.bookmanage.web.MdcUserFilter;
+
 /**
  * 書籍管理システムのsecurityのconfiguration<br />
  * 
  * 以下を実装している。<br />
  * 認証が不要なURLと認証が必要なURLの設定。<br />
  * ログイン処理、ログアウト処理の設定。<br />
- * 認証できるユーザ情報の設定。
+ * 認証できるユーザ情報の設定(画面のウォームアップでは、ウォームアップの間だけユーザを追加する)。<br />
+ * 認証情報の読み込み後に、ユーザIDをログのMDCに設定するFilter(MdcUserFilter)の設定。
  */
 @Configuration
 @EnableWebSecurity
@@ -32,9 +36,12 @@ public class WebSecurityConfig {
   public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
     http.authorizeHttpRequests(
         (authorizeHttpRequests) -> authorizeHttpRequests.requestMatchers("/", "/login", "/error", "/css/**", "/js/**", "img/**")
+                                                        .permitAll()
+                                                        // ヘルスチェック(readiness, liveness)は認証せずにアクセス可能
+                                                        .requestMatchers("/actuator/health", "/actuator/health/**")
                                                         .permitAll()
                                                         // 認証済みでROLE_ADMIN権限を持っている場合のみ、アクセス可能
-                                                        .requestMatchers("/admin")
+                                                        .requestMatchers("/admin", "/admin/**")
                                                         .hasAuthority("ROLE_ADMIN")
                                                         // その他はアクセス権限が必要
                                                         .anyRequest()
@@ -63,12 +70,14 @@ public class WebSecurityConfig {
                                 .permitAll())
         .sessionManagement(sessionManagement -> sessionManagement
                                                                  // セッションが無効な時の遷移先
-                                                                 .invalidSessionUrl("/invalidsession"));
+                                                                 .invalidSessionUrl("/invalidsession"))
+        // 認証情報の読み込み後に、ユーザIDをログのMDCに設定する
+        .addFilterAfter(new MdcUserFilter(), SecurityContextHolderFilter.class);
     return http.build();
   }
 
   @Bean
-  public AuthenticationManager authenticationManager(PasswordEncoder passwordEncoder) {
+  public InMemoryUserDetailsManager userDetailsManager(PasswordEncoder passwordEncoder) {
     InMemoryUserDetailsManager userDetailsService = new InMemoryUserDetailsManager();
     userDetailsService.createUser(User.withUsername("user")
                                       .password(passwordEncoder.encode("user"))
@@ -78,6 +87,12 @@ public class WebSecurityConfig {
                                       .password(passwordEncoder.encode("admin"))
                                       .authorities("ROLE_ADMIN")
                                       .build());
+    return userDetailsService;
+  }
+
+  @Bean
+  public AuthenticationManager authenticationManager(InMemoryUserDetailsManager userDetailsService,
+      PasswordEncoder passwordEncoder) {
     var authenticationProvider = new DaoAuthenticationProvider();
     authenticationProvider.setUserDetailsService(userDetailsService);
     authenticationProvider.setPasswordEncoder(passwordEncoder);
@@ -1,10 +1,26 @@
 package com.example.bookmanage.domain;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.SQLRestriction;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -13,10 +29,24 @@ import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 /**
- * 書籍のエンティティ
+ * 書籍のエンティティ<br />
+ * 書籍はテナント(書棚)に属し、一覧・参照・更新・削除はログインユーザのテナントの書籍のみを対象とする。<br />
+ * 書籍一覧の並び順(タイトル、著者、更新日時)ごとに、テナントを先頭にしたインデックスを定義している。<br />
+ * 同じテナントに同じタイトルと著者の書籍を登録できないよう、正規化したタイトルと著者(重複判定キー)に一意制約を定義している。<br />
+ * 削除は論理削除(削除日時を設定)とし、削除した書籍はエンティティの検索の対象外とする(@SQLRestriction)。
+ * 削除した書籍は元に戻せる時間が過ぎた後に、BookPurgeJobで物理削除する。
+ * 削除した書籍の重複判定キーは書籍ごとに異なる値にし、同じタイトルと著者の書籍を登録できるようにする。<br />
+ * 表紙の画像はファイル名のみを保持する(書籍一覧で画像の内容を読み込まない)。
  */
 @Entity
-@Table(name = "book")
+@SQLRestriction("deleted_date_time is null")
+@Table(name = "book", uniqueConstraints = {
+        @UniqueConstraint(name = Book.DEDUP_KEY_CONSTRAINT, columnNames = { "tenant", "dedup_key" }) }, indexes = {
+        @Index(name = "idx_book_tenant_id", columnList = "tenant, id"),
+        @Index(name = "idx_book_tenant_title", columnList = "tenant, title, id"),
+        @Index(name = "idx_book_tenant_author", columnList = "tenant, author, id"),
+        @Index(name = "idx_book_tenant_updated", columnList = "tenant, updated_date_time, id"),
+        @Index(name = "idx_book_deleted", columnList = "deleted_date_time") })
 @Data
 @EqualsAndHashCode(callSuper = false)
 @AllArgsConstructor
@@ -24,6 +54,21 @@ import lombok.NoArgsConstructor;
 @Builder
 public class Book extends AbstractEntity {
 
+    /**
+     * 重複判定キーの一意制約の名前
+     */
+    public static final String DEDUP_KEY_CONSTRAINT = "uk_book_tenant_dedup_key";
+
+    /**
+     * 削除した書籍の重複判定キーの接頭辞(後ろに書籍のIDを付ける)
+     */
+    public static final String DELETED_DEDUP_KEY_PREFIX = "deleted:";
+
+    /**
+     * 連続する空白
+     */
+    private static final Pattern WHITESPACES = Pattern.compile("\\s+");
+
     /**
      * 書籍のID
      */
@@ -41,4 +86,86 @@ public class Book extends AbstractEntity {
      */
     private String author;
 
+    /**
+     * テナント(書籍を所有する書棚)
+     */
+    @Column(name = "tenant", nullable = false, updatable = false)
+    private String tenant;
+
+    /**
+     * 重複判定キー(正規化したタイトルと著者のハッシュ値)
+     */
+    @Column(name = "dedup_key", nullable = false, length = 44)
+    private String dedupKey;
+
+    /**
+     * 表紙の画像のファイル名(内容のハッシュ値と拡張子。表紙の画像が無い場合はnull)<br />
+     * 画像はBookCoverStorageに保存し、エンティティには保持しない。
+     */
+    @Column(name = "cover_name", length = 40)
+    private String coverName;
+
+    /**
+     * 削除日時(論理削除した書籍のみ設定する)
+     */
+    @Column(name = "deleted_date_time")
+    private LocalDateTime deletedDateTime;
+
+    /**
+     * 新規登録時にテナントと重複判定キーを設定する。<br />
+     * テナントが未設定の場合、作成ユーザ(AbstractEntity#prePersistで設定済み)の書棚とする。
+     */
+    @PrePersist
+    public void assignTenant() {
+        if (tenant == null) {
+            tenant = getCreatedUser();
+        }
+        assignDedupKey();
+    }
+
+    /**
+     * タイトルと著者から重複判定キーを設定する(更新時はタイトルと著者の変更、削除の取り消しに合わせて設定し直す)。
+     */
+    @PreUpdate
+    public void assignDedupKey() {
+        dedupKey = deletedDateTime == null ? dedupKeyOf(title, author) : DELETED_DEDUP_KEY_PREFIX + id;
+    }
+
+    /**
+     * タイトルと著者の重複判定キーを返却する。<br />
+     * 全角・半角(NFKC)と大文字・小文字、前後と連続する空白の違いを同じとみなす。
+     * 正規化後の文字列は長さが一定でないため、SHA-256のハッシュ値(Base64、44文字)をキーにする。
+     *
+     * @param title タイトル
+     * @param author 著者
+     * @return 重複判定キー
+     */
+    public static String dedupKeyOf(String title, String author) {
+        String normalized = normalize(title) + '\u001f' + normalize(author);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                                       .digest(normalized.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder()
+                         .encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 重複判定のために文字列を正規化する。
+     *
+     * @param value 文字列
+     * @return 正規化した文字列
+     */
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(value, Normalizer.Form.NFKC)
+                                  .toLowerCase(Locale.ROOT);
+        return WHITESPACES.matcher(folded.strip())
+                          .replaceAll(" ");
+    }
+
 }
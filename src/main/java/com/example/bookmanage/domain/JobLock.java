@@ -0,0 +1,48 @@
+package com.example.bookmanage.domain;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 保守処理のロックのエンティティ<br />
+ * 保守処理ごとに1行とし、ロックを保持しているノードと有効期限を記録する。
+ * 複数のノードで起動した場合に、同じ保守処理を1つのノードのみが実行するために使用する。
+ * ノードが停止した場合も、有効期限が過ぎれば他のノードがロックを取得できる。
+ */
+@Entity
+@Table(name = "job_lock")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class JobLock {
+
+    /**
+     * 保守処理の名前
+     */
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+
+    /**
+     * ロックを保持しているノード
+     */
+    @Column(name = "owner", length = 100)
+    private String owner;
+
+    /**
+     * ロックの有効期限
+     */
+    @Column(name = "locked_until", nullable = false)
+    private LocalDateTime lockedUntil;
+
+}
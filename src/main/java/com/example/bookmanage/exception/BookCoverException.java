@@ -0,0 +1,24 @@
+package com.example.bookmanage.exception;
+
+/**
+ * 表紙の画像が不正(形式が対象外、サイズ・画素数が上限を超えている)な場合の例外処理
+ */
+@SuppressWarnings("serial")
+public class BookCoverException extends BookManageException {
+
+    /**
+     * メッセージのフォーマット
+     */
+    private static final String MESSAGE_FORMAT = "Cover image is invalid. (id = %d, reason = %s)";
+
+    /**
+     * コンストラクタ
+     *
+     * @param id 書籍のID
+     * @param reason 不正な理由
+     */
+    public BookCoverException(long id, String reason) {
+        super(String.format(MESSAGE_FORMAT, id, reason));
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.example.bookmanage.exception;
+
+/**
+ * 同じタイトルと著者の書籍が登録済みの場合の例外処理
+ */
+@SuppressWarnings("serial")
+public class BookDuplicateException extends BookManageException {
+
+    /**
+     * メッセージのフォーマット
+     */
+    private static final String MESSAGE_FORMAT = "Book is duplicated. (title = %s, author = %s)";
+
+    /**
+     * コンストラクタ
+     *
+     * @param title タイトル
+     * @param author 著者
+     */
+    public BookDuplicateException(String title, String author) {
+        super(String.format(MESSAGE_FORMAT, title, author));
+    }
+
+}
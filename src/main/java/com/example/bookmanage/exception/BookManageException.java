@@ -0,0 +1,22 @@
+package com.example.bookmanage.exception;
+
+/**
+ * 書籍管理システムのビジネス例外の基底クラス<br />
+ *
+ * ビジネス例外は画面にエラーメッセージを表示するための想定内のエラーであり、発生箇所の調査は不要なため、
+ * スタックトレースを取得しない(生成時のスタックの走査を省略する)。
+ * また、発生した例外を使い回すことは想定していないため、抑制された例外も記録しない。
+ */
+@SuppressWarnings("serial")
+public abstract class BookManageException extends Exception {
+
+    /**
+     * コンストラクタ
+     *
+     * @param message メッセージ
+     */
+    protected BookManageException(String message) {
+        super(message, null, false, false);
+    }
+
+}
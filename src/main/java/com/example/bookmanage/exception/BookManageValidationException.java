@@ -9,15 +9,27 @@ import org.springframework.validation.FieldError;
  * 入力内容に不正があった時の例外処理
  */
 @SuppressWarnings("serial")
-public class BookManageValidationException extends Exception {
+public class BookManageValidationException extends BookManageException {
 
     /**
-     * コンストラクタ
+     * validatorの結果
+     */
+    private final transient BindingResult result;
+
+    /**
+     * コンストラクタ<br />
+     * エラーメッセージはログ出力などで参照された時に生成する。
      * 
      * @param result validatorの結果
      */
     public BookManageValidationException(BindingResult result) {
-        super(createMessage(result));
+        super(null);
+        this.result = result;
+    }
+
+    @Override
+    public String getMessage() {
+        return createMessage(result);
     }
 
     /**
@@ -4,7 +4,7 @@ package com.example.bookmanage.exception;
  * 書籍が存在しない場合の例外処理
  */
 @SuppressWarnings("serial")
-public class BookNotFoundException extends Exception {
+public class BookNotFoundException extends BookManageException {
 
     /**
      * メッセージのフォーマット
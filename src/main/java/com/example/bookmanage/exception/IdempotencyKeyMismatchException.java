@@ -0,0 +1,24 @@
+package com.example.bookmanage.exception;
+
+/**
+ * 冪等キーを内容の異なる登録・更新に使い回した場合の例外処理
+ */
+@SuppressWarnings("serial")
+public class IdempotencyKeyMismatchException extends BookManageException {
+
+    /**
+     * メッセージのフォーマット
+     */
+    private static final String MESSAGE_FORMAT = "Idempotency key is reused for a different request. (operation = %s, key = %s)";
+
+    /**
+     * コンストラクタ
+     *
+     * @param operation 処理の種類
+     * @param idempotencyKey 冪等キー
+     */
+    public IdempotencyKeyMismatchException(String operation, String idempotencyKey) {
+        super(String.format(MESSAGE_FORMAT, operation, idempotencyKey));
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.example.bookmanage.form;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 書籍管理システムのJSON形式のレスポンス<br />
+ * 書籍一覧を含まないため、エラー時に書籍一覧を取得し直さずに返却できる。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookManageResponse {
+
+    /**
+     * 書籍のID
+     */
+    private Long id;
+
+    /**
+     * バージョン
+     */
+    private Long version;
+
+    /**
+     * エラーメッセージ
+     */
+    private String errorMessage;
+
+    /**
+     * 入力項目ごとのエラーメッセージ
+     */
+    private Map<String, String> fieldErrors;
+
+}
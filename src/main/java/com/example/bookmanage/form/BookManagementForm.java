@@ -1,6 +1,7 @@
 package com.example.bookmanage.form;
 
 import java.util.List;
+import java.util.UUID;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -51,7 +52,18 @@ public class BookManagementForm {
   private List<Book> books;
 
   /**
-   * コンストラクタ
+   * 書籍の一覧に次のページがあるか否か
+   */
+  private boolean hasNext;
+
+  /**
+   * 冪等キー(フォームを表示するごとに発行し、同じフォームの再送を1回の登録・更新とみなす)
+   */
+  private String idempotencyKey;
+
+  /**
+   * コンストラクタ<br />
+   * 冪等キーを発行する。
    * 
    * @param newBook 新規登録か否か
    * @param books 書籍の一覧
@@ -59,6 +71,17 @@ public class BookManagementForm {
   public BookManagementForm(boolean newBook, List<Book> books) {
     this.newBook = newBook;
     this.books = books;
+    this.idempotencyKey = newIdempotencyKey();
+  }
+
+  /**
+   * 冪等キーを発行する。
+   *
+   * @return 冪等キー
+   */
+  public static String newIdempotencyKey() {
+    return UUID.randomUUID()
+               .toString();
   }
 
 }
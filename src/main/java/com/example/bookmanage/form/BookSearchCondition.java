@@ -0,0 +1,103 @@
+package com.example.bookmanage.form;
+
+import java.util.Set;
+
+import lombok.Data;
+
+/**
+ * 書籍一覧の並び順・絞り込み・ページの条件<br />
+ * 書籍一覧のリクエストパラメータ(sort, dir, title, author, page)から設定する。
+ * 不正な値は、getterで既定値または上限値に置き換える。
+ */
+@Data
+public class BookSearchCondition {
+
+    /**
+     * 並び順の項目(タイトル、著者、更新日時)
+     */
+    public static final Set<String> SORTS = Set.of("title", "author", "updated");
+
+    /**
+     * 既定の並び順の項目(更新日時の新しい順に表示し、登録・更新した書籍が先頭のページに表示されるようにする)
+     */
+    public static final String DEFAULT_SORT = "updated";
+
+    /**
+     * 1ページの件数
+     */
+    public static final int PAGE_SIZE = 20;
+
+    /**
+     * 並び順の項目
+     */
+    private String sort;
+
+    /**
+     * 並び順の方向(asc, desc)
+     */
+    private String dir;
+
+    /**
+     * タイトルの前方一致の条件
+     */
+    private String title;
+
+    /**
+     * 著者の前方一致の条件
+     */
+    private String author;
+
+    /**
+     * ページ(0から始まる)
+     */
+    private int page;
+
+    /**
+     * 並び順の項目を返却する。
+     *
+     * @return 並び順の項目(不正な値の場合、更新日時)
+     */
+    public String getSort() {
+        return sort != null && SORTS.contains(sort) ? sort : DEFAULT_SORT;
+    }
+
+    /**
+     * 並び順の方向を返却する。
+     *
+     * @return 並び順の方向(未指定の場合、更新日時は降順、それ以外は昇順)
+     */
+    public String getDir() {
+        if ("asc".equals(dir) || "desc".equals(dir)) {
+            return dir;
+        }
+        return DEFAULT_SORT.equals(getSort()) ? "desc" : "asc";
+    }
+
+    /**
+     * タイトルの前方一致の条件を返却する。
+     *
+     * @return タイトルの前方一致の条件(未指定の場合、空文字)
+     */
+    public String getTitle() {
+        return title == null ? "" : title.strip();
+    }
+
+    /**
+     * 著者の前方一致の条件を返却する。
+     *
+     * @return 著者の前方一致の条件(未指定の場合、空文字)
+     */
+    public String getAuthor() {
+        return author == null ? "" : author.strip();
+    }
+
+    /**
+     * ページを返却する。
+     *
+     * @return ページ(負の値の場合、0)
+     */
+    public int getPage() {
+        return Math.max(page, 0);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.example.bookmanage.health;
+
+import java.util.stream.Stream;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.repository.BookRepository;
+import com.example.bookmanage.service.impl.BookDedupFilter;
+
+/**
+ * 書籍の重複判定キーのBloomフィルタのウォームアップ<br />
+ * 登録済みの全テナントの書籍の重複判定キーをBloomフィルタに登録し、
+ * 起動後の書籍の登録・更新で重複していない場合の重複チェックのSQLを省略できるようにする。
+ * 重複判定キーは読み取り専用のトランザクションで一定件数ずつ読み込み(フェッチサイズを指定したストリーム)、全件をメモリに保持しない。
+ * ウォームアップを行わない場合も、重複は一意制約で検出する。
+ */
+public class BookDedupFilterWarmup implements WarmupTask {
+
+    /**
+     * 書籍のリポジトリ
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * 書籍の重複判定キーのBloomフィルタ
+     */
+    private final BookDedupFilter dedupFilter;
+
+    /**
+     * 読み取り専用のトランザクションのテンプレート
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * コンストラクタ
+     *
+     * @param bookRepository 書籍のリポジトリ
+     * @param dedupFilter 書籍の重複判定キーのBloomフィルタ
+     * @param transactionManager トランザクションマネージャ
+     */
+    public BookDedupFilterWarmup(BookRepository bookRepository, BookDedupFilter dedupFilter,
+            PlatformTransactionManager transactionManager) {
+        this.bookRepository = bookRepository;
+        this.dedupFilter = dedupFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public String getName() {
+        return "bookDedupFilter";
+    }
+
+    @Override
+    public void warmUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<BookRepository.DedupKey> keys = bookRepository.streamAllProjectedBy()) {
+                keys.forEach(key -> dedupFilter.put(key.getTenant(), key.getDedupKey()));
+            }
+        });
+    }
+
+}
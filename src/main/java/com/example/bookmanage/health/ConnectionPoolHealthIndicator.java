@@ -0,0 +1,54 @@
+package com.example.bookmanage.health;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * コネクションプールの状態(readiness)<br />
+ * プールが開始していない場合、全てのコネクションが使用中でコネクションを待っているスレッドがある場合はOUT_OF_SERVICEとし、
+ * 待たずにリクエストを処理できるノードにのみトラフィックを振り分ける。
+ */
+public class ConnectionPoolHealthIndicator extends AbstractHealthIndicator {
+
+    /**
+     * DataSource
+     */
+    private final DataSource dataSource;
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataSource DataSource
+     */
+    public ConnectionPoolHealthIndicator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        HikariDataSource hikari = HikariPools.hikari(dataSource);
+        if (hikari == null) {
+            builder.unknown();
+            return;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            builder.outOfService()
+                   .withDetail("reason", "pool not started");
+            return;
+        }
+        int active = pool.getActiveConnections();
+        int pending = pool.getThreadsAwaitingConnection();
+        boolean saturated = active >= hikari.getMaximumPoolSize() && pending > 0;
+        (saturated ? builder.outOfService() : builder.up()).withDetail("active", active)
+                                                          .withDetail("idle", pool.getIdleConnections())
+                                                          .withDetail("pending", pending)
+                                                          .withDetail("max", hikari.getMaximumPoolSize());
+    }
+
+}
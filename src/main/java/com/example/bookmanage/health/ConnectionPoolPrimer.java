@@ -0,0 +1,61 @@
+package com.example.bookmanage.health;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * コネクションプールのウォームアップ<br />
+ * 最小のコネクション数(minimumIdle)のコネクションを同時に取得・検証し、最初のリクエストがコネクションの生成を待たないようにする。
+ */
+public class ConnectionPoolPrimer implements WarmupTask {
+
+    /**
+     * コネクションの検証のタイムアウト(秒)
+     */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    /**
+     * DataSource
+     */
+    private final DataSource dataSource;
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataSource DataSource
+     */
+    public ConnectionPoolPrimer(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public String getName() {
+        return "connectionPool";
+    }
+
+    @Override
+    public void warmUp() throws Exception {
+        HikariDataSource hikari = HikariPools.hikari(dataSource);
+        int size = hikari == null ? 1 : Math.min(Math.max(hikari.getMinimumIdle(), 1), hikari.getMaximumPoolSize());
+        List<Connection> connections = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new IllegalStateException("invalid connection");
+                }
+            }
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.example.bookmanage.health;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * DataSource(datasource-proxyでラップされている)からHikariCPのコネクションプールを取得する。
+ */
+final class HikariPools {
+
+    /**
+     * インスタンスを生成しない。
+     */
+    private HikariPools() {
+    }
+
+    /**
+     * HikariDataSourceを返却する。
+     *
+     * @param dataSource DataSource
+     * @return HikariDataSource(HikariCPでない場合、null)
+     */
+    static HikariDataSource hikari(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+}
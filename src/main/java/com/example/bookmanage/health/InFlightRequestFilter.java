@@ -0,0 +1,126 @@
+package com.example.bookmanage.health;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * 処理中のリクエストを記録するFilter<br />
+ * 処理時間が長いリクエスト(スレッドが停止している疑い)をStuckRequestHealthIndicatorで検知するために使用する。
+ * 処理時間がファイルのサイズと通信速度で決まるリクエスト(表紙の画像のアップロード、バックアップのダウンロードなど)は、
+ * 長時間の処理とみなすパターンに指定し、停止の検知の対象外とする(処理中のリクエスト数には含める)。
+ */
+public class InFlightRequestFilter extends OncePerRequestFilter {
+
+    /**
+     * パスのパターンの照合
+     */
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    /**
+     * 処理中のリクエスト(キーはリクエストを処理しているスレッド)
+     */
+    private final Map<Thread, InFlightRequest> requests = new ConcurrentHashMap<>();
+
+    /**
+     * 長時間の処理とみなすリクエストのパターン("HTTPメソッド パスのパターン")
+     */
+    private final List<String> longRunningPatterns;
+
+    /**
+     * コンストラクタ(全てのリクエストを停止の検知の対象とする)
+     */
+    public InFlightRequestFilter() {
+        this(List.of());
+    }
+
+    /**
+     * コンストラクタ
+     *
+     * @param longRunningPatterns 長時間の処理とみなすリクエストのパターン("PUT /books/*&#47;cover"の形式)
+     */
+    public InFlightRequestFilter(List<String> longRunningPatterns) {
+        this.longRunningPatterns = List.copyOf(longRunningPatterns);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Thread thread = Thread.currentThread();
+        String path = request.getRequestURI()
+                             .substring(request.getContextPath()
+                                               .length());
+        requests.put(thread, new InFlightRequest(thread.getName(), request.getMethod() + " " + request.getRequestURI(),
+                System.nanoTime(), isLongRunning(request.getMethod(), path)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            requests.remove(thread);
+        }
+    }
+
+    /**
+     * 長時間の処理とみなすリクエストか否かを判定する。
+     *
+     * @param method HTTPメソッド
+     * @param path パス(コンテキストパスを除く)
+     * @return 長時間の処理とみなす場合、true
+     */
+    private boolean isLongRunning(String method, String path) {
+        for (String pattern : longRunningPatterns) {
+            int separator = pattern.indexOf(' ');
+            if (pattern.substring(0, separator)
+                       .equalsIgnoreCase(method)
+                    && PATH_MATCHER.match(pattern.substring(separator + 1), path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 指定した時間より前に開始した、処理中のリクエストを返却する(長時間の処理とみなすリクエストを除く)。
+     *
+     * @param startedBefore 開始時刻の上限(System#nanoTime)
+     * @return 処理中のリクエスト(開始時刻の昇順)
+     */
+    public List<InFlightRequest> startedBefore(long startedBefore) {
+        return requests.values()
+                       .stream()
+                       .filter(request -> !request.longRunning())
+                       .filter(request -> request.startNanos() - startedBefore <= 0)
+                       .sorted((a, b) -> Long.compare(a.startNanos(), b.startNanos()))
+                       .toList();
+    }
+
+    /**
+     * 処理中のリクエスト数を返却する(混雑している場合に、バックグラウンドの処理を延期するために使用する)。
+     *
+     * @return 処理中のリクエスト数
+     */
+    public int count() {
+        return requests.size();
+    }
+
+    /**
+     * 処理中のリクエスト
+     *
+     * @param thread スレッド名
+     * @param request HTTPメソッドとURI
+     * @param startNanos 開始時刻(System#nanoTime)
+     * @param longRunning 長時間の処理とみなすリクエストか否か
+     */
+    public record InFlightRequest(String thread, String request, long startNanos, boolean longRunning) {
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.example.bookmanage.health;
+
+import org.modelmapper.ModelMapper;
+
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.form.BookManagementForm;
+
+/**
+ * ModelMapperのウォームアップ<br />
+ * BookManageServiceImplと同じマッピング(エンティティ→フォーム情報、フォーム情報→エンティティ)を行い、
+ * 最初のリクエストでクラスの解析(TypeMapの生成)が行われないようにする。
+ */
+public class ModelMapperWarmup implements WarmupTask {
+
+    /**
+     * エンティティとフォーム情報のマッパー
+     */
+    private final ModelMapper modelMapper;
+
+    /**
+     * コンストラクタ
+     *
+     * @param modelMapper エンティティとフォーム情報のマッパー
+     */
+    public ModelMapperWarmup(ModelMapper modelMapper) {
+        this.modelMapper = modelMapper;
+    }
+
+    @Override
+    public String getName() {
+        return "modelMapper";
+    }
+
+    @Override
+    public void warmUp() {
+        Book book = Book.builder()
+                        .id(1L)
+                        .title("title")
+                        .author("author")
+                        .build();
+        BookManagementForm form = new BookManagementForm();
+        modelMapper.map(book, form);
+        modelMapper.map(form, new Book());
+        modelMapper.map(form, Book.class);
+    }
+
+}
@@ -0,0 +1,340 @@
+package com.example.bookmanage.health;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.UserDetailsManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 画面のウォームアップ<br />
+ *
+ * 起動したWebサーバに自身からリクエストを送信し、Filter、Spring Security、コントローラ、サービス、リポジトリ、
+ * Thymeleaf(テンプレートの解析・キャッシュ、式の評価)の処理を実際のリクエストと同じ経路で実行する。
+ * ログイン画面は認証せずに表示し、書籍一覧・書籍の参照(画面全体と、Ajaxで取得する部品)と管理者用画面は、
+ * ウォームアップ用のユーザでログインして表示する。
+ * 同じリクエストを繰り返し送信し、JITコンパイルを促す。<br />
+ * 書籍の参照と書籍一覧の行を表示するため、ウォームアップ用のテナントに書籍を1件だけAjaxで登録し、終了後に削除する
+ * (論理削除した書籍は、削除を取り消せる時間の経過後に物理削除の保守処理で削除される)。
+ * 実在のユーザの書籍は参照・更新しない。<br />
+ * ウォームアップ用のユーザは実在のユーザの認証情報を使わず、ウォームアップの間だけ管理者として登録する
+ * (パスワードは毎回乱数で生成し、設定ファイルやログには出力しない。終了後に削除する)。
+ * テナントはユーザ名となるため、実在のユーザの書籍一覧のキャッシュ等には影響しない。
+ */
+@Slf4j
+public class PageWarmup implements WarmupTask {
+
+    /**
+     * CSRFトークンを取得するための正規表現
+     */
+    private static final Pattern CSRF_PATTERN = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    /**
+     * 書籍一覧の先頭の書籍のIDを取得するための正規表現
+     */
+    private static final Pattern BOOK_ID_PATTERN = Pattern.compile("data-book-id=\"(\\d+)\"");
+
+    /**
+     * リクエストのタイムアウト
+     */
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * ウォームアップ用のユーザのパスワードのバイト数
+     */
+    private static final int PASSWORD_BYTES = 32;
+
+    /**
+     * ウォームアップ用のテナントに登録する書籍のタイトルと著者
+     */
+    private static final String BOOK_NAME = "warm-up";
+
+    /**
+     * Webサーバのポート番号(Webサーバが起動していない場合、-1)
+     */
+    private final IntSupplier port;
+
+    /**
+     * コンテキストパス
+     */
+    private final String contextPath;
+
+    /**
+     * 繰り返し回数
+     */
+    private final int iterations;
+
+    /**
+     * ウォームアップ用のユーザ名(nullの場合、ログインが必要な画面はウォームアップしない)
+     */
+    private final String username;
+
+    /**
+     * 表示する管理者用画面のパス(管理者用画面のトップは常に表示する)
+     */
+    private final List<String> adminPages;
+
+    /**
+     * ウォームアップ用のユーザを登録・削除するUserDetailsManager
+     */
+    private final UserDetailsManager userDetailsManager;
+
+    /**
+     * ウォームアップ用のユーザのパスワードのエンコーダ
+     */
+    private final PasswordEncoder passwordEncoder;
+
+    /**
+     * コンストラクタ
+     *
+     * @param port Webサーバのポート番号
+     * @param contextPath コンテキストパス
+     * @param iterations 繰り返し回数
+     * @param username ウォームアップ用のユーザ名(実在のユーザと重複しないこと)
+     * @param adminPages 表示する管理者用画面のパス
+     * @param userDetailsManager ウォームアップ用のユーザを登録・削除するUserDetailsManager
+     * @param passwordEncoder ウォームアップ用のユーザのパスワードのエンコーダ
+     */
+    public PageWarmup(IntSupplier port, String contextPath, int iterations, String username, List<String> adminPages,
+            UserDetailsManager userDetailsManager, PasswordEncoder passwordEncoder) {
+        this.port = port;
+        this.contextPath = contextPath;
+        this.iterations = iterations;
+        this.username = username;
+        this.adminPages = adminPages;
+        this.userDetailsManager = userDetailsManager;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public String getName() {
+        return "pages";
+    }
+
+    @Override
+    public void warmUp() throws IOException, InterruptedException {
+        int serverPort = port.getAsInt();
+        if (serverPort <= 0) {
+            log.info("warm-up pages skipped: web server is not running");
+            return;
+        }
+        String baseUrl = "http://localhost:" + serverPort + contextPath;
+        HttpClient client = HttpClient.newBuilder()
+                                      .cookieHandler(new CookieManager())
+                                      .connectTimeout(TIMEOUT)
+                                      .build();
+
+        String loginPage = "";
+        for (int i = 0; i < iterations; i++) {
+            loginPage = get(client, baseUrl + "/login", false);
+        }
+        if (username == null || username.isEmpty()) {
+            return;
+        }
+        if (userDetailsManager.userExists(username)) {
+            log.warn("warm-up login skipped: user already exists: user={}", username);
+            return;
+        }
+        String password = newPassword();
+        userDetailsManager.createUser(User.withUsername(username)
+                                          .password(passwordEncoder.encode(password))
+                                          .authorities("ROLE_ADMIN")
+                                          .build());
+        try {
+            if (!login(client, baseUrl, loginPage, password)) {
+                return;
+            }
+            String createdBookId = createBook(client, baseUrl);
+            try {
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    String books = get(client, baseUrl + "/books", false);
+                    get(client, baseUrl + "/books", true);
+                    Matcher bookId = BOOK_ID_PATTERN.matcher(books);
+                    if (bookId.find()) {
+                        get(client, baseUrl + "/books/" + bookId.group(1), false);
+                        get(client, baseUrl + "/books/" + bookId.group(1), true);
+                    }
+                    get(client, baseUrl + "/admin", false);
+                    get(client, baseUrl + "/admin?part=list", true);
+                    for (String adminPage : adminPages) {
+                        get(client, baseUrl + adminPage, false);
+                    }
+                    if (i == 0 || i == iterations - 1) {
+                        // 1回目と最後の処理時間を比較できるように出力する
+                        log.info("warm-up pages iteration {} : {} ms", i + 1,
+                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    }
+                }
+            } finally {
+                if (createdBookId != null) {
+                    deleteBook(client, baseUrl, createdBookId);
+                }
+            }
+            get(client, baseUrl + "/logout", false);
+        } finally {
+            // ウォームアップ後はログインできないようにする
+            userDetailsManager.deleteUser(username);
+        }
+    }
+
+    /**
+     * ウォームアップ用のテナントに書籍をAjaxで登録する。
+     *
+     * @param client HttpClient
+     * @param baseUrl WebサーバのURL
+     * @return 登録した書籍のID(登録できなかった場合、null)
+     * @throws IOException リクエストに失敗した場合
+     * @throws InterruptedException リクエストの待機中に割り込まれた場合
+     */
+    private String createBook(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        Matcher csrf = CSRF_PATTERN.matcher(get(client, baseUrl + "/books", false));
+        if (!csrf.find()) {
+            log.warn("warm-up book skipped: csrf token not found");
+            return null;
+        }
+        String body = "title=" + encode(BOOK_NAME) + "&author=" + encode(BOOK_NAME) + "&newBook=true"
+                + "&idempotencyKey=" + encode(newPassword()) + "&_csrf=" + encode(csrf.group(1));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/books"))
+                                                               .timeout(TIMEOUT)
+                                                               .header("X-Requested-With", "XMLHttpRequest")
+                                                               .header("Content-Type",
+                                                                       "application/x-www-form-urlencoded")
+                                                               .POST(HttpRequest.BodyPublishers.ofString(body))
+                                                               .build(),
+                HttpResponse.BodyHandlers.ofString());
+        Matcher bookId = BOOK_ID_PATTERN.matcher(response.body());
+        if (response.statusCode() != 201 || !bookId.find()) {
+            log.warn("warm-up book not created: status={}", response.statusCode());
+            return null;
+        }
+        return bookId.group(1);
+    }
+
+    /**
+     * ウォームアップ用のテナントに登録した書籍をAjaxで削除する。
+     *
+     * @param client HttpClient
+     * @param baseUrl WebサーバのURL
+     * @param bookId 書籍のID
+     * @throws IOException リクエストに失敗した場合
+     * @throws InterruptedException リクエストの待機中に割り込まれた場合
+     */
+    private void deleteBook(HttpClient client, String baseUrl, String bookId)
+            throws IOException, InterruptedException {
+        Matcher csrf = CSRF_PATTERN.matcher(get(client, baseUrl + "/books", false));
+        if (!csrf.find()) {
+            log.warn("warm-up book not deleted: csrf token not found: id={}", bookId);
+            return;
+        }
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/books/" + bookId))
+                                                             .timeout(TIMEOUT)
+                                                             .header("X-Requested-With", "XMLHttpRequest")
+                                                             .header("X-CSRF-TOKEN", csrf.group(1))
+                                                             .DELETE()
+                                                             .build(),
+                HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 204) {
+            log.warn("warm-up book not deleted: id={}, status={}", bookId, response.statusCode());
+        }
+    }
+
+    /**
+     * ログインする。
+     *
+     * @param client HttpClient
+     * @param baseUrl WebサーバのURL
+     * @param loginPage ログイン画面
+     * @param password ウォームアップ用のユーザのパスワード
+     * @return ログインに成功した場合、true
+     * @throws IOException リクエストに失敗した場合
+     * @throws InterruptedException リクエストの待機中に割り込まれた場合
+     */
+    private boolean login(HttpClient client, String baseUrl, String loginPage, String password)
+            throws IOException, InterruptedException {
+        Matcher csrf = CSRF_PATTERN.matcher(loginPage);
+        if (!csrf.find()) {
+            log.warn("warm-up login skipped: csrf token not found");
+            return false;
+        }
+        String body = "username=" + encode(username) + "&password=" + encode(password) + "&_csrf="
+                + encode(csrf.group(1));
+        HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/authenticate"))
+                                                             .timeout(TIMEOUT)
+                                                             .header("Content-Type",
+                                                                     "application/x-www-form-urlencoded")
+                                                             .POST(HttpRequest.BodyPublishers.ofString(body))
+                                                             .build(),
+                HttpResponse.BodyHandlers.discarding());
+        boolean success = response.headers()
+                                  .firstValue("Location")
+                                  .filter(location -> location.endsWith("/loginsuccess"))
+                                  .isPresent();
+        if (!success) {
+            log.warn("warm-up login failed: user={}", username);
+        }
+        return success;
+    }
+
+    /**
+     * ウォームアップ用のユーザのパスワード(登録の冪等キーにも使用する)を乱数で生成する。
+     *
+     * @return パスワード
+     */
+    private static String newPassword() {
+        byte[] bytes = new byte[PASSWORD_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(bytes);
+    }
+
+    /**
+     * GETリクエストを送信する。
+     *
+     * @param client HttpClient
+     * @param url URL
+     * @param xhr Ajaxのリクエスト(部品を取得する)か否か
+     * @return レスポンスのボディ
+     * @throws IOException リクエストに失敗した場合
+     * @throws InterruptedException リクエストの待機中に割り込まれた場合
+     */
+    private static String get(HttpClient client, String url, boolean xhr) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                                                 .timeout(TIMEOUT)
+                                                 .GET();
+        if (xhr) {
+            request.header("X-Requested-With", "XMLHttpRequest");
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString())
+                     .body();
+    }
+
+    /**
+     * フォームのパラメータをURLエンコードする。
+     *
+     * @param value 値
+     * @return URLエンコードした値
+     */
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+}
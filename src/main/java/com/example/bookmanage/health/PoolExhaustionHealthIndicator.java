@@ -0,0 +1,81 @@
+package com.example.bookmanage.health;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/**
+ * コネクションプールの枯渇(liveness)<br />
+ * 全てのコネクションが使用中でコネクションを待っているスレッドがある状態が、指定した時間続いた場合にDOWNとする。
+ * 一時的な枯渇で再起動しないよう、readiness(ConnectionPoolHealthIndicator)より長い時間で判定する。
+ */
+public class PoolExhaustionHealthIndicator extends AbstractHealthIndicator {
+
+    /**
+     * DataSource
+     */
+    private final DataSource dataSource;
+
+    /**
+     * DOWNとする枯渇の継続時間(ナノ秒)
+     */
+    private final long timeoutNanos;
+
+    /**
+     * 枯渇を検知した時刻(System#nanoTime、枯渇していない場合はnull)
+     */
+    private volatile Long exhaustedSince;
+
+    /**
+     * コンストラクタ
+     *
+     * @param dataSource DataSource
+     * @param timeout DOWNとする枯渇の継続時間
+     */
+    public PoolExhaustionHealthIndicator(DataSource dataSource, Duration timeout) {
+        this.dataSource = dataSource;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        HikariDataSource hikari = HikariPools.hikari(dataSource);
+        HikariPoolMXBean pool = hikari == null ? null : hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            builder.up();
+            return;
+        }
+        check(builder, pool.getActiveConnections() >= hikari.getMaximumPoolSize()
+                && pool.getThreadsAwaitingConnection() > 0, System.nanoTime());
+    }
+
+    /**
+     * 枯渇の継続時間を判定する。
+     *
+     * @param builder ヘルスチェックの結果
+     * @param exhausted 枯渇しているか否か
+     * @param now 現在時刻(System#nanoTime)
+     */
+    void check(Health.Builder builder, boolean exhausted, long now) {
+        if (!exhausted) {
+            exhaustedSince = null;
+            builder.up();
+            return;
+        }
+        Long since = exhaustedSince;
+        if (since == null) {
+            since = now;
+            exhaustedSince = since;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(now - since);
+        (now - since >= timeoutNanos ? builder.down() : builder.up()).withDetail("exhaustedMillis", millis);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.example.bookmanage.health;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+
+/**
+ * 停止しているリクエストのスレッド(liveness)<br />
+ * 指定した時間を超えて処理中のリクエストを、スレッドが停止(デッドロック、応答のない外部呼び出しなど)しているとみなす。
+ * 1件の遅いリクエストで再起動させないよう、停止しているリクエストが指定した件数以上の場合のみDOWNとする
+ * (件数未満の場合はUPのまま、詳細に件数とリクエストを出力する)。
+ */
+public class StuckRequestHealthIndicator extends AbstractHealthIndicator {
+
+    /**
+     * 詳細に出力するリクエストの件数
+     */
+    private static final int MAX_DETAILS = 5;
+
+    /**
+     * 処理中のリクエスト
+     */
+    private final InFlightRequestFilter inFlightRequests;
+
+    /**
+     * 停止しているとみなす処理時間(ナノ秒)
+     */
+    private final long timeoutNanos;
+
+    /**
+     * DOWNとする停止しているリクエストの件数
+     */
+    private final int threshold;
+
+    /**
+     * コンストラクタ
+     *
+     * @param inFlightRequests 処理中のリクエスト
+     * @param timeout 停止しているとみなす処理時間
+     * @param threshold DOWNとする停止しているリクエストの件数
+     */
+    public StuckRequestHealthIndicator(InFlightRequestFilter inFlightRequests, Duration timeout, int threshold) {
+        this.inFlightRequests = inFlightRequests;
+        this.timeoutNanos = timeout.toNanos();
+        this.threshold = Math.max(1, threshold);
+    }
+
+    @Override
+    protected void doHealthCheck(Health.Builder builder) {
+        long now = System.nanoTime();
+        List<InFlightRequestFilter.InFlightRequest> stuck = inFlightRequests.startedBefore(now - timeoutNanos);
+        if (stuck.isEmpty()) {
+            builder.up();
+            return;
+        }
+        if (stuck.size() >= threshold) {
+            builder.down();
+        } else {
+            builder.up();
+        }
+        builder.withDetail("count", stuck.size())
+               .withDetail("threshold", threshold)
+               .withDetail("requests", stuck.stream()
+                                            .limit(MAX_DETAILS)
+                                            .map(request -> Map.of("thread", request.thread(), "request",
+                                                    request.request(), "millis",
+                                                    TimeUnit.NANOSECONDS.toMillis(now - request.startNanos())))
+                                            .toList());
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.example.bookmanage.health;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * 起動時のウォームアップの状態(readiness)<br />
+ * ウォームアップが終了するまでOUT_OF_SERVICEとする。失敗したウォームアップがあってもリクエストは処理できるため、終了後はUPとする。
+ */
+public class WarmupHealthIndicator extends AbstractHealthIndicator {
+
+    /**
+     * ウォームアップごとの処理時間(ミリ秒)、または失敗した理由
+     */
+    private final Map<String, Object> results = new LinkedHashMap<>();
+
+    /**
+     * ウォームアップが終了したか否か
+     */
+    private volatile boolean completed;
+
+    /**
+     * ウォームアップの結果を記録する。
+     *
+     * @param name ウォームアップの名前
+     * @param result 処理時間(ミリ秒)、または失敗した理由
+     */
+    synchronized void record(String name, Object result) {
+        results.put(name, result);
+    }
+
+    /**
+     * ウォームアップが終了したことを記録する。
+     */
+    void complete() {
+        completed = true;
+    }
+
+    /**
+     * ウォームアップが終了したか否かを返却する。
+     *
+     * @return 終了した場合、true
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    @Override
+    protected synchronized void doHealthCheck(Health.Builder builder) {
+        builder.status(completed ? Status.UP : Status.OUT_OF_SERVICE)
+               .withDetails(results);
+    }
+
+}
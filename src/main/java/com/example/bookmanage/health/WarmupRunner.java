@@ -0,0 +1,62 @@
+package com.example.bookmanage.health;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 起動時のウォームアップを実行するApplicationRunner<br />
+ *
+ * コンテキストのリフレッシュ後(Webサーバの起動後)に実行する。
+ * Spring BootはApplicationRunnerが終了するまでreadinessをACCEPTING_TRAFFICにしないため、
+ * ウォームアップが終了するまでトラフィックは振り分けられない。処理時間はウォームアップごとにログに出力する。
+ */
+@Slf4j
+public class WarmupRunner implements ApplicationRunner {
+
+    /**
+     * ウォームアップの処理(実行順)
+     */
+    private final List<WarmupTask> tasks;
+
+    /**
+     * ウォームアップの状態
+     */
+    private final WarmupHealthIndicator indicator;
+
+    /**
+     * コンストラクタ
+     *
+     * @param tasks ウォームアップの処理
+     * @param indicator ウォームアップの状態
+     */
+    public WarmupRunner(List<WarmupTask> tasks, WarmupHealthIndicator indicator) {
+        this.tasks = List.copyOf(tasks);
+        this.indicator = indicator;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        for (WarmupTask task : tasks) {
+            long taskStart = System.nanoTime();
+            try {
+                task.warmUp();
+                long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - taskStart);
+                indicator.record(task.getName(), millis);
+                log.info("warm-up {} : {} ms", task.getName(), millis);
+            } catch (Exception e) {
+                // ウォームアップに失敗しても、リクエストは処理できるため起動は続ける
+                indicator.record(task.getName(), "failed: " + e);
+                log.warn("warm-up {} failed", task.getName(), e);
+            }
+        }
+        indicator.complete();
+        log.info("warm-up completed : {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.example.bookmanage.health;
+
+/**
+ * 起動時のウォームアップの処理<br />
+ * WarmupRunnerがBeanの登録順に実行し、全て終了するまでreadinessをOUT_OF_SERVICEにする。
+ */
+public interface WarmupTask {
+
+    /**
+     * ウォームアップの名前(ログとヘルスチェックの詳細に出力する)を返却する。
+     *
+     * @return 名前
+     */
+    String getName();
+
+    /**
+     * ウォームアップを行う。
+     *
+     * @throws Exception ウォームアップに失敗した場合
+     */
+    void warmUp() throws Exception;
+
+}
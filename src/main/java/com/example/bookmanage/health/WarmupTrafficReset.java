@@ -0,0 +1,61 @@
+package com.example.bookmanage.health;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.example.bookmanage.trace.TraceCollector;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * ウォームアップのリクエストの記録の破棄<br />
+ *
+ * 画面のウォームアップ(自身へのリクエスト)の後に実行し、リクエストの処理時間のメトリクス(http.server.requests)と
+ * トレースを破棄する。管理者用画面(性能、トレース、SQL)には、実際のリクエストのみを表示する。
+ * ウォームアップが終了するまでreadinessはOUT_OF_SERVICEのため、実際のリクエストの記録は破棄しない。
+ * メトリクスは破棄後の最初のリクエストで登録し直される。
+ */
+public class WarmupTrafficReset implements WarmupTask {
+
+    /**
+     * リクエストの処理時間のメトリクス名
+     */
+    private static final String HTTP_SERVER_REQUESTS = "http.server.requests";
+
+    /**
+     * メトリクスのレジストリ
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 終了したトレースの保存先(トレースを無効にした場合は存在しない)
+     */
+    private final ObjectProvider<TraceCollector> traceCollector;
+
+    /**
+     * コンストラクタ
+     *
+     * @param meterRegistry メトリクスのレジストリ
+     * @param traceCollector 終了したトレースの保存先
+     */
+    public WarmupTrafficReset(MeterRegistry meterRegistry, ObjectProvider<TraceCollector> traceCollector) {
+        this.meterRegistry = meterRegistry;
+        this.traceCollector = traceCollector;
+    }
+
+    @Override
+    public String getName() {
+        return "trafficReset";
+    }
+
+    @Override
+    public void warmUp() {
+        List<Meter> meters = List.copyOf(meterRegistry.find(HTTP_SERVER_REQUESTS)
+                                                      .meters());
+        meters.forEach(meterRegistry::remove);
+        traceCollector.ifAvailable(TraceCollector::clear);
+    }
+
+}
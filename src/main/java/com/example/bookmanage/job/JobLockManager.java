@@ -0,0 +1,112 @@
+package com.example.bookmanage.job;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.domain.JobLock;
+import com.example.bookmanage.repository.JobLockRepository;
+
+/**
+ * 保守処理のロック(データベースのjob_lockテーブル)<br />
+ * 有効期限付きのロックとし、実行中はチャンクごとに有効期限を延長する。
+ * ノードが停止して解放されなかったロックは、有効期限が過ぎた後に他のノードが取得する。
+ */
+public class JobLockManager {
+
+    /**
+     * 作成したロックの有効期限(解放した状態)
+     */
+    private static final LocalDateTime UNLOCKED = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    /**
+     * 保守処理のロックのリポジトリ
+     */
+    private final JobLockRepository repository;
+
+    /**
+     * トランザクションのテンプレート
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 自身のノード
+     */
+    private final String owner;
+
+    /**
+     * ロックの有効期間
+     */
+    private final Duration lease;
+
+    /**
+     * コンストラクタ
+     *
+     * @param repository 保守処理のロックのリポジトリ
+     * @param transactionTemplate トランザクションのテンプレート
+     * @param owner 自身のノード
+     * @param lease ロックの有効期間
+     */
+    public JobLockManager(JobLockRepository repository, TransactionTemplate transactionTemplate, String owner,
+            Duration lease) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.owner = owner;
+        this.lease = lease;
+    }
+
+    /**
+     * 自身のノードを返却する。
+     *
+     * @return ノード
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * ロックを取得する。取得済みの場合は、有効期限を延長する。
+     *
+     * @param name 保守処理の名前
+     * @return 取得できた場合、true(他のノードが保持している場合、false)
+     */
+    public boolean tryLock(String name) {
+        createIfAbsent(name);
+        LocalDateTime now = LocalDateTime.now();
+        Integer count = transactionTemplate.execute(
+                status -> repository.acquire(name, owner, now, now.plus(lease)));
+        return count != null && count > 0;
+    }
+
+    /**
+     * 自身が保持しているロックを解放する。
+     *
+     * @param name 保守処理の名前
+     */
+    public void unlock(String name) {
+        transactionTemplate.executeWithoutResult(status -> repository.release(name, owner, LocalDateTime.now()));
+    }
+
+    /**
+     * 保守処理のロックの行が無い場合は、解放した状態で作成する。<br />
+     * 他のノードが同時に作成した場合(主キーの重複)は、作成済みとみなす。
+     *
+     * @param name 保守処理の名前
+     */
+    private void createIfAbsent(String name) {
+        if (repository.existsById(name)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> repository.saveAndFlush(JobLock.builder()
+                                                                                              .name(name)
+                                                                                              .lockedUntil(UNLOCKED)
+                                                                                              .build()));
+        } catch (DataIntegrityViolationException e) {
+            // 他のノードが作成済み
+        }
+    }
+
+}
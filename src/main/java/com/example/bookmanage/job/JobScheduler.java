@@ -0,0 +1,439 @@
+package com.example.bookmanage.job;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import org.springframework.context.SmartLifecycle;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 保守処理(MaintenanceJob)のスケジューラ<br />
+ *
+ * 登録した保守処理を実行間隔ごとに仮想スレッドで実行する(リクエストのスレッドプールは使用しない)。
+ * 保守処理はチャンクごとに実行し、チャンクの間で以下を行う。<br />
+ * 一時停止：管理者用画面で一時停止した場合、再開するまで次のチャンクを処理しない。<br />
+ * 混雑時の待機：処理中のリクエストが上限を超えている場合、リクエストが減るまで次のチャンクを処理しない。<br />
+ * 待機：次のチャンクの前に一定時間待機し、データベースをリクエストと取り合わないようにする。<br />
+ * 実行中はデータベースのロック(JobLockManager)を保持し、複数のノードで同じ保守処理を実行しないようにする。
+ * 実行時間・処理件数・混雑時の待機の回数は、bookmanage.job.duration, bookmanage.job.items,
+ * bookmanage.job.throttledで参照できる(タグjobに保守処理の名前を設定する)。
+ */
+@Slf4j
+public class JobScheduler implements SmartLifecycle {
+
+    /**
+     * メトリクス名の接頭辞
+     */
+    private static final String METRIC_PREFIX = "bookmanage.job.";
+
+    /**
+     * 一時停止・混雑時に、状態を確認し直す間隔
+     */
+    private static final Duration WAIT_INTERVAL = Duration.ofMillis(100);
+
+    /**
+     * 停止時に、実行中の保守処理の終了を待つ時間
+     */
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * 保守処理のロック
+     */
+    private final JobLockManager lockManager;
+
+    /**
+     * 処理中のリクエスト数
+     */
+    private final IntSupplier inFlightRequests;
+
+    /**
+     * 処理中のリクエスト数の上限(超えている場合、次のチャンクを処理しない)
+     */
+    private final int maxInFlightRequests;
+
+    /**
+     * チャンクの間の待ち時間
+     */
+    private final Duration chunkPause;
+
+    /**
+     * メトリクスのレジストリ
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 名前ごとの登録した保守処理(登録順)
+     */
+    private final Map<String, Registration> registrations = new LinkedHashMap<>();
+
+    /**
+     * 実行間隔ごとに保守処理の実行を開始するタイマー
+     */
+    private ScheduledExecutorService timer;
+
+    /**
+     * 保守処理を実行する仮想スレッド
+     */
+    private ExecutorService workers;
+
+    /**
+     * コンストラクタ
+     *
+     * @param lockManager 保守処理のロック
+     * @param inFlightRequests 処理中のリクエスト数
+     * @param maxInFlightRequests 処理中のリクエスト数の上限
+     * @param chunkPause チャンクの間の待ち時間
+     * @param meterRegistry メトリクスのレジストリ
+     */
+    public JobScheduler(JobLockManager lockManager, IntSupplier inFlightRequests, int maxInFlightRequests,
+            Duration chunkPause, MeterRegistry meterRegistry) {
+        this.lockManager = lockManager;
+        this.inFlightRequests = inFlightRequests;
+        this.maxInFlightRequests = maxInFlightRequests;
+        this.chunkPause = chunkPause;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 保守処理を登録する(開始前に登録する)。
+     *
+     * @param job 保守処理
+     * @param interval 実行間隔(nullの場合、管理者用画面から実行した場合のみ実行する)
+     * @param chunkSize 1チャンクで処理する件数の上限
+     */
+    public synchronized void register(MaintenanceJob job, Duration interval, int chunkSize) {
+        registrations.put(job.getName(), new Registration(job, interval, chunkSize, meterRegistry));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (isRunning()) {
+            return;
+        }
+        timer = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual()
+                                                                 .name("job-timer")
+                                                                 .factory());
+        workers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                                                           .name("job-", 0)
+                                                           .factory());
+        for (Registration registration : registrations.values()) {
+            if (registration.interval != null) {
+                long millis = registration.interval.toMillis();
+                timer.scheduleWithFixedDelay(() -> runNow(registration.job.getName()), millis, millis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!isRunning()) {
+            return;
+        }
+        timer.shutdownNow();
+        // 実行中の保守処理は、チャンクの間で終了する
+        workers.shutdownNow();
+        try {
+            if (!workers.awaitTermination(SHUTDOWN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("maintenance jobs did not stop in time.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+        timer = null;
+        workers = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return timer != null;
+    }
+
+    /**
+     * 保守処理の実行をすぐに開始する(実行間隔を待たない)。
+     *
+     * @param name 保守処理の名前
+     * @return 実行を開始した場合、実行の終了を待つFuture(実行中の場合、未登録の場合、停止している場合は空)
+     */
+    public synchronized Optional<Future<?>> runNow(String name) {
+        Registration registration = registrations.get(name);
+        if (registration == null || !isRunning() || !registration.running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        return Optional.of(workers.submit(() -> execute(registration)));
+    }
+
+    /**
+     * 保守処理を一時停止する。実行中の場合は、処理中のチャンクの終了後に停止する。
+     *
+     * @param name 保守処理の名前
+     * @return 登録済みの場合、true
+     */
+    public boolean pause(String name) {
+        return Optional.ofNullable(registrations.get(name))
+                       .map(registration -> {
+                           registration.pauseRequested = true;
+                           return true;
+                       })
+                       .orElse(false);
+    }
+
+    /**
+     * 一時停止した保守処理を再開する。
+     *
+     * @param name 保守処理の名前
+     * @return 登録済みの場合、true
+     */
+    public boolean resume(String name) {
+        return Optional.ofNullable(registrations.get(name))
+                       .map(registration -> {
+                           registration.pauseRequested = false;
+                           return true;
+                       })
+                       .orElse(false);
+    }
+
+    /**
+     * 登録した保守処理の状態を、登録順に返却する。
+     *
+     * @return 保守処理の状態
+     */
+    public synchronized List<JobStatus> statuses() {
+        return registrations.values()
+                            .stream()
+                            .map(Registration::toStatus)
+                            .toList();
+    }
+
+    /**
+     * 保守処理を実行する(呼び出し元で実行中の状態にしてから呼び出す)。<br />
+     * 他のノードがロックを保持している場合は実行しない。
+     *
+     * @param registration 登録した保守処理
+     */
+    private void execute(Registration registration) {
+        String name = registration.job.getName();
+        try {
+            if (!lockManager.tryLock(name)) {
+                registration.lastResult = "LOCKED";
+                return;
+            }
+            long start = System.nanoTime();
+            String result = "COMPLETED";
+            registration.lastStartedAt = LocalDateTime.now();
+            registration.processed.set(0);
+            try {
+                registration.state = JobState.RUNNING;
+                registration.total = registration.job.begin();
+                while (true) {
+                    if (!awaitTurn(registration)) {
+                        result = "INTERRUPTED";
+                        break;
+                    }
+                    int count = registration.job.processChunk(registration.chunkSize);
+                    registration.processed.addAndGet(count);
+                    registration.items.increment(count);
+                    if (count < registration.chunkSize) {
+                        break;
+                    }
+                    if (!sleep(chunkPause)) {
+                        result = "INTERRUPTED";
+                        break;
+                    }
+                }
+            } catch (RuntimeException e) {
+                result = "FAILED";
+                log.warn("maintenance job failed. (job = {})", name, e);
+            } finally {
+                lockManager.unlock(name);
+                registration.state = JobState.IDLE;
+                registration.lastFinishedAt = LocalDateTime.now();
+                registration.lastResult = result;
+                Timer.builder(METRIC_PREFIX + "duration")
+                     .tag("job", name)
+                     .tag("result", result)
+                     .register(meterRegistry)
+                     .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            log.info("maintenance job finished. (job = {}, result = {}, processed = {})", name, result,
+                    registration.processed.get());
+        } finally {
+            registration.running.set(false);
+        }
+    }
+
+    /**
+     * 次のチャンクを処理できるまで待機する(一時停止している間、混雑している間)。<br />
+     * 待機中もロックの有効期限を延長する。
+     *
+     * @param registration 登録した保守処理
+     * @return 次のチャンクを処理する場合、true(割り込まれた場合、ロックを失った場合、false)
+     */
+    private boolean awaitTurn(Registration registration) {
+        boolean throttled = false;
+        while (true) {
+            if (registration.pauseRequested) {
+                registration.state = JobState.PAUSED;
+            } else if (inFlightRequests.getAsInt() > maxInFlightRequests) {
+                if (!throttled) {
+                    registration.throttled.increment();
+                    throttled = true;
+                }
+                registration.state = JobState.THROTTLED;
+            } else {
+                registration.state = JobState.RUNNING;
+                return lockManager.tryLock(registration.job.getName());
+            }
+            if (!sleep(WAIT_INTERVAL) || !lockManager.tryLock(registration.job.getName())) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 指定した時間待機する。
+     *
+     * @param duration 待ち時間
+     * @return 割り込まれずに待機した場合、true
+     */
+    private static boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 登録した保守処理と、実行の状態
+     */
+    private static final class Registration {
+
+        /**
+         * 保守処理
+         */
+        private final MaintenanceJob job;
+
+        /**
+         * 実行間隔
+         */
+        private final Duration interval;
+
+        /**
+         * 1チャンクで処理する件数の上限
+         */
+        private final int chunkSize;
+
+        /**
+         * 処理した件数
+         */
+        private final Counter items;
+
+        /**
+         * 混雑により待機した回数
+         */
+        private final Counter throttled;
+
+        /**
+         * 実行中か否か(同じ保守処理を同時に実行しないため)
+         */
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        /**
+         * 実行中の実行で処理した件数
+         */
+        private final AtomicLong processed = new AtomicLong();
+
+        /**
+         * 一時停止の指示
+         */
+        private volatile boolean pauseRequested;
+
+        /**
+         * 状態
+         */
+        private volatile JobState state = JobState.IDLE;
+
+        /**
+         * 実行中の実行の処理対象の件数の見積もり
+         */
+        private volatile long total;
+
+        /**
+         * 最後に実行を開始した日時
+         */
+        private volatile LocalDateTime lastStartedAt;
+
+        /**
+         * 最後に実行を終了した日時
+         */
+        private volatile LocalDateTime lastFinishedAt;
+
+        /**
+         * 最後の実行の結果
+         */
+        private volatile String lastResult;
+
+        /**
+         * コンストラクタ
+         *
+         * @param job 保守処理
+         * @param interval 実行間隔
+         * @param chunkSize 1チャンクで処理する件数の上限
+         * @param meterRegistry メトリクスのレジストリ
+         */
+        private Registration(MaintenanceJob job, Duration interval, int chunkSize, MeterRegistry meterRegistry) {
+            this.job = job;
+            this.interval = interval;
+            this.chunkSize = chunkSize;
+            this.items = Counter.builder(METRIC_PREFIX + "items")
+                                .tag("job", job.getName())
+                                .register(meterRegistry);
+            this.throttled = Counter.builder(METRIC_PREFIX + "throttled")
+                                    .tag("job", job.getName())
+                                    .register(meterRegistry);
+        }
+
+        /**
+         * 管理者用画面に表示する状態を返却する。
+         *
+         * @return 保守処理の状態
+         */
+        private JobStatus toStatus() {
+            return JobStatus.builder()
+                            .name(job.getName())
+                            .state(state)
+                            .pauseRequested(pauseRequested)
+                            .processed(processed.get())
+                            .total(total)
+                            .intervalSeconds(interval == null ? 0 : interval.toSeconds())
+                            .lastStartedAt(lastStartedAt)
+                            .lastFinishedAt(lastFinishedAt)
+                            .lastResult(lastResult)
+                            .build();
+        }
+
+    }
+
+}
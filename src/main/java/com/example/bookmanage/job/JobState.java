@@ -0,0 +1,28 @@
+package com.example.bookmanage.job;
+
+/**
+ * 保守処理の状態
+ */
+public enum JobState {
+
+    /**
+     * 次の実行を待っている
+     */
+    IDLE,
+
+    /**
+     * 実行中
+     */
+    RUNNING,
+
+    /**
+     * 実行中に一時停止している(再開するまで次のチャンクを処理しない)
+     */
+    PAUSED,
+
+    /**
+     * 実行中に、処理中のリクエストが減るのを待っている
+     */
+    THROTTLED
+
+}
@@ -0,0 +1,77 @@
+package com.example.bookmanage.job;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 管理者用画面に表示する保守処理の状態<br />
+ * 実行していない項目はnullとする。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class JobStatus {
+
+    /**
+     * 保守処理の名前
+     */
+    private String name;
+
+    /**
+     * 状態
+     */
+    private JobState state;
+
+    /**
+     * 一時停止の指示(実行していない場合も、次の実行は最初のチャンクの前で停止する)
+     */
+    private boolean pauseRequested;
+
+    /**
+     * 実行中(または最後)の実行で処理した件数
+     */
+    private long processed;
+
+    /**
+     * 実行中(または最後)の実行の処理対象の件数の見積もり
+     */
+    private long total;
+
+    /**
+     * 実行間隔(秒)
+     */
+    private long intervalSeconds;
+
+    /**
+     * 最後に実行を開始した日時
+     */
+    private LocalDateTime lastStartedAt;
+
+    /**
+     * 最後に実行を終了した日時
+     */
+    private LocalDateTime lastFinishedAt;
+
+    /**
+     * 最後の実行の結果(COMPLETED, FAILED, LOCKED(他のノードが実行中))
+     */
+    private String lastResult;
+
+    /**
+     * 進捗(%)を返却する。処理対象の件数が見積もりを超えた場合は100とする。
+     *
+     * @return 進捗(%)
+     */
+    public int getProgress() {
+        if (total <= 0) {
+            return state == JobState.IDLE && lastFinishedAt != null ? 100 : 0;
+        }
+        return (int) Math.min(processed * 100 / total, 100);
+    }
+
+}
@@ -0,0 +1,34 @@
+package com.example.bookmanage.job;
+
+/**
+ * 定期的に実行する保守処理(物理削除、再索引付け、統計情報の更新、キャッシュの再構築など)<br />
+ * JobSchedulerが仮想スレッドで実行し、processChunkを処理する件数が無くなるまで繰り返し呼び出す。
+ * チャンクの間に、一時停止・混雑時の待機・次のチャンクまでの待機を行う。<br />
+ * 同じ保守処理は同時に実行されない(複数のノードで起動した場合も、データベースのロックで1つのノードのみが実行する)。
+ */
+public interface MaintenanceJob {
+
+    /**
+     * 保守処理の名前(設定値のキー、ロック、メトリクスのタグ、管理者用画面に使用する)を返却する。
+     *
+     * @return 名前
+     */
+    String getName();
+
+    /**
+     * 保守処理の実行を開始する(チャンクの位置などを初期化する)。<br />
+     * 処理対象の件数の見積もり(進捗の表示に使用する)を返却する。
+     *
+     * @return 処理対象の件数の見積もり
+     */
+    long begin();
+
+    /**
+     * 1チャンクを処理する。チャンクごとにトランザクションを分け、リクエストの処理を長時間妨げないようにする。
+     *
+     * @param chunkSize 1チャンクで処理する件数の上限
+     * @return 処理した件数(上限より少ない場合、処理を終了する)
+     */
+    int processChunk(int chunkSize);
+
+}
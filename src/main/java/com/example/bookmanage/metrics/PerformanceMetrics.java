@@ -0,0 +1,269 @@
+package com.example.bookmanage.metrics;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.search.Search;
+
+/**
+ * メトリクスのレジストリ(Micrometer)から、管理者用のパフォーマンス画面に表示するメトリクスを取得する。<br />
+ *
+ * リクエストの処理時間のパーセンタイルは、Timerに設定したパーセンタイル(management.metrics.distribution.percentiles)を使用する。
+ * 記録はHdrHistogramのRecorder(ロックを取らない)で行われ、集計は取得時にのみ行う。
+ * キャッシュ、コネクションプールのメトリクスは、登録されているもののみを返却する。
+ */
+@Component
+public class PerformanceMetrics {
+
+    /**
+     * 1MBのバイト数
+     */
+    private static final double MEGA_BYTES = 1024 * 1024;
+
+    /**
+     * メトリクスのレジストリ
+     */
+    private final MeterRegistry registry;
+
+    /**
+     * コンストラクタ
+     *
+     * @param registry メトリクスのレジストリ
+     */
+    public PerformanceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * 現在のメトリクスを返却する。
+     *
+     * @return メトリクス
+     */
+    public PerformanceSnapshot snapshot() {
+        return PerformanceSnapshot.builder()
+                                  .timestamp(System.currentTimeMillis())
+                                  .endpoints(endpoints())
+                                  .caches(caches())
+                                  .pools(pools())
+                                  .jvm(jvm())
+                                  .build();
+    }
+
+    /**
+     * エンドポイントごとのリクエストを、リクエスト数が多い順に返却する。
+     *
+     * @return エンドポイントごとのリクエスト
+     */
+    private List<PerformanceSnapshot.Endpoint> endpoints() {
+        return registry.find("http.server.requests")
+                       .timers()
+                       .stream()
+                       .map(PerformanceMetrics::toEndpoint)
+                       .sorted(Comparator.comparingLong(PerformanceSnapshot.Endpoint::getCount)
+                                         .reversed())
+                       .toList();
+    }
+
+    /**
+     * TimerのスナップショットからEndpointを生成する。
+     *
+     * @param timer http.server.requestsのTimer
+     * @return Endpoint
+     */
+    private static PerformanceSnapshot.Endpoint toEndpoint(Timer timer) {
+        Meter.Id id = timer.getId();
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        PerformanceSnapshot.Endpoint endpoint = PerformanceSnapshot.Endpoint.builder()
+                                                                            .method(id.getTag("method"))
+                                                                            .uri(id.getTag("uri"))
+                                                                            .status(id.getTag("status"))
+                                                                            .count(snapshot.count())
+                                                                            .build();
+        endpoint.setMean(value(snapshot.mean(TimeUnit.MILLISECONDS)));
+        endpoint.setMax(value(snapshot.max(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            Double millis = value(percentile.value(TimeUnit.MILLISECONDS));
+            if (percentile.percentile() == 0.5) {
+                endpoint.setP50(millis);
+            } else if (percentile.percentile() == 0.95) {
+                endpoint.setP95(millis);
+            } else if (percentile.percentile() == 0.99) {
+                endpoint.setP99(millis);
+            }
+        }
+        return endpoint;
+    }
+
+    /**
+     * キャッシュごとのヒット率を返却する。
+     *
+     * @return キャッシュごとのヒット率
+     */
+    private List<PerformanceSnapshot.Cache> caches() {
+        Map<String, List<Counter>> counters = registry.find("cache.gets")
+                                                      .counters()
+                                                      .stream()
+                                                      .collect(Collectors.groupingBy(counter -> counter.getId()
+                                                                                                       .getTag("cache"),
+                                                              TreeMap::new, Collectors.toList()));
+        return counters.entrySet()
+                       .stream()
+                       .map(entry -> {
+                           long hits = count(entry.getValue(), "hit");
+                           long misses = count(entry.getValue(), "miss");
+                           return PerformanceSnapshot.Cache.builder()
+                                                           .name(entry.getKey())
+                                                           .hits(hits)
+                                                           .misses(misses)
+                                                           .hitRatio(hits + misses == 0 ? null
+                                                                   : (double) hits / (hits + misses))
+                                                           .build();
+                       })
+                       .toList();
+    }
+
+    /**
+     * 指定した結果(hit, miss)のCounterの合計を返却する。
+     *
+     * @param counters cache.getsのCounter
+     * @param result 結果
+     * @return 合計
+     */
+    private static long count(Collection<Counter> counters, String result) {
+        return (long) counters.stream()
+                              .filter(counter -> result.equals(counter.getId()
+                                                                      .getTag("result")))
+                              .mapToDouble(Counter::count)
+                              .sum();
+    }
+
+    /**
+     * コネクションプールごとの使用状況を返却する。
+     *
+     * @return コネクションプールごとの使用状況
+     */
+    private List<PerformanceSnapshot.Pool> pools() {
+        return registry.find("hikaricp.connections.max")
+                       .gauges()
+                       .stream()
+                       .map(gauge -> gauge.getId()
+                                          .getTag("pool"))
+                       .sorted()
+                       .map(pool -> {
+                           Timer acquire = registry.find("hikaricp.connections.acquire")
+                                                   .tag("pool", pool)
+                                                   .timer();
+                           return PerformanceSnapshot.Pool.builder()
+                                                          .name(pool)
+                                                          .active(gauge(registry.find("hikaricp.connections.active")
+                                                                                .tag("pool", pool)))
+                                                          .idle(gauge(registry.find("hikaricp.connections.idle")
+                                                                              .tag("pool", pool)))
+                                                          .pending(gauge(registry.find("hikaricp.connections.pending")
+                                                                                 .tag("pool", pool)))
+                                                          .max(gauge(registry.find("hikaricp.connections.max")
+                                                                             .tag("pool", pool)))
+                                                          .acquireMean(acquire == null ? null
+                                                                  : value(acquire.mean(TimeUnit.MILLISECONDS)))
+                                                          .build();
+                       })
+                       .toList();
+    }
+
+    /**
+     * JVMのヒープ、GC、スレッドを返却する。
+     *
+     * @return JVMのヒープ、GC、スレッド
+     */
+    private PerformanceSnapshot.Jvm jvm() {
+        Collection<Timer> gcPauses = registry.find("jvm.gc.pause")
+                                             .timers();
+        return PerformanceSnapshot.Jvm.builder()
+                                      .heapUsed(megaBytes(sum(registry.find("jvm.memory.used")
+                                                                      .tag("area", "heap"))))
+                                      .heapMax(megaBytes(sum(registry.find("jvm.memory.max")
+                                                                     .tag("area", "heap"))))
+                                      .gcCount(gcPauses.stream()
+                                                       .mapToLong(Timer::count)
+                                                       .sum())
+                                      .gcTime(gcPauses.stream()
+                                                      .mapToDouble(timer -> timer.totalTime(TimeUnit.MILLISECONDS))
+                                                      .sum())
+                                      .threadsLive(gauge(registry.find("jvm.threads.live")))
+                                      .threadsPeak(gauge(registry.find("jvm.threads.peak")))
+                                      .threadsDaemon(gauge(registry.find("jvm.threads.daemon")))
+                                      .threadsBlocked(gauge(registry.find("jvm.threads.states")
+                                                                    .tag("state", "blocked")))
+                                      .cpuUsage(gauge(registry.find("process.cpu.usage")))
+                                      .uptime(value(registry.find("process.uptime")
+                                                            .timeGauges()
+                                                            .stream()
+                                                            .mapToDouble(gauge -> gauge.value(TimeUnit.SECONDS))
+                                                            .findFirst()
+                                                            .orElse(Double.NaN)))
+                                      .build();
+    }
+
+    /**
+     * Gaugeの値を返却する。
+     *
+     * @param search 検索条件
+     * @return 値(Gaugeが存在しない場合、null)
+     */
+    private static Double gauge(Search search) {
+        Gauge gauge = search.gauge();
+        return gauge == null ? null : value(gauge.value());
+    }
+
+    /**
+     * Gaugeの値の合計を返却する(負の値は、上限がないことを表すため除く)。
+     *
+     * @param search 検索条件
+     * @return 合計(Gaugeが存在しない場合、null)
+     */
+    private static Double sum(Search search) {
+        Collection<Gauge> gauges = search.gauges();
+        if (gauges.isEmpty()) {
+            return null;
+        }
+        return gauges.stream()
+                     .mapToDouble(Gauge::value)
+                     .filter(value -> value >= 0)
+                     .sum();
+    }
+
+    /**
+     * バイト数をMBに変換する。
+     *
+     * @param bytes バイト数
+     * @return MB
+     */
+    private static Double megaBytes(Double bytes) {
+        return bytes == null ? null : bytes / MEGA_BYTES;
+    }
+
+    /**
+     * NaN(値を取得できない場合)をnullに変換する。
+     *
+     * @param value 値
+     * @return 値
+     */
+    private static Double value(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+}
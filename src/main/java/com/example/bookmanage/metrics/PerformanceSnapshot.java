@@ -0,0 +1,241 @@
+package com.example.bookmanage.metrics;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 管理者用のパフォーマンス画面に表示するメトリクス<br />
+ * 値を取得できないメトリクスはnullとする。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PerformanceSnapshot {
+
+    /**
+     * 取得日時(エポックミリ秒、リクエスト数の差分から秒間のリクエスト数を計算するために使用する)
+     */
+    private long timestamp;
+
+    /**
+     * エンドポイントごとのリクエスト
+     */
+    private List<Endpoint> endpoints;
+
+    /**
+     * キャッシュ
+     */
+    private List<Cache> caches;
+
+    /**
+     * コネクションプール
+     */
+    private List<Pool> pools;
+
+    /**
+     * JVM
+     */
+    private Jvm jvm;
+
+    /**
+     * エンドポイント(HTTPメソッド、URIのパターン、ステータス)ごとのリクエスト
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Endpoint {
+
+        /**
+         * HTTPメソッド
+         */
+        private String method;
+
+        /**
+         * URIのパターン
+         */
+        private String uri;
+
+        /**
+         * HTTPステータス
+         */
+        private String status;
+
+        /**
+         * リクエスト数(起動時からの累計)
+         */
+        private long count;
+
+        /**
+         * 平均の処理時間(ミリ秒)
+         */
+        private Double mean;
+
+        /**
+         * 処理時間の50パーセンタイル(ミリ秒、直近の時間枠)
+         */
+        private Double p50;
+
+        /**
+         * 処理時間の95パーセンタイル(ミリ秒、直近の時間枠)
+         */
+        private Double p95;
+
+        /**
+         * 処理時間の99パーセンタイル(ミリ秒、直近の時間枠)
+         */
+        private Double p99;
+
+        /**
+         * 最大の処理時間(ミリ秒、直近の時間枠)
+         */
+        private Double max;
+
+    }
+
+    /**
+     * キャッシュのヒット率
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Cache {
+
+        /**
+         * キャッシュ名
+         */
+        private String name;
+
+        /**
+         * ヒット数
+         */
+        private long hits;
+
+        /**
+         * ミス数
+         */
+        private long misses;
+
+        /**
+         * ヒット率(0～1、参照がない場合はnull)
+         */
+        private Double hitRatio;
+
+    }
+
+    /**
+     * コネクションプールの使用状況
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Pool {
+
+        /**
+         * プール名
+         */
+        private String name;
+
+        /**
+         * 使用中のコネクション数
+         */
+        private Double active;
+
+        /**
+         * 未使用のコネクション数
+         */
+        private Double idle;
+
+        /**
+         * コネクションの取得を待っているスレッド数
+         */
+        private Double pending;
+
+        /**
+         * 最大のコネクション数
+         */
+        private Double max;
+
+        /**
+         * コネクションの取得の平均時間(ミリ秒)
+         */
+        private Double acquireMean;
+
+    }
+
+    /**
+     * JVMのヒープ、GC、スレッド
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Jvm {
+
+        /**
+         * ヒープの使用量(MB)
+         */
+        private Double heapUsed;
+
+        /**
+         * ヒープの最大量(MB)
+         */
+        private Double heapMax;
+
+        /**
+         * GCの停止回数(起動時からの累計)
+         */
+        private long gcCount;
+
+        /**
+         * GCの停止時間(ミリ秒、起動時からの累計)
+         */
+        private double gcTime;
+
+        /**
+         * 生存しているスレッド数
+         */
+        private Double threadsLive;
+
+        /**
+         * スレッド数のピーク
+         */
+        private Double threadsPeak;
+
+        /**
+         * デーモンスレッド数
+         */
+        private Double threadsDaemon;
+
+        /**
+         * ブロックされているスレッド数
+         */
+        private Double threadsBlocked;
+
+        /**
+         * プロセスのCPU使用率(0～1)
+         */
+        private Double cpuUsage;
+
+        /**
+         * 起動からの経過時間(秒)
+         */
+        private Double uptime;
+
+    }
+
+}
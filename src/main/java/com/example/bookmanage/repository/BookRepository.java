@@ -1,14 +1,249 @@
 package com.example.bookmanage.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.bookmanage.domain.Book;
 
 /**
- * 書籍のリポジトリ
+ * 書籍のリポジトリ<br />
+ * テナントを指定する検索は、テナントを先頭にしたインデックス(Bookの@Tableで定義)を使用する。<br />
+ * エンティティの検索は削除(論理削除)した書籍を対象外とする。削除した書籍はネイティブクエリで検索・物理削除する。
  */
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
 
+    /**
+     * テナントの書籍一覧のページを、タイトルと著者の前方一致で絞り込んで取得する。<br />
+     * 並び順はPageableで指定する。件数を数えるSQLは発行せず、次のページの有無は1件多く取得して判定する。
+     *
+     * @param tenant テナント
+     * @param title タイトルの前方一致の条件(空文字の場合、絞り込まない)
+     * @param author 著者の前方一致の条件(空文字の場合、絞り込まない)
+     * @param pageable ページと並び順
+     * @return 書籍一覧のページ
+     */
+    Slice<Book> findByTenantAndTitleStartingWithAndAuthorStartingWith(String tenant, String title, String author,
+            Pageable pageable);
+
+    /**
+     * テナントの書籍をIDで取得する。
+     *
+     * @param id 書籍のID
+     * @param tenant テナント
+     * @return 書籍(他のテナントの書籍の場合は空)
+     */
+    Optional<Book> findByIdAndTenant(long id, String tenant);
+
+    /**
+     * テナントの書籍が存在するか否かを返却する。
+     *
+     * @param id 書籍のID
+     * @param tenant テナント
+     * @return 存在する場合、true
+     */
+    boolean existsByIdAndTenant(long id, String tenant);
+
+    /**
+     * テナントに重複判定キーが同じ書籍が存在するか否かを返却する(一意制約のインデックスを使用する)。
+     *
+     * @param tenant テナント
+     * @param dedupKey 重複判定キー
+     * @return 存在する場合、true
+     */
+    boolean existsByTenantAndDedupKey(String tenant, String dedupKey);
+
+    /**
+     * テナントに重複判定キーが同じ他の書籍が存在するか否かを返却する。
+     *
+     * @param tenant テナント
+     * @param dedupKey 重複判定キー
+     * @param id 除外する書籍のID
+     * @return 存在する場合、true
+     */
+    boolean existsByTenantAndDedupKeyAndIdNot(String tenant, String dedupKey, long id);
+
+    /**
+     * テナントの書籍を論理削除する(1件のUPDATEで削除し、書籍の存在確認のSQLは発行しない)。<br />
+     * 重複判定キーは書籍ごとに異なる値にし、同じタイトルと著者の書籍を登録できるようにする。
+     *
+     * @param id 書籍のID
+     * @param tenant テナント
+     * @param deletedDateTime 削除日時
+     * @return 削除した件数(書籍が存在しない場合、0)
+     */
+    @Modifying
+    @Query("update Book b set b.deletedDateTime = :deletedDateTime, b.version = b.version + 1, "
+            + "b.dedupKey = concat('" + Book.DELETED_DEDUP_KEY_PREFIX + "', cast(b.id as String)) "
+            + "where b.id = :id and b.tenant = :tenant and b.deletedDateTime is null")
+    int softDeleteByIdAndTenant(@Param("id") long id, @Param("tenant") String tenant,
+            @Param("deletedDateTime") LocalDateTime deletedDateTime);
+
+    /**
+     * テナントの書籍の表紙の画像のファイル名を更新する(エンティティの更新日時・バージョンは更新しない)。<br />
+     * 表紙の画像の変更で、編集中の登録・更新フォームが楽観排他のエラーにならないようにする。
+     *
+     * @param id 書籍のID
+     * @param tenant テナント
+     * @param coverName 表紙の画像のファイル名
+     * @return 更新した件数(書籍が存在しない場合、0)
+     */
+    @Modifying
+    @Query("update Book b set b.coverName = :coverName "
+            + "where b.id = :id and b.tenant = :tenant and b.deletedDateTime is null")
+    int updateCoverName(@Param("id") long id, @Param("tenant") String tenant, @Param("coverName") String coverName);
+
+    /**
+     * テナントの書籍の表紙の画像が、指定したファイル名か否かを返却する(表紙の画像の参照時に使用する)。
+     *
+     * @param id 書籍のID
+     * @param tenant テナント
+     * @param coverName 表紙の画像のファイル名
+     * @return 指定したファイル名の場合、true
+     */
+    boolean existsByIdAndTenantAndCoverName(long id, String tenant, String coverName);
+
+    /**
+     * 指定した日時以降に削除したテナントの書籍を取得する(削除の取り消しに使用する)。
+     *
+     * @param id 書籍のID
+     * @param tenant テナント
+     * @param deletedAfter 削除日時の下限
+     * @return 削除した書籍(削除していない場合、指定した日時より前に削除した場合は空)
+     */
+    @Query(value = "select * from book where id = :id and tenant = :tenant and deleted_date_time >= :deletedAfter",
+            nativeQuery = true)
+    Optional<Book> findDeletedByIdAndTenant(@Param("id") long id, @Param("tenant") String tenant,
+            @Param("deletedAfter") LocalDateTime deletedAfter);
+
+    /**
+     * 指定した日時より前に削除した書籍のIDを、古い順に指定した件数まで取得する。
+     *
+     * @param deletedBefore 削除日時の上限
+     * @param limit 件数
+     * @return 書籍のID
+     */
+    @Query(value = "select id from book where deleted_date_time < :deletedBefore order by deleted_date_time, id "
+            + "limit :limit", nativeQuery = true)
+    List<Long> findDeletedIdsBefore(@Param("deletedBefore") LocalDateTime deletedBefore, @Param("limit") int limit);
+
+    /**
+     * 指定した日時より前に削除した書籍の件数を取得する。
+     *
+     * @param deletedBefore 削除日時の上限
+     * @return 件数
+     */
+    @Query(value = "select count(*) from book where deleted_date_time < :deletedBefore", nativeQuery = true)
+    long countDeletedBefore(@Param("deletedBefore") LocalDateTime deletedBefore);
+
+    /**
+     * 削除した書籍を物理削除する。
+     *
+     * @param ids 書籍のID
+     * @return 物理削除した件数
+     */
+    @Modifying
+    @Query(value = "delete from book where id in (:ids) and deleted_date_time is not null", nativeQuery = true)
+    int purgeByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * 指定したIDより後の書籍を取得する(保守処理で、IDの順に一定件数ずつ処理するために使用する)。
+     *
+     * @param id 書籍のID(このIDより後の書籍を取得する)
+     * @param pageable 件数と並び順(IDの昇順を指定する)
+     * @return 書籍
+     */
+    List<Book> findByIdGreaterThan(long id, Pageable pageable);
+
+    /**
+     * 書籍の重複判定キーを更新する(エンティティの更新日時・バージョンは更新しない)。<br />
+     * 重複判定キーが読み込んだ時から変わっている(書籍が更新された)場合は、更新しない。
+     *
+     * @param id 書籍のID
+     * @param current 読み込んだ時の重複判定キー
+     * @param dedupKey 重複判定キー
+     * @return 更新した件数
+     */
+    @Modifying
+    @Query("update Book b set b.dedupKey = :dedupKey where b.id = :id and b.dedupKey = :current")
+    int updateDedupKey(@Param("id") long id, @Param("current") String current, @Param("dedupKey") String dedupKey);
+
+    /**
+     * 指定したテナントより後のテナントを、テナントの順に取得する。
+     *
+     * @param after テナント(このテナントより後のテナントを取得する)
+     * @param pageable 件数
+     * @return テナント
+     */
+    @Query("select distinct b.tenant from Book b where b.tenant > :after order by b.tenant")
+    List<String> findTenantsAfter(@Param("after") String after, Pageable pageable);
+
+    /**
+     * テナントの数を取得する。
+     *
+     * @return テナントの数
+     */
+    @Query("select count(distinct b.tenant) from Book b")
+    long countTenants();
+
+    /**
+     * 削除した書籍(物理削除していない書籍)の件数を取得する。
+     *
+     * @return 件数
+     */
+    @Query(value = "select count(*) from book where deleted_date_time is not null", nativeQuery = true)
+    long countDeleted();
+
+    /**
+     * 書籍のテーブルの統計情報(オプティマイザがインデックスの選択に使用する)を更新する。
+     */
+    @Modifying
+    @Query(value = "analyze table book", nativeQuery = true)
+    void analyze();
+
+    /**
+     * 全テナントの書籍の重複判定キーを、一定件数ずつ読み込むストリームで取得する(重複判定キーのBloomフィルタの初期化に使用する)。<br />
+     * 全件をメモリに保持しないよう、トランザクション内で使用し、使用後はストリームを閉じること。
+     *
+     * @return テナントと重複判定キー
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<DedupKey> streamAllProjectedBy();
+
+    /**
+     * テナントと重複判定キー
+     */
+    interface DedupKey {
+
+        /**
+         * テナントを返却する。
+         *
+         * @return テナント
+         */
+        String getTenant();
+
+        /**
+         * 重複判定キーを返却する。
+         *
+         * @return 重複判定キー
+         */
+        String getDedupKey();
+
+    }
+
 }
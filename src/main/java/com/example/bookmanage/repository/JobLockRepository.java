@@ -0,0 +1,48 @@
+package com.example.bookmanage.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.bookmanage.domain.JobLock;
+
+/**
+ * 保守処理のロックのリポジトリ<br />
+ * ロックの取得・解放は1件のUPDATEで行い、行ロックの間に他のノードが割り込まないようにする。
+ */
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    /**
+     * ロックを取得する(有効期限を延長する)。<br />
+     * ロックが解放されているか、有効期限が過ぎているか、自身が保持している場合のみ取得できる。
+     *
+     * @param name 保守処理の名前
+     * @param owner ノード
+     * @param now 現在日時
+     * @param lockedUntil 有効期限
+     * @return 取得できた場合、1
+     */
+    @Modifying
+    @Query("update JobLock l set l.owner = :owner, l.lockedUntil = :lockedUntil "
+            + "where l.name = :name and (l.lockedUntil < :now or l.owner = :owner)")
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now,
+            @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    /**
+     * 自身が保持しているロックを解放する。
+     *
+     * @param name 保守処理の名前
+     * @param owner ノード
+     * @param now 現在日時
+     * @return 解放できた場合、1
+     */
+    @Modifying
+    @Query("update JobLock l set l.owner = null, l.lockedUntil = :now where l.name = :name and l.owner = :owner")
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now);
+
+}
@@ -0,0 +1,34 @@
+package com.example.bookmanage.service;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 管理者用画面に表示する書籍のバックアップのファイル
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BackupFile {
+
+    /**
+     * ファイル名
+     */
+    private String name;
+
+    /**
+     * サイズ(バイト)
+     */
+    private long size;
+
+    /**
+     * 作成日時
+     */
+    private LocalDateTime createdAt;
+
+}
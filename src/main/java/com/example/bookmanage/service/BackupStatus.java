@@ -0,0 +1,77 @@
+package com.example.bookmanage.service;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 管理者用画面に表示する書籍のバックアップ・復元の状態<br />
+ * 実行していない項目はnullとする。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BackupStatus {
+
+    /**
+     * 実行中(または最後)の処理(backup, restore)
+     */
+    private String operation;
+
+    /**
+     * 実行中か否か
+     */
+    private boolean running;
+
+    /**
+     * 対象のファイル名
+     */
+    private String fileName;
+
+    /**
+     * 実行中(または最後)の実行で処理した件数
+     */
+    private long processed;
+
+    /**
+     * 実行中(または最後)の実行の処理対象の件数
+     */
+    private long total;
+
+    /**
+     * 最後に実行を開始した日時
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * 最後に実行を終了した日時
+     */
+    private LocalDateTime finishedAt;
+
+    /**
+     * 最後の実行の処理時間(ミリ秒)
+     */
+    private Long elapsedMillis;
+
+    /**
+     * 最後の実行の結果(COMPLETED, FAILED)
+     */
+    private String result;
+
+    /**
+     * 進捗(%)を返却する。
+     *
+     * @return 進捗(%)
+     */
+    public int getProgress() {
+        if (total <= 0) {
+            return !running && finishedAt != null ? 100 : 0;
+        }
+        return (int) Math.min(processed * 100 / total, 100);
+    }
+
+}
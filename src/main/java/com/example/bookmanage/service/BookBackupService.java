@@ -0,0 +1,51 @@
+package com.example.bookmanage.service;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Future;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * 書籍のバックアップ・復元のサービス(全てのテナントの書籍を対象にする、管理者用)
+ */
+public interface BookBackupService {
+
+    /**
+     * バックアップの取得を開始する。
+     *
+     * @return 開始した場合、終了を待つFuture(バックアップ・復元の実行中の場合は空)
+     */
+    Optional<Future<?>> startBackup();
+
+    /**
+     * 指定したバックアップからの復元を開始する。
+     *
+     * @param name バックアップのファイル名
+     * @return 開始した場合、終了を待つFuture(バックアップ・復元の実行中の場合、ファイルが存在しない場合は空)
+     */
+    Optional<Future<?>> startRestore(String name);
+
+    /**
+     * バックアップ・復元の状態を返却する。
+     *
+     * @return 状態
+     */
+    BackupStatus status();
+
+    /**
+     * バックアップのファイルを新しい順に返却する。
+     *
+     * @return バックアップのファイル
+     */
+    List<BackupFile> backups();
+
+    /**
+     * バックアップのファイルを返却する。
+     *
+     * @param name バックアップのファイル名
+     * @return ファイル(ファイル名が不正な場合、ファイルが存在しない場合は空)
+     */
+    Optional<Resource> readBackup(String name);
+
+}
@@ -0,0 +1,47 @@
+package com.example.bookmanage.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import org.springframework.core.io.Resource;
+
+import com.example.bookmanage.exception.BookCoverException;
+import com.example.bookmanage.exception.BookNotFoundException;
+
+/**
+ * 書籍の表紙の画像のサービス
+ */
+public interface BookCoverService {
+
+    /**
+     * 指定したIDに該当する書籍の表紙の画像を保存する(以前の表紙の画像は削除する)。
+     *
+     * @param id 書籍のID
+     * @param input 画像の内容
+     * @return 表紙の画像のファイル名
+     * @throws BookNotFoundException 書籍が取得できない場合に発生する
+     * @throws BookCoverException 画像の形式が対象外か、サイズ・画素数が上限を超えている場合に発生する
+     * @throws IOException 読み込み・書き込みに失敗した場合に発生する
+     */
+    String storeCover(long id, InputStream input) throws BookNotFoundException, BookCoverException, IOException;
+
+    /**
+     * 指定したIDに該当する書籍の表紙の画像を返却する。
+     *
+     * @param id 書籍のID
+     * @param coverName 表紙の画像のファイル名
+     * @return 表紙の画像(書籍が存在しない場合、表紙の画像が変更された場合は空)
+     */
+    Optional<Resource> readCover(long id, String coverName);
+
+    /**
+     * 指定したIDに該当する書籍の表紙の縮小画像(JPEG)を返却する。
+     *
+     * @param id 書籍のID
+     * @param coverName 表紙の画像のファイル名
+     * @return 縮小画像(書籍が存在しない場合、表紙の画像が変更された場合は空)
+     */
+    Optional<Resource> readThumbnail(long id, String coverName);
+
+}
@@ -1,8 +1,13 @@
 package com.example.bookmanage.service;
 
+import java.util.Optional;
+
 import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.exception.BookDuplicateException;
 import com.example.bookmanage.exception.BookNotFoundException;
+import com.example.bookmanage.exception.IdempotencyKeyMismatchException;
 import com.example.bookmanage.form.BookManagementForm;
+import com.example.bookmanage.form.BookSearchCondition;
 
 /**
  * 書籍管理システムのサービス
@@ -10,14 +15,24 @@ import com.example.bookmanage.form.BookManagementForm;
 public interface BookManageService {
 
     /**
-     * フォーム情報の初期化を行う。
+     * フォーム情報の初期化を行う。<br />
+     * 書籍の一覧は、既定の並び順の先頭のページとする。
      * 
      * @return フォーム情報
      */
     BookManagementForm initForm();
 
     /**
-     * 指定したIDに該当する書籍を取得し、フォーム情報を返却する。
+     * フォーム情報の初期化を行う。
+     *
+     * @param condition 書籍の一覧の並び順・絞り込み・ページの条件
+     * @return フォーム情報
+     */
+    BookManagementForm initForm(BookSearchCondition condition);
+
+    /**
+     * 指定したIDに該当する書籍を取得し、フォーム情報を返却する。<br />
+     * 書籍の一覧は、既定の並び順の先頭のページとする。
      *
      * @param id 書籍のID
      * @return フォーム情報
@@ -25,6 +40,26 @@ public interface BookManageService {
      */
     BookManagementForm readOneBook(long id) throws BookNotFoundException;
 
+    /**
+     * 指定したIDに該当する書籍を取得し、フォーム情報を返却する。
+     *
+     * @param id 書籍のID
+     * @param condition 書籍の一覧の並び順・絞り込み・ページの条件
+     * @return フォーム情報
+     * @throws BookNotFoundException 書籍が取得できない場合に発生する
+     */
+    BookManagementForm readOneBook(long id, BookSearchCondition condition) throws BookNotFoundException;
+
+    /**
+     * 指定したIDに該当する書籍を取得し、フォーム情報を返却する。<br />
+     * 書籍の一覧は取得しない(フォームのみを部分更新する場合に使用する)。
+     * 書籍が存在しない場合は例外を発生させず、空のOptionalを返却する。
+     *
+     * @param id 書籍のID
+     * @return フォーム情報(書籍の一覧はnull)
+     */
+    Optional<BookManagementForm> findBookForm(long id);
+
     /**
      * 指定したIDに該当する書籍をフォーム情報の内容に更新する。
      *
@@ -32,16 +67,22 @@ public interface BookManageService {
      * @param form フォーム情報
      * @return 更新後の書籍
      * @throws BookNotFoundException 書籍が取得できない場合に発生する
+     * @throws BookDuplicateException 同じタイトルと著者の他の書籍が存在する場合に発生する
+     * @throws IdempotencyKeyMismatchException 冪等キーを内容の異なる更新に使い回した場合に発生する
      */
-    Book updateBook(long id, BookManagementForm form) throws BookNotFoundException;
+    Book updateBook(long id, BookManagementForm form)
+            throws BookNotFoundException, BookDuplicateException, IdempotencyKeyMismatchException;
 
     /**
-     * フォーム情報から書籍を新規作成する
+     * フォーム情報から書籍を新規作成する<br />
+     * フォーム情報の冪等キーで登録済みの場合は、登録せずに最初に登録した書籍を返却する。
      * 
      * @param form フォーム情報
      * @return 新規作成した書籍
+     * @throws BookDuplicateException 同じタイトルと著者の書籍が存在する場合に発生する
+     * @throws IdempotencyKeyMismatchException 冪等キーを内容の異なる登録に使い回した場合に発生する
      */
-    Book createBook(BookManagementForm form);
+    Book createBook(BookManagementForm form) throws BookDuplicateException, IdempotencyKeyMismatchException;
 
     /**
      * 指定したIDに該当する書籍を削除する。
@@ -51,4 +92,21 @@ public interface BookManageService {
      */
     void deleteBook(long id) throws BookNotFoundException;
 
+    /**
+     * 指定したIDに該当する削除した書籍を元に戻す。
+     *
+     * @param id 書籍のID
+     * @return 元に戻した書籍
+     * @throws BookNotFoundException 削除を取り消せる書籍が取得できない場合に発生する
+     * @throws BookDuplicateException 削除後に同じタイトルと著者の書籍が登録された場合に発生する
+     */
+    Book restoreBook(long id) throws BookNotFoundException, BookDuplicateException;
+
+    /**
+     * 指定したテナントの書籍一覧(既定の並び順・先頭のページ)を読み込み、キャッシュする(保守処理で使用する)。
+     *
+     * @param tenant テナント
+     */
+    void preloadBooks(String tenant);
+
 }
@@ -0,0 +1,248 @@
+package com.example.bookmanage.service.impl;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 書籍のバックアップのファイル形式<br />
+ *
+ * ヘッダ(識別子、形式のバージョン、件数、IDの最大値)の後に、書籍を1件ずつ(先頭にtrue)書き込み、falseで終了する。
+ * 列はDataOutputの固定の順序で書き込み、列名は書き込まない(ファイル全体はgzipで圧縮する)。
+ * 文字列と日時はnullを許容し、値の前に有無を書き込む。日時はUTCとみなしたエポック秒とナノ秒で書き込む。<br />
+ * 書籍の列を追加・変更した場合は、VERSIONを上げて読み込みを分岐させること。
+ */
+final class BookBackupFormat {
+
+    /**
+     * ファイルの識別子("BMBK")
+     */
+    static final int MAGIC = 0x424d424b;
+
+    /**
+     * 形式のバージョン
+     */
+    static final int VERSION = 1;
+
+    /**
+     * バックアップする列(SELECTとINSERTで同じ順序)
+     */
+    private static final String COLUMNS = "id, title, author, tenant, dedup_key, cover_name, deleted_date_time, "
+            + "created_user, created_date_time, updated_user, updated_date_time, version";
+
+    /**
+     * 全ての書籍(論理削除した書籍を含む)を取得するSQL
+     */
+    static final String SELECT_SQL = "select " + COLUMNS + " from book order by id";
+
+    /**
+     * 件数とIDの最大値を取得するSQL
+     */
+    static final String SUMMARY_SQL = "select count(*), coalesce(max(id), 0) from book";
+
+    /**
+     * 書籍を登録するSQL(IDはバックアップの値のまま登録する)
+     */
+    static final String INSERT_SQL = "insert into book (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * インスタンス化しない。
+     */
+    private BookBackupFormat() {
+    }
+
+    /**
+     * ヘッダを書き込む。
+     *
+     * @param output 書き込み先
+     * @param header ヘッダ
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void writeHeader(DataOutput output, Header header) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        output.writeLong(header.count());
+        output.writeLong(header.maxId());
+    }
+
+    /**
+     * ヘッダを読み込む。
+     *
+     * @param input 読み込み元
+     * @return ヘッダ
+     * @throws IOException 読み込みに失敗した場合、書籍のバックアップでない場合
+     */
+    static Header readHeader(DataInput input) throws IOException {
+        if (input.readInt() != MAGIC) {
+            throw new IOException("not a book backup");
+        }
+        int version = input.readShort();
+        if (version != VERSION) {
+            throw new IOException("unsupported backup version: " + version);
+        }
+        return new Header(input.readLong(), input.readLong());
+    }
+
+    /**
+     * 書籍の終わりを書き込む。
+     *
+     * @param output 書き込み先
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void writeEnd(DataOutput output) throws IOException {
+        output.writeBoolean(false);
+    }
+
+    /**
+     * 文字列(nullを許容する)を書き込む。
+     *
+     * @param output 書き込み先
+     * @param value 文字列
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private static void writeString(DataOutput output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    /**
+     * 文字列(nullを許容する)を読み込む。
+     *
+     * @param input 読み込み元
+     * @return 文字列
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private static String readString(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    /**
+     * 日時(nullを許容する)を書き込む。
+     *
+     * @param output 書き込み先
+     * @param value 日時
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private static void writeDateTime(DataOutput output, LocalDateTime value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            output.writeInt(value.getNano());
+        }
+    }
+
+    /**
+     * 日時(nullを許容する)を読み込む。
+     *
+     * @param input 読み込み元
+     * @return 日時
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private static LocalDateTime readDateTime(DataInput input) throws IOException {
+        if (!input.readBoolean()) {
+            return null;
+        }
+        long epochSecond = input.readLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, input.readInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * バックアップのヘッダ
+     *
+     * @param count 書籍の件数(進捗の表示に使用する)
+     * @param maxId IDの最大値(復元後に採番を再開する値)
+     */
+    record Header(long count, long maxId) {
+    }
+
+    /**
+     * バックアップする書籍の1行
+     */
+    record Row(long id, String title, String author, String tenant, String dedupKey, String coverName,
+            LocalDateTime deletedDateTime, String createdUser, LocalDateTime createdDateTime, String updatedUser,
+            LocalDateTime updatedDateTime, long version) {
+
+        /**
+         * SELECT_SQLの結果の現在の行を返却する。
+         *
+         * @param rs 結果
+         * @return 行
+         * @throws SQLException 取得に失敗した場合
+         */
+        static Row of(ResultSet rs) throws SQLException {
+            return new Row(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                    rs.getString(6), rs.getObject(7, LocalDateTime.class), rs.getString(8),
+                    rs.getObject(9, LocalDateTime.class), rs.getString(10), rs.getObject(11, LocalDateTime.class),
+                    rs.getLong(12));
+        }
+
+        /**
+         * 行を読み込む。
+         *
+         * @param input 読み込み元
+         * @return 行(書籍の終わりの場合はnull)
+         * @throws IOException 読み込みに失敗した場合
+         */
+        static Row read(DataInput input) throws IOException {
+            if (!input.readBoolean()) {
+                return null;
+            }
+            return new Row(input.readLong(), readString(input), readString(input), readString(input),
+                    readString(input), readString(input), readDateTime(input), readString(input),
+                    readDateTime(input), readString(input), readDateTime(input), input.readLong());
+        }
+
+        /**
+         * 行を書き込む。
+         *
+         * @param output 書き込み先
+         * @throws IOException 書き込みに失敗した場合
+         */
+        void write(DataOutput output) throws IOException {
+            output.writeBoolean(true);
+            output.writeLong(id);
+            writeString(output, title);
+            writeString(output, author);
+            writeString(output, tenant);
+            writeString(output, dedupKey);
+            writeString(output, coverName);
+            writeDateTime(output, deletedDateTime);
+            writeString(output, createdUser);
+            writeDateTime(output, createdDateTime);
+            writeString(output, updatedUser);
+            writeDateTime(output, updatedDateTime);
+            output.writeLong(version);
+        }
+
+        /**
+         * INSERT_SQLのパラメータを設定する(型を指定し、ドライバにパラメータの型を問い合わせさせない)。
+         *
+         * @param ps PreparedStatement
+         * @throws SQLException 設定に失敗した場合
+         */
+        void bind(PreparedStatement ps) throws SQLException {
+            ps.setLong(1, id);
+            ps.setString(2, title);
+            ps.setString(3, author);
+            ps.setString(4, tenant);
+            ps.setString(5, dedupKey);
+            ps.setString(6, coverName);
+            ps.setObject(7, deletedDateTime, Types.TIMESTAMP);
+            ps.setString(8, createdUser);
+            ps.setObject(9, createdDateTime, Types.TIMESTAMP);
+            ps.setString(10, updatedUser);
+            ps.setObject(11, updatedDateTime, Types.TIMESTAMP);
+            ps.setLong(12, version);
+        }
+
+    }
+
+}
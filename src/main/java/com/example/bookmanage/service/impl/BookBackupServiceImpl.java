@@ -0,0 +1,546 @@
+package com.example.bookmanage.service.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.service.BackupFile;
+import com.example.bookmanage.service.BackupStatus;
+import com.example.bookmanage.service.BookBackupService;
+import com.example.bookmanage.service.impl.BookBackupFormat.Header;
+import com.example.bookmanage.service.impl.BookBackupFormat.Row;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 書籍のバックアップ・復元のサービス<br />
+ *
+ * バックアップ：書籍のテーブル全体を1つのSELECTで一定件数ずつ取得し、gzipで圧縮したファイル(BookBackupFormat)に書き込む。
+ * 読み取り専用・REPEATABLE READのトランザクションで取得するため、件数と内容は同じ時点のスナップショットになる。
+ * H2(MVStore)はMVCCのため、取得中も書籍の登録・更新・削除は待たされない。
+ * 書き込み中のファイルは一時ファイルとし、書き込みが終わった後に名前を変更する。<br />
+ * 復元：バックアップのファイルを読み込みながら、一定件数ずつJDBCのバッチで登録する(ファイル全体をヒープに読み込まない)。
+ * IDが採番(IDENTITY)のためHibernateではバッチで登録できず、JdbcTemplateで登録する。
+ * 書籍の削除と登録は1つのトランザクションで行い、失敗した場合は復元前の状態に戻す。
+ * 復元後は書籍一覧のキャッシュを破棄し、重複判定キーをBloomフィルタに登録する(表紙の画像のファイルは対象外)。<br />
+ * バックアップ・復元は仮想スレッドで実行し、同時に1つのみ実行する。進捗は管理者用画面と
+ * bookmanage.book.backup.progressで、処理時間・件数はbookmanage.book.backup.duration, bookmanage.book.backup.rowsで参照できる。
+ */
+@Slf4j
+public class BookBackupServiceImpl implements BookBackupService {
+
+    /**
+     * メトリクス名の接頭辞
+     */
+    private static final String METRIC_PREFIX = "bookmanage.book.backup.";
+
+    /**
+     * バックアップの処理名
+     */
+    private static final String BACKUP = "backup";
+
+    /**
+     * 復元の処理名
+     */
+    private static final String RESTORE = "restore";
+
+    /**
+     * バックアップのファイル名(作成日時を含むため、名前の順が作成順になる)
+     */
+    private static final Pattern BACKUP_NAME = Pattern.compile("books-\\d{8}-\\d{9}\\.gz");
+
+    /**
+     * バックアップのファイル名の形式
+     */
+    private static final DateTimeFormatter BACKUP_NAME_FORMAT = DateTimeFormatter.ofPattern(
+            "'books-'yyyyMMdd-HHmmssSSS'.gz'");
+
+    /**
+     * 読み込み・書き込みのバッファのサイズ
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * バックアップのファイルを保存するディレクトリ
+     */
+    private final Path directory;
+
+    /**
+     * 保持するバックアップのファイル数の上限
+     */
+    private final int maxFiles;
+
+    /**
+     * バックアップ時に、データベースから一度に取得する件数
+     */
+    private final int fetchSize;
+
+    /**
+     * 復元時に、1回のバッチで登録する件数
+     */
+    private final int batchSize;
+
+    /**
+     * JdbcTemplate
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * バックアップのトランザクションのテンプレート(読み取り専用、REPEATABLE READ)
+     */
+    private final TransactionTemplate snapshotTemplate;
+
+    /**
+     * 復元のトランザクションのテンプレート
+     */
+    private final TransactionTemplate restoreTemplate;
+
+    /**
+     * テナントごとの書籍一覧のキャッシュ
+     */
+    private final TenantBookCache bookCache;
+
+    /**
+     * 書籍の重複判定キーのBloomフィルタ
+     */
+    private final BookDedupFilter dedupFilter;
+
+    /**
+     * メトリクスのレジストリ
+     */
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * バックアップした件数
+     */
+    private final Counter backupRows;
+
+    /**
+     * 復元した件数
+     */
+    private final Counter restoredRows;
+
+    /**
+     * バックアップ・復元を実行する仮想スレッド
+     */
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual()
+                                                                                     .name("book-backup")
+                                                                                     .factory());
+
+    /**
+     * 実行中か否か(バックアップ・復元を同時に実行しないため)
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 実行中の実行で処理した件数
+     */
+    private final AtomicLong processed = new AtomicLong();
+
+    /**
+     * 実行中の実行の処理対象の件数
+     */
+    private volatile long total;
+
+    /**
+     * 実行中(または最後)の処理
+     */
+    private volatile String operation;
+
+    /**
+     * 実行中(または最後)の実行の対象のファイル名
+     */
+    private volatile String fileName;
+
+    /**
+     * 最後に実行を開始した日時
+     */
+    private volatile LocalDateTime startedAt;
+
+    /**
+     * 最後に実行を終了した日時
+     */
+    private volatile LocalDateTime finishedAt;
+
+    /**
+     * 最後の実行の処理時間(ミリ秒)
+     */
+    private volatile Long elapsedMillis;
+
+    /**
+     * 最後の実行の結果
+     */
+    private volatile String result;
+
+    /**
+     * コンストラクタ
+     *
+     * @param directory バックアップのファイルを保存するディレクトリ
+     * @param maxFiles 保持するバックアップのファイル数の上限
+     * @param fetchSize バックアップ時に、データベースから一度に取得する件数
+     * @param batchSize 復元時に、1回のバッチで登録する件数
+     * @param jdbcTemplate JdbcTemplate
+     * @param transactionManager トランザクションマネージャ
+     * @param bookCache テナントごとの書籍一覧のキャッシュ
+     * @param dedupFilter 書籍の重複判定キーのBloomフィルタ
+     * @param meterRegistry メトリクスのレジストリ
+     * @throws IOException ディレクトリを作成できない場合
+     */
+    public BookBackupServiceImpl(Path directory, int maxFiles, int fetchSize, int batchSize,
+            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, TenantBookCache bookCache,
+            BookDedupFilter dedupFilter, MeterRegistry meterRegistry) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxFiles = maxFiles;
+        this.fetchSize = fetchSize;
+        this.batchSize = batchSize;
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setReadOnly(true);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.restoreTemplate = new TransactionTemplate(transactionManager);
+        this.bookCache = bookCache;
+        this.dedupFilter = dedupFilter;
+        this.meterRegistry = meterRegistry;
+        this.backupRows = Counter.builder(METRIC_PREFIX + "rows")
+                                 .tag("operation", BACKUP)
+                                 .register(meterRegistry);
+        this.restoredRows = Counter.builder(METRIC_PREFIX + "rows")
+                                   .tag("operation", RESTORE)
+                                   .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "progress", this, BookBackupServiceImpl::progress)
+             .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<Future<?>> startBackup() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        String name = BACKUP_NAME_FORMAT.format(LocalDateTime.now());
+        return Optional.of(executor.submit(() -> execute(BACKUP, name, () -> backup(directory.resolve(name)))));
+    }
+
+    @Override
+    public Optional<Future<?>> startRestore(String name) {
+        Optional<Path> file = resolve(name);
+        if (file.isEmpty() || !running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        return Optional.of(executor.submit(() -> execute(RESTORE, name, () -> restore(file.get()))));
+    }
+
+    @Override
+    public BackupStatus status() {
+        return BackupStatus.builder()
+                           .operation(operation)
+                           .running(running.get())
+                           .fileName(fileName)
+                           .processed(processed.get())
+                           .total(total)
+                           .startedAt(startedAt)
+                           .finishedAt(finishedAt)
+                           .elapsedMillis(elapsedMillis)
+                           .result(result)
+                           .build();
+    }
+
+    @Override
+    public List<BackupFile> backups() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> BACKUP_NAME.matcher(file.getFileName()
+                                                                .toString())
+                                                   .matches())
+                        .sorted(Comparator.comparing(Path::getFileName)
+                                          .reversed())
+                        .map(BookBackupServiceImpl::toBackupFile)
+                        .flatMap(Optional::stream)
+                        .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Optional<Resource> readBackup(String name) {
+        return resolve(name).map(FileSystemResource::new);
+    }
+
+    /**
+     * 実行中(または最後)の実行の進捗を返却する(メトリクスに使用する)。
+     *
+     * @return 進捗(0から1)
+     */
+    private double progress() {
+        return status().getProgress() / 100.0;
+    }
+
+    /**
+     * バックアップ・復元を実行する仮想スレッドを停止する(実行中の処理は中断する)。
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * バックアップ・復元を実行し、状態と処理時間を記録する(呼び出し元で実行中の状態にしてから呼び出す)。
+     *
+     * @param operation 処理名
+     * @param name 対象のファイル名
+     * @param task 処理
+     */
+    private void execute(String operation, String name, IoTask task) {
+        long start = System.nanoTime();
+        String outcome = "COMPLETED";
+        this.operation = operation;
+        this.fileName = name;
+        this.startedAt = LocalDateTime.now();
+        this.finishedAt = null;
+        this.elapsedMillis = null;
+        this.result = null;
+        this.processed.set(0);
+        this.total = 0;
+        try {
+            task.run();
+        } catch (IOException | RuntimeException e) {
+            outcome = "FAILED";
+            log.warn("book {} failed. (file = {})", operation, name, e);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder(METRIC_PREFIX + "duration")
+                 .tag("operation", operation)
+                 .tag("result", outcome)
+                 .register(meterRegistry)
+                 .record(elapsed, TimeUnit.NANOSECONDS);
+            this.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            this.finishedAt = LocalDateTime.now();
+            this.result = outcome;
+            running.set(false);
+        }
+        log.info("book {} finished. (file = {}, result = {}, rows = {}, elapsed = {}ms)", operation, name, outcome,
+                processed.get(), elapsedMillis);
+    }
+
+    /**
+     * 書籍のテーブル全体をバックアップのファイルに書き込み、保持するファイル数を超えた古いファイルを削除する。
+     *
+     * @param file バックアップのファイル
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private void backup(Path file) throws IOException {
+        Path temporary = Files.createTempFile(directory, "backup-", ".tmp");
+        try {
+            snapshotTemplate.executeWithoutResult(status -> {
+                try {
+                    writeSnapshot(temporary);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        deleteOldBackups();
+    }
+
+    /**
+     * 書籍のテーブル全体を、ファイルに書き込む(トランザクション内で呼び出す)。
+     *
+     * @param file 書き込み先のファイル
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private void writeSnapshot(Path file) throws IOException {
+        Header header = jdbcTemplate.queryForObject(BookBackupFormat.SUMMARY_SQL,
+                (rs, rowNum) -> new Header(rs.getLong(1), rs.getLong(2)));
+        total = header.count();
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                new GZIPOutputStream(Files.newOutputStream(file), BUFFER_SIZE), BUFFER_SIZE))) {
+            BookBackupFormat.writeHeader(output, header);
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(BookBackupFormat.SELECT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    Row.of(rs)
+                       .write(output);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                processed.incrementAndGet();
+                backupRows.increment();
+            });
+            BookBackupFormat.writeEnd(output);
+        }
+    }
+
+    /**
+     * 書籍のテーブル全体を、バックアップのファイルの内容で置き換える。
+     *
+     * @param file バックアップのファイル
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private void restore(Path file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), BUFFER_SIZE))) {
+            Header header = BookBackupFormat.readHeader(input);
+            total = header.count();
+            // 採番を先に進め、復元中に登録された書籍のIDが復元する書籍と重複しないようにする
+            // (DDLはトランザクションをコミットするため、復元のトランザクションの外で実行する)
+            Long currentMaxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from book", Long.class);
+            jdbcTemplate.execute("alter table book alter column id restart with "
+                    + (Math.max(header.maxId(), currentMaxId) + 1));
+            restoreTemplate.executeWithoutResult(status -> {
+                try {
+                    replaceAll(input);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } finally {
+            bookCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 書籍を全て削除し、バックアップの書籍を一定件数ずつ登録する(トランザクション内で呼び出す)。
+     *
+     * @param input バックアップのファイル(ヘッダを読み込んだ後)
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private void replaceAll(DataInputStream input) throws IOException {
+        jdbcTemplate.update("delete from book");
+        List<Row> batch = new ArrayList<>(batchSize);
+        Row row;
+        while ((row = Row.read(input)) != null) {
+            batch.add(row);
+            if (row.deletedDateTime() == null) {
+                // 登録済みの可能性を増やすだけのため、ロールバックした場合も取り除く必要はない
+                dedupFilter.put(row.tenant(), row.dedupKey());
+            }
+            if (batch.size() == batchSize) {
+                insert(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch);
+        }
+    }
+
+    /**
+     * 書籍をJDBCのバッチで登録する。
+     *
+     * @param batch 書籍
+     */
+    private void insert(List<Row> batch) {
+        jdbcTemplate.batchUpdate(BookBackupFormat.INSERT_SQL, batch, batch.size(), (ps, row) -> row.bind(ps));
+        processed.addAndGet(batch.size());
+        restoredRows.increment(batch.size());
+    }
+
+    /**
+     * 保持するファイル数を超えた古いバックアップのファイルを削除する。
+     *
+     * @throws IOException 削除に失敗した場合
+     */
+    private void deleteOldBackups() throws IOException {
+        for (BackupFile backup : backups().stream()
+                                          .skip(maxFiles)
+                                          .toList()) {
+            Files.deleteIfExists(directory.resolve(backup.getName()));
+        }
+    }
+
+    /**
+     * バックアップのファイルを返却する。
+     *
+     * @param name ファイル名
+     * @return ファイル(ファイル名が不正な場合、ファイルが存在しない場合は空)
+     */
+    private Optional<Path> resolve(String name) {
+        if (name == null || !BACKUP_NAME.matcher(name)
+                                        .matches()) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * 管理者用画面に表示するバックアップのファイルを返却する。
+     *
+     * @param file ファイル
+     * @return バックアップのファイル(参照中に削除された場合は空)
+     */
+    private static Optional<BackupFile> toBackupFile(Path file) {
+        try {
+            LocalDateTime createdAt = LocalDateTime.ofInstant(Files.getLastModifiedTime(file)
+                                                                   .toInstant(),
+                    ZoneId.systemDefault());
+            return Optional.of(BackupFile.builder()
+                                         .name(file.getFileName()
+                                                   .toString())
+                                         .size(Files.size(file))
+                                         .createdAt(createdAt)
+                                         .build());
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 読み込み・書き込みを行う処理
+     */
+    @FunctionalInterface
+    private interface IoTask {
+
+        /**
+         * 処理を実行する。
+         *
+         * @throws IOException 読み込み・書き込みに失敗した場合
+         */
+        void run() throws IOException;
+
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.example.bookmanage.service.impl;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+
+import com.example.bookmanage.job.MaintenanceJob;
+import com.example.bookmanage.repository.BookRepository;
+import com.example.bookmanage.service.BookManageService;
+
+/**
+ * テナントごとの書籍一覧のキャッシュの再構築<br />
+ *
+ * キャッシュを全て破棄し、全テナントの書籍一覧(既定の並び順・先頭のページ)をテナントの順に一定数ずつ読み込み直す保守処理。
+ * 参照されなくなった世代のページを一度に取り除き、再構築後の最初の表示でSQLを発行しないようにする。
+ * 再構築中にキャッシュに無い一覧を表示した場合は、通常どおりリクエストで読み込む。
+ */
+public class BookCacheRebuildJob implements MaintenanceJob {
+
+    /**
+     * 書籍のリポジトリ
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * テナントごとの書籍一覧のキャッシュ
+     */
+    private final TenantBookCache bookCache;
+
+    /**
+     * 書籍管理システムのサービス
+     */
+    private final BookManageService service;
+
+    /**
+     * 処理済みのテナント(このテナントより後のテナントを次のチャンクで処理する)
+     */
+    private volatile String lastTenant;
+
+    /**
+     * コンストラクタ
+     *
+     * @param bookRepository 書籍のリポジトリ
+     * @param bookCache テナントごとの書籍一覧のキャッシュ
+     * @param service 書籍管理システムのサービス
+     */
+    public BookCacheRebuildJob(BookRepository bookRepository, TenantBookCache bookCache, BookManageService service) {
+        this.bookRepository = bookRepository;
+        this.bookCache = bookCache;
+        this.service = service;
+    }
+
+    @Override
+    public String getName() {
+        return "book-cache-rebuild";
+    }
+
+    @Override
+    public long begin() {
+        bookCache.invalidateAll();
+        lastTenant = "";
+        return bookRepository.countTenants();
+    }
+
+    /**
+     * テナントの順に、指定した数のテナントの書籍一覧を読み込む。
+     *
+     * @param chunkSize 1チャンクで読み込むテナントの数
+     * @return 読み込んだテナントの数
+     */
+    @Override
+    public int processChunk(int chunkSize) {
+        List<String> tenants = bookRepository.findTenantsAfter(lastTenant, PageRequest.of(0, chunkSize));
+        for (String tenant : tenants) {
+            service.preloadBooks(tenant);
+            lastTenant = tenant;
+        }
+        return tenants.size();
+    }
+
+}
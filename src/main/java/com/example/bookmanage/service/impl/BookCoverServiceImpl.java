@@ -0,0 +1,185 @@
+package com.example.bookmanage.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.exception.BookCoverException;
+import com.example.bookmanage.exception.BookNotFoundException;
+import com.example.bookmanage.repository.BookRepository;
+import com.example.bookmanage.service.BookCoverService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 書籍の表紙の画像のサービス<br />
+ * ログインユーザのテナント(書棚)の書籍のみを扱う。
+ * 画像はBookCoverStorageに保存し、書籍にはファイル名のみを保持する。
+ * 画像の書き込み中はトランザクションを開始せず、書き込みが終わった後にファイル名のみを更新する。
+ * ファイル名の更新と以前の画像の削除は、書籍のIDごとの更新待ち行列で直列化する
+ * (同じ書籍への同時のアップロードで、反映した画像を他のアップロードが削除しないようにする)。<br />
+ * 参照時は書籍のファイル名と一致する場合のみ返却し、他のテナントの書籍の画像や以前の画像は返却しない。
+ */
+@Slf4j
+@Service
+public class BookCoverServiceImpl implements BookCoverService {
+
+    /**
+     * 書籍のリポジトリ
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * トランザクションのテンプレート
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 書籍のIDごとの更新待ち行列
+     */
+    private final BookWriteQueue writeQueue;
+
+    /**
+     * テナントごとの書籍一覧のキャッシュ
+     */
+    private final TenantBookCache bookCache;
+
+    /**
+     * 表紙の画像の保存先
+     */
+    private final BookCoverStorage coverStorage;
+
+    /**
+     * 表紙の縮小画像のキャッシュ
+     */
+    private final CoverThumbnailCache thumbnailCache;
+
+    /**
+     * コンストラクタ
+     *
+     * @param bookRepository 書籍のリポジトリ
+     * @param transactionTemplate トランザクションのテンプレート
+     * @param writeQueue 書籍のIDごとの更新待ち行列
+     * @param bookCache テナントごとの書籍一覧のキャッシュ
+     * @param coverStorage 表紙の画像の保存先
+     * @param thumbnailCache 表紙の縮小画像のキャッシュ
+     */
+    public BookCoverServiceImpl(BookRepository bookRepository, TransactionTemplate transactionTemplate,
+            BookWriteQueue writeQueue, TenantBookCache bookCache, BookCoverStorage coverStorage,
+            CoverThumbnailCache thumbnailCache) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.writeQueue = writeQueue;
+        this.bookCache = bookCache;
+        this.coverStorage = coverStorage;
+        this.thumbnailCache = thumbnailCache;
+    }
+
+    /**
+     * 指定したIDに該当する書籍の表紙の画像を保存する(以前の表紙の画像は削除する)。<br />
+     * 書き込む前に書籍の存在を確認し、他のテナントの書籍のディレクトリに書き込まない。
+     *
+     * @param id 書籍のID
+     * @param input 画像の内容
+     * @return 表紙の画像のファイル名
+     * @throws BookNotFoundException 書籍が取得できない場合に発生する
+     * @throws BookCoverException 画像の形式が対象外か、サイズ・画素数が上限を超えている場合に発生する
+     * @throws IOException 読み込み・書き込みに失敗した場合に発生する
+     */
+    @Override
+    public String storeCover(long id, InputStream input)
+            throws BookNotFoundException, BookCoverException, IOException {
+        String tenant = currentTenant();
+        if (!bookRepository.existsByIdAndTenant(id, tenant)) {
+            throw new BookNotFoundException(id);
+        }
+        String coverName = coverStorage.store(id, input);
+        try (BookWriteQueue.Permit permit = writeQueue.acquire(id)) {
+            if (coverStorage.resolve(id, coverName)
+                            .isEmpty()) {
+                // 書き込み中に他のアップロードが反映され、書き込んだ画像が削除された場合は、反映済みの画像を残す
+                return bookRepository.findByIdAndTenant(id, tenant)
+                                     .map(Book::getCoverName)
+                                     .orElseThrow(() -> new BookNotFoundException(id));
+            }
+            Integer updated = transactionTemplate.execute(
+                    status -> bookRepository.updateCoverName(id, tenant, coverName));
+            if (updated == 0) {
+                // 書き込み中に削除された場合(書き込んだ画像は、物理削除か次の保存で削除する)
+                throw new BookNotFoundException(id);
+            }
+            coverStorage.retain(id, coverName);
+        }
+        bookCache.invalidate(tenant);
+        return coverName;
+    }
+
+    /**
+     * 指定したIDに該当する書籍の表紙の画像を返却する。<br />
+     * 画像はファイルのまま返却し、ヒープに読み込まない。
+     *
+     * @param id 書籍のID
+     * @param coverName 表紙の画像のファイル名
+     * @return 表紙の画像(書籍が存在しない場合、表紙の画像が変更された場合は空)
+     */
+    @Override
+    public Optional<Resource> readCover(long id, String coverName) {
+        return findCover(id, coverName).map(FileSystemResource::new);
+    }
+
+    /**
+     * 指定したIDに該当する書籍の表紙の縮小画像(JPEG)を返却する。<br />
+     * 表紙の画像を読み込めない場合も、空を返却する。
+     *
+     * @param id 書籍のID
+     * @param coverName 表紙の画像のファイル名
+     * @return 縮小画像(書籍が存在しない場合、表紙の画像が変更された場合は空)
+     */
+    @Override
+    public Optional<Resource> readThumbnail(long id, String coverName) {
+        return findCover(id, coverName).flatMap(cover -> {
+            try {
+                return Optional.of(new ByteArrayResource(thumbnailCache.get(coverName, cover)));
+            } catch (UncheckedIOException e) {
+                log.warn("failed to create thumbnail. (id = {}, cover = {})", id, coverName, e);
+                return Optional.empty();
+            }
+        });
+    }
+
+    /**
+     * ログインユーザのテナントの書籍の、表紙の画像のファイルを返却する。
+     *
+     * @param id 書籍のID
+     * @param coverName 表紙の画像のファイル名
+     * @return 表紙の画像のファイル(書籍のファイル名と一致しない場合は空)
+     */
+    private Optional<Path> findCover(long id, String coverName) {
+        if (!bookRepository.existsByIdAndTenantAndCoverName(id, currentTenant(), coverName)) {
+            return Optional.empty();
+        }
+        return coverStorage.resolve(id, coverName);
+    }
+
+    /**
+     * ログインユーザのテナントを返却する。
+     *
+     * @return テナント
+     */
+    private static String currentTenant() {
+        return SecurityContextHolder.getContext()
+                                    .getAuthentication()
+                                    .getName();
+    }
+
+}
@@ -0,0 +1,267 @@
+package com.example.bookmanage.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import com.example.bookmanage.exception.BookCoverException;
+
+/**
+ * 書籍の表紙の画像の保存先(ローカルのファイルシステム)<br />
+ *
+ * アップロードされた画像は一定サイズのバッファでファイルに書き込み、全体をヒープに読み込まない。
+ * 書き込みながら内容のハッシュ値を計算し、ファイル名(ハッシュ値と拡張子)にする。
+ * ファイル名は内容が変わると変わるため、URLに含めて長期間キャッシュさせることができる。<br />
+ * 書き込み中のファイルは一時ファイルとし、書き込みと形式の確認が終わった後に名前を変更する(読み込み中のファイルを書き換えない)。
+ * 形式はPNG, JPEG, GIFのみとし、ヘッダのみを読み込んで画素数を確認する(展開はしない)。<br />
+ * ファイルは書籍のIDごとのディレクトリに保存し、1つのディレクトリのエントリ数が増えすぎないよう、IDの下位で分ける。
+ */
+public class BookCoverStorage {
+
+    /**
+     * 書き込みのバッファのサイズ
+     */
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * ファイル名のハッシュ値の長さ(バイト数)
+     */
+    private static final int HASH_LENGTH = 16;
+
+    /**
+     * 画像の形式と拡張子の対応
+     */
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "png", "png",
+            "jpeg", "jpg",
+            "gif", "gif");
+
+    /**
+     * 表紙の画像のファイル名(ハッシュ値と拡張子)
+     */
+    private static final Pattern COVER_NAME = Pattern.compile("[0-9a-f]{" + HASH_LENGTH * 2 + "}\\.(png|jpg|gif)");
+
+    /**
+     * 書き込み中の一時ファイルの接頭辞
+     */
+    private static final String TEMPORARY_PREFIX = "upload-";
+
+    /**
+     * IDの下位で分けるディレクトリの数
+     */
+    private static final int SHARDS = 256;
+
+    /**
+     * 保存先のディレクトリ
+     */
+    private final Path directory;
+
+    /**
+     * 画像のサイズの上限
+     */
+    private final long maxSize;
+
+    /**
+     * 画像の画素数の上限
+     */
+    private final long maxPixels;
+
+    /**
+     * コンストラクタ
+     *
+     * @param directory 保存先のディレクトリ
+     * @param maxSize 画像のサイズの上限
+     * @param maxPixels 画像の画素数の上限
+     * @throws IOException ディレクトリを作成できない場合
+     */
+    public BookCoverStorage(Path directory, long maxSize, long maxPixels) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxSize = maxSize;
+        this.maxPixels = maxPixels;
+    }
+
+    /**
+     * 書籍の表紙の画像を保存する。<br />
+     * 以前の表紙の画像は削除しない(データベースを更新した後にretainで削除する)。
+     *
+     * @param id 書籍のID
+     * @param input 画像の内容
+     * @return ファイル名(内容のハッシュ値と拡張子)
+     * @throws BookCoverException 画像の形式が対象外か、サイズ・画素数が上限を超えている場合
+     * @throws IOException 読み込み・書き込みに失敗した場合
+     */
+    public String store(long id, InputStream input) throws BookCoverException, IOException {
+        Path bookDirectory = Files.createDirectories(bookDirectory(id));
+        Path temporary = Files.createTempFile(bookDirectory, TEMPORARY_PREFIX, ".tmp");
+        try {
+            MessageDigest digest = newDigest();
+            try (ReadableByteChannel source = Channels.newChannel(input);
+                    FileChannel target = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                long size = 0;
+                while (source.read(buffer) >= 0) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxSize) {
+                        throw new BookCoverException(id, "too large");
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        target.write(buffer);
+                    }
+                    buffer.clear();
+                }
+            }
+            String hash = HexFormat.of()
+                                   .formatHex(digest.digest(), 0, HASH_LENGTH);
+            String name = hash + "." + extension(id, temporary);
+            Files.move(temporary, bookDirectory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+            return name;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * 書籍の表紙の画像のファイルを返却する。
+     *
+     * @param id 書籍のID
+     * @param name ファイル名
+     * @return ファイル(ファイル名が不正な場合、ファイルが存在しない場合は空)
+     */
+    public Optional<Path> resolve(long id, String name) {
+        if (name == null || !COVER_NAME.matcher(name)
+                                       .matches()) {
+            return Optional.empty();
+        }
+        Path file = bookDirectory(id).resolve(name);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * 書籍の表紙の画像のうち、指定したファイル以外(以前の表紙の画像)を削除する。<br />
+     * 書き込み中の一時ファイルは削除しない。
+     *
+     * @param id 書籍のID
+     * @param name 残すファイル名
+     * @throws IOException 削除に失敗した場合
+     */
+    public void retain(long id, String name) throws IOException {
+        Path bookDirectory = bookDirectory(id);
+        if (!Files.isDirectory(bookDirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(bookDirectory)) {
+            for (Path file : files) {
+                String fileName = file.getFileName()
+                                      .toString();
+                if (!fileName.equals(name) && !fileName.startsWith(TEMPORARY_PREFIX)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * 書籍の表紙の画像を全て削除する(書籍を物理削除した場合に使用する)。
+     *
+     * @param id 書籍のID
+     * @throws IOException 削除に失敗した場合
+     */
+    public void delete(long id) throws IOException {
+        Path bookDirectory = bookDirectory(id);
+        if (!Files.isDirectory(bookDirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(bookDirectory)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(bookDirectory);
+    }
+
+    /**
+     * 書籍の表紙の画像を保存するディレクトリを返却する。
+     *
+     * @param id 書籍のID
+     * @return ディレクトリ
+     */
+    private Path bookDirectory(long id) {
+        return directory.resolve(Long.toString(id % SHARDS))
+                        .resolve(Long.toString(id));
+    }
+
+    /**
+     * 画像のヘッダを読み込み、形式と画素数を確認して拡張子を返却する。
+     *
+     * @param id 書籍のID
+     * @param file 画像のファイル
+     * @return 拡張子
+     * @throws BookCoverException 画像の形式が対象外か、画素数が上限を超えている場合
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private String extension(long id, Path file) throws BookCoverException, IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new BookCoverException(id, "unsupported format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                String extension = EXTENSIONS.get(reader.getFormatName()
+                                                        .toLowerCase(Locale.ROOT));
+                if (extension == null) {
+                    throw new BookCoverException(id, "unsupported format: " + reader.getFormatName());
+                }
+                reader.setInput(input, true, true);
+                long pixels;
+                try {
+                    pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                } catch (IOException e) {
+                    throw new BookCoverException(id, "unreadable image");
+                }
+                if (pixels > maxPixels) {
+                    throw new BookCoverException(id, "too many pixels: " + pixels);
+                }
+                return extension;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * SHA-256のMessageDigestを返却する。
+     *
+     * @return MessageDigest
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.example.bookmanage.service.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 登録済みの書籍の重複判定キーのBloomフィルタ<br />
+ *
+ * テナントと重複判定キー(Book#dedupKeyOf)の組を登録し、登録済みの可能性があるか否かを返却する。
+ * 登録済みでないと判定した場合は確実に未登録のため、書籍の登録・更新時の重複チェックでSQLを発行しない。
+ * 登録済みの可能性がある場合(誤判定を含む)のみ、データベースで重複を確認する。<br />
+ * 削除した書籍の重複判定キーは取り除けないが、データベースで確認するため誤判定にはならない。
+ * 起動前に登録された書籍はウォームアップで登録する(登録前に漏れた重複は一意制約で検出する)。
+ */
+public class BookDedupFilter {
+
+    /**
+     * メトリクス名
+     */
+    private static final String METRIC_NAME = "bookmanage.book.dedup.checks";
+
+    /**
+     * ビット列
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * ビット数
+     */
+    private final long bitSize;
+
+    /**
+     * 1件あたりのハッシュ関数の数
+     */
+    private final int hashCount;
+
+    /**
+     * 未登録と判定した(SQLを発行しなかった)件数
+     */
+    private final Counter absent;
+
+    /**
+     * 登録済みの可能性があると判定した件数
+     */
+    private final Counter maybePresent;
+
+    /**
+     * コンストラクタ<br />
+     * 登録件数と誤判定率から、ビット数とハッシュ関数の数を決める。
+     *
+     * @param expectedInsertions 想定する登録件数(全テナントの合計)
+     * @param falsePositiveProbability 想定する登録件数での誤判定率
+     * @param meterRegistry メトリクスのレジストリ
+     */
+    public BookDedupFilter(long expectedInsertions, double falsePositiveProbability, MeterRegistry meterRegistry) {
+        long n = Math.max(expectedInsertions, 1);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) Math.max((m + Long.SIZE - 1) / Long.SIZE, 1));
+        this.bitSize = (long) bits.length() * Long.SIZE;
+        this.hashCount = (int) Math.max(Math.round((double) m / n * Math.log(2)), 1);
+        this.absent = Counter.builder(METRIC_NAME)
+                             .tag("result", "absent")
+                             .register(meterRegistry);
+        this.maybePresent = Counter.builder(METRIC_NAME)
+                                   .tag("result", "maybe")
+                                   .register(meterRegistry);
+    }
+
+    /**
+     * テナントの重複判定キーを登録する。
+     *
+     * @param tenant テナント
+     * @param dedupKey 重複判定キー
+     */
+    public void put(String tenant, String dedupKey) {
+        long hash = hash(tenant, dedupKey);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + (long) i * h2, bitSize);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                // 他のスレッドが同じ語を更新した場合は、再試行する
+            }
+        }
+    }
+
+    /**
+     * テナントの重複判定キーが登録済みの可能性があるか否かを返却する。
+     *
+     * @param tenant テナント
+     * @param dedupKey 重複判定キー
+     * @return 登録済みの可能性がある場合、true(falseの場合は確実に未登録)
+     */
+    public boolean mightContain(String tenant, String dedupKey) {
+        long hash = hash(tenant, dedupKey);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Math.floorMod(h1 + (long) i * h2, bitSize);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                absent.increment();
+                return false;
+            }
+        }
+        maybePresent.increment();
+        return true;
+    }
+
+    /**
+     * テナントと重複判定キーの64ビットのハッシュ値(FNV-1a)を返却する。
+     *
+     * @param tenant テナント
+     * @param dedupKey 重複判定キー
+     * @return ハッシュ値
+     */
+    private static long hash(String tenant, String dedupKey) {
+        long hash = 0xcbf29ce484222325L;
+        hash = hash(hash, tenant);
+        // テナントとキーの区切り
+        hash *= 0x100000001b3L;
+        hash = hash(hash, dedupKey);
+        // 下位ビットの偏りを無くす(MurmurHash3のfinalizer)
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * 文字列をハッシュ値に加える。
+     *
+     * @param hash ハッシュ値
+     * @param value 文字列
+     * @return ハッシュ値
+     */
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.example.bookmanage.service.impl;
+
+import java.util.List;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.job.MaintenanceJob;
+import com.example.bookmanage.repository.BookRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 書籍の重複判定キーの再索引付け<br />
+ *
+ * 全テナントの書籍をIDの順に一定件数ずつ読み込み、重複判定キー(Book#dedupKeyOf)を計算し直す保守処理。
+ * 正規化の規則を変更した場合などに、計算し直した重複判定キーが異なる書籍のみを更新する。
+ * 重複判定キーはBloomフィルタにも登録し直す(ウォームアップ後に漏れた書籍も、重複チェックでSQLを発行するようになる)。<br />
+ * 計算し直した重複判定キーが同じテナントの他の書籍と重複した場合(一意制約の違反)、チャンクのトランザクションは取り消し、
+ * そのチャンクを1件ずつのトランザクションで更新し直す。重複した書籍は更新せずに件数を記録し、次の書籍に進む。
+ */
+@Slf4j
+public class BookDedupReindexJob implements MaintenanceJob {
+
+    /**
+     * メトリクス名
+     */
+    private static final String METRIC_NAME = "bookmanage.book.dedup.collisions";
+
+    /**
+     * 書籍のリポジトリ
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * トランザクションのテンプレート
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 書籍の重複判定キーのBloomフィルタ
+     */
+    private final BookDedupFilter dedupFilter;
+
+    /**
+     * 重複判定キーが他の書籍と重複し、更新しなかった件数
+     */
+    private final Counter collisions;
+
+    /**
+     * 処理済みの書籍のID(このIDより後の書籍を次のチャンクで処理する)
+     */
+    private volatile long lastId;
+
+    /**
+     * コンストラクタ
+     *
+     * @param bookRepository 書籍のリポジトリ
+     * @param transactionTemplate トランザクションのテンプレート
+     * @param dedupFilter 書籍の重複判定キーのBloomフィルタ
+     * @param meterRegistry メトリクスのレジストリ
+     */
+    public BookDedupReindexJob(BookRepository bookRepository, TransactionTemplate transactionTemplate,
+            BookDedupFilter dedupFilter, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.dedupFilter = dedupFilter;
+        this.collisions = Counter.builder(METRIC_NAME)
+                                 .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return "book-dedup-reindex";
+    }
+
+    @Override
+    public long begin() {
+        lastId = 0;
+        return bookRepository.count();
+    }
+
+    /**
+     * IDの順に指定した件数の書籍の重複判定キーを計算し直す。
+     *
+     * @param chunkSize 1回のトランザクションで処理する件数
+     * @return 処理した件数
+     */
+    @Override
+    public int processChunk(int chunkSize) {
+        List<Book> books = bookRepository.findByIdGreaterThan(lastId, PageRequest.of(0, chunkSize, Sort.by("id")));
+        List<Book> changed = books.stream()
+                                  .filter(book -> !dedupKeyOf(book).equals(book.getDedupKey()))
+                                  .toList();
+        if (!changed.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> changed.forEach(this::updateDedupKey));
+            } catch (DataIntegrityViolationException e) {
+                // 重複した書籍を除いて更新し直す
+                changed.forEach(this::updateDedupKeySeparately);
+            }
+        }
+        for (Book book : books) {
+            dedupFilter.put(book.getTenant(), dedupKeyOf(book));
+            lastId = book.getId();
+        }
+        return books.size();
+    }
+
+    /**
+     * 1件の書籍の重複判定キーを、1件のトランザクションで更新する。<br />
+     * 他の書籍と重複した場合は、更新せずに件数を記録する(Bloomフィルタには読み込んだ時の重複判定キーを登録する)。
+     *
+     * @param book 書籍
+     */
+    private void updateDedupKeySeparately(Book book) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> updateDedupKey(book));
+        } catch (DataIntegrityViolationException e) {
+            collisions.increment();
+            dedupFilter.put(book.getTenant(), book.getDedupKey());
+            log.warn("dedup key collides with another book, skipped. (id = {}, tenant = {})", book.getId(),
+                    book.getTenant());
+        }
+    }
+
+    /**
+     * 書籍の重複判定キーを、計算し直した値に更新する(読み込んだ後に更新された場合は更新しない)。
+     *
+     * @param book 書籍
+     */
+    private void updateDedupKey(Book book) {
+        bookRepository.updateDedupKey(book.getId(), book.getDedupKey(), dedupKeyOf(book));
+    }
+
+    /**
+     * 書籍のタイトルと著者から計算し直した重複判定キーを返却する。
+     *
+     * @param book 書籍
+     * @return 重複判定キー
+     */
+    private static String dedupKeyOf(Book book) {
+        return Book.dedupKeyOf(book.getTitle(), book.getAuthor());
+    }
+
+}
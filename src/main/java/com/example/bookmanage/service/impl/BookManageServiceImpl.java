@@ -1,37 +1,116 @@
 package com.example.bookmanage.service.impl;
 
+import com.example.bookmanage.config.BookDeleteProperties;
 import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.exception.BookDuplicateException;
 import com.example.bookmanage.exception.BookNotFoundException;
+import com.example.bookmanage.exception.IdempotencyKeyMismatchException;
 import com.example.bookmanage.form.BookManagementForm;
+import com.example.bookmanage.form.BookSearchCondition;
 import com.example.bookmanage.repository.BookRepository;
 import com.example.bookmanage.service.BookManageService;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 
 /**
- * 書籍管理システムのサービス
+ * 書籍管理システムのサービス<br />
+ * ログインユーザのテナント(書棚)の書籍のみを扱う。テナントの書籍一覧はTenantBookCacheにキャッシュする。<br />
+ * 同じテナントに同じタイトルと著者の書籍は登録できない。重複チェックは、重複判定キーのBloomフィルタで
+ * 登録済みの可能性がある場合のみSQLを発行する(同時に登録した場合の重複は、一意制約で検出する)。<br />
+ * 書籍の削除は論理削除とし、削除を取り消せる時間が過ぎた後にBookPurgeJobが物理削除する。
  */
 @Service
 public class BookManageServiceImpl implements BookManageService {
 
+    /**
+     * 並び順の項目とエンティティのプロパティの対応
+     */
+    private static final Map<String, String> SORT_PROPERTIES = Map.of(
+            "title", "title",
+            "author", "author",
+            "updated", "updatedDateTime");
+
     /**
      * 書籍のリポジトリ
      */
     private final BookRepository bookRepository;
 
+    /**
+     * エンティティとフォーム情報のマッパー
+     */
+    private final ModelMapper modelMapper;
+
+    /**
+     * 書籍のIDごとの更新待ち行列
+     */
+    private final BookWriteQueue writeQueue;
+
+    /**
+     * 更新待ち行列の中でトランザクションを開始するためのテンプレート
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * テナントごとの書籍一覧のキャッシュ
+     */
+    private final TenantBookCache bookCache;
+
+    /**
+     * 冪等キーごとの登録・更新の結果
+     */
+    private final IdempotencyKeyStore idempotencyKeyStore;
+
+    /**
+     * 書籍の重複判定キーのBloomフィルタ
+     */
+    private final BookDedupFilter dedupFilter;
+
+    /**
+     * 削除を取り消せる時間
+     */
+    private final Duration undoWindow;
+
     /**
      * コンストラクタ
      *
      * @param bookRepository 書籍のリポジトリ
+     * @param modelMapper エンティティとフォーム情報のマッパー
+     * @param writeQueue 書籍のIDごとの更新待ち行列
+     * @param transactionTemplate トランザクションのテンプレート
+     * @param bookCache テナントごとの書籍一覧のキャッシュ
+     * @param idempotencyKeyStore 冪等キーごとの登録・更新の結果
+     * @param dedupFilter 書籍の重複判定キーのBloomフィルタ
+     * @param deleteProperties 書籍の削除の設定値
      */
     @Autowired
-    public BookManageServiceImpl(BookRepository bookRepository) {
+    public BookManageServiceImpl(BookRepository bookRepository, ModelMapper modelMapper, BookWriteQueue writeQueue,
+            TransactionTemplate transactionTemplate, TenantBookCache bookCache,
+            IdempotencyKeyStore idempotencyKeyStore, BookDedupFilter dedupFilter,
+            BookDeleteProperties deleteProperties) {
         this.bookRepository = bookRepository;
+        this.modelMapper = modelMapper;
+        this.writeQueue = writeQueue;
+        this.transactionTemplate = transactionTemplate;
+        this.bookCache = bookCache;
+        this.idempotencyKeyStore = idempotencyKeyStore;
+        this.dedupFilter = dedupFilter;
+        this.undoWindow = deleteProperties.getUndoWindow();
     }
 
     /**
@@ -40,11 +119,23 @@ public class BookManageServiceImpl implements BookManageService {
      * @return フォーム情報
      */
     @Override
-    @Transactional(readOnly = true)
     public BookManagementForm initForm() {
+        return initForm(new BookSearchCondition());
+    }
+
+    /**
+     * フォーム情報の初期化を行う。
+     *
+     * @param condition 書籍の一覧の並び順・絞り込み・ページの条件
+     * @return フォーム情報
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BookManagementForm initForm(BookSearchCondition condition) {
         // 一覧を取得する
-        List<Book> books = bookRepository.findAll();
-        return new BookManagementForm(true, books);
+        BookManagementForm form = new BookManagementForm(true, null);
+        setBooks(form, currentTenant(), condition);
+        return form;
     }
 
     /**
@@ -55,43 +146,115 @@ public class BookManageServiceImpl implements BookManageService {
      * @throws BookNotFoundException 書籍が取得できない場合に発生する
      */
     @Override
-    @Transactional(readOnly = true)
     public BookManagementForm readOneBook(long id) throws BookNotFoundException {
+        return readOneBook(id, new BookSearchCondition());
+    }
+
+    /**
+     * 指定したIDに該当する書籍を取得し、フォーム情報を返却する。
+     *
+     * @param id 書籍のID
+     * @param condition 書籍の一覧の並び順・絞り込み・ページの条件
+     * @return フォーム情報
+     * @throws BookNotFoundException 書籍が取得できない場合に発生する
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public BookManagementForm readOneBook(long id, BookSearchCondition condition) throws BookNotFoundException {
+        String tenant = currentTenant();
+
         // IDでエンティティを取得する
-        Book book = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+        Book book = bookRepository.findByIdAndTenant(id, tenant).orElseThrow(() -> new BookNotFoundException(id));
 
         // 一覧を取得する
-        List<Book> books = bookRepository.findAll();
-        BookManagementForm form = new BookManagementForm(false, books);
+        BookManagementForm form = new BookManagementForm(false, null);
+        setBooks(form, tenant, condition);
 
         // エンティティの内容をフォームに反映する
-        ModelMapper modelMapper = new ModelMapper();
         modelMapper.map(book, form);
 
         return form;
     }
 
     /**
-     * 指定したIDに該当する書籍をフォーム情報の内容に更新する。
+     * 指定したIDに該当する書籍を取得し、フォーム情報を返却する。<br />
+     * 書籍の一覧は取得しない(フォームのみを部分更新する場合に使用する)。
+     * 書籍が存在しない場合は例外を発生させず、空のOptionalを返却する。
+     *
+     * @param id 書籍のID
+     * @return フォーム情報(書籍の一覧はnull)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<BookManagementForm> findBookForm(long id) {
+        // IDでエンティティを取得し、内容をフォームに反映する
+        return bookRepository.findByIdAndTenant(id, currentTenant())
+                             .map(book -> {
+                                 BookManagementForm form = new BookManagementForm(false, null);
+                                 modelMapper.map(book, form);
+                                 return form;
+                             });
+    }
+
+    /**
+     * 指定したIDに該当する書籍をフォーム情報の内容に更新する。<br />
+     * 同じ書籍への更新は直列化し、トランザクションはロックを取得してから開始する(コミット後にロックを解放する)。
+     * フォーム情報の冪等キーで更新済みの場合は、トランザクションを開始せずに最初の更新の結果を返却する
+     * (重複判定キーと更新前のバージョンが最初の更新と同じ場合のみ)。
      *
      * @param id 書籍のID
      * @param form フォーム情報
      * @return 更新後の書籍
      * @throws BookNotFoundException 書籍が取得できない場合に発生する
+     * @throws BookDuplicateException 同じタイトルと著者の他の書籍が存在する場合に発生する
+     * @throws IdempotencyKeyMismatchException 冪等キーを内容の異なる更新に使い回した場合に発生する
      */
     @Override
-    @Transactional
-    public Book updateBook(long id, BookManagementForm form) throws BookNotFoundException {
-        // IDでエンティティを取得する
-        Book book = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
+    public Book updateBook(long id, BookManagementForm form)
+            throws BookNotFoundException, BookDuplicateException, IdempotencyKeyMismatchException {
+        String tenant = currentTenant();
+        String dedupKey = Book.dedupKeyOf(form.getTitle(), form.getAuthor());
+        String fingerprint = dedupKey + ":" + form.getVersion();
+        Book book = idempotencyKeyStore.execute(tenant, "update:" + id, form.getIdempotencyKey(), fingerprint, () -> {
+            checkDuplicate(tenant, dedupKey, id, form);
+            Book updated;
+            try {
+                updated = writeQueue.update(id, form.getVersion(), () -> transactionTemplate.execute(status -> {
+                    // IDでエンティティを取得する
+                    return bookRepository.findByIdAndTenant(id, tenant)
+                                         .map(entity -> mergeBook(entity, form))
+                                         .orElse(null);
+                }));
+            } catch (DataIntegrityViolationException e) {
+                throw toDuplicateException(e, form.getTitle(), form.getAuthor());
+            }
+            if (updated != null) {
+                // コミット済みのため、すぐに反映する
+                dedupFilter.put(tenant, dedupKey);
+                bookCache.invalidate(tenant);
+            }
+            return updated;
+        });
+        if (book == null) {
+            throw new BookNotFoundException(id);
+        }
+        return book;
+    }
 
+    /**
+     * フォームの内容をエンティティに反映して、保存する。
+     *
+     * @param book 書籍のエンティティ
+     * @param form フォーム情報
+     * @return 更新後の書籍
+     */
+    private Book mergeBook(Book book, BookManagementForm form) {
         // 楽観排他
         if (book.getVersion() != form.getVersion()) {
-            throw new ObjectOptimisticLockingFailureException(Book.class, id);
+            throw new ObjectOptimisticLockingFailureException(Book.class, book.getId());
         }
 
         // フォームの内容をエンティティに更新する
-        ModelMapper modelMapper = new ModelMapper();
         modelMapper.map(form, book);
 
         // エンティティの更新
@@ -99,24 +262,86 @@ public class BookManageServiceImpl implements BookManageService {
     }
 
     /**
-     * フォーム情報から書籍を新規作成する
+     * フォーム情報から書籍を新規作成する<br />
+     * フォーム情報の冪等キーで登録済みの場合は、トランザクションを開始せずに最初に登録した書籍を返却する
+     * (結果はコミット後に保持する。重複判定キーが最初の登録と同じ場合のみ)。
      * 
      * @param form フォーム情報
      * @return 新規作成した書籍
+     * @throws BookDuplicateException 同じタイトルと著者の書籍が存在する場合に発生する
+     * @throws IdempotencyKeyMismatchException 冪等キーを内容の異なる登録に使い回した場合に発生する
      */
     @Override
-    @Transactional
-    public Book createBook(BookManagementForm form) {
-        // フォーム情報を使って、エンティティを生成する
-        ModelMapper modelMapper = new ModelMapper();
-        Book book = modelMapper.map(form, Book.class);
+    public Book createBook(BookManagementForm form) throws BookDuplicateException, IdempotencyKeyMismatchException {
+        String tenant = currentTenant();
+        String dedupKey = Book.dedupKeyOf(form.getTitle(), form.getAuthor());
+        return idempotencyKeyStore.execute(tenant, "create", form.getIdempotencyKey(), dedupKey, () -> {
+            checkDuplicate(tenant, dedupKey, null, form);
+            Book created;
+            try {
+                created = transactionTemplate.execute(status -> {
+                    // フォーム情報を使って、エンティティを生成する
+                    Book book = modelMapper.map(form, Book.class);
 
-        // エンティティを登録する
-        return bookRepository.save(book);
+                    // エンティティを登録する
+                    return bookRepository.save(book);
+                });
+            } catch (DataIntegrityViolationException e) {
+                throw toDuplicateException(e, form.getTitle(), form.getAuthor());
+            }
+            // コミット済みのため、すぐに反映する
+            dedupFilter.put(tenant, dedupKey);
+            bookCache.invalidate(tenant);
+            return created;
+        });
+    }
+
+    /**
+     * 同じタイトルと著者の書籍が存在するか否かを確認する。<br />
+     * Bloomフィルタで登録済みの可能性がある場合のみ、SQLを発行する。
+     *
+     * @param tenant テナント
+     * @param dedupKey 重複判定キー
+     * @param id 更新する書籍のID(新規作成の場合はnull)
+     * @param form フォーム情報
+     * @throws BookDuplicateException 同じタイトルと著者の書籍が存在する場合に発生する
+     */
+    private void checkDuplicate(String tenant, String dedupKey, Long id, BookManagementForm form)
+            throws BookDuplicateException {
+        if (!dedupFilter.mightContain(tenant, dedupKey)) {
+            return;
+        }
+        boolean exists = id == null ? bookRepository.existsByTenantAndDedupKey(tenant, dedupKey)
+                : bookRepository.existsByTenantAndDedupKeyAndIdNot(tenant, dedupKey, id);
+        if (exists) {
+            throw new BookDuplicateException(form.getTitle(), form.getAuthor());
+        }
+    }
+
+    /**
+     * 重複判定キーの一意制約の違反を、重複の例外に変換する。<br />
+     * 重複チェックの後に、同じタイトルと著者の書籍が同時に登録された場合に発生する。
+     *
+     * @param e 例外
+     * @param title タイトル
+     * @param author 著者
+     * @return 重複の例外
+     * @throws DataIntegrityViolationException 重複判定キー以外の制約の違反の場合
+     */
+    private static BookDuplicateException toDuplicateException(DataIntegrityViolationException e, String title,
+            String author) {
+        String message = String.valueOf(e.getMostSpecificCause()
+                                         .getMessage());
+        if (!message.toLowerCase(Locale.ROOT)
+                    .contains(Book.DEDUP_KEY_CONSTRAINT)) {
+            throw e;
+        }
+        return new BookDuplicateException(title, author);
     }
 
     /**
-     * 指定したIDに該当する書籍を削除する。
+     * 指定したIDに該当する書籍を削除(論理削除)する。<br />
+     * 削除した書籍は一覧・検索の対象外となり、削除を取り消せる時間内であればrestoreBookで元に戻せる。
      *
      * @param id 書籍のID
      * @throws BookNotFoundException 書籍が取得できない場合に発生する
@@ -124,11 +349,111 @@ public class BookManageServiceImpl implements BookManageService {
     @Override
     @Transactional
     public void deleteBook(long id) throws BookNotFoundException {
-        if (bookRepository.existsById(id)) {
-            bookRepository.deleteById(id);
-        } else {
+        String tenant = currentTenant();
+        if (bookRepository.softDeleteByIdAndTenant(id, tenant, LocalDateTime.now()) == 0) {
+            throw new BookNotFoundException(id);
+        }
+        bookCache.invalidate(tenant);
+    }
+
+    /**
+     * 指定したIDに該当する削除した書籍を元に戻す。<br />
+     * 削除を取り消せる時間が過ぎた書籍(物理削除の対象)は、元に戻せない。
+     *
+     * @param id 書籍のID
+     * @return 元に戻した書籍
+     * @throws BookNotFoundException 削除を取り消せる書籍が取得できない場合に発生する
+     * @throws BookDuplicateException 削除後に同じタイトルと著者の書籍が登録された場合に発生する
+     */
+    @Override
+    public Book restoreBook(long id) throws BookNotFoundException, BookDuplicateException {
+        String tenant = currentTenant();
+        LocalDateTime deletedAfter = LocalDateTime.now()
+                                                  .minus(undoWindow);
+        Book restored;
+        try {
+            restored = transactionTemplate.execute(status -> bookRepository
+                    .findDeletedByIdAndTenant(id, tenant, deletedAfter)
+                    .map(book -> {
+                        // 重複判定キーは更新時(@PreUpdate)に元の値に戻る
+                        book.setDeletedDateTime(null);
+                        return bookRepository.saveAndFlush(book);
+                    })
+                    .orElse(null));
+        } catch (DataIntegrityViolationException e) {
+            Book deleted = bookRepository.findDeletedByIdAndTenant(id, tenant, deletedAfter)
+                                         .orElseThrow(() -> e);
+            throw toDuplicateException(e, deleted.getTitle(), deleted.getAuthor());
+        }
+        if (restored == null) {
             throw new BookNotFoundException(id);
         }
+        // コミット済みのため、すぐに反映する
+        dedupFilter.put(tenant, Book.dedupKeyOf(restored.getTitle(), restored.getAuthor()));
+        bookCache.invalidate(tenant);
+        return restored;
+    }
+
+    /**
+     * 指定したテナントの書籍一覧(既定の並び順・先頭のページ)を読み込み、キャッシュする(保守処理で使用する)。
+     *
+     * @param tenant テナント
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void preloadBooks(String tenant) {
+        setBooks(new BookManagementForm(true, null), tenant, new BookSearchCondition());
+    }
+
+    /**
+     * テナントの書籍一覧のページを取得し、フォーム情報に設定する(キャッシュに無い場合のみ検索する)。
+     *
+     * @param form フォーム情報
+     * @param tenant テナント
+     * @param condition 書籍の一覧の並び順・絞り込み・ページの条件
+     */
+    private void setBooks(BookManagementForm form, String tenant, BookSearchCondition condition) {
+        BookListQuery query = new BookListQuery(condition.getTitle(), condition.getAuthor(), toPageable(condition));
+        Slice<Book> books = bookCache.get(tenant, query,
+                () -> bookRepository.findByTenantAndTitleStartingWithAndAuthorStartingWith(tenant, query.title(),
+                        query.author(), query.pageable()));
+        form.setBooks(books.getContent());
+        form.setHasNext(books.hasNext());
+    }
+
+    /**
+     * 書籍の一覧の条件から、ページと並び順を返却する。<br />
+     * 並び順が同じ書籍の順序を一定にするため、最後にIDで並べる(インデックスの末尾もIDにしている)。
+     *
+     * @param condition 書籍の一覧の並び順・絞り込み・ページの条件
+     * @return ページと並び順
+     */
+    private static Pageable toPageable(BookSearchCondition condition) {
+        Sort.Direction direction = Sort.Direction.fromString(condition.getDir());
+        Sort sort = Sort.by(direction, SORT_PROPERTIES.get(condition.getSort()), "id");
+        return PageRequest.of(condition.getPage(), BookSearchCondition.PAGE_SIZE, sort);
+    }
+
+    /**
+     * ログインユーザのテナントを返却する。<br />
+     * テナントはユーザごとの書棚とし、書籍の登録時にBookのtenantに作成ユーザが設定される。
+     *
+     * @return テナント
+     */
+    private static String currentTenant() {
+        return SecurityContextHolder.getContext()
+                                    .getAuthentication()
+                                    .getName();
+    }
+
+    /**
+     * 書籍の一覧の検索条件(キャッシュのキー)
+     *
+     * @param title タイトルの前方一致の条件
+     * @param author 著者の前方一致の条件
+     * @param pageable ページと並び順
+     */
+    private record BookListQuery(String title, String author, Pageable pageable) {
     }
 
 }
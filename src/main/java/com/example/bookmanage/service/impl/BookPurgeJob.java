@@ -0,0 +1,131 @@
+package com.example.bookmanage.service.impl;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.job.MaintenanceJob;
+import com.example.bookmanage.repository.BookRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 削除した書籍の物理削除<br />
+ *
+ * 削除を取り消せる時間が過ぎた書籍(論理削除した書籍)を物理削除する保守処理。
+ * JobSchedulerがリクエストとは別のスレッドで定期的に実行し、チャンク(一定件数)ごとにトランザクションを分ける。
+ * チャンクの間の待機と、混雑している場合の待機はJobSchedulerが行う。<br />
+ * 物理削除した書籍の表紙の画像は、コミット後に削除する(削除に失敗した場合も、書籍の物理削除は取り消さない)。
+ */
+@Slf4j
+public class BookPurgeJob implements MaintenanceJob {
+
+    /**
+     * メトリクス名
+     */
+    private static final String METRIC_NAME = "bookmanage.book.purged";
+
+    /**
+     * 書籍のリポジトリ
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * トランザクションのテンプレート
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 表紙の画像の保存先
+     */
+    private final BookCoverStorage coverStorage;
+
+    /**
+     * 削除を取り消せる時間
+     */
+    private final Duration undoWindow;
+
+    /**
+     * 物理削除した件数
+     */
+    private final Counter purged;
+
+    /**
+     * 実行中の物理削除の対象(この日時より前に削除した書籍)
+     */
+    private volatile LocalDateTime deletedBefore;
+
+    /**
+     * コンストラクタ
+     *
+     * @param bookRepository 書籍のリポジトリ
+     * @param transactionTemplate トランザクションのテンプレート
+     * @param coverStorage 表紙の画像の保存先
+     * @param undoWindow 削除を取り消せる時間
+     * @param meterRegistry メトリクスのレジストリ
+     */
+    public BookPurgeJob(BookRepository bookRepository, TransactionTemplate transactionTemplate,
+            BookCoverStorage coverStorage, Duration undoWindow, MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.coverStorage = coverStorage;
+        this.undoWindow = undoWindow;
+        this.purged = Counter.builder(METRIC_NAME)
+                             .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return "book-purge";
+    }
+
+    /**
+     * 物理削除の対象を、削除を取り消せる時間が過ぎた書籍に決める。
+     *
+     * @return 物理削除の対象の件数
+     */
+    @Override
+    public long begin() {
+        deletedBefore = LocalDateTime.now()
+                                     .minus(undoWindow);
+        return bookRepository.countDeletedBefore(deletedBefore);
+    }
+
+    /**
+     * 削除を取り消せる時間が過ぎた書籍を、古い順に指定した件数まで物理削除する。
+     *
+     * @param chunkSize 1回のトランザクションで物理削除する件数
+     * @return 物理削除した件数
+     */
+    @Override
+    public int processChunk(int chunkSize) {
+        // 対象は削除を取り消せる時間が過ぎているため、取得してから物理削除するまでの間に元に戻されることはない
+        List<Long> ids = transactionTemplate.execute(status -> {
+            List<Long> deleted = bookRepository.findDeletedIdsBefore(deletedBefore, chunkSize);
+            if (!deleted.isEmpty()) {
+                bookRepository.purgeByIdIn(deleted);
+            }
+            return deleted;
+        });
+        for (long id : ids) {
+            try {
+                coverStorage.delete(id);
+            } catch (IOException e) {
+                log.warn("failed to delete cover. (id = {})", id, e);
+            }
+        }
+        int count = ids.size();
+        purged.increment(count);
+        if (count > 0) {
+            log.debug("purged deleted books. (count = {})", count);
+        }
+        return count;
+    }
+
+}
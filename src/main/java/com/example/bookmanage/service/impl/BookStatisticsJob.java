@@ -0,0 +1,103 @@
+package com.example.bookmanage.service.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.job.MaintenanceJob;
+import com.example.bookmanage.repository.BookRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 書籍の統計情報の更新<br />
+ *
+ * 書籍のテーブルの統計情報(オプティマイザがインデックスの選択に使用する)を更新する保守処理。
+ * 書籍数・削除した書籍数・テナント数も数え直し、bookmanage.book.count{state=active|deleted},
+ * bookmanage.book.tenantsで参照できるようにする(リクエストのたびに数えないため、次の実行まで更新しない)。
+ */
+public class BookStatisticsJob implements MaintenanceJob {
+
+    /**
+     * 書籍のリポジトリ
+     */
+    private final BookRepository bookRepository;
+
+    /**
+     * トランザクションのテンプレート
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 書籍数
+     */
+    private final AtomicLong activeBooks = new AtomicLong();
+
+    /**
+     * 削除した書籍(物理削除していない書籍)の数
+     */
+    private final AtomicLong deletedBooks = new AtomicLong();
+
+    /**
+     * テナント数
+     */
+    private final AtomicLong tenants = new AtomicLong();
+
+    /**
+     * 実行中の実行で更新済みか否か
+     */
+    private volatile boolean done;
+
+    /**
+     * コンストラクタ
+     *
+     * @param bookRepository 書籍のリポジトリ
+     * @param transactionTemplate トランザクションのテンプレート
+     * @param meterRegistry メトリクスのレジストリ
+     */
+    public BookStatisticsJob(BookRepository bookRepository, TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.bookRepository = bookRepository;
+        this.transactionTemplate = transactionTemplate;
+        Gauge.builder("bookmanage.book.count", activeBooks, AtomicLong::get)
+             .tag("state", "active")
+             .register(meterRegistry);
+        Gauge.builder("bookmanage.book.count", deletedBooks, AtomicLong::get)
+             .tag("state", "deleted")
+             .register(meterRegistry);
+        Gauge.builder("bookmanage.book.tenants", tenants, AtomicLong::get)
+             .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return "book-statistics";
+    }
+
+    @Override
+    public long begin() {
+        done = false;
+        return 1;
+    }
+
+    /**
+     * 統計情報を更新する(1回の実行で1回のみ行う)。
+     *
+     * @param chunkSize 1チャンクで処理する件数の上限(使用しない)
+     * @return 更新した場合、1(更新済みの場合、0)
+     */
+    @Override
+    public int processChunk(int chunkSize) {
+        if (done) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> bookRepository.analyze());
+        activeBooks.set(bookRepository.count());
+        deletedBooks.set(bookRepository.countDeleted());
+        tenants.set(bookRepository.countTenants());
+        done = true;
+        return 1;
+    }
+
+}
@@ -0,0 +1,209 @@
+package com.example.bookmanage.service.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import com.example.bookmanage.domain.Book;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 書籍のIDごとの更新待ち行列<br />
+ *
+ * 同じIDの書籍の更新を到着順(公平なロック)に直列化する。
+ * 待機中に先行する更新がコミットされ、指定したバージョンが古くなった更新は、
+ * トランザクションを開始せずに楽観排他エラーとする(同じ版に対する更新をまとめて1件だけ反映する)。
+ * IDごとの待ち行列は、待機している更新が無くなった時点で破棄する。<br />
+ * バージョンを進めない更新(表紙の画像の反映など)は、acquireで同じ待ち行列の順番を取得して直列化する。
+ */
+@Component
+public class BookWriteQueue {
+
+    /**
+     * メトリクス名
+     */
+    private static final String METRIC_NAME = "bookmanage.book.updates";
+
+    /**
+     * コミットしたバージョンが不明であることを表す値
+     */
+    private static final long UNKNOWN_VERSION = -1;
+
+    /**
+     * IDごとの待ち行列
+     */
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * コミットした更新の件数
+     */
+    private final Counter committed;
+
+    /**
+     * トランザクション内で楽観排他エラーになった更新の件数
+     */
+    private final Counter conflicted;
+
+    /**
+     * トランザクションを開始せずに楽観排他エラーにした更新の件数
+     */
+    private final Counter coalesced;
+
+    /**
+     * コンストラクタ
+     *
+     * @param meterRegistry メトリクスのレジストリ
+     */
+    public BookWriteQueue(MeterRegistry meterRegistry) {
+        this.committed = counter(meterRegistry, "committed");
+        this.conflicted = counter(meterRegistry, "conflict");
+        this.coalesced = counter(meterRegistry, "coalesced");
+    }
+
+    /**
+     * 同じIDの書籍の他の更新が終わるのを待ってから、更新処理を実行する。
+     *
+     * @param id 書籍のID
+     * @param expectedVersion 更新対象のバージョン
+     * @param write 更新処理(書籍が存在しない場合、nullを返却する)
+     * @return 更新後の書籍(書籍が存在しない場合、null)
+     * @throws ObjectOptimisticLockingFailureException 先行する更新によってバージョンが古くなった場合
+     */
+    public Book update(long id, long expectedVersion, Supplier<Book> write) {
+        try (Permit permit = acquire(id)) {
+            Slot slot = permit.slot;
+            if (slot.committedVersion != UNKNOWN_VERSION && slot.committedVersion != expectedVersion) {
+                // 待機中に他の更新がコミットされた
+                coalesced.increment();
+                throw new ObjectOptimisticLockingFailureException(Book.class, id);
+            }
+            Book book;
+            try {
+                book = write.get();
+            } catch (ObjectOptimisticLockingFailureException e) {
+                conflicted.increment();
+                throw e;
+            }
+            if (book != null) {
+                slot.committedVersion = book.getVersion();
+                committed.increment();
+            }
+            return book;
+        }
+    }
+
+    /**
+     * 同じIDの書籍の他の更新が終わるのを待って、順番を取得する(closeで解放する)。
+     *
+     * @param id 書籍のID
+     * @return 順番
+     */
+    public Permit acquire(long id) {
+        Slot slot = slots.compute(id, (key, current) -> {
+            Slot s = current == null ? new Slot() : current;
+            s.users++;
+            return s;
+        });
+        slot.lock.lock();
+        return new Permit(id, slot);
+    }
+
+    /**
+     * 現在、待ち行列を保持している書籍の件数を返却する。
+     *
+     * @return 待ち行列を保持している書籍の件数
+     */
+    public int activeSlots() {
+        return slots.size();
+    }
+
+    /**
+     * 指定したIDの書籍の順番を待機している更新の件数を返却する。
+     *
+     * @param id 書籍のID
+     * @return 順番を待機している更新の件数(概算値)
+     */
+    public int waitingUpdates(long id) {
+        Slot slot = slots.get(id);
+        return slot == null ? 0 : slot.lock.getQueueLength();
+    }
+
+    /**
+     * カウンタを生成する。
+     *
+     * @param meterRegistry メトリクスのレジストリ
+     * @param result 結果
+     * @return カウンタ
+     */
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_NAME)
+                      .description("Book updates by result")
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+
+    /**
+     * 書籍の待ち行列の順番(try-with-resourcesで解放する)
+     */
+    public final class Permit implements AutoCloseable {
+
+        /**
+         * 書籍のID
+         */
+        private final long id;
+
+        /**
+         * 書籍の待ち行列
+         */
+        private final Slot slot;
+
+        /**
+         * コンストラクタ
+         *
+         * @param id 書籍のID
+         * @param slot 書籍の待ち行列
+         */
+        private Permit(long id, Slot slot) {
+            this.id = id;
+            this.slot = slot;
+        }
+
+        /**
+         * 順番を解放し、待機している更新が無ければ待ち行列を破棄する。
+         */
+        @Override
+        public void close() {
+            slot.lock.unlock();
+            slots.compute(id, (key, current) -> --current.users == 0 ? null : current);
+        }
+
+    }
+
+    /**
+     * 1件の書籍の待ち行列
+     */
+    private static class Slot {
+
+        /**
+         * 到着順に更新を実行するためのロック
+         */
+        private final ReentrantLock lock = new ReentrantLock(true);
+
+        /**
+         * 待ち行列を使用している更新の件数(ConcurrentHashMap.computeの中でのみ更新する)
+         */
+        private int users;
+
+        /**
+         * 直前にコミットしたバージョン(ロックを取得している間のみ参照、更新する)
+         */
+        private long committedVersion = UNKNOWN_VERSION;
+
+    }
+
+}
@@ -0,0 +1,287 @@
+package com.example.bookmanage.service.impl;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 書籍の表紙の縮小画像のキャッシュ(メモリとディスク)<br />
+ *
+ * 縮小画像は初めて参照された時に表紙の画像から生成し、メモリとディスクに保持する。
+ * メモリに無い場合はディスクから読み込み、ディスクにも無い場合のみ生成する。
+ * 同じ縮小画像の生成が同時に要求された場合、生成は1回のみ行う。<br />
+ * どちらもサイズの上限を超えた場合は、参照されていない縮小画像から破棄する(ディスクはファイルを削除する)。
+ * ディスクのファイルは起動時に読み込み、再起動後も上限を超えないようにする。<br />
+ * キーは表紙の画像のファイル名(内容のハッシュ値)と幅のため、表紙の画像を変更した場合に破棄する必要はない。
+ * 生成時は縮小後の幅の2倍を下回らない範囲で画素を間引いて読み込み、大きな画像を展開しないようにする。
+ */
+@Slf4j
+public class CoverThumbnailCache {
+
+    /**
+     * キャッシュ名(メトリクスのタグ)
+     */
+    private static final String CACHE_NAME = "cover-thumbnails";
+
+    /**
+     * メトリクス名(メモリに無かった縮小画像の取得元)
+     */
+    private static final String METRIC_NAME = "bookmanage.book.cover.thumbnails";
+
+    /**
+     * 縮小画像のファイルの拡張子
+     */
+    private static final String EXTENSION = ".jpg";
+
+    /**
+     * 縮小画像を保存するディレクトリ
+     */
+    private final Path directory;
+
+    /**
+     * 縮小画像の幅(ピクセル)
+     */
+    private final int width;
+
+    /**
+     * メモリの縮小画像
+     */
+    private final Cache<String, byte[]> memory;
+
+    /**
+     * ディスクの縮小画像(値はファイルのサイズ)
+     */
+    private final Cache<String, Long> disk;
+
+    /**
+     * ディスクから読み込んだ件数
+     */
+    private final Counter diskHits;
+
+    /**
+     * 生成した件数
+     */
+    private final Counter generated;
+
+    /**
+     * コンストラクタ
+     *
+     * @param directory 縮小画像を保存するディレクトリ
+     * @param width 縮小画像の幅(ピクセル)
+     * @param memoryMaximumSize メモリに保持する縮小画像のサイズの上限
+     * @param diskMaximumSize ディスクに保持する縮小画像のサイズの上限
+     * @param meterRegistry メトリクスのレジストリ
+     * @throws IOException ディレクトリを作成できない場合
+     */
+    public CoverThumbnailCache(Path directory, int width, long memoryMaximumSize, long diskMaximumSize,
+            MeterRegistry meterRegistry) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.width = width;
+        this.memory = Caffeine.newBuilder()
+                              .maximumWeight(memoryMaximumSize)
+                              .weigher((String key, byte[] thumbnail) -> thumbnail.length)
+                              .recordStats()
+                              .build();
+        // 追い出しと同時にファイルを削除するため、追い出しは書き込んだスレッドで行う
+        this.disk = Caffeine.newBuilder()
+                            .maximumWeight(diskMaximumSize)
+                            .weigher((String key, Long size) -> (int) Math.min(size, Integer.MAX_VALUE))
+                            .evictionListener((String key, Long size, RemovalCause cause) -> deleteFile(key))
+                            .executor(Runnable::run)
+                            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, CACHE_NAME);
+        this.diskHits = Counter.builder(METRIC_NAME)
+                               .tag("source", "disk")
+                               .register(meterRegistry);
+        this.generated = Counter.builder(METRIC_NAME)
+                                .tag("source", "generated")
+                                .register(meterRegistry);
+        loadDiskEntries();
+    }
+
+    /**
+     * 表紙の画像の縮小画像(JPEG)を返却する。
+     *
+     * @param coverName 表紙の画像のファイル名
+     * @param cover 表紙の画像のファイル
+     * @return 縮小画像
+     * @throws UncheckedIOException 表紙の画像を読み込めない場合
+     */
+    public byte[] get(String coverName, Path cover) {
+        String key = coverName.substring(0, coverName.lastIndexOf('.')) + "-" + width;
+        return memory.get(key, k -> load(k, cover));
+    }
+
+    /**
+     * 縮小画像をディスクから読み込む。ディスクに無い場合は生成してディスクに保存する。
+     *
+     * @param key キー
+     * @param cover 表紙の画像のファイル
+     * @return 縮小画像
+     */
+    private byte[] load(String key, Path cover) {
+        Path file = file(key);
+        try {
+            if (disk.getIfPresent(key) != null) {
+                try {
+                    byte[] thumbnail = Files.readAllBytes(file);
+                    diskHits.increment();
+                    return thumbnail;
+                } catch (NoSuchFileException e) {
+                    // 読み込む前に追い出された場合は、生成し直す
+                    disk.invalidate(key);
+                }
+            }
+            byte[] thumbnail = generate(cover);
+            Path temporary = Files.createTempFile(directory, key, ".tmp");
+            try {
+                Files.write(temporary, thumbnail);
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            disk.put(key, (long) thumbnail.length);
+            generated.increment();
+            return thumbnail;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 表紙の画像から縮小画像(JPEG)を生成する。<br />
+     * 透過部分は白で塗りつぶす。表紙の画像の幅が縮小画像の幅より小さい場合は、拡大しない。
+     *
+     * @param cover 表紙の画像のファイル
+     * @return 縮小画像
+     * @throws IOException 表紙の画像を読み込めない場合
+     */
+    private byte[] generate(Path cover) throws IOException {
+        BufferedImage source;
+        try (ImageInputStream input = ImageIO.createImageInputStream(cover.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("unsupported image: " + cover);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int subsampling = Math.max(reader.getWidth(0) / (width * 2), 1);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                source = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+
+        int thumbnailWidth = Math.min(width, source.getWidth());
+        int thumbnailHeight = Math.max((int) Math.round((double) source.getHeight() * thumbnailWidth
+                / source.getWidth()), 1);
+        BufferedImage thumbnail = new BufferedImage(thumbnailWidth, thumbnailHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, thumbnailWidth, thumbnailHeight);
+            graphics.drawImage(source, 0, 0, thumbnailWidth, thumbnailHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = new MemoryCacheImageOutputStream(output)) {
+            ImageIO.write(thumbnail, "jpg", imageOutput);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * 起動前に保存した縮小画像を、古い順にディスクのキャッシュに登録する(上限を超えた分は削除される)。
+     *
+     * @throws IOException ディレクトリを読み込めない場合
+     */
+    private void loadDiskEntries() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(file -> file.getFileName()
+                                              .toString()
+                                              .endsWith(EXTENSION))
+                          .sorted(Comparator.comparing(CoverThumbnailCache::lastModified))
+                          .toList();
+        }
+        for (Path file : files) {
+            String fileName = file.getFileName()
+                                  .toString();
+            disk.put(fileName.substring(0, fileName.length() - EXTENSION.length()), Files.size(file));
+        }
+    }
+
+    /**
+     * 縮小画像のファイルを返却する。
+     *
+     * @param key キー
+     * @return ファイル
+     */
+    private Path file(String key) {
+        return directory.resolve(key + EXTENSION);
+    }
+
+    /**
+     * 追い出した縮小画像のファイルを削除する。
+     *
+     * @param key キー
+     */
+    private void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            log.warn("failed to delete thumbnail. (key = {})", key, e);
+        }
+    }
+
+    /**
+     * ファイルの更新日時を返却する(取得できない場合は最も古いとみなす)。
+     *
+     * @param file ファイル
+     * @return 更新日時(エポックミリ秒)
+     */
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file)
+                        .toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+}
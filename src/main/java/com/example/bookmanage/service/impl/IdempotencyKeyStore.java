@@ -0,0 +1,173 @@
+package com.example.bookmanage.service.impl;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.exception.IdempotencyKeyMismatchException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * 冪等キーごとの登録・更新の結果<br />
+ *
+ * 登録・更新フォーム(hiddenのidempotencyKey)またはIdempotency-Keyヘッダで指定した冪等キーごとに、
+ * 登録・更新した書籍を保持する。同じキーで繰り返し送信された場合(二重送信、タイムアウト後の再送)は、
+ * トランザクションを開始せずに最初の結果を返却する。
+ * 更新の再送は、最初の更新でバージョンが進んでいても楽観排他エラーにせず、最初の更新の結果を返却する。<br />
+ * 同じキーの処理が実行中の場合は、その完了を待って同じ結果を返却する。<br />
+ * 結果には送信内容の指紋(重複判定キー、更新前のバージョン等)を併せて保持し、
+ * 同じキーで内容の異なる送信があった場合は、最初の結果を返却せずにエラーとする(キーの使い回し、生成の誤り)。
+ * 処理が失敗した場合(例外、書籍が存在しない)は結果を保持せず、同じキーで再実行できるようにする。
+ * 結果は件数の上限と有効期限で破棄する。
+ */
+public class IdempotencyKeyStore {
+
+    /**
+     * キャッシュ名(メトリクスのタグ、ヒット数が再送を処理せずに返却した件数となる)
+     */
+    private static final String CACHE_NAME = "idempotency";
+
+    /**
+     * 冪等キーごとの処理の結果
+     */
+    private final Cache<Key, Entry> results;
+
+    /**
+     * コンストラクタ
+     *
+     * @param maximumSize 保持する結果の件数の上限
+     * @param expireAfterWrite 結果を保持する時間
+     * @param meterRegistry メトリクスのレジストリ
+     */
+    public IdempotencyKeyStore(long maximumSize, Duration expireAfterWrite, MeterRegistry meterRegistry) {
+        this.results = Caffeine.newBuilder()
+                               .maximumSize(maximumSize)
+                               .expireAfterWrite(expireAfterWrite)
+                               .recordStats()
+                               .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, CACHE_NAME);
+    }
+
+    /**
+     * 冪等キーに対する処理を1回だけ実行し、結果を返却する。<br />
+     * 冪等キーが未指定の場合は、毎回処理を実行する。
+     *
+     * @param tenant テナント
+     * @param operation 処理の種類(同じキーを別の処理に使った場合に、別の結果とするため)
+     * @param idempotencyKey 冪等キー
+     * @param fingerprint 送信内容の指紋(再送であれば、最初の送信と同じ値になること)
+     * @param action 処理(書籍が存在しない場合、null)
+     * @param <E> 処理で発生するビジネス例外
+     * @return 処理の結果(最初の処理の結果)
+     * @throws E 処理(実行中の最初の処理)でビジネス例外が発生した場合
+     * @throws IdempotencyKeyMismatchException 同じキーで内容の異なる送信があった場合に発生する
+     */
+    public <E extends Exception> Book execute(String tenant, String operation, String idempotencyKey,
+            String fingerprint, Action<E> action) throws E, IdempotencyKeyMismatchException {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.execute();
+        }
+        Key key = new Key(tenant, operation, idempotencyKey);
+        CompletableFuture<Book> created = new CompletableFuture<>();
+        Entry entry = results.get(key, k -> new Entry(fingerprint, created));
+        CompletableFuture<Book> result = entry.result();
+        if (result != created) {
+            if (!entry.fingerprint()
+                      .equals(fingerprint)) {
+                // 内容の異なる送信：最初の結果を返却しない
+                throw new IdempotencyKeyMismatchException(operation, idempotencyKey);
+            }
+            // 再送：最初の処理の結果を返却する
+            return IdempotencyKeyStore.<E>await(result);
+        }
+
+        try {
+            Book book = action.execute();
+            if (book == null) {
+                results.asMap()
+                       .remove(key, entry);
+            }
+            created.complete(book);
+            return book;
+        } catch (Exception | Error e) {
+            results.asMap()
+                   .remove(key, entry);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 全ての結果を破棄する。
+     */
+    public void invalidateAll() {
+        results.invalidateAll();
+    }
+
+    /**
+     * 実行中の処理の完了を待って、結果を返却する。<br />
+     * 処理が失敗した場合は、同じ例外をthrowする。
+     *
+     * @param result 処理の結果
+     * @param <E> 処理で発生するビジネス例外
+     * @return 書籍
+     * @throws E 処理でビジネス例外が発生した場合
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Exception> Book await(CompletableFuture<Book> result) throws E {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Exception cause) {
+                throw (E) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 冪等キーに対する処理
+     *
+     * @param <E> 処理で発生するビジネス例外
+     */
+    @FunctionalInterface
+    public interface Action<E extends Exception> {
+
+        /**
+         * 処理を実行する。
+         *
+         * @return 書籍(書籍が存在しない場合、null)
+         * @throws E ビジネス例外が発生した場合
+         */
+        Book execute() throws E;
+
+    }
+
+    /**
+     * 冪等キー(テナントごとに管理する)
+     *
+     * @param tenant テナント
+     * @param operation 処理の種類
+     * @param idempotencyKey 冪等キー
+     */
+    private record Key(String tenant, String operation, String idempotencyKey) {
+    }
+
+    /**
+     * 冪等キーに対する送信内容と処理の結果
+     *
+     * @param fingerprint 送信内容の指紋
+     * @param result 処理の結果
+     */
+    private record Entry(String fingerprint, CompletableFuture<Book> result) {
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.example.bookmanage.service.impl;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.bookmanage.domain.Book;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * テナント(書棚)ごとの書籍一覧のキャッシュ<br />
+ *
+ * テナント、世代番号、検索条件(並び順・絞り込み・ページ)をキーに書籍一覧のページを保持する。
+ * 書籍の登録・更新・削除があったテナントは世代番号を進め、そのテナントの全ページを参照されなくする(他のテナントには影響しない)。
+ * 参照されなくなったページは、容量の上限か有効期限で破棄される。
+ * 容量は書籍数で管理するため、書籍の多いテナントが少ないテナントの一覧を大量に追い出すことはない。<br />
+ * 世代番号はトランザクションのコミット後に進める。
+ * 世代番号が進む前に読み込みを開始したページ(コミット前の内容)は古い世代のキーに格納されるため、以降は参照されない。
+ */
+public class TenantBookCache {
+
+    /**
+     * キャッシュ名(メトリクスのタグ)
+     */
+    private static final String CACHE_NAME = "books";
+
+    /**
+     * 書籍一覧のページ
+     */
+    private final Cache<Key, Slice<Book>> cache;
+
+    /**
+     * テナントごとの世代番号
+     */
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * コンストラクタ
+     *
+     * @param maximumWeight キャッシュする書籍数の上限(全テナントの合計)
+     * @param expireAfterAccess 参照されなくなってから破棄するまでの時間
+     * @param meterRegistry メトリクスのレジストリ
+     */
+    public TenantBookCache(long maximumWeight, Duration expireAfterAccess, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                             .maximumWeight(maximumWeight)
+                             .weigher((Key key, Slice<Book> books) -> books.getNumberOfElements() + 1)
+                             .expireAfterAccess(expireAfterAccess)
+                             .recordStats()
+                             .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * テナントの書籍一覧のページを返却する。キャッシュに無い場合は読み込んで格納する。<br />
+     * 同じキーの読み込みが同時に行われた場合、読み込みは1回のみ行う。
+     *
+     * @param tenant テナント
+     * @param query 検索条件(equals, hashCodeを実装した不変のオブジェクト)
+     * @param loader 書籍一覧のページの読み込み処理
+     * @return 書籍一覧のページ
+     */
+    public Slice<Book> get(String tenant, Object query, Supplier<Slice<Book>> loader) {
+        Key key = new Key(tenant, generation(tenant).get(), query);
+        return cache.get(key, k -> loader.get());
+    }
+
+    /**
+     * テナントの書籍一覧を破棄する。<br />
+     * トランザクション中の場合は、コミット後に破棄する。
+     *
+     * @param tenant テナント
+     */
+    public void invalidate(String tenant) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation(tenant).incrementAndGet();
+                }
+            });
+        } else {
+            generation(tenant).incrementAndGet();
+        }
+    }
+
+    /**
+     * 全テナントの書籍一覧を破棄する。
+     */
+    public void invalidateAll() {
+        generations.values()
+                   .forEach(AtomicLong::incrementAndGet);
+        cache.invalidateAll();
+    }
+
+    /**
+     * テナントの世代番号を返却する。
+     *
+     * @param tenant テナント
+     * @return 世代番号
+     */
+    private AtomicLong generation(String tenant) {
+        return generations.computeIfAbsent(tenant, t -> new AtomicLong());
+    }
+
+    /**
+     * キャッシュのキー
+     *
+     * @param tenant テナント
+     * @param generation 世代番号
+     * @param query 検索条件
+     */
+    private record Key(String tenant, long generation, Object query) {
+    }
+
+}
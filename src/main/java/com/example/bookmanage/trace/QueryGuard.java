@@ -0,0 +1,73 @@
+package com.example.bookmanage.trace;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 終了したトレースのSQLを検査する。<br />
+ *
+ * 以下の場合に警告のログを出力し、トレースに判定結果を設定する("/admin/queries"で参照する)。<br />
+ * ハンドラごとのSQLの件数の上限を超えた場合。<br />
+ * 同じSQLを繰り返し実行した場合(N+1問題の疑い)。
+ */
+@Slf4j
+public class QueryGuard {
+
+    /**
+     * SQLの件数の上限(ハンドラごとの上限がない場合)
+     */
+    private final int defaultBudget;
+
+    /**
+     * ハンドラ(コントローラのクラス名.メソッド名)ごとのSQLの件数の上限
+     */
+    private final Map<String, Integer> budgets;
+
+    /**
+     * 同じSQLの実行回数の上限
+     */
+    private final int repeatThreshold;
+
+    /**
+     * コンストラクタ
+     *
+     * @param defaultBudget SQLの件数の上限(ハンドラごとの上限がない場合)
+     * @param budgets ハンドラごとのSQLの件数の上限
+     * @param repeatThreshold 同じSQLの実行回数の上限
+     */
+    public QueryGuard(int defaultBudget, Map<String, Integer> budgets, int repeatThreshold) {
+        this.defaultBudget = defaultBudget;
+        this.budgets = Map.copyOf(budgets);
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    /**
+     * トレースのSQLを検査する。
+     *
+     * @param trace 終了したトレース
+     * @return SQLの件数の上限を超えた場合、同じSQLを繰り返し実行した場合はfalse
+     */
+    public boolean check(Trace trace) {
+        int budget = trace.getEndpoint() == null ? defaultBudget
+                : budgets.getOrDefault(trace.getEndpoint(), defaultBudget);
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        trace.getSqlExecutions()
+             .forEach((sql, count) -> {
+                 if (count > repeatThreshold) {
+                     repeated.put(sql, count);
+                 }
+             });
+        trace.setQueryGuardResult(budget, repeated);
+
+        if (trace.isOverBudget()) {
+            log.warn("query budget exceeded: {} {} ({}) sql={} budget={}", trace.getMethod(), trace.getUri(),
+                    trace.getEndpoint(), trace.getSqlCount(), budget);
+        }
+        repeated.forEach((sql, count) -> log.warn("repeated query (N+1?): {} {} ({}) count={} sql={}",
+                trace.getMethod(), trace.getUri(), trace.getEndpoint(), count, sql));
+        return !trace.isOverBudget() && repeated.isEmpty();
+    }
+
+}
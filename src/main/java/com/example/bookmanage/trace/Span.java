@@ -0,0 +1,157 @@
+package com.example.bookmanage.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * トレースの区間(コントローラ、サービス、リポジトリのメソッド呼び出し、SQLの実行)<br />
+ * 1つのリクエストを処理するスレッドのみから更新する。
+ */
+@Getter
+public class Span {
+
+    /**
+     * 層(web, service, repository, jdbc)
+     */
+    private final String layer;
+
+    /**
+     * 名前(メソッドのシグネチャ、SQLなど)
+     */
+    private final String name;
+
+    /**
+     * 深さ(ルートの区間が0)
+     */
+    private final int depth;
+
+    /**
+     * トレースの開始からの開始時間(ナノ秒)
+     */
+    private final long offsetNanos;
+
+    /**
+     * 処理時間(ナノ秒)
+     */
+    private long durationNanos;
+
+    /**
+     * この区間(子の区間を含む)で実行したSQLの件数
+     */
+    private int sqlCount;
+
+    /**
+     * この区間(子の区間を含む)で実行したSQLの処理時間(ナノ秒)
+     */
+    private long sqlNanos;
+
+    /**
+     * 例外で終了したか否か
+     */
+    private boolean error;
+
+    /**
+     * SQLのパラメータ(jdbcの区間のみ、記録しない場合はnull)
+     */
+    private String parameters;
+
+    /**
+     * 処理時間が閾値を超えたSQLか否か(jdbcの区間のみ)
+     */
+    private boolean slow;
+
+    /**
+     * 子の区間
+     */
+    private final List<Span> children = new ArrayList<>();
+
+    /**
+     * コンストラクタ
+     *
+     * @param layer 層
+     * @param name 名前
+     * @param depth 深さ
+     * @param offsetNanos トレースの開始からの開始時間(ナノ秒)
+     */
+    Span(String layer, String name, int depth, long offsetNanos) {
+        this.layer = layer;
+        this.name = name;
+        this.depth = depth;
+        this.offsetNanos = offsetNanos;
+    }
+
+    /**
+     * 区間を終了する。
+     *
+     * @param endOffsetNanos トレースの開始からの終了時間(ナノ秒)
+     * @param error 例外で終了したか否か
+     */
+    void end(long endOffsetNanos, boolean error) {
+        this.durationNanos = endOffsetNanos - offsetNanos;
+        this.error = error;
+    }
+
+    /**
+     * SQLのパラメータと、処理時間が閾値を超えたか否かを設定する。
+     *
+     * @param parameters SQLのパラメータ
+     * @param slow 処理時間が閾値を超えたか否か
+     */
+    void sql(String parameters, boolean slow) {
+        this.parameters = parameters;
+        this.slow = slow;
+    }
+
+    /**
+     * 実行したSQLを加算する。
+     *
+     * @param count 件数
+     * @param nanos 処理時間(ナノ秒)
+     */
+    void addSql(int count, long nanos) {
+        this.sqlCount += count;
+        this.sqlNanos += nanos;
+    }
+
+    /**
+     * 処理時間(ミリ秒)を返却する。
+     *
+     * @return 処理時間(ミリ秒)
+     */
+    public double getDurationMillis() {
+        return durationNanos / 1_000_000.0;
+    }
+
+    /**
+     * トレースの開始からの開始時間(ミリ秒)を返却する。
+     *
+     * @return 開始時間(ミリ秒)
+     */
+    public double getOffsetMillis() {
+        return offsetNanos / 1_000_000.0;
+    }
+
+    /**
+     * SQLの処理時間(ミリ秒)を返却する。
+     *
+     * @return SQLの処理時間(ミリ秒)
+     */
+    public double getSqlMillis() {
+        return sqlNanos / 1_000_000.0;
+    }
+
+    /**
+     * この区間と子孫の区間を、呼び出し順(深さ優先)に追加する。
+     *
+     * @param spans 追加先
+     */
+    void flatten(List<Span> spans) {
+        spans.add(this);
+        for (Span child : children) {
+            child.flatten(spans);
+        }
+    }
+
+}
@@ -0,0 +1,199 @@
+package com.example.bookmanage.trace;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ * 1つのリクエストのトレース<br />
+ * ルートの区間(リクエスト全体)の下に、コントローラ→サービス→リポジトリ→SQLの区間を入れ子で保持する。
+ */
+@Getter
+public class Trace {
+
+    /**
+     * トレースID(MDCのリクエストID)
+     */
+    private final String id;
+
+    /**
+     * 開始日時
+     */
+    private final LocalDateTime startedAt;
+
+    /**
+     * HTTPメソッド
+     */
+    private final String method;
+
+    /**
+     * URI
+     */
+    private final String uri;
+
+    /**
+     * ユーザ名(未認証の場合、null)
+     */
+    private final String user;
+
+    /**
+     * ルートの区間(リクエスト全体)
+     */
+    private final Span root;
+
+    /**
+     * HTTPステータス
+     */
+    private int status;
+
+    /**
+     * 区間の上限を超えたため記録しなかった区間の件数
+     */
+    private int droppedSpans;
+
+    /**
+     * リクエストを処理したハンドラ(コントローラのクラス名.メソッド名、ハンドラがない場合はnull)
+     */
+    private String endpoint;
+
+    /**
+     * 処理時間が閾値を超えたSQLの件数
+     */
+    private int slowSqlCount;
+
+    /**
+     * SQLごとの実行回数(区間の上限を超えても数える)
+     */
+    private final Map<String, Integer> sqlExecutions = new LinkedHashMap<>();
+
+    /**
+     * SQLの件数の上限(QueryGuardで判定する前は0)
+     */
+    private int queryBudget;
+
+    /**
+     * 繰り返し実行したSQLと実行回数(N+1問題の疑い)
+     */
+    private Map<String, Integer> repeatedSql = Map.of();
+
+    /**
+     * コンストラクタ
+     *
+     * @param id トレースID
+     * @param method HTTPメソッド
+     * @param uri URI
+     * @param user ユーザ名
+     */
+    Trace(String id, String method, String uri, String user) {
+        this.id = id;
+        this.startedAt = LocalDateTime.now();
+        this.method = method;
+        this.uri = uri;
+        this.user = user;
+        this.root = new Span("http", method + " " + uri, 0, 0);
+    }
+
+    /**
+     * HTTPステータスを設定する。
+     *
+     * @param status HTTPステータス
+     */
+    void setStatus(int status) {
+        this.status = status;
+    }
+
+    /**
+     * 記録しなかった区間を数える。
+     */
+    void drop() {
+        droppedSpans++;
+    }
+
+    /**
+     * リクエストを処理したハンドラを設定する。
+     *
+     * @param endpoint ハンドラ
+     */
+    void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * 実行したSQLを数える。<br />
+     * 異なるSQLが区間の上限を超えた場合、以降のSQLは実行回数を数えない。
+     *
+     * @param sql SQL
+     * @param slow 処理時間が閾値を超えたか否か
+     */
+    void countSql(String sql, boolean slow) {
+        if (slow) {
+            slowSqlCount++;
+        }
+        if (sqlExecutions.size() < Tracer.MAX_SPANS || sqlExecutions.containsKey(sql)) {
+            sqlExecutions.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * QueryGuardの判定結果を設定する。
+     *
+     * @param queryBudget SQLの件数の上限
+     * @param repeatedSql 繰り返し実行したSQLと実行回数
+     */
+    void setQueryGuardResult(int queryBudget, Map<String, Integer> repeatedSql) {
+        this.queryBudget = queryBudget;
+        this.repeatedSql = repeatedSql;
+    }
+
+    /**
+     * SQLの件数が上限を超えたか否かを返却する。
+     *
+     * @return 上限を超えた場合、true
+     */
+    public boolean isOverBudget() {
+        return queryBudget > 0 && getSqlCount() > queryBudget;
+    }
+
+    /**
+     * 処理時間(ミリ秒)を返却する。
+     *
+     * @return 処理時間(ミリ秒)
+     */
+    public double getDurationMillis() {
+        return root.getDurationMillis();
+    }
+
+    /**
+     * 実行したSQLの件数を返却する。
+     *
+     * @return SQLの件数
+     */
+    public int getSqlCount() {
+        return root.getSqlCount();
+    }
+
+    /**
+     * 実行したSQLの処理時間(ミリ秒)を返却する。
+     *
+     * @return SQLの処理時間(ミリ秒)
+     */
+    public double getSqlMillis() {
+        return root.getSqlMillis();
+    }
+
+    /**
+     * 全ての区間を、呼び出し順(深さ優先)に返却する。
+     *
+     * @return 区間の一覧
+     */
+    public List<Span> getSpans() {
+        List<Span> spans = new ArrayList<>();
+        root.flatten(spans);
+        return spans;
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.example.bookmanage.trace;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 終了したトレースをメモリ上に保持する。<br />
+ * 保持する件数には上限があり、上限を超えた場合は古いものから破棄する。
+ */
+public class TraceCollector {
+
+    /**
+     * 保持する件数
+     */
+    private final int capacity;
+
+    /**
+     * トレース(先頭が最新)
+     */
+    private final Deque<Trace> traces;
+
+    /**
+     * コンストラクタ
+     *
+     * @param capacity 保持する件数
+     */
+    public TraceCollector(int capacity) {
+        this.capacity = capacity;
+        this.traces = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * トレースを追加する。
+     *
+     * @param trace トレース
+     */
+    public synchronized void add(Trace trace) {
+        if (traces.size() >= capacity) {
+            traces.removeLast();
+        }
+        traces.addFirst(trace);
+    }
+
+    /**
+     * 全てのトレースを破棄する。
+     */
+    public synchronized void clear() {
+        traces.clear();
+    }
+
+    /**
+     * 新しい順にトレースを返却する。
+     *
+     * @return トレースの一覧
+     */
+    public synchronized List<Trace> recent() {
+        return new ArrayList<>(traces);
+    }
+
+    /**
+     * 処理時間が長い順にトレースを返却する。
+     *
+     * @param limit 件数
+     * @return トレースの一覧
+     */
+    public List<Trace> slowest(int limit) {
+        return recent().stream()
+                       .sorted(Comparator.comparingDouble(Trace::getDurationMillis)
+                                         .reversed())
+                       .limit(limit)
+                       .toList();
+    }
+
+    /**
+     * 処理時間が閾値を超えたSQLを実行したトレースを、新しい順に返却する。
+     *
+     * @return トレースの一覧
+     */
+    public List<Trace> withSlowSql() {
+        return recent().stream()
+                       .filter(trace -> trace.getSlowSqlCount() > 0)
+                       .toList();
+    }
+
+    /**
+     * SQLの件数の上限を超えた、または同じSQLを繰り返し実行したトレースを、新しい順に返却する。
+     *
+     * @return トレースの一覧
+     */
+    public List<Trace> overBudget() {
+        return recent().stream()
+                       .filter(trace -> trace.isOverBudget() || !trace.getRepeatedSql()
+                                                                      .isEmpty())
+                       .toList();
+    }
+
+    /**
+     * 指定したIDのトレースを返却する。
+     *
+     * @param id トレースID
+     * @return トレース
+     */
+    public synchronized Optional<Trace> find(String id) {
+        return traces.stream()
+                     .filter(trace -> trace.getId()
+                                           .equals(id))
+                     .findFirst();
+    }
+
+}
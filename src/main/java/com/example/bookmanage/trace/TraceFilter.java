@@ -0,0 +1,87 @@
+package com.example.bookmanage.trace;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.example.bookmanage.web.MdcFilter;
+
+/**
+ * リクエストごとにトレースを開始・終了するFilter<br />
+ * MdcFilterの後に実行し、MDCのリクエストIDとユーザIDをトレースに設定する。静的リソース、パフォーマンスの画面、ヘルスチェックはトレースしない。<br />
+ * 終了したトレースは、QueryGuardでSQLを検査してから保存する。
+ */
+public class TraceFilter extends OncePerRequestFilter {
+
+    /**
+     * 終了したトレースの保存先
+     */
+    private final TraceCollector collector;
+
+    /**
+     * トレースのSQLの検査
+     */
+    private final QueryGuard guard;
+
+    /**
+     * コンストラクタ
+     *
+     * @param collector 終了したトレースの保存先
+     * @param guard トレースのSQLの検査
+     */
+    public TraceFilter(TraceCollector collector, QueryGuard guard) {
+        this.collector = collector;
+        this.guard = guard;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI()
+                             .substring(request.getContextPath()
+                                               .length());
+        // パフォーマンスの画面が定期的に取得するメトリクスとヘルスチェックは、トレースの一覧を埋めてしまうためトレースしない
+        return path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/img/")
+                || path.equals("/admin/performance") || path.startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Tracer.begin(MDC.get(MdcFilter.REQUEST_ID), request.getMethod(), request.getRequestURI(),
+                MDC.get(MdcFilter.USER_ID));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Trace trace = Tracer.end(response.getStatus());
+            if (trace != null) {
+                trace.setEndpoint(endpoint(request));
+                guard.check(trace);
+                collector.add(trace);
+            }
+        }
+    }
+
+    /**
+     * リクエストを処理したハンドラを返却する。
+     *
+     * @param request リクエスト
+     * @return コントローラのクラス名.メソッド名(ハンドラがない場合、null)
+     */
+    static String endpoint(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            return handler.getBeanType()
+                          .getSimpleName() + "." + handler.getMethod()
+                                                          .getName();
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.example.bookmanage.trace;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 実行したSQLをトレースに記録するリスナー(datasource-proxy)<br />
+ * datasource-proxyの処理時間はミリ秒単位のため、ナノ秒単位で計測し直す。
+ * 処理時間が閾値を超えたSQLは、パラメータとともに警告のログを出力する。
+ */
+@Slf4j
+public class TraceQueryListener implements QueryExecutionListener {
+
+    /**
+     * 開始時刻を保持するExecutionInfoのキー
+     */
+    private static final String START_NANOS = TraceQueryListener.class.getName() + ".startNanos";
+
+    /**
+     * 記録するパラメータの値の最大長(超えた部分は省略する)
+     */
+    static final int MAX_PARAMETER_LENGTH = 100;
+
+    /**
+     * 処理時間の閾値(ナノ秒)
+     */
+    private final long slowThresholdNanos;
+
+    /**
+     * パラメータを記録するか否か
+     */
+    private final boolean recordParameters;
+
+    /**
+     * コンストラクタ
+     *
+     * @param slowThreshold 処理時間の閾値
+     * @param recordParameters パラメータを記録するか否か
+     */
+    public TraceQueryListener(Duration slowThreshold, boolean recordParameters) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.recordParameters = recordParameters;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long startNanos = execInfo.getCustomValue(START_NANOS, Long.class);
+        long nanos = startNanos == null ? 0 : System.nanoTime() - startNanos;
+        boolean slow = nanos > slowThresholdNanos;
+        String sql = toSql(queryInfoList);
+        String parameters = recordParameters ? toParameters(queryInfoList) : null;
+        if (slow) {
+            log.warn("slow query: {} ms sql={} parameters={}", nanos / 1_000_000, sql, parameters);
+        }
+        Tracer.recordSql(sql, parameters, nanos, slow, !execInfo.isSuccess());
+    }
+
+    /**
+     * 実行したSQLを1つの文字列にする(バッチの場合、";"で連結する)。
+     *
+     * @param queryInfoList 実行したSQL
+     * @return SQL
+     */
+    static String toSql(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+                            .map(QueryInfo::getQuery)
+                            .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * 実行したSQLのパラメータを1つの文字列にする(バッチの場合、実行ごとに"[]"で囲む)。
+     *
+     * @param queryInfoList 実行したSQL
+     * @return パラメータ(パラメータがない場合、空文字)
+     */
+    static String toParameters(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+                            .flatMap(queryInfo -> queryInfo.getParametersList()
+                                                           .stream())
+                            .filter(operations -> !operations.isEmpty())
+                            .map(operations -> operations.stream()
+                                                         .map(TraceQueryListener::toValue)
+                                                         .collect(Collectors.joining(", ", "[", "]")))
+                            .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * パラメータの値を文字列にする。
+     *
+     * @param operation パラメータの設定
+     * @return パラメータの値
+     */
+    private static String toValue(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        if (ParameterSetOperation.isSetNullParameterOperation(operation) || args.length < 2) {
+            return "null";
+        }
+        String value = String.valueOf(args[1]);
+        return value.length() > MAX_PARAMETER_LENGTH ? value.substring(0, MAX_PARAMETER_LENGTH) + "..." : value;
+    }
+
+}
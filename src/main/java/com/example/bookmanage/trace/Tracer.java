@@ -0,0 +1,190 @@
+package com.example.bookmanage.trace;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * リクエストを処理しているスレッドのトレースを管理する。<br />
+ *
+ * TraceFilterがリクエストの開始・終了時にトレースを開始・終了し、
+ * BookManageAspect(コントローラ、サービス、リポジトリ)とTraceQueryListener(SQL)が区間を追加する。
+ * トレースを開始していないスレッド(起動時の処理など)からの呼び出しは無視する。
+ */
+public final class Tracer {
+
+    /**
+     * 1つのトレースに記録する区間の上限(N+1問題などで区間が増え続けることを防ぐ)
+     */
+    static final int MAX_SPANS = 500;
+
+    /**
+     * スレッドごとのトレースの状態
+     */
+    private static final ThreadLocal<Context> CURRENT = new ThreadLocal<>();
+
+    /**
+     * インスタンスを生成しない。
+     */
+    private Tracer() {
+    }
+
+    /**
+     * トレースを開始する。
+     *
+     * @param id トレースID
+     * @param method HTTPメソッド
+     * @param uri URI
+     * @param user ユーザ名
+     */
+    public static void begin(String id, String method, String uri, String user) {
+        CURRENT.set(new Context(new Trace(id, method, uri, user)));
+    }
+
+    /**
+     * トレースを終了する。
+     *
+     * @param status HTTPステータス
+     * @return 終了したトレース(開始していない場合、null)
+     */
+    public static Trace end(int status) {
+        Context context = CURRENT.get();
+        if (context == null) {
+            return null;
+        }
+        CURRENT.remove();
+        // 終了していない区間(例外で抜けた場合など)も含めて終了する
+        while (context.stack.size() > 1) {
+            endSpan(context, context.stack.peek(), true);
+        }
+        Trace trace = context.trace;
+        trace.getRoot()
+             .end(context.elapsed(), status >= 500);
+        trace.setStatus(status);
+        return trace;
+    }
+
+    /**
+     * 区間を開始する。
+     *
+     * @param layer 層
+     * @param name 名前
+     * @return 開始した区間(トレースを開始していない場合、区間の上限を超えた場合はnull)
+     */
+    public static Span startSpan(String layer, String name) {
+        Context context = CURRENT.get();
+        if (context == null) {
+            return null;
+        }
+        if (context.spanCount >= MAX_SPANS) {
+            context.trace.drop();
+            return null;
+        }
+        Span parent = context.stack.peek();
+        Span span = new Span(layer, name, parent.getDepth() + 1, context.elapsed());
+        parent.getChildren()
+              .add(span);
+        context.stack.push(span);
+        context.spanCount++;
+        return span;
+    }
+
+    /**
+     * 区間を終了する。
+     *
+     * @param span startSpanで開始した区間(nullの場合、何もしない)
+     * @param error 例外で終了したか否か
+     */
+    public static void endSpan(Span span, boolean error) {
+        Context context = CURRENT.get();
+        if (span == null || context == null || context.stack.peek() != span) {
+            return;
+        }
+        endSpan(context, span, error);
+    }
+
+    /**
+     * 実行したSQLを区間として記録する。
+     *
+     * @param sql SQL
+     * @param parameters SQLのパラメータ(記録しない場合、null)
+     * @param nanos 処理時間(ナノ秒)
+     * @param slow 処理時間が閾値を超えたか否か
+     * @param error 例外で終了したか否か
+     */
+    public static void recordSql(String sql, String parameters, long nanos, boolean slow, boolean error) {
+        Context context = CURRENT.get();
+        if (context == null) {
+            return;
+        }
+        context.trace.countSql(sql, slow);
+        Span span = startSpan("jdbc", sql);
+        if (span != null) {
+            context.stack.pop();
+            span.end(span.getOffsetNanos() + nanos, error);
+            span.sql(parameters, slow);
+        }
+        context.stack.peek()
+                     .addSql(1, nanos);
+    }
+
+    /**
+     * 区間を終了し、SQLの件数と処理時間を親の区間に加算する。
+     *
+     * @param context トレースの状態
+     * @param span 区間
+     * @param error 例外で終了したか否か
+     */
+    private static void endSpan(Context context, Span span, boolean error) {
+        span.end(context.elapsed(), error);
+        context.stack.pop();
+        context.stack.peek()
+                     .addSql(span.getSqlCount(), span.getSqlNanos());
+    }
+
+    /**
+     * スレッドごとのトレースの状態
+     */
+    private static final class Context {
+
+        /**
+         * トレース
+         */
+        private final Trace trace;
+
+        /**
+         * 開始時刻(System#nanoTime)
+         */
+        private final long startNanos = System.nanoTime();
+
+        /**
+         * 実行中の区間(先頭が最も内側の区間)
+         */
+        private final Deque<Span> stack = new ArrayDeque<>();
+
+        /**
+         * 記録した区間の件数
+         */
+        private int spanCount;
+
+        /**
+         * コンストラクタ
+         *
+         * @param trace トレース
+         */
+        Context(Trace trace) {
+            this.trace = trace;
+            this.stack.push(trace.getRoot());
+        }
+
+        /**
+         * トレースの開始からの経過時間(ナノ秒)を返却する。
+         *
+         * @return 経過時間(ナノ秒)
+         */
+        long elapsed() {
+            return System.nanoTime() - startNanos;
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.example.bookmanage.web;
+
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.example.bookmanage.service.BookBackupService;
+
+/**
+ * 書籍のバックアップの取得・ダウンロード・復元を行う管理者用のMVCコントローラ<br />
+ * バックアップ・復元は非同期で実行するため、進捗は一覧画面を再表示して確認する。
+ */
+@Controller
+public class BookBackupController {
+
+    /**
+     * バックアップの一覧へのリダイレクトのURL
+     */
+    private static final String REDIRECT_TO_BACKUPS = "redirect:/admin/backups";
+
+    /**
+     * バックアップのファイルの形式
+     */
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    /**
+     * 書籍のバックアップ・復元のサービス
+     */
+    private final BookBackupService service;
+
+    /**
+     * コンストラクタ
+     *
+     * @param service 書籍のバックアップ・復元のサービス(初回アクセス時に生成する)
+     */
+    public BookBackupController(@Lazy BookBackupService service) {
+        this.service = service;
+    }
+
+    /**
+     * バックアップの一覧と、バックアップ・復元の状態を表示する。
+     *
+     * @return モデルビュー
+     */
+    @GetMapping("admin/backups")
+    public ModelAndView backups() {
+        ModelAndView modelAndView = new ModelAndView("admin/backups");
+        modelAndView.addObject("backups", service.backups());
+        modelAndView.addObject("status", service.status());
+        return modelAndView;
+    }
+
+    /**
+     * バックアップの取得を開始する(バックアップ・復元の実行中の場合は何もしない)。
+     *
+     * @return モデルビュー(バックアップの一覧へのリダイレクト)
+     */
+    @PostMapping("admin/backups")
+    public ModelAndView backup() {
+        service.startBackup();
+        return new ModelAndView(REDIRECT_TO_BACKUPS);
+    }
+
+    /**
+     * 指定したバックアップからの復元を開始する(バックアップ・復元の実行中の場合は何もしない)。
+     *
+     * @param name バックアップのファイル名
+     * @return モデルビュー(バックアップの一覧へのリダイレクト)
+     */
+    @PostMapping("admin/backups/{name}/restore")
+    public ModelAndView restore(@PathVariable String name) {
+        service.startRestore(name);
+        return new ModelAndView(REDIRECT_TO_BACKUPS);
+    }
+
+    /**
+     * バックアップのファイルをダウンロードさせる。<br />
+     * ファイルの本文は、FileResourceHttpMessageConverterがバイト配列にコピーせずに書き込む。
+     *
+     * @param name バックアップのファイル名
+     * @return バックアップのファイル(存在しない場合は404)
+     */
+    @GetMapping("admin/backups/{name}")
+    public ResponseEntity<Resource> download(@PathVariable String name) {
+        ContentDisposition disposition = ContentDisposition.attachment()
+                                                           .filename(name)
+                                                           .build();
+        return service.readBackup(name)
+                      .map(resource -> ResponseEntity.ok()
+                                                     .contentType(GZIP)
+                                                     .cacheControl(CacheControl.noStore())
+                                                     .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                                                     .body(resource))
+                      .orElseGet(() -> ResponseEntity.notFound()
+                                                     .build());
+    }
+
+}
@@ -0,0 +1,220 @@
+package com.example.bookmanage.web;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import com.example.bookmanage.exception.BookCoverException;
+import com.example.bookmanage.exception.BookNotFoundException;
+import com.example.bookmanage.form.BookManageResponse;
+import com.example.bookmanage.service.BookCoverService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 書籍の表紙の画像のMVCコントローラ<br />
+ *
+ * 表紙の画像のURLにはファイル名(内容のハッシュ値)を含めるため、同じURLの内容は変わらない。
+ * ブラウザには長期間キャッシュさせ(immutable)、ETag(ハッシュ値)での再検証には304を返却する。
+ * Rangeヘッダを指定した場合は、指定した範囲のみを返却する(206)。
+ */
+@Slf4j
+@Controller
+public class BookCoverController {
+
+    /**
+     * 書籍管理システムへのリダイレクトのURL
+     */
+    private static final String REDIRECT_TO_BOOKS = "redirect:/books";
+
+    /**
+     * 表紙の画像のキャッシュ期間(日)
+     */
+    private static final long COVER_CACHE_DAYS = 365;
+
+    /**
+     * 表紙の画像のキャッシュの設定(ログインユーザのみが参照できるため、共有キャッシュには格納させない)
+     */
+    private static final CacheControl COVER_CACHE_CONTROL = CacheControl.maxAge(COVER_CACHE_DAYS, TimeUnit.DAYS)
+                                                                        .cachePrivate()
+                                                                        .immutable();
+
+    /**
+     * ビジネスエラーのログを出力する間隔(同じ種類のエラーは間隔内に1件のみ出力する)
+     */
+    private static final Duration ERROR_LOG_INTERVAL = Duration.ofSeconds(10);
+
+    /**
+     * 書籍の表紙の画像のサービス
+     */
+    private final BookCoverService service;
+
+    /**
+     * メッセージソース
+     */
+    private final MessageSource messageSource;
+
+    /**
+     * ビジネスエラーのログの間引き
+     */
+    private final LogThrottle logThrottle = new LogThrottle(ERROR_LOG_INTERVAL);
+
+    /**
+     * コンストラクタ
+     *
+     * @param service 書籍の表紙の画像のサービス
+     * @param messageSource メッセージソース
+     */
+    public BookCoverController(BookCoverService service, MessageSource messageSource) {
+        this.service = service;
+        this.messageSource = messageSource;
+    }
+
+    /**
+     * 登録・更新フォームから送信された表紙の画像(multipart/form-data)を保存する。<br />
+     * エラーが発生した場合は、エラーメッセージをフラッシュ属性に設定する。
+     *
+     * @param id 書籍のID
+     * @param file 表紙の画像
+     * @param redirectAttributes リダイレクト先に引き継ぐ属性
+     * @return モデルビュー(書籍の編集画面へのリダイレクト)
+     * @throws IOException 読み込み・書き込みに失敗した場合
+     */
+    @PostMapping("books/{id}/cover")
+    public ModelAndView uploadCover(@PathVariable long id, @RequestParam("file") MultipartFile file,
+            RedirectAttributes redirectAttributes) throws IOException {
+        try {
+            service.storeCover(id, file.getInputStream());
+        } catch (BookNotFoundException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", toErrorMessage("error.booknotfound", e));
+            return new ModelAndView(REDIRECT_TO_BOOKS);
+        } catch (BookCoverException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", toErrorMessage("error.coverinvalid", e));
+        }
+        return new ModelAndView(REDIRECT_TO_BOOKS + "/" + id);
+    }
+
+    /**
+     * リクエストの本文(image/*)の表紙の画像を保存し、結果をJSONで返却する。<br />
+     * multipartを解析せず、本文をそのまま保存先に書き込む。
+     *
+     * @param id 書籍のID
+     * @param request HTTPリクエスト
+     * @return 保存できた場合、204(エラーが発生した場合、エラーメッセージ)
+     * @throws IOException 読み込み・書き込みに失敗した場合
+     */
+    @PutMapping(value = "books/{id}/cover", consumes = "image/*", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookManageResponse> putCover(@PathVariable long id, HttpServletRequest request)
+            throws IOException {
+        try {
+            service.storeCover(id, request.getInputStream());
+            return ResponseEntity.noContent()
+                                 .build();
+        } catch (BookNotFoundException e) {
+            return toErrorResponse(HttpStatus.NOT_FOUND, "error.booknotfound", e);
+        } catch (BookCoverException e) {
+            return toErrorResponse(HttpStatus.UNPROCESSABLE_ENTITY, "error.coverinvalid", e);
+        }
+    }
+
+    /**
+     * 表紙の画像を返却する。
+     *
+     * @param id 書籍のID
+     * @param coverName 表紙の画像のファイル名
+     * @return 表紙の画像(書籍が存在しない場合、表紙の画像が変更された場合は404)
+     */
+    @GetMapping("books/{id}/cover/{coverName}")
+    public ResponseEntity<Resource> readCover(@PathVariable long id, @PathVariable String coverName) {
+        MediaType mediaType = MediaTypeFactory.getMediaType(coverName)
+                                              .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        return toCoverResponse(service.readCover(id, coverName), coverName, mediaType);
+    }
+
+    /**
+     * 表紙の縮小画像を返却する。
+     *
+     * @param id 書籍のID
+     * @param coverName 表紙の画像のファイル名
+     * @return 表紙の縮小画像(書籍が存在しない場合、表紙の画像が変更された場合は404)
+     */
+    @GetMapping("books/{id}/cover/{coverName}/thumbnail")
+    public ResponseEntity<Resource> readThumbnail(@PathVariable long id, @PathVariable String coverName) {
+        return toCoverResponse(service.readThumbnail(id, coverName), coverName + "-thumbnail", MediaType.IMAGE_JPEG);
+    }
+
+    /**
+     * 表紙の画像のレスポンスを返却する。<br />
+     * If-None-Matchが一致する場合の304、Rangeヘッダの206は、Spring MVCがレスポンスの書き込み時に処理する。
+     * ファイルの本文は、FileResourceHttpMessageConverterがバイト配列にコピーせずに書き込む。
+     *
+     * @param cover 表紙の画像
+     * @param etag ETag(内容が変わらない値)
+     * @param mediaType 画像の形式
+     * @return レスポンス
+     */
+    private static ResponseEntity<Resource> toCoverResponse(Optional<Resource> cover, String etag,
+            MediaType mediaType) {
+        return cover.map(resource -> ResponseEntity.ok()
+                                                   .contentType(mediaType)
+                                                   .cacheControl(COVER_CACHE_CONTROL)
+                                                   .eTag(etag)
+                                                   .body(resource))
+                    .orElseGet(() -> ResponseEntity.notFound()
+                                                   .build());
+    }
+
+    /**
+     * エラーメッセージを設定したレスポンスを返却する。
+     *
+     * @param status HTTPステータス
+     * @param code メッセージのコード
+     * @param t 例外
+     * @return レスポンス
+     */
+    private ResponseEntity<BookManageResponse> toErrorResponse(HttpStatus status, String code, Throwable t) {
+        return ResponseEntity.status(status)
+                             .body(BookManageResponse.builder()
+                                                     .errorMessage(toErrorMessage(code, t))
+                                                     .build());
+    }
+
+    /**
+     * エラーメッセージを返却し、ビジネスエラーをログ出力する(同じ種類のエラーが続く場合は間引く)。
+     *
+     * @param code メッセージのコード
+     * @param t 例外
+     * @return エラーメッセージ
+     */
+    private String toErrorMessage(String code, Throwable t) {
+        String message = messageSource.getMessage(code, null, LocaleContextHolder.getLocale());
+        long suppressed = logThrottle.acquire(t.getClass()
+                                               .getName());
+        if (suppressed >= 0) {
+            log.warn("{} : {} (suppressed: {})", message, t.getMessage(), suppressed);
+        }
+        return message;
+    }
+
+}
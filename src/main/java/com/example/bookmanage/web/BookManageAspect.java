@@ -1,17 +1,22 @@
 package com.example.bookmanage.web;
 
+import java.util.concurrent.TimeUnit;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StopWatch;
+
+import com.example.bookmanage.trace.Span;
+import com.example.bookmanage.trace.Tracer;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * 書籍管理システムのAspect
  * 
- * コントローラとサービスのメソッドの実行時間をログ出力する。
+ * コントローラ、サービス、リポジトリのメソッドの実行時間をログ出力する(TRACEレベルが有効な場合のみ計測する)。
+ * また、リクエストのトレースに入れ子の区間(コントローラ→サービス→リポジトリ)として記録する。
  */
 @Slf4j
 @Aspect
@@ -27,16 +32,7 @@ public class BookManageAspect {
      */
     @Around("execution(* com.example.bookmanage.web.*.*(..))")
     public Object inWebLayer(ProceedingJoinPoint pjp) throws Throwable {
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
-        Object result;
-        try {
-            result = pjp.proceed();
-        } finally {
-            stopWatch.stop();
-            log.trace("{} : {} ms", pjp.getSignature(), stopWatch.getTotalTimeMillis());
-        }
-        return result;
+        return proceed(pjp, "web");
     }
 
     /**
@@ -48,14 +44,45 @@ public class BookManageAspect {
      */
     @Around("execution(* com.example.bookmanage.service.*.*(..))")
     public Object inServiceLayer(ProceedingJoinPoint pjp) throws Throwable {
-        StopWatch stopWatch = new StopWatch();
-        stopWatch.start();
+        return proceed(pjp, "service");
+    }
+
+    /**
+     * repository層(BookRepository)の実行時間をログ出力する。<br />
+     * findAllなどはSpring Dataのインターフェースで宣言されているため、BookRepositoryを実装したBeanのメソッドを対象にする。
+     *
+     * @param pjp JoinPoint
+     * @return JoinPoint実行時の戻り値
+     * @throws Throwable JoinPoint実行時の例外
+     */
+    @Around("execution(public * *(..)) && this(com.example.bookmanage.repository.BookRepository)")
+    public Object inRepositoryLayer(ProceedingJoinPoint pjp) throws Throwable {
+        return proceed(pjp, "repository");
+    }
+
+    /**
+     * JoinPointを実行し、実行時間をログ出力してトレースの区間として記録する。
+     *
+     * @param pjp JoinPoint
+     * @param layer 層
+     * @return JoinPoint実行時の戻り値
+     * @throws Throwable JoinPoint実行時の例外
+     */
+    private Object proceed(ProceedingJoinPoint pjp, String layer) throws Throwable {
+        boolean timed = log.isTraceEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        Span span = Tracer.startSpan(layer, pjp.getSignature()
+                                               .toShortString());
+        boolean error = true;
         Object result;
         try {
             result = pjp.proceed();
+            error = false;
         } finally {
-            stopWatch.stop();
-            log.trace("{} : {} ms", pjp.getSignature(), stopWatch.getTotalTimeMillis());
+            Tracer.endSpan(span, error);
+            if (timed) {
+                log.trace("{} : {} ms", pjp.getSignature(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
         }
         return result;
     }
@@ -1,14 +1,28 @@
 package com.example.bookmanage.web;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.MultiValueMap;
 import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -16,11 +30,20 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.exception.BookDuplicateException;
 import com.example.bookmanage.exception.BookManageValidationException;
 import com.example.bookmanage.exception.BookNotFoundException;
+import com.example.bookmanage.exception.IdempotencyKeyMismatchException;
+import com.example.bookmanage.form.BookManageResponse;
 import com.example.bookmanage.form.BookManagementForm;
+import com.example.bookmanage.form.BookSearchCondition;
 import com.example.bookmanage.service.BookManageService;
 
 import lombok.extern.slf4j.Slf4j;
@@ -47,6 +70,52 @@ public class BookManageController {
      */
     private static final String REDIRECT_TO_BOOKS = "redirect:/" + BOOKS;
 
+    /**
+     * 登録・更新フォームの部品のビュー名
+     */
+    private static final String BOOK_FORM_FRAGMENT = "fragments/book :: bookForm";
+
+    /**
+     * 書籍一覧の部品を要求するリクエストパラメータの条件
+     */
+    private static final String LIST_PART = "part=list";
+
+    /**
+     * 表示中の書籍一覧のURL(data-list-url)のヘッダ<br />
+     * Ajaxの登録・更新・削除の取り消しで、同じ並び順・絞り込み・ページの書籍一覧を返却するために指定する。
+     */
+    private static final String BOOK_LIST_URL = "X-Book-List-Url";
+
+    /**
+     * Ajax(jQuery)のリクエストであることを示すヘッダの条件
+     */
+    private static final String XHR = "X-Requested-With=XMLHttpRequest";
+
+    /**
+     * フォーム情報のモデル名
+     */
+    private static final String BOOK_MANAGE_FORM = "bookManageForm";
+
+    /**
+     * 冪等キーのヘッダ(JSONのリクエストで、フォーム情報の冪等キーの代わりに指定する)
+     */
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    /**
+     * 書籍一覧の並び順・絞り込み・ページの条件のモデル名
+     */
+    private static final String SEARCH = "search";
+
+    /**
+     * 削除した書籍のIDの属性名(削除の取り消しに使用する)
+     */
+    private static final String DELETED_BOOK_ID = "deletedBookId";
+
+    /**
+     * ビジネスエラーのログを出力する間隔(同じ種類のエラーは間隔内に1件のみ出力する)
+     */
+    private static final Duration ERROR_LOG_INTERVAL = Duration.ofSeconds(10);
+
     /**
      * 書籍管理システムのサービス
      */
@@ -57,6 +126,11 @@ public class BookManageController {
      */
     private final MessageSource messageSource;
 
+    /**
+     * ビジネスエラーのログの間引き
+     */
+    private final LogThrottle logThrottle = new LogThrottle(ERROR_LOG_INTERVAL);
+
     /**
      * コンストラクタ
      * 
@@ -145,15 +219,17 @@ public class BookManageController {
     /**
      * 書籍一覧を読み込む。
      * 
+     * @param principal 認証情報
+     * @param search 書籍一覧の並び順・絞り込み・ページの条件
      * @return モデルビュー
      */
     @GetMapping(value = BOOKS)
-    public ModelAndView readBooks(Principal principal) {
+    public ModelAndView readBooks(Principal principal, @ModelAttribute(SEARCH) BookSearchCondition search) {
         // 認証情報を取得
         Authentication authentication = (Authentication) principal;
         String userName = authentication.getName();
 
-        BookManagementForm form = service.initForm();
+        BookManagementForm form = service.initForm(search);
         ModelAndView modelAndView = toBookPages();
         modelAndView.addObject("bookManageForm", form);
         modelAndView.addObject("userName", userName);
@@ -173,13 +249,15 @@ public class BookManageController {
      * 指定したIDに該当する書籍を読み込む。
      *
      * @param id 書籍のID
+     * @param search 書籍一覧の並び順・絞り込み・ページの条件
      * @return モデルビュー
      * @throws Throwable ビジネス例外以外の例外が発生した場合、throwされる
      */
     @GetMapping(value = "books/{id}")
-    public ModelAndView readOneBook(@PathVariable long id) throws Throwable {
+    public ModelAndView readOneBook(@PathVariable long id, @ModelAttribute(SEARCH) BookSearchCondition search)
+            throws Throwable {
         try {
-            BookManagementForm form = service.readOneBook(id);
+            BookManagementForm form = service.readOneBook(id, search);
             ModelAndView modelAndView = toBookPages();
             modelAndView.addObject("bookId", id);
             modelAndView.addObject("bookManageForm", form);
@@ -234,22 +312,500 @@ public class BookManageController {
     }
 
     /**
-     * 指定したIDの書籍を削除する。
+     * 指定したIDの書籍を削除する。<br />
+     * リダイレクト先の画面で削除を取り消せるよう、削除した書籍のIDをフラッシュ属性に設定する。
      *
      * @param id 書籍のID
+     * @param redirectAttributes リダイレクト先に引き継ぐ属性
      * @return モデルビュー
      * @throws Throwable ビジネス例外以外の例外が発生した場合、throwされる
      */
     @DeleteMapping(value = "books/{id}")
-    public ModelAndView deleteOneBook(@PathVariable long id) throws Throwable {
+    public ModelAndView deleteOneBook(@PathVariable long id, RedirectAttributes redirectAttributes)
+            throws Throwable {
         try {
             service.deleteBook(id);
         } catch (BookNotFoundException t) {
             return handleException(t);
         }
+        redirectAttributes.addFlashAttribute(DELETED_BOOK_ID, id);
         return new ModelAndView(REDIRECT_TO_BOOKS);
     }
 
+    /**
+     * 指定したIDの削除した書籍を元に戻す。
+     *
+     * @param id 書籍のID
+     * @return モデルビュー
+     * @throws Throwable ビジネス例外以外の例外が発生した場合、throwされる
+     */
+    @PostMapping(value = "books/{id}/restore")
+    public ModelAndView restoreOneBook(@PathVariable long id) throws Throwable {
+        try {
+            service.restoreBook(id);
+        } catch (BookNotFoundException | BookDuplicateException t) {
+            return handleException(t);
+        }
+        return new ModelAndView(REDIRECT_TO_BOOKS);
+    }
+
+    // ------------------------------------------------------------------------
+    // 書籍管理機能処理(JSON)
+    // Acceptヘッダにapplication/jsonを指定した場合の処理。
+    // エラー時に書籍一覧を取得し直さず、エラーメッセージのみを返却する。
+    // ------------------------------------------------------------------------
+
+    /**
+     * フォーム情報から書籍を新規登録し、結果をJSONで返却する。
+     *
+     * @param form フォーム情報
+     * @param result Validatorの結果
+     * @param idempotencyKey 冪等キー(再送の場合、最初に登録した書籍を返却する)
+     * @param locale ロケール
+     * @return 登録した書籍のIDとバージョン(エラーが発生した場合、エラーメッセージ)
+     */
+    @PostMapping(value = BOOKS, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookManageResponse> createOneBookAsJson(@Validated @ModelAttribute BookManagementForm form,
+            BindingResult result, @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            Locale locale) {
+        if (result.hasErrors()) {
+            return toValidationErrorResponse(result, locale);
+        }
+        applyIdempotencyKey(form, idempotencyKey);
+        try {
+            Book book = service.createBook(form);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                                 .body(toResponse(book));
+        } catch (BookDuplicateException e) {
+            return toErrorResponse(HttpStatus.CONFLICT, "error.bookduplicate", e);
+        } catch (IdempotencyKeyMismatchException e) {
+            return toErrorResponse(HttpStatus.UNPROCESSABLE_ENTITY, "error.idempotencykeymismatch", e);
+        }
+    }
+
+    /**
+     * 指定したIDの書籍をフォーム情報の内容に更新し、結果をJSONで返却する。
+     *
+     * @param id 書籍のID
+     * @param form フォーム情報
+     * @param result Validatorの結果
+     * @param idempotencyKey 冪等キー(再送の場合、最初に更新した書籍を返却する)
+     * @param locale ロケール
+     * @return 更新した書籍のIDとバージョン(エラーが発生した場合、エラーメッセージ)
+     */
+    @PutMapping(value = "books/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookManageResponse> updateOneBookAsJson(@PathVariable long id,
+            @Validated @ModelAttribute BookManagementForm form, BindingResult result,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey, Locale locale) {
+        if (result.hasErrors()) {
+            return toValidationErrorResponse(result, locale);
+        }
+        applyIdempotencyKey(form, idempotencyKey);
+        try {
+            Book book = service.updateBook(id, form);
+            return ResponseEntity.ok(toResponse(book));
+        } catch (BookNotFoundException e) {
+            return toErrorResponse(HttpStatus.NOT_FOUND, "error.booknotfound", e);
+        } catch (BookDuplicateException e) {
+            return toErrorResponse(HttpStatus.CONFLICT, "error.bookduplicate", e);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return toErrorResponse(HttpStatus.CONFLICT, "error.optlockfailure", e);
+        } catch (IdempotencyKeyMismatchException e) {
+            return toErrorResponse(HttpStatus.UNPROCESSABLE_ENTITY, "error.idempotencykeymismatch", e);
+        }
+    }
+
+    /**
+     * 指定したIDの書籍を削除し、結果をJSONで返却する。
+     *
+     * @param id 書籍のID
+     * @return 削除できた場合、204(書籍が存在しない場合、エラーメッセージ)
+     */
+    @DeleteMapping(value = "books/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookManageResponse> deleteOneBookAsJson(@PathVariable long id) {
+        try {
+            service.deleteBook(id);
+            return ResponseEntity.noContent()
+                                 .build();
+        } catch (BookNotFoundException e) {
+            return toErrorResponse(HttpStatus.NOT_FOUND, "error.booknotfound", e);
+        }
+    }
+
+    /**
+     * 指定したIDの削除した書籍を元に戻し、結果をJSONで返却する。
+     *
+     * @param id 書籍のID
+     * @return 元に戻した書籍のIDとバージョン(エラーが発生した場合、エラーメッセージ)
+     */
+    @PostMapping(value = "books/{id}/restore", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BookManageResponse> restoreOneBookAsJson(@PathVariable long id) {
+        try {
+            Book book = service.restoreBook(id);
+            return ResponseEntity.ok(toResponse(book));
+        } catch (BookNotFoundException e) {
+            return toErrorResponse(HttpStatus.NOT_FOUND, "error.booknotfound", e);
+        } catch (BookDuplicateException e) {
+            return toErrorResponse(HttpStatus.CONFLICT, "error.bookduplicate", e);
+        }
+    }
+
+    /**
+     * ヘッダで指定した冪等キーをフォーム情報に設定する(未指定の場合、フォーム情報の冪等キーを使用する)。
+     *
+     * @param form フォーム情報
+     * @param idempotencyKey 冪等キーのヘッダ
+     */
+    private static void applyIdempotencyKey(BookManagementForm form, String idempotencyKey) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            form.setIdempotencyKey(idempotencyKey);
+        }
+    }
+
+    /**
+     * 書籍のIDとバージョンを設定したレスポンスを返却する。
+     *
+     * @param book 書籍
+     * @return レスポンス
+     */
+    private BookManageResponse toResponse(Book book) {
+        return BookManageResponse.builder()
+                                 .id(book.getId())
+                                 .version(book.getVersion())
+                                 .build();
+    }
+
+    /**
+     * 入力内容のエラーメッセージを設定したレスポンス(400)を返却する。
+     *
+     * @param result Validatorの結果
+     * @param locale ロケール
+     * @return レスポンス
+     */
+    private ResponseEntity<BookManageResponse> toValidationErrorResponse(BindingResult result, Locale locale) {
+        Map<String, String> fieldErrors = new LinkedHashMap<>();
+        for (FieldError fieldError : result.getFieldErrors()) {
+            fieldErrors.putIfAbsent(fieldError.getField(), messageSource.getMessage(fieldError, locale));
+        }
+        String message = messageSource.getMessage("error.validation", null, locale);
+        logBusinessError(message, new BookManageValidationException(result));
+        return ResponseEntity.badRequest()
+                             .body(BookManageResponse.builder()
+                                                     .errorMessage(message)
+                                                     .fieldErrors(fieldErrors)
+                                                     .build());
+    }
+
+    /**
+     * エラーメッセージを設定したレスポンスを返却する。
+     *
+     * @param status HTTPステータス
+     * @param code メッセージのコード
+     * @param t 例外
+     * @return レスポンス
+     */
+    private ResponseEntity<BookManageResponse> toErrorResponse(HttpStatus status, String code, Throwable t) {
+        String message = messageSource.getMessage(code, null, LocaleContextHolder.getLocale());
+        logBusinessError(message, t);
+        return ResponseEntity.status(status)
+                             .body(BookManageResponse.builder()
+                                                     .errorMessage(message)
+                                                     .build());
+    }
+
+    // ------------------------------------------------------------------------
+    // 書籍管理機能処理(部分更新)
+    // X-Requested-Withヘッダを指定した場合(books.jsからのAjax)の処理。
+    // 画面全体をリダイレクトで表示し直さず、変更のあった登録・更新フォームと書籍一覧のみを返却する。
+    // ------------------------------------------------------------------------
+
+    /**
+     * 新規登録用の登録・更新フォームを返却する。
+     *
+     * @return モデルビュー(登録・更新フォーム)
+     */
+    @GetMapping(value = BOOKS, headers = XHR)
+    public ModelAndView readBookFormFragment() {
+        return toBookFormFragment(newBookForm(), null);
+    }
+
+    /**
+     * 書籍一覧の部品を、表示中の並び順・絞り込み・ページの条件で返却する。<br />
+     * 書籍一覧のみを読み込み直す場合に使用する(登録・更新・削除の取り消しは、応答で書籍一覧を返却する)。
+     *
+     * @param search 書籍一覧の並び順・絞り込み・ページの条件
+     * @return モデルビュー(書籍一覧)
+     */
+    @GetMapping(value = BOOKS, headers = XHR, params = LIST_PART)
+    public ModelAndView readBookListFragment(@ModelAttribute(SEARCH) BookSearchCondition search) {
+        return toBookListFragment(search, "/" + BOOKS);
+    }
+
+    /**
+     * 管理者用画面の書籍一覧の部品を、表示中の並び順・絞り込み・ページの条件で返却する。
+     *
+     * @param search 書籍一覧の並び順・絞り込み・ページの条件
+     * @return モデルビュー(書籍一覧)
+     */
+    @GetMapping(value = "admin", headers = XHR, params = LIST_PART)
+    public ModelAndView adminBookListFragment(@ModelAttribute(SEARCH) BookSearchCondition search) {
+        return toBookListFragment(search, "/admin");
+    }
+
+    /**
+     * 指定したIDに該当する書籍の登録・更新フォームを返却する。<br />
+     * 書籍一覧は取得しない。
+     *
+     * @param id 書籍のID
+     * @return モデルビュー(登録・更新フォーム)
+     */
+    @GetMapping(value = "books/{id}", headers = XHR)
+    public ModelAndView readOneBookFragment(@PathVariable long id) {
+        return service.findBookForm(id)
+                      .map(form -> toBookFormFragment(form, id))
+                      .orElseGet(() -> toBookFormFragmentForError(newBookForm(), null, HttpStatus.NOT_FOUND,
+                              "error.booknotfound", new BookNotFoundException(id)));
+    }
+
+    /**
+     * フォーム情報から書籍を新規登録し、新規登録用のフォームと読み込み直した書籍一覧を返却する。
+     *
+     * @param form フォーム情報
+     * @param result Validatorの結果
+     * @param listUrl 表示中の書籍一覧のURL(未指定の場合、既定の条件の書籍一覧を返却する)
+     * @return モデルビュー(登録・更新フォームと書籍一覧、エラーが発生した場合は登録・更新フォーム)
+     */
+    @PostMapping(value = BOOKS, headers = XHR)
+    public ModelAndView createOneBookFragment(@Validated @ModelAttribute(BOOK_MANAGE_FORM) BookManagementForm form,
+            BindingResult result, @RequestHeader(value = BOOK_LIST_URL, required = false) String listUrl) {
+        if (result.hasErrors()) {
+            return toBookFormFragmentForError(form, null, HttpStatus.BAD_REQUEST, "error.validation",
+                    new BookManageValidationException(result));
+        }
+        try {
+            service.createBook(form);
+            return toBookSavedFragment(listUrl, HttpStatus.CREATED);
+        } catch (BookDuplicateException e) {
+            return toBookFormFragmentForError(form, null, HttpStatus.CONFLICT, "error.bookduplicate", e);
+        } catch (IdempotencyKeyMismatchException e) {
+            // 同じキーでは送信し直せないため、キーを採番し直す
+            form.setIdempotencyKey(BookManagementForm.newIdempotencyKey());
+            return toBookFormFragmentForError(form, null, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "error.idempotencykeymismatch", e);
+        }
+    }
+
+    /**
+     * 指定したIDの書籍をフォーム情報の内容に更新し、新規登録用のフォームと読み込み直した書籍一覧を返却する。
+     *
+     * @param id 書籍のID
+     * @param form フォーム情報
+     * @param result Validatorの結果
+     * @param listUrl 表示中の書籍一覧のURL(未指定の場合、既定の条件の書籍一覧を返却する)
+     * @return モデルビュー(登録・更新フォームと書籍一覧、エラーが発生した場合は登録・更新フォーム)
+     */
+    @PutMapping(value = "books/{id}", headers = XHR)
+    public ModelAndView updateOneBookFragment(@PathVariable long id,
+            @Validated @ModelAttribute(BOOK_MANAGE_FORM) BookManagementForm form, BindingResult result,
+            @RequestHeader(value = BOOK_LIST_URL, required = false) String listUrl) {
+        if (result.hasErrors()) {
+            return toBookFormFragmentForError(form, id, HttpStatus.BAD_REQUEST, "error.validation",
+                    new BookManageValidationException(result));
+        }
+        try {
+            service.updateBook(id, form);
+            return toBookSavedFragment(listUrl, HttpStatus.OK);
+        } catch (BookNotFoundException e) {
+            return toBookFormFragmentForError(form, id, HttpStatus.NOT_FOUND, "error.booknotfound", e);
+        } catch (BookDuplicateException e) {
+            return toBookFormFragmentForError(form, id, HttpStatus.CONFLICT, "error.bookduplicate", e);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return toBookFormFragmentForError(form, id, HttpStatus.CONFLICT, "error.optlockfailure", e);
+        } catch (IdempotencyKeyMismatchException e) {
+            // 同じキーでは送信し直せないため、キーを採番し直す
+            form.setIdempotencyKey(BookManagementForm.newIdempotencyKey());
+            return toBookFormFragmentForError(form, id, HttpStatus.UNPROCESSABLE_ENTITY,
+                    "error.idempotencykeymismatch", e);
+        }
+    }
+
+    /**
+     * 指定したIDの書籍を削除する。<br />
+     * 削除した行は画面側で取り除くため、正常に削除できた場合は本文を返却しない(204)。
+     *
+     * @param id 書籍のID
+     * @param response HTTPレスポンス
+     * @return モデルビュー(書籍が存在しない場合のみ、登録・更新フォーム)
+     */
+    @DeleteMapping(value = "books/{id}", headers = XHR)
+    public ModelAndView deleteOneBookFragment(@PathVariable long id, HttpServletResponse response) {
+        try {
+            service.deleteBook(id);
+        } catch (BookNotFoundException e) {
+            return toBookFormFragmentForError(newBookForm(), null, HttpStatus.NOT_FOUND, "error.booknotfound", e);
+        }
+        response.setStatus(HttpStatus.NO_CONTENT.value());
+        return null;
+    }
+
+    /**
+     * 指定したIDの削除した書籍を元に戻し、読み込み直した書籍一覧を返却する。
+     *
+     * @param id 書籍のID
+     * @param listUrl 表示中の書籍一覧のURL(未指定の場合、既定の条件の書籍一覧を返却する)
+     * @return モデルビュー(書籍一覧、エラーが発生した場合は登録・更新フォーム)
+     */
+    @PostMapping(value = "books/{id}/restore", headers = XHR)
+    public ModelAndView restoreOneBookFragment(@PathVariable long id,
+            @RequestHeader(value = BOOK_LIST_URL, required = false) String listUrl) {
+        try {
+            service.restoreBook(id);
+            return toBookListFragment(toSearchCondition(listUrl), toBaseUrl(listUrl));
+        } catch (BookNotFoundException e) {
+            return toBookFormFragmentForError(newBookForm(), null, HttpStatus.NOT_FOUND, "error.booknotfound", e);
+        } catch (BookDuplicateException e) {
+            return toBookFormFragmentForError(newBookForm(), null, HttpStatus.CONFLICT, "error.bookduplicate", e);
+        }
+    }
+
+    /**
+     * 新規登録用のフォーム情報を返却する(書籍一覧は取得しない)。
+     *
+     * @return フォーム情報
+     */
+    private BookManagementForm newBookForm() {
+        return BookManagementForm.builder()
+                                 .newBook(true)
+                                 .idempotencyKey(BookManagementForm.newIdempotencyKey())
+                                 .build();
+    }
+
+    /**
+     * 登録・更新フォームの部品のモデルビューを返却する。
+     *
+     * @param form フォーム情報
+     * @param bookId 更新する書籍のID(新規登録の場合はnull)
+     * @return モデルビュー
+     */
+    private ModelAndView toBookFormFragment(BookManagementForm form, Long bookId) {
+        ModelAndView modelAndView = new ModelAndView(BOOK_FORM_FRAGMENT);
+        modelAndView.addObject(BOOK_MANAGE_FORM, form);
+        if (bookId != null) {
+            modelAndView.addObject("bookId", bookId);
+        }
+        return modelAndView;
+    }
+
+    /**
+     * エラーメッセージを設定した登録・更新フォームの部品のモデルビューを返却する。<br />
+     * 書籍一覧は取得し直さない。
+     *
+     * @param form フォーム情報
+     * @param bookId 更新する書籍のID(新規登録の場合はnull)
+     * @param status HTTPステータス
+     * @param code メッセージのコード
+     * @param t 例外
+     * @return モデルビュー
+     */
+    private ModelAndView toBookFormFragmentForError(BookManagementForm form, Long bookId, HttpStatus status,
+            String code, Throwable t) {
+        String message = messageSource.getMessage(code, null, LocaleContextHolder.getLocale());
+        logBusinessError(message, t);
+        ModelAndView modelAndView = toBookFormFragment(form, bookId);
+        modelAndView.addObject("errorMessage", message);
+        modelAndView.setStatus(status);
+        return modelAndView;
+    }
+
+    /**
+     * 書籍一覧の部品のモデルビューを返却する。
+     *
+     * @param search 書籍一覧の並び順・絞り込み・ページの条件
+     * @param baseUrl 表示中の画面のURL(並び順とページの切り替えのリンクに使用する)
+     * @return モデルビュー
+     */
+    private ModelAndView toBookListFragment(BookSearchCondition search, String baseUrl) {
+        ModelAndView modelAndView = new ModelAndView("fragments/book :: bookList(baseUrl='" + baseUrl + "')");
+        modelAndView.addObject(SEARCH, search);
+        modelAndView.addObject(BOOK_MANAGE_FORM, service.initForm(search));
+        return modelAndView;
+    }
+
+    /**
+     * 登録・更新の結果の部品(新規登録用のフォームと、読み込み直した書籍一覧)のモデルビューを返却する。<br />
+     * 登録・更新した書籍の行の位置は並び順・絞り込み・ページで変わるため、行ではなく書籍一覧を返却する。
+     *
+     * @param listUrl 表示中の書籍一覧のURL
+     * @param status HTTPステータス
+     * @return モデルビュー
+     */
+    private ModelAndView toBookSavedFragment(String listUrl, HttpStatus status) {
+        ModelAndView modelAndView = new ModelAndView(
+                "fragments/book :: bookSaved(baseUrl='" + toBaseUrl(listUrl) + "')");
+        BookSearchCondition search = toSearchCondition(listUrl);
+        modelAndView.addObject(SEARCH, search);
+        // 書籍一覧を設定したフォーム情報は、新規登録用のフォーム(新しい冪等キー)を兼ねる
+        modelAndView.addObject(BOOK_MANAGE_FORM, service.initForm(search));
+        modelAndView.setStatus(status);
+        return modelAndView;
+    }
+
+    /**
+     * 表示中の書籍一覧のURLから、書籍一覧の並び順・絞り込み・ページの条件を返却する。
+     *
+     * @param listUrl 表示中の書籍一覧のURL
+     * @return 書籍一覧の並び順・絞り込み・ページの条件(URLが未指定の場合、既定の条件)
+     */
+    private static BookSearchCondition toSearchCondition(String listUrl) {
+        BookSearchCondition search = new BookSearchCondition();
+        if (listUrl == null || listUrl.isBlank()) {
+            return search;
+        }
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUriString(listUrl)
+                                                                   .build()
+                                                                   .getQueryParams();
+        search.setSort(queryParam(params, "sort"));
+        search.setDir(queryParam(params, "dir"));
+        search.setTitle(queryParam(params, "title"));
+        search.setAuthor(queryParam(params, "author"));
+        try {
+            search.setPage(Integer.parseInt(Objects.toString(queryParam(params, "page"), "0")));
+        } catch (NumberFormatException e) {
+            // 不正なページは先頭のページとする
+        }
+        return search;
+    }
+
+    /**
+     * URLのクエリパラメータの値をデコードして返却する。
+     *
+     * @param params URLのクエリパラメータ
+     * @param name パラメータ名
+     * @return パラメータの値(未指定の場合、null)
+     */
+    private static String queryParam(MultiValueMap<String, String> params, String name) {
+        String value = params.getFirst(name);
+        return value == null ? null : UriUtils.decode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 表示中の書籍一覧のURLから、表示中の画面のURLを返却する。
+     *
+     * @param listUrl 表示中の書籍一覧のURL
+     * @return 表示中の画面のURL(管理者用画面の場合、"/admin"。それ以外の場合、"/books")
+     */
+    private static String toBaseUrl(String listUrl) {
+        if (listUrl != null) {
+            String path = UriComponentsBuilder.fromUriString(listUrl)
+                                              .build()
+                                              .getPath();
+            if (path != null && path.endsWith("/admin")) {
+                return "/admin";
+            }
+        }
+        return "/" + BOOKS;
+    }
+
     // ------------------------------------------------------------------------
     // 管理者用処理
     // ------------------------------------------------------------------------
@@ -258,11 +814,12 @@ public class BookManageController {
      * 管理者用画面へのアクセスした時の処理。
      *
      * @param principal 認証情報
+     * @param search 書籍一覧の並び順・絞り込み・ページの条件
      * @return モデルビュー
      */
     @GetMapping("admin")
-    public ModelAndView admin(Principal principal) {
-        ModelAndView modelAndView = readBooks(principal);
+    public ModelAndView admin(Principal principal, @ModelAttribute(SEARCH) BookSearchCondition search) {
+        ModelAndView modelAndView = readBooks(principal, search);
         modelAndView.setViewName("admin");
         return modelAndView;
     }
@@ -307,6 +864,7 @@ public class BookManageController {
     private ModelAndView handleException(Throwable t) throws Throwable {
         BookManagementForm form = new BookManagementForm();
         form.setNewBook(true);
+        form.setIdempotencyKey(BookManagementForm.newIdempotencyKey());
         return handleException(form, t);
     }
 
@@ -322,27 +880,54 @@ public class BookManageController {
     private ModelAndView handleException(BookManagementForm form, Throwable t) throws Throwable {
         if (t instanceof BookNotFoundException) {
             // 書籍が取得出来ない場合
-            String message = messageSource.getMessage("error.booknotfound", null, null);
-            log.warn(message, t);
+            String message = messageSource.getMessage("error.booknotfound", null, LocaleContextHolder.getLocale());
+            logBusinessError(message, t);
+            return toBookPageForError(form, message);
+        } else if (t instanceof BookDuplicateException) {
+            // 同じタイトルと著者の書籍が存在する場合
+            String message = messageSource.getMessage("error.bookduplicate", null, LocaleContextHolder.getLocale());
+            logBusinessError(message, t);
             return toBookPageForError(form, message);
         } else if (t instanceof ObjectOptimisticLockingFailureException) {
             // 楽観排他でエラーが発生した場合
-            String message = messageSource.getMessage("error.optlockfailure", null, null);
-            log.warn(message, t);
+            String message = messageSource.getMessage("error.optlockfailure", null, LocaleContextHolder.getLocale());
+            logBusinessError(message, t);
+            return toBookPageForError(form, message);
+        } else if (t instanceof IdempotencyKeyMismatchException) {
+            // 冪等キーを内容の異なる送信に使い回した場合(同じキーでは送信し直せないため、キーを採番し直す)
+            String message = messageSource.getMessage("error.idempotencykeymismatch", null, LocaleContextHolder.getLocale());
+            logBusinessError(message, t);
+            form.setIdempotencyKey(BookManagementForm.newIdempotencyKey());
             return toBookPageForError(form, message);
         } else if (t instanceof BookManageValidationException) {
             // 入力内容のエラーが発生した場合
-            String message = messageSource.getMessage("error.validation", null, null);
-            log.warn(message, t);
+            String message = messageSource.getMessage("error.validation", null, LocaleContextHolder.getLocale());
+            logBusinessError(message, t);
             return toBookPageForError(form, message);
         }
 
         throw t;
     }
 
+    /**
+     * ビジネスエラーをログ出力する。<br />
+     * ビジネス例外はスタックトレースを持たないため、メッセージのみを出力する。
+     * 同じ種類のエラーが続く場合は一定間隔ごとに1件のみ出力し、間引いた件数を併せて出力する。
+     *
+     * @param message エラーメッセージ
+     * @param t 例外
+     */
+    private void logBusinessError(String message, Throwable t) {
+        long suppressed = logThrottle.acquire(t.getClass()
+                                               .getName());
+        if (suppressed >= 0) {
+            log.warn("{} : {} (suppressed: {})", message, t.getMessage(), suppressed);
+        }
+    }
+
     /**
      * エラーメッセージを設定したモデルビューを返却する。<br />
-     * 書籍一覧の設定も行う。
+     * 書籍一覧(既定の並び順の先頭のページ)の設定も行う。
      *
      * @param form フォーム情報
      * @param errorMessage エラーメッセージ
@@ -352,8 +937,10 @@ public class BookManageController {
         // 書籍一覧を取得し直す
         BookManagementForm initForm = service.initForm();
         form.setBooks(initForm.getBooks());
+        form.setHasNext(initForm.isHasNext());
         ModelAndView modelAndView = toBookPages();
         modelAndView.addObject("bookManageForm", form);
+        modelAndView.addObject(SEARCH, new BookSearchCondition());
         modelAndView.addObject("errorMessage", errorMessage);
         return modelAndView;
     }
@@ -1,5 +1,7 @@
 package com.example.bookmanage.web;
 
+import java.time.Duration;
+
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
@@ -12,17 +14,44 @@ import lombok.extern.slf4j.Slf4j;
 @ControllerAdvice
 public class BookManageExceptionHandler {
 
+    /**
+     * システムエラーのログを出力する間隔(同じ箇所で発生した同じ例外は間隔内に1件のみ出力する)
+     */
+    private static final Duration ERROR_LOG_INTERVAL = Duration.ofSeconds(10);
+
+    /**
+     * システムエラーのログの間引き
+     */
+    private final LogThrottle logThrottle = new LogThrottle(ERROR_LOG_INTERVAL);
+
     /**
      * 例外を処理する。<br />
      * 例外をログ出力し、エラー画面のHTML名を返却する。
+     * 同じ箇所で同じ例外が続く場合は、一定間隔ごとに1件のみスタックトレースを出力する(間引いた件数を併せて出力する)。
      * 
      * @param e 例外
      * @return エラー画面のHTML名
      */
     @ExceptionHandler(value = {Exception.class})
     public String handleException(Exception e) {
-        log.error("system error!", e);
+        long suppressed = logThrottle.acquire(errorKey(e));
+        if (suppressed >= 0) {
+            log.error("system error! (suppressed: {})", suppressed, e);
+        }
         return "error";
     }
 
+    /**
+     * 例外の種類と発生箇所から、ログを間引くためのキーを生成する。
+     *
+     * @param e 例外
+     * @return キー
+     */
+    private static String errorKey(Exception e) {
+        String key = e.getClass()
+                      .getName();
+        StackTraceElement[] stackTrace = e.getStackTrace();
+        return stackTrace.length == 0 ? key : key + "@" + stackTrace[0];
+    }
+
 }
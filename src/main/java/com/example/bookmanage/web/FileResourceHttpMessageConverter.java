@@ -0,0 +1,25 @@
+package com.example.bookmanage.web;
+
+import java.io.IOException;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+
+/**
+ * ファイルシステム上のファイルをFileChannel#transferTo(sendfile)で書き込むResourceHttpMessageConverter<br />
+ *
+ * コントローラがResponseEntity&lt;Resource&gt;で返却したファイル(表紙の画像、バックアップ等)に使用する。
+ * ETag, Cache-Control, 304の処理は従来どおりSpring MVCが行い、本文の書き込みのみを置き換える。
+ * ファイルでないリソース(メモリ上の縮小画像等)は、従来どおりストリームでコピーする。
+ */
+public class FileResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+    @Override
+    protected void writeContent(Resource resource, HttpOutputMessage outputMessage) throws IOException {
+        if (!FileTransfer.write(resource, 0, resource.contentLength(), outputMessage)) {
+            super.writeContent(resource, outputMessage);
+        }
+    }
+
+}
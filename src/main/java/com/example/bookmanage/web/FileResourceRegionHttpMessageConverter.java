@@ -0,0 +1,34 @@
+package com.example.bookmanage.web;
+
+import java.io.IOException;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+
+/**
+ * ファイルシステム上のファイルの範囲(Rangeヘッダ)をFileChannel#transferTo(sendfile)で書き込むResourceRegionHttpMessageConverter<br />
+ *
+ * 範囲が1つの場合のみ置き換え、複数の範囲(multipart/byteranges)は従来どおりストリームでコピーする。
+ */
+public class FileResourceRegionHttpMessageConverter extends ResourceRegionHttpMessageConverter {
+
+    @Override
+    protected void writeResourceRegion(ResourceRegion region, HttpOutputMessage outputMessage) throws IOException {
+        Resource resource = region.getResource();
+        if (!resource.isFile()) {
+            super.writeResourceRegion(region, outputMessage);
+            return;
+        }
+        long start = region.getPosition();
+        long length = resource.contentLength();
+        long count = Math.min(region.getCount(), length - start);
+        HttpHeaders headers = outputMessage.getHeaders();
+        headers.add(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (start + count - 1) + "/" + length);
+        headers.setContentLength(count);
+        FileTransfer.write(resource, start, count, outputMessage);
+    }
+
+}
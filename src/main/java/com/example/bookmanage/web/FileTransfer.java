@@ -0,0 +1,119 @@
+package com.example.bookmanage.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * ファイルの内容をレスポンスに書き込むクラス<br />
+ *
+ * ファイルの内容をヒープのバイト配列に読み込んでから書き込むのではなく、FileChannel#transferToで書き込む。
+ * Tomcatがsendfileに対応している場合(TLSを使用しない場合)は、ファイル名と範囲をリクエストの属性に設定し、
+ * レスポンスの送信時にTomcatからソケットに直接転送させる(アプリケーションはファイルの内容を読み込まない)。<br />
+ * 小さいファイルはsendfileの準備の方が高くつくため、TomcatのDefaultServletと同じくサイズの下限を設ける。
+ */
+final class FileTransfer {
+
+    /**
+     * sendfileを使用するサイズの下限(TomcatのDefaultServletの既定値と同じ)
+     */
+    static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    /**
+     * Tomcatがsendfileに対応していることを示すリクエストの属性
+     */
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    /**
+     * sendfileで送信するファイル名のリクエストの属性
+     */
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+
+    /**
+     * sendfileで送信する範囲の開始位置のリクエストの属性
+     */
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+
+    /**
+     * sendfileで送信する範囲の終了位置(この位置を含まない)のリクエストの属性
+     */
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /**
+     * インスタンス化しない。
+     */
+    private FileTransfer() {
+    }
+
+    /**
+     * リソースの指定した範囲をレスポンスに書き込む。<br />
+     * ヘッダ(Content-Length等)は呼び出し元で設定しておくこと。
+     *
+     * @param resource リソース
+     * @param position 範囲の開始位置
+     * @param count 範囲のバイト数
+     * @param outputMessage レスポンス
+     * @return 書き込んだ場合はtrue(ファイルシステム上のファイルではなく、書き込まなかった場合はfalse)
+     * @throws IOException 読み込み・書き込みに失敗した場合
+     */
+    static boolean write(Resource resource, long position, long count, HttpOutputMessage outputMessage)
+            throws IOException {
+        if (!resource.isFile()) {
+            return false;
+        }
+        Path file = resource.getFile()
+                            .toPath();
+        // ヘッダをレスポンスに反映する(コミットはしない)
+        OutputStream body = outputMessage.getBody();
+
+        HttpServletRequest request = currentRequest();
+        if (count >= SENDFILE_MIN_SIZE && request != null
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath()
+                                                        .toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            return true;
+        }
+
+        // 書き込み先のストリームはチャネルを閉じても閉じない(Spring MVCが閉じる)
+        WritableByteChannel target = Channels.newChannel(body);
+        try (FileChannel source = FileChannel.open(file, StandardOpenOption.READ)) {
+            long transferred = 0;
+            while (transferred < count) {
+                long written = source.transferTo(position + transferred, count - transferred, target);
+                if (written <= 0) {
+                    // ファイルが範囲の途中で短くなった場合
+                    throw new IOException("file is shorter than expected: " + file);
+                }
+                transferred += written;
+            }
+        }
+        body.flush();
+        return true;
+    }
+
+    /**
+     * 処理中のリクエストを返却する。
+     *
+     * @return リクエスト(リクエストの処理中でない場合はnull)
+     */
+    private static HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servletAttributes ? servletAttributes.getRequest()
+                : null;
+    }
+
+}
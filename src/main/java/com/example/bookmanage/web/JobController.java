@@ -0,0 +1,82 @@
+package com.example.bookmanage.web;
+
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.example.bookmanage.job.JobScheduler;
+
+/**
+ * 保守処理の進捗の参照と、実行・一時停止・再開を行う管理者用のMVCコントローラ
+ */
+@Controller
+public class JobController {
+
+    /**
+     * 保守処理の一覧へのリダイレクトのURL
+     */
+    private static final String REDIRECT_TO_JOBS = "redirect:/admin/jobs";
+
+    /**
+     * 保守処理のスケジューラ
+     */
+    private final JobScheduler scheduler;
+
+    /**
+     * コンストラクタ
+     *
+     * @param scheduler 保守処理のスケジューラ
+     */
+    public JobController(JobScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 保守処理の一覧(状態、進捗、最後の実行の結果)を表示する。
+     *
+     * @return モデルビュー
+     */
+    @GetMapping("admin/jobs")
+    public ModelAndView jobs() {
+        return new ModelAndView("admin/jobs", "jobs", scheduler.statuses());
+    }
+
+    /**
+     * 保守処理の実行をすぐに開始する(実行中の場合は何もしない)。
+     *
+     * @param name 保守処理の名前
+     * @return モデルビュー(保守処理の一覧へのリダイレクト)
+     */
+    @PostMapping("admin/jobs/{name}/run")
+    public ModelAndView run(@PathVariable String name) {
+        scheduler.runNow(name);
+        return new ModelAndView(REDIRECT_TO_JOBS);
+    }
+
+    /**
+     * 保守処理を一時停止する。
+     *
+     * @param name 保守処理の名前
+     * @return モデルビュー(保守処理の一覧へのリダイレクト)
+     */
+    @PostMapping("admin/jobs/{name}/pause")
+    public ModelAndView pause(@PathVariable String name) {
+        scheduler.pause(name);
+        return new ModelAndView(REDIRECT_TO_JOBS);
+    }
+
+    /**
+     * 一時停止した保守処理を再開する。
+     *
+     * @param name 保守処理の名前
+     * @return モデルビュー(保守処理の一覧へのリダイレクト)
+     */
+    @PostMapping("admin/jobs/{name}/resume")
+    public ModelAndView resume(@PathVariable String name) {
+        scheduler.resume(name);
+        return new ModelAndView(REDIRECT_TO_JOBS);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.example.bookmanage.web;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 同じ種類のエラーログの出力を間引くためのクラス<br />
+ *
+ * キー(エラーの種類)ごとに、一定間隔の間は最初の1件のみ出力を許可し、それ以外は件数のみを数える。
+ * 次に出力を許可する時に、それまでに間引いた件数を返却する(ログに件数を出力するため)。
+ */
+final class LogThrottle {
+
+    /**
+     * 保持するキーの上限(超えた場合、全てのキーを破棄する)
+     */
+    private static final int MAX_KEYS = 1024;
+
+    /**
+     * ログを出力する間隔(ナノ秒)
+     */
+    private final long intervalNanos;
+
+    /**
+     * キーごとの出力状況
+     */
+    private final ConcurrentMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * コンストラクタ
+     *
+     * @param interval ログを出力する間隔
+     */
+    LogThrottle(Duration interval) {
+        this.intervalNanos = interval.toNanos();
+    }
+
+    /**
+     * ログの出力を許可するか否かを判定する。
+     *
+     * @param key エラーの種類
+     * @return 許可する場合、前回の出力から間引いた件数(許可しない場合、-1)
+     */
+    long acquire(String key) {
+        return acquire(key, System.nanoTime());
+    }
+
+    /**
+     * ログの出力を許可するか否かを判定する。
+     *
+     * @param key エラーの種類
+     * @param now 現在時刻(System#nanoTime)
+     * @return 許可する場合、前回の出力から間引いた件数(許可しない場合、-1)
+     */
+    long acquire(String key, long now) {
+        Window window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= MAX_KEYS) {
+                windows.clear();
+            }
+            window = windows.computeIfAbsent(key, k -> new Window(now));
+        }
+        return window.acquire(now, intervalNanos);
+    }
+
+    /**
+     * キーごとの出力状況
+     */
+    private static final class Window {
+
+        /**
+         * 次に出力を許可する時刻
+         */
+        private final AtomicLong nextAt;
+
+        /**
+         * 間引いた件数
+         */
+        private final LongAdder suppressed = new LongAdder();
+
+        /**
+         * コンストラクタ
+         *
+         * @param now 現在時刻
+         */
+        Window(long now) {
+            this.nextAt = new AtomicLong(now);
+        }
+
+        /**
+         * ログの出力を許可するか否かを判定する。
+         *
+         * @param now 現在時刻
+         * @param intervalNanos ログを出力する間隔
+         * @return 許可する場合、前回の出力から間引いた件数(許可しない場合、-1)
+         */
+        long acquire(long now, long intervalNanos) {
+            long next = nextAt.get();
+            if (now - next >= 0 && nextAt.compareAndSet(next, now + intervalNanos)) {
+                return suppressed.sumThenReset();
+            }
+            suppressed.increment();
+            return -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.example.bookmanage.web;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.MDC;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * リクエストIDとユーザIDをMDCに設定するFilter<br />
+ *
+ * ログ(JSON)にリクエストIDとユーザIDを出力し、同じリクエストのログを追跡できるようにする。
+ * Spring Securityのログにもリクエストを出力するため、Spring Securityのフィルタの前に実行する(LoggingConfigで設定する)。
+ * この時点では認証情報を読み込んでいないため、ユーザIDはSpring Securityのフィルタの中のMdcUserFilterが設定する
+ * (認証情報が設定済みの場合は、このFilterでも設定する)。<br />
+ * リクエストIDはX-Request-Idヘッダで受け取った値(不正な値の場合は生成した値)を使用し、レスポンスのヘッダにも設定する。
+ */
+public class MdcFilter extends OncePerRequestFilter {
+
+    /**
+     * リクエストIDのヘッダ名
+     */
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    /**
+     * MDCのリクエストIDのキー
+     */
+    public static final String REQUEST_ID = "requestId";
+
+    /**
+     * MDCのユーザIDのキー
+     */
+    public static final String USER_ID = "userId";
+
+    /**
+     * ヘッダで受け取るリクエストIDの形式
+     */
+    private static final Pattern REQUEST_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = requestId(request);
+        MDC.put(REQUEST_ID, requestId);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        putUserId();
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(REQUEST_ID);
+            MDC.remove(USER_ID);
+        }
+    }
+
+    /**
+     * 認証済みの場合、ユーザIDをMDCに設定する(匿名ユーザの場合は設定しない)。
+     */
+    static void putUserId() {
+        Authentication authentication = SecurityContextHolder.getContext()
+                                                             .getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            MDC.put(USER_ID, authentication.getName());
+        }
+    }
+
+    /**
+     * リクエストIDを返却する。<br />
+     * UUID#randomUUIDはSecureRandomを使用し、高負荷時に競合するため、ThreadLocalRandomで生成する。
+     *
+     * @param request リクエスト
+     * @return リクエストID
+     */
+    private static String requestId(HttpServletRequest request) {
+        String requestId = request.getHeader(REQUEST_ID_HEADER);
+        if (requestId != null && REQUEST_ID_PATTERN.matcher(requestId)
+                                                   .matches()) {
+            return requestId;
+        }
+        return Long.toHexString(ThreadLocalRandom.current()
+                                                 .nextLong());
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.example.bookmanage.web;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * ユーザIDをMDCに設定するFilter<br />
+ *
+ * MdcFilterはSpring Securityのフィルタの前に実行するため、認証情報を読み込んだ後(SecurityContextHolderFilterの後)に
+ * Spring Securityのフィルタの中で実行し、ユーザIDを設定する(WebSecurityConfigで設定する)。
+ */
+public class MdcUserFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        MdcFilter.putUserId();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MdcFilter.USER_ID);
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.example.bookmanage.web;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.example.bookmanage.metrics.PerformanceMetrics;
+import com.example.bookmanage.metrics.PerformanceSnapshot;
+
+/**
+ * パフォーマンス(リクエスト、キャッシュ、コネクションプール、JVM)を参照する管理者用のMVCコントローラ<br />
+ * 画面はJSON形式のメトリクスを定期的に取得して表示を更新する。
+ */
+@Controller
+public class PerformanceController {
+
+    /**
+     * メトリクス
+     */
+    private final PerformanceMetrics metrics;
+
+    /**
+     * コンストラクタ
+     *
+     * @param metrics メトリクス
+     */
+    public PerformanceController(PerformanceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * パフォーマンスの画面を表示する。
+     *
+     * @return モデルビュー
+     */
+    @GetMapping("admin/performance")
+    public ModelAndView performance() {
+        return new ModelAndView("admin/performance", "performance", metrics.snapshot());
+    }
+
+    /**
+     * 現在のメトリクスをJSON形式で返却する。
+     *
+     * @return 現在のメトリクス
+     */
+    @GetMapping(value = "admin/performance", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PerformanceSnapshot> performanceAsJson() {
+        return ResponseEntity.ok(metrics.snapshot());
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.example.bookmanage.web;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.example.bookmanage.config.RateLimitProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 書籍の登録・更新・削除のリクエスト数を制限するInterceptor<br />
+ *
+ * 認証済みのユーザとエンドポイントの組み合わせごとにトークンバケットを持ち、
+ * トークンが取得できない場合は429(Too Many Requests)を返却する。
+ * エンドポイントは、HTTPメソッドとリクエストに対応したハンドラのパスのパターン(BEST_MATCHING_PATTERN)で決める。<br />
+ * バケットは件数の上限を設けたCaffeineのキャッシュで管理し、満杯に戻る時間アクセスの無いバケットは破棄する
+ * (満杯のバケットは、破棄して作り直しても同じ状態になる)。
+ * 拒否したリクエストはメトリクスで数え、ログはエンドポイントごとに一定間隔で1件のみ出力する。
+ */
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    /**
+     * 保持するバケット数の上限(超えた場合、アクセスの古いバケットから破棄する)
+     */
+    private static final int MAX_BUCKETS = 10_000;
+
+    /**
+     * 拒否したリクエストのログを出力する間隔(同じエンドポイントは間隔内に1件のみ出力する)
+     */
+    private static final Duration REJECTED_LOG_INTERVAL = Duration.ofSeconds(10);
+
+    /**
+     * メトリクス名
+     */
+    private static final String METRIC_NAME = "bookmanage.ratelimit.requests";
+
+    /**
+     * HTTPメソッドとパスのパターンに対応するエンドポイント名
+     */
+    private static final Map<String, String> ENDPOINTS = Map.of(
+            "POST /books", "create",
+            "PUT /books/{id}", "update",
+            "DELETE /books/{id}", "delete",
+            "POST /books/{id}/restore", "restore",
+            "POST /books/{id}/cover", "cover",
+            "PUT /books/{id}/cover", "cover");
+
+    /**
+     * 制限値
+     */
+    private final RateLimitProperties properties;
+
+    /**
+     * ユーザとエンドポイントごとのバケット
+     */
+    private final Cache<String, TokenBucket> buckets;
+
+    /**
+     * 拒否したリクエストのログの間引き
+     */
+    private final LogThrottle logThrottle = new LogThrottle(REJECTED_LOG_INTERVAL);
+
+    /**
+     * エンドポイントごとの許可したリクエスト数
+     */
+    private final Map<String, Counter> allowed = new HashMap<>();
+
+    /**
+     * エンドポイントごとの拒否したリクエスト数
+     */
+    private final Map<String, Counter> rejected = new HashMap<>();
+
+    /**
+     * コンストラクタ
+     *
+     * @param properties 制限値
+     * @param meterRegistry メトリクスのレジストリ
+     */
+    public RateLimitInterceptor(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.buckets = Caffeine.newBuilder()
+                               .maximumSize(MAX_BUCKETS)
+                               .expireAfterAccess(refillDuration(properties))
+                               .build();
+        for (String endpoint : ENDPOINTS.values()) {
+            allowed.computeIfAbsent(endpoint, key -> counter(meterRegistry, key, "allowed"));
+            rejected.computeIfAbsent(endpoint, key -> counter(meterRegistry, key, "rejected"));
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        String endpoint = ENDPOINTS.get(request.getMethod() + " "
+                + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
+        Principal principal = request.getUserPrincipal();
+        if (!properties.isEnabled() || endpoint == null || principal == null) {
+            return true;
+        }
+        RateLimitProperties.Limit limit = properties.getEndpoints()
+                                                    .get(endpoint);
+        if (limit == null) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(endpoint + ":" + principal.getName(),
+                key -> new TokenBucket(limit.getCapacity(), limit.getPermitsPerSecond()));
+        if (bucket.tryAcquire(now)) {
+            allowed.get(endpoint)
+                   .increment();
+            return true;
+        }
+
+        // 制限を超えた場合
+        rejected.get(endpoint)
+                .increment();
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(bucket.nanosUntilAvailable(now) + 999_999_999));
+        long suppressed = logThrottle.acquire(endpoint);
+        if (suppressed >= 0) {
+            log.warn("rate limit exceeded. (user = {}, endpoint = {}, suppressed = {})", principal.getName(),
+                    endpoint, suppressed);
+        }
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+        return false;
+    }
+
+    /**
+     * バケットが空から満杯に戻る時間の最大値を返却する(この時間アクセスの無いバケットは破棄してよい)。
+     *
+     * @param properties 制限値
+     * @return 満杯に戻る時間
+     */
+    private static Duration refillDuration(RateLimitProperties properties) {
+        double seconds = properties.getEndpoints()
+                                   .values()
+                                   .stream()
+                                   .mapToDouble(limit -> limit.getCapacity() / limit.getPermitsPerSecond())
+                                   .max()
+                                   .orElse(0);
+        return Duration.ofMillis((long) Math.ceil(seconds * 1000))
+                       .plusSeconds(1);
+    }
+
+    /**
+     * カウンタを生成する。
+     *
+     * @param meterRegistry メトリクスのレジストリ
+     * @param endpoint エンドポイント名
+     * @param result 結果(allowed, rejected)
+     * @return カウンタ
+     */
+    private static Counter counter(MeterRegistry meterRegistry, String endpoint, String result) {
+        return Counter.builder(METRIC_NAME)
+                      .description("Requests checked by the per-user rate limiter")
+                      .tag("endpoint", endpoint)
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+
+}
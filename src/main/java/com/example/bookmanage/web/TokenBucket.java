@@ -0,0 +1,73 @@
+package com.example.bookmanage.web;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ロックを使用しないトークンバケット<br />
+ *
+ * 次にトークンが満杯になる理論上の時刻(GCRA: Generic Cell Rate Algorithm)を1つのAtomicLongで保持し、
+ * CASで更新する。時刻はSystem.nanoTime()の値を使用する。
+ */
+public class TokenBucket {
+
+    /**
+     * トークンが1つ回復するまでの時間(ナノ秒)
+     */
+    private final long emissionIntervalNanos;
+
+    /**
+     * バケットの容量分の時間(ナノ秒)
+     */
+    private final long capacityNanos;
+
+    /**
+     * 理論上の到着時刻(ナノ秒)
+     */
+    private final AtomicLong theoreticalArrivalTime = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * コンストラクタ
+     *
+     * @param capacity バケットの容量
+     * @param permitsPerSecond 1秒あたりに回復するトークン数
+     */
+    public TokenBucket(int capacity, double permitsPerSecond) {
+        if (capacity <= 0 || permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity and permitsPerSecond must be positive.");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.capacityNanos = emissionIntervalNanos * capacity;
+    }
+
+    /**
+     * トークンを1つ取得する。
+     *
+     * @param now 現在時刻(ナノ秒)
+     * @return 取得できた場合、true
+     */
+    public boolean tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.max(tat, now) + emissionIntervalNanos;
+            if (newTat - now > capacityNanos) {
+                return false;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 次にトークンが取得できるまでの時間を返却する。
+     *
+     * @param now 現在時刻(ナノ秒)
+     * @return 次にトークンが取得できるまでの時間(ナノ秒)
+     */
+    public long nanosUntilAvailable(long now) {
+        long tat = theoreticalArrivalTime.get();
+        return Math.max(0, Math.max(tat, now) + emissionIntervalNanos - now - capacityNanos);
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.example.bookmanage.web;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.servlet.ModelAndView;
+
+import com.example.bookmanage.trace.TraceCollector;
+
+/**
+ * リクエストのトレース、実行したSQLを参照する管理者用のMVCコントローラ
+ */
+@Controller
+public class TraceController {
+
+    /**
+     * 処理時間が長いリクエストとして表示する件数
+     */
+    private static final int SLOWEST_LIMIT = 10;
+
+    /**
+     * トレース一覧へのリダイレクトのURL
+     */
+    private static final String REDIRECT_TO_TRACES = "redirect:/admin/traces";
+
+    /**
+     * 終了したトレースの保存先(トレースを無効にした場合、存在しない)
+     */
+    private final ObjectProvider<TraceCollector> collector;
+
+    /**
+     * コンストラクタ
+     *
+     * @param collector 終了したトレースの保存先
+     */
+    public TraceController(ObjectProvider<TraceCollector> collector) {
+        this.collector = collector;
+    }
+
+    /**
+     * トレースの一覧(最近のリクエスト、処理時間が長いリクエスト)を表示する。
+     *
+     * @return モデルビュー
+     */
+    @GetMapping("admin/traces")
+    public ModelAndView traces() {
+        TraceCollector traceCollector = collector.getObject();
+        ModelAndView modelAndView = new ModelAndView("admin/traces");
+        modelAndView.addObject("recent", traceCollector.recent());
+        modelAndView.addObject("slowest", traceCollector.slowest(SLOWEST_LIMIT));
+        return modelAndView;
+    }
+
+    /**
+     * SQLの一覧(処理時間が閾値を超えたSQL、SQLの件数の上限を超えたリクエスト)を表示する。
+     *
+     * @return モデルビュー
+     */
+    @GetMapping("admin/queries")
+    public ModelAndView queries() {
+        TraceCollector traceCollector = collector.getObject();
+        ModelAndView modelAndView = new ModelAndView("admin/queries");
+        modelAndView.addObject("slowSql", traceCollector.withSlowSql());
+        modelAndView.addObject("overBudget", traceCollector.overBudget());
+        return modelAndView;
+    }
+
+    /**
+     * 指定したIDのトレースの区間を表示する。
+     *
+     * @param id トレースID
+     * @return モデルビュー(トレースが存在しない場合、トレースの一覧へのリダイレクト)
+     */
+    @GetMapping("admin/traces/{id}")
+    public ModelAndView trace(@PathVariable String id) {
+        return collector.getObject()
+                        .find(id)
+                        .map(trace -> new ModelAndView("admin/trace", "trace", trace))
+                        .orElseGet(() -> new ModelAndView(REDIRECT_TO_TRACES));
+    }
+
+}
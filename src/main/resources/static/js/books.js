@@ -0,0 +1,190 @@
+/*
+ * 書籍管理システムの画面の処理
+ *
+ * 登録・更新フォームの入力チェックを行う。
+ * チェック内容はBookManagementFormの@NotBlank, @Sizeと同じにしている(サーバ側でも同じチェックを行う)。
+ *
+ * 登録・更新・削除・削除の取り消し・編集はAjaxで送信し、サーバから返却された部品(登録・更新フォーム、書籍一覧)のみを置き換える。
+ * 登録・更新・削除の取り消しでは、行の位置が並び順・絞り込み・ページ(表示中の条件)で変わるため、
+ * 表示中の書籍一覧のURLをヘッダで送信し、同じ条件で描画し直した書籍一覧を応答で受け取る(1回のリクエストで済ませる)。
+ * 登録・更新の応答は、新規登録用のフォーム(次の登録用の冪等キー)も含む。
+ * サーバはX-Requested-Withヘッダ(jQueryが自動で付与する)で部品を返却するか否かを判断する。
+ * フォームの冪等キー(hidden)は送信の完了まで変えないため、二重送信やタイムアウト後の再送は1回の登録・更新になる。
+ */
+$(function () {
+    'use strict';
+
+    /**
+     * 空白とみなす文字(String#trimと同じく、U+0020以下の文字)
+     */
+    var BLANK = /^[\u0000- ]*$/;
+
+    /**
+     * 入力項目のエラーメッセージを表示する。
+     *
+     * @param $input 入力項目
+     * @param message エラーメッセージ(nullの場合、エラーを解除する)
+     */
+    function showError($input, message) {
+        var $feedback = $input.siblings('.invalid-feedback');
+        if ($feedback.length === 0) {
+            $feedback = $('<div class="invalid-feedback"></div>').insertAfter($input);
+        }
+        $input.toggleClass('is-invalid', message !== null);
+        $feedback.text(message || '');
+    }
+
+    /**
+     * 入力項目をチェックする。
+     *
+     * @param $input 入力項目
+     * @return エラーが無い場合、true
+     */
+    function validateInput($input) {
+        var value = $input.val() || '';
+        var max = parseInt($input.attr('maxlength'), 10);
+        var message = null;
+        if (BLANK.test(value)) {
+            message = $input.data('msgBlank');
+        } else if (max && value.length > max) {
+            message = $input.data('msgMax');
+        }
+        showError($input, message);
+        return message === null;
+    }
+
+    window.bookManage = {
+        showError: showError,
+        validateInput: validateInput,
+        validateForm: function ($form) {
+            var valid = true;
+            $form.find('input[data-msg-blank]').each(function () {
+                valid = validateInput($(this)) && valid;
+            });
+            return valid;
+        }
+    };
+
+    /**
+     * 登録・更新フォームを置き換える。
+     *
+     * @param html 登録・更新フォームの部品
+     */
+    function replaceForm(html) {
+        $('#book-form').replaceWith(html);
+    }
+
+    /**
+     * 新規登録用の登録・更新フォームを読み込む。
+     */
+    function loadNewForm() {
+        $.get($('#book-form').data('newUrl')).done(replaceForm);
+    }
+
+    /**
+     * 表示中の書籍一覧のURLのヘッダ(サーバは同じ条件で書籍一覧を描画し直して返却する)
+     *
+     * @return ヘッダ
+     */
+    function listUrlHeader() {
+        return { 'X-Book-List-Url': $('#book-list-panel').data('listUrl') };
+    }
+
+    /**
+     * 返却された部品(登録・更新フォーム、書籍一覧)で、画面の同じ部品を置き換える。
+     *
+     * @param html 部品
+     */
+    function replaceParts(html) {
+        var $parts = $('<div></div>').html($.trim(html));
+        $.each(['#book-form', '#book-list-panel'], function (i, selector) {
+            var $part = $parts.find(selector);
+            if ($part.length > 0) {
+                $(selector).replaceWith($part);
+            }
+        });
+    }
+
+    /**
+     * エラー時のレスポンスを処理する。<br />
+     * 部品が返却された場合は登録・更新フォームを置き換え、それ以外の場合は画面全体を表示し直す。
+     *
+     * @param xhr XMLHttpRequest
+     */
+    function handleError(xhr) {
+        if (xhr.responseText && xhr.responseText.indexOf('id="book-form"') >= 0) {
+            replaceForm(xhr.responseText);
+        } else {
+            window.location.reload();
+        }
+    }
+
+    $(document).on('submit', 'form[data-validate]', function (event) {
+        var $form = $(this);
+        event.preventDefault();
+        if (!window.bookManage.validateForm($form)) {
+            return;
+        }
+        $.ajax({
+            url: $form.attr('action'),
+            method: 'POST',
+            headers: listUrlHeader(),
+            data: $form.serialize()
+        }).done(replaceParts).fail(handleError);
+    });
+
+    $(document).on('click', '#book-list a.book-edit, #book-form a.book-clear', function (event) {
+        event.preventDefault();
+        $.get($(this).attr('href')).done(replaceForm).fail(handleError);
+    });
+
+    $(document).on('submit', '#book-list form.book-delete', function (event) {
+        var $form = $(this);
+        var $row = $form.closest('tr');
+        event.preventDefault();
+        $.ajax({
+            url: $form.attr('action'),
+            method: 'POST',
+            data: $form.serialize()
+        }).done(function () {
+            $row.remove();
+            // 削除を取り消せるようにする
+            $('#book-undo').prop('hidden', false)
+                           .find('form.book-restore')
+                           .attr('action', $form.attr('action') + '/restore');
+            // 編集中の書籍を削除した場合、新規登録用のフォームに戻す
+            if ($('#book-form form').attr('action') === $form.attr('action')) {
+                loadNewForm();
+            }
+        }).fail(function (xhr) {
+            // 既に削除されていた場合(404)も行を取り除く
+            if (xhr.status === 404) {
+                $row.remove();
+            }
+            handleError(xhr);
+        });
+    });
+
+    $(document).on('submit', '#book-undo form.book-restore', function (event) {
+        var $form = $(this);
+        event.preventDefault();
+        $.ajax({
+            url: $form.attr('action'),
+            method: 'POST',
+            headers: listUrlHeader(),
+            data: $form.serialize()
+        }).done(function (html) {
+            replaceParts(html);
+            $('#book-undo').prop('hidden', true);
+        }).fail(function (xhr) {
+            $('#book-undo').prop('hidden', true);
+            handleError(xhr);
+        });
+    });
+
+    $(document).on('input', 'form[data-validate] input[data-msg-blank]', function () {
+        if ($(this).hasClass('is-invalid')) {
+            validateInput($(this));
+        }
+    });
+});
@@ -0,0 +1,126 @@
+/*
+ * 書籍管理システムのパフォーマンス画面(管理者用)の処理
+ *
+ * 一定間隔でJSON形式のメトリクスを取得し、表示を更新する。
+ * 秒間のリクエスト数は、前回取得したリクエスト数との差分から計算する(初回は画面の表示時の値と比較する)。
+ */
+$(function () {
+    'use strict';
+
+    var $page = $('#performance');
+
+    /**
+     * 前回取得した時刻(エポックミリ秒)
+     */
+    var previousTimestamp = Number($page.data('timestamp'));
+
+    /**
+     * 前回取得したエンドポイントごとのリクエスト数
+     */
+    var previousCounts = {};
+    $('#performance-endpoints tr').each(function () {
+        previousCounts[$(this).data('key')] = Number($(this).data('count'));
+    });
+
+    /**
+     * 数値を表示用の文字列にする。
+     *
+     * @param value 数値(null, undefinedの場合、"-")
+     * @param digits 小数点以下の桁数
+     * @return 表示用の文字列
+     */
+    function format(value, digits) {
+        return value === null || value === undefined ? '-' : value.toFixed(digits);
+    }
+
+    /**
+     * テーブルの行を生成する。
+     *
+     * @param values セルの値
+     * @param numberFrom 右寄せにする最初のセルの位置
+     * @return 行
+     */
+    function row(values, numberFrom) {
+        var $row = $('<tr></tr>');
+        $.each(values, function (index, value) {
+            $('<td></td>').toggleClass('text-right', index >= numberFrom)
+                          .text(value)
+                          .appendTo($row);
+        });
+        return $row;
+    }
+
+    /**
+     * エンドポイントごとのリクエストを表示する。
+     *
+     * @param snapshot メトリクス
+     */
+    function renderEndpoints(snapshot) {
+        var seconds = (snapshot.timestamp - previousTimestamp) / 1000;
+        var counts = {};
+        var $rows = $.map(snapshot.endpoints, function (endpoint) {
+            var key = endpoint.method + ' ' + endpoint.uri + ' ' + endpoint.status;
+            var previous = previousCounts[key] || 0;
+            counts[key] = endpoint.count;
+            return row([endpoint.method + ' ' + endpoint.uri, endpoint.status, endpoint.count,
+                        seconds > 0 ? format((endpoint.count - previous) / seconds, 2) : '-',
+                        format(endpoint.mean, 2), format(endpoint.p50, 2), format(endpoint.p95, 2),
+                        format(endpoint.p99, 2), format(endpoint.max, 2)], 2);
+        });
+        $('#performance-endpoints').empty()
+                                   .append($rows);
+        previousTimestamp = snapshot.timestamp;
+        previousCounts = counts;
+    }
+
+    /**
+     * キャッシュとコネクションプールを表示する。
+     *
+     * @param snapshot メトリクス
+     */
+    function renderResources(snapshot) {
+        $('#performance-caches').empty()
+                                .append($.map(snapshot.caches, function (cache) {
+                                    return row([cache.name, cache.hits, cache.misses,
+                                                format(cache.hitRatio === undefined ? null : cache.hitRatio * 100, 1)], 1);
+                                }));
+        $('#performance-pools').empty()
+                               .append($.map(snapshot.pools, function (pool) {
+                                   return row([pool.name, format(pool.active, 0), format(pool.idle, 0),
+                                               format(pool.pending, 0), format(pool.max, 0),
+                                               format(pool.acquireMean, 2)], 1);
+                               }));
+    }
+
+    /**
+     * JVMのヒープ、GC、スレッドを表示する。
+     *
+     * @param jvm JVMのメトリクス
+     */
+    function renderJvm(jvm) {
+        var $jvm = $('#performance-jvm');
+        $jvm.find('[data-field="heap"]').text(format(jvm.heapUsed, 1) + ' / ' + format(jvm.heapMax, 1));
+        $jvm.find('[data-field="gc"]').text(jvm.gcCount + ' / ' + format(jvm.gcTime, 1));
+        $jvm.find('[data-field="threads"]').text([format(jvm.threadsLive, 0), format(jvm.threadsPeak, 0),
+                                                  format(jvm.threadsDaemon, 0), format(jvm.threadsBlocked, 0)].join(' / '));
+        $jvm.find('[data-field="cpu"]').text(format(jvm.cpuUsage === undefined ? null : jvm.cpuUsage * 100, 1));
+        $jvm.find('[data-field="uptime"]').text(format(jvm.uptime, 0));
+    }
+
+    /**
+     * メトリクスを取得して表示を更新し、次の取得を予約する。
+     */
+    function poll() {
+        $.getJSON($page.data('url'))
+         .done(function (snapshot) {
+             renderEndpoints(snapshot);
+             renderResources(snapshot);
+             renderJvm(snapshot.jvm);
+         })
+         .always(function () {
+             setTimeout(poll, Number($page.data('interval')));
+         });
+    }
+
+    setTimeout(poll, Number($page.data('interval')));
+});
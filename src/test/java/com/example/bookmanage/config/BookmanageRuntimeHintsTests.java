@@ -0,0 +1,72 @@
+package com.example.bookmanage.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.form.BookManagementForm;
+import com.example.bookmanage.metrics.PerformanceSnapshot;
+import com.example.bookmanage.trace.Trace;
+
+/**
+ * BookmanageRuntimeHintsのテストプログラム
+ */
+class BookmanageRuntimeHintsTests {
+
+    /**
+     * 登録されたRuntimeHints
+     */
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new BookmanageRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void エンティティとフォーム情報のメソッドがリフレクションで呼び出せることの確認() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                                         .onType(Book.class)
+                                         .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS)
+                                         .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                                         .onType(BookManagementForm.class)
+                                         .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)
+                                         .test(hints));
+    }
+
+    @Test
+    void 管理者用画面のトレースとメトリクスのメソッドがリフレクションで呼び出せることの確認() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                                         .onType(Trace.class)
+                                         .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS)
+                                         .test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                                         .onType(PerformanceSnapshot.Endpoint.class)
+                                         .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS)
+                                         .test(hints));
+    }
+
+    @Test
+    void テンプレートとメッセージプロパティがリソースとして登録されていることの確認() {
+        assertTrue(RuntimeHintsPredicates.resource()
+                                         .forResource("templates/books.html")
+                                         .test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                                         .forResource("templates/fragments/book.html")
+                                         .test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                                         .forBundle("messages")
+                                         .test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                                         .forBundle("ValidationMessages")
+                                         .test(hints));
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.example.bookmanage.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * DropCountingAsyncAppenderのテストプログラム
+ */
+class DropCountingAsyncAppenderTests {
+
+    /**
+     * 書き込み開始を通知するラッチ
+     */
+    private final CountDownLatch writing = new CountDownLatch(1);
+
+    /**
+     * 書き込みを待たせるためのラッチ
+     */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /**
+     * テスト対象のAppender
+     */
+    private DropCountingAsyncAppender appender;
+
+    /**
+     * ログを出力するロガー
+     */
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = new LoggerContext();
+        context.setMDCAdapter(new LogbackMDCAdapter());
+        logger = context.getLogger(DropCountingAsyncAppenderTests.class);
+
+        // 書き込みが遅いAppender(キューを溢れさせるため)
+        AppenderBase<ILoggingEvent> slow = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                          .interrupt();
+                }
+            }
+        };
+        slow.setContext(context);
+        slow.start();
+
+        appender = new DropCountingAsyncAppender();
+        appender.setContext(context);
+        appender.setName("TEST");
+        appender.setQueueSize(5);
+        appender.setDiscardingThreshold(2);
+        appender.setNeverBlock(true);
+        appender.addAppender(slow);
+        appender.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        appender.stop();
+    }
+
+    @Test
+    void キューが溢れそうな場合_待たずに破棄して件数を数えることの確認() throws InterruptedException {
+        // 1件目の書き込み中に待たせて、キューを空にする
+        appender.doAppend(event(Level.INFO));
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        // キューの残りが2になるまで積む
+        for (int i = 0; i < 3; i++) {
+            appender.doAppend(event(Level.INFO));
+        }
+        // 残りが2のため積まれる
+        appender.doAppend(event(Level.INFO));
+        // 残りが閾値を下回ったため、INFOは破棄される
+        appender.doAppend(event(Level.INFO));
+        assertEquals(1, appender.getDiscardedCount());
+        // WARNは破棄されずに積まれる
+        appender.doAppend(event(Level.WARN));
+        assertEquals(0, appender.getRemainingCapacity());
+        // キューが満杯のため、WARNも破棄される
+        appender.doAppend(event(Level.WARN));
+        appender.doAppend(event(Level.INFO));
+
+        assertEquals(2, appender.getDiscardedCount());
+        assertEquals(1, appender.getOverflowCount());
+
+        // メトリクスとして公開されることを確認
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        appender.bindTo(registry);
+        assertEquals(2, registry.get("bookmanage.logging.events.dropped")
+                                .tags("appender", "TEST", "reason", "discarded")
+                                .functionCounter()
+                                .count());
+        assertEquals(1, registry.get("bookmanage.logging.events.dropped")
+                                .tags("appender", "TEST", "reason", "overflow")
+                                .functionCounter()
+                                .count());
+    }
+
+    /**
+     * ログのイベントを生成する。
+     *
+     * @param level ログレベル
+     * @return ログのイベント
+     */
+    private ILoggingEvent event(Level level) {
+        return new LoggingEvent(Logger.FQCN, logger, level, "message", null, null);
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.example.bookmanage.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Locale;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.NoSuchMessageException;
+
+/**
+ * PreloadedMessageSourceのテストプログラム
+ */
+class PreloadedMessageSourceTests {
+
+    /**
+     * テスト対象のメッセージソース
+     */
+    private PreloadedMessageSource messageSource;
+
+    @BeforeEach
+    void setUp() {
+        messageSource = new PreloadedMessageSource("messages", "ValidationMessages");
+    }
+
+    @Test
+    void 複数のメッセージプロパティのメッセージが取得できることの確認() {
+        assertEquals("書籍が存在しません。", messageSource.getMessage("error.booknotfound", null, null));
+        assertEquals("{0}を入力してください。",
+                messageSource.getMessage("jakarta.validation.constraints.NotBlank.message", null, null));
+    }
+
+    @Test
+    void 引数を指定した場合_メッセージがフォーマットされることの確認() {
+        assertEquals("タイトルは30文字以下で入力してください。",
+                messageSource.getMessage("validation.max-size", new Object[] { "タイトル", 30 }, Locale.JAPANESE));
+    }
+
+    @Test
+    void 該当するロケールのファイルが無い場合_ルートのメッセージが取得できることの確認() {
+        assertEquals("書籍が存在しません。", messageSource.getMessage("error.booknotfound", null, Locale.US));
+    }
+
+    @Test
+    void 存在しないコードを指定した場合_例外が発生することの確認() {
+        assertThrows(NoSuchMessageException.class, () -> messageSource.getMessage("error.unknown", null, null));
+        assertEquals("default", messageSource.getMessage("error.unknown", null, "default", null));
+    }
+
+}
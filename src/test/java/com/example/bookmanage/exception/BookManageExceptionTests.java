@@ -0,0 +1,42 @@
+package com.example.bookmanage.exception;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
+
+import com.example.bookmanage.form.BookManagementForm;
+
+/**
+ * BookManageExceptionのテストプログラム
+ */
+class BookManageExceptionTests {
+
+    @Test
+    void ビジネス例外の場合_スタックトレースを取得しないことの確認() {
+        BookNotFoundException e = new BookNotFoundException(1);
+
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals("Book is not found. (id = 1)", e.getMessage());
+        // 抑制された例外は記録しない
+        e.addSuppressed(new IllegalStateException());
+        assertEquals(0, e.getSuppressed().length);
+    }
+
+    @Test
+    void 入力エラーの場合_メッセージを参照した時に生成されることの確認() {
+        BindingResult result = new BeanPropertyBindingResult(new BookManagementForm(), "bookManageForm");
+        result.addError(new FieldError("bookManageForm", "title", "", false, new String[] { "bookManageForm.title" },
+                null, "{0} is blank."));
+        BookManageValidationException e = new BookManageValidationException(result);
+
+        assertEquals(0, e.getStackTrace().length);
+        assertTrue(e.getMessage()
+                    .startsWith("validation error!"));
+        assertTrue(e.getMessage()
+                    .endsWith("bookManageForm.title is blank."));
+    }
+
+}
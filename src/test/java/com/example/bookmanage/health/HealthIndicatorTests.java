@@ -0,0 +1,136 @@
+package com.example.bookmanage.health;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * ウォームアップ、livenessのHealthIndicatorのテストプログラム
+ */
+class HealthIndicatorTests {
+
+    @Test
+    void ウォームアップが終了するまでOUT_OF_SERVICEとなり_失敗したウォームアップがあっても終了後はUPとなることの確認() {
+        WarmupHealthIndicator indicator = new WarmupHealthIndicator();
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health()
+                                                     .getStatus());
+
+        WarmupTask failed = new WarmupTask() {
+            @Override
+            public String getName() {
+                return "failed";
+            }
+
+            @Override
+            public void warmUp() {
+                throw new IllegalStateException("error");
+            }
+        };
+        new WarmupRunner(List.of(failed), indicator).run(null);
+
+        Health health = indicator.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertTrue(health.getDetails()
+                         .get("failed")
+                         .toString()
+                         .startsWith("failed: "));
+    }
+
+    @Test
+    void コネクションプールの枯渇が指定した時間続いた場合のみDOWNとなることの確認() {
+        PoolExhaustionHealthIndicator indicator = new PoolExhaustionHealthIndicator(null, Duration.ofSeconds(30));
+        long now = System.nanoTime();
+
+        assertEquals(Status.UP, check(indicator, true, now));
+        assertEquals(Status.UP, check(indicator, true, now + TimeUnit.SECONDS.toNanos(29)));
+        assertEquals(Status.DOWN, check(indicator, true, now + TimeUnit.SECONDS.toNanos(30)));
+        // 枯渇が解消した場合、継続時間をリセットする
+        assertEquals(Status.UP, check(indicator, false, now + TimeUnit.SECONDS.toNanos(31)));
+        assertEquals(Status.UP, check(indicator, true, now + TimeUnit.SECONDS.toNanos(32)));
+    }
+
+    @Test
+    void 指定した時間を超えて処理中のリクエストがある場合_DOWNとなることの確認() throws Exception {
+        InFlightRequestFilter filter = new InFlightRequestFilter();
+        StuckRequestHealthIndicator indicator = new StuckRequestHealthIndicator(filter, Duration.ZERO, 1);
+        AtomicReference<Health> during = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/books"), new MockHttpServletResponse(),
+                (request, response) -> during.set(indicator.health()));
+
+        assertEquals(Status.DOWN, during.get()
+                                        .getStatus());
+        assertEquals(1, during.get()
+                              .getDetails()
+                              .get("count"));
+        // 処理が終了した場合、UPとなる
+        assertEquals(Status.UP, indicator.health()
+                                         .getStatus());
+    }
+
+    @Test
+    void 停止しているリクエストが閾値未満の場合と長時間の処理とみなすリクエストの場合_UPのままとなることの確認() throws Exception {
+        InFlightRequestFilter filter = new InFlightRequestFilter(List.of("PUT /books/*/cover"));
+        StuckRequestHealthIndicator indicator = new StuckRequestHealthIndicator(filter, Duration.ZERO, 2);
+        AtomicReference<Health> during = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/books"), new MockHttpServletResponse(),
+                (request, response) -> during.set(indicator.health()));
+        assertEquals(Status.UP, during.get()
+                                      .getStatus());
+        assertEquals(1, during.get()
+                              .getDetails()
+                              .get("count"));
+
+        // 長時間の処理とみなすリクエストは、停止しているリクエストに含めない(処理中のリクエスト数には含める)
+        AtomicInteger inFlight = new AtomicInteger();
+        filter.doFilter(new MockHttpServletRequest("PUT", "/books/1/cover"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    during.set(indicator.health());
+                    inFlight.set(filter.count());
+                });
+        assertEquals(Status.UP, during.get()
+                                      .getStatus());
+        assertNull(during.get()
+                         .getDetails()
+                         .get("count"));
+        assertEquals(1, inFlight.get());
+    }
+
+    @Test
+    void HikariCPでない場合_コネクションプールの状態は不明となることの確認() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+
+        assertEquals(Status.UNKNOWN, new ConnectionPoolHealthIndicator(dataSource).health()
+                                                                                  .getStatus());
+    }
+
+    /**
+     * コネクションプールの枯渇を判定する。
+     *
+     * @param indicator テスト対象
+     * @param exhausted 枯渇しているか否か
+     * @param now 現在時刻
+     * @return 判定結果
+     */
+    private static Status check(PoolExhaustionHealthIndicator indicator, boolean exhausted, long now) {
+        Health.Builder builder = new Health.Builder();
+        indicator.check(builder, exhausted, now);
+        return builder.build()
+                      .getStatus();
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.example.bookmanage.health;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookmanage.BookmanageApplication;
+
+/**
+ * ヘルスチェック(readiness, liveness)のテストプログラム
+ */
+@SpringBootTest(classes = BookmanageApplication.class)
+@AutoConfigureMockMvc
+class HealthIntegrationTests {
+
+    /**
+     * Httpリクエスト・レスポンスを扱うためのMockオブジェクト
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void 認証せずにreadinessとlivenessを参照でき_詳細は返却されないことの確認() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.status").value("UP"))
+               .andExpect(jsonPath("$.components").doesNotExist());
+        mockMvc.perform(get("/actuator/health/liveness"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.status").value("UP"));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", authorities = "ROLE_ADMIN")
+    void 管理者の場合_readinessとlivenessの詳細が返却されることの確認() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.components.warmup.status").value("UP"))
+               .andExpect(jsonPath("$.components.warmup.details.connectionPool").isNumber())
+               .andExpect(jsonPath("$.components.warmup.details.modelMapper").isNumber())
+               .andExpect(jsonPath("$.components.warmup.details.pages").isNumber())
+               .andExpect(jsonPath("$.components.connectionPool.details.max").isNumber())
+               .andExpect(jsonPath("$.components.db.status").value("UP"));
+        mockMvc.perform(get("/actuator/health/liveness"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.components.poolExhaustion.status").value("UP"))
+               .andExpect(jsonPath("$.components.stuckRequest.status").value("UP"));
+    }
+
+}
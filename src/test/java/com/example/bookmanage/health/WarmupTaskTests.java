@@ -0,0 +1,209 @@
+package com.example.bookmanage.health;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
+
+import com.example.bookmanage.trace.TraceCollector;
+import com.example.bookmanage.trace.Tracer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * ModelMapper、画面のウォームアップ、ウォームアップのリクエストの記録の破棄のテストプログラム
+ */
+class WarmupTaskTests {
+
+    /**
+     * パスワードのエンコーダ(テストのため、エンコードしない)
+     */
+    @SuppressWarnings("deprecation")
+    private final PasswordEncoder passwordEncoder = NoOpPasswordEncoder.getInstance();
+
+    @Test
+    void ModelMapperのウォームアップでエンティティとフォーム情報のTypeMapが生成されることの確認() {
+        ModelMapper modelMapper = new ModelMapper();
+        new ModelMapperWarmup(modelMapper).warmUp();
+
+        assertFalse(modelMapper.getTypeMaps()
+                               .isEmpty());
+    }
+
+    @Test
+    void Webサーバが起動していない場合_画面のウォームアップは何もしないことの確認() {
+        PageWarmup warmup = new PageWarmup(() -> -1, "", 10, "warmup", List.of(), new InMemoryUserDetailsManager(),
+                passwordEncoder);
+
+        assertDoesNotThrow(warmup::warmUp);
+        assertEquals("pages", warmup.getName());
+    }
+
+    @Test
+    void 画面のウォームアップは_ウォームアップ用のユーザで管理者用画面まで表示し_終了後にユーザを削除することの確認()
+            throws Exception {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+        Queue<String> requests = new ConcurrentLinkedQueue<>();
+        HttpServer server = startServer(users, requests);
+        try {
+            new PageWarmup(() -> server.getAddress()
+                                       .getPort(),
+                    "", 1, "warmup", List.of("/admin/jobs"), users, passwordEncoder).warmUp();
+        } finally {
+            server.stop(0);
+        }
+
+        // 乱数のパスワードでログインし、管理者用画面を表示したことを確認
+        assertTrue(requests.contains("POST /authenticate"));
+        assertTrue(requests.contains("GET /admin"));
+        assertTrue(requests.contains("GET /admin/jobs"));
+        // 書籍を1件登録して書籍の参照を表示し、終了後に削除したことを確認
+        assertTrue(requests.contains("POST /books"));
+        assertTrue(requests.contains("GET /books/7"));
+        assertTrue(requests.contains("DELETE /books/7"));
+        // ウォームアップ後はログインできないことを確認
+        assertFalse(users.userExists("warmup"));
+    }
+
+    @Test
+    void 同じ名前のユーザが存在する場合_画面のウォームアップはそのユーザでログインせず_削除もしないことの確認()
+            throws Exception {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+        users.createUser(User.withUsername("user")
+                             .password("user")
+                             .authorities("ROLE_USER")
+                             .build());
+        Queue<String> requests = new ConcurrentLinkedQueue<>();
+        HttpServer server = startServer(users, requests);
+        try {
+            new PageWarmup(() -> server.getAddress()
+                                       .getPort(),
+                    "", 1, "user", List.of(), users, passwordEncoder).warmUp();
+        } finally {
+            server.stop(0);
+        }
+
+        assertFalse(requests.contains("POST /authenticate"));
+        assertEquals("user", users.loadUserByUsername("user")
+                                  .getPassword());
+    }
+
+    @Test
+    void ウォームアップのリクエストの記録の破棄で_リクエストのメトリクスとトレースが破棄されることの確認() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        meterRegistry.timer("http.server.requests", "uri", "/books")
+                     .record(Duration.ofMillis(10));
+        meterRegistry.counter("other")
+                     .increment();
+        TraceCollector traceCollector = new TraceCollector(10);
+        Tracer.begin("id", "GET", "/books", "warmup");
+        traceCollector.add(Tracer.end(200));
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("traceCollector", traceCollector);
+
+        new WarmupTrafficReset(meterRegistry, beanFactory.getBeanProvider(TraceCollector.class)).warmUp();
+
+        assertNull(meterRegistry.find("http.server.requests")
+                                .timer());
+        assertNotNull(meterRegistry.find("other")
+                                   .counter());
+        assertTrue(traceCollector.recent()
+                                 .isEmpty());
+    }
+
+    /**
+     * ログイン画面、認証処理と書籍の登録・削除(IDは7とする)のみを持つWebサーバを起動する。<br />
+     * 認証処理は、UserDetailsManagerに登録済みのユーザとパスワードの場合のみ成功とする。
+     *
+     * @param users ユーザ
+     * @param requests 受信したリクエスト("HTTPメソッド パス")
+     * @return Webサーバ
+     * @throws IOException 起動に失敗した場合
+     */
+    private HttpServer startServer(InMemoryUserDetailsManager users, Queue<String> requests) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(exchange.getRequestMethod() + " " + exchange.getRequestURI()
+                                                                     .getPath());
+            switch (exchange.getRequestURI()
+                            .getPath()) {
+            case "/login" -> respond(exchange, 200, "<input type=\"hidden\" name=\"_csrf\" value=\"token\"/>");
+            case "/authenticate" -> {
+                Map<String, String> form = parseForm(new String(exchange.getRequestBody()
+                                                                        .readAllBytes(),
+                        StandardCharsets.UTF_8));
+                String username = form.get("username");
+                boolean success = users.userExists(username) && passwordEncoder.matches(form.get("password"),
+                        users.loadUserByUsername(username)
+                             .getPassword());
+                exchange.getResponseHeaders()
+                        .add("Location", success ? "/loginsuccess" : "/loginfailure");
+                respond(exchange, 302, "");
+            }
+            case "/books" -> {
+                if ("POST".equals(exchange.getRequestMethod())) {
+                    respond(exchange, 201, "<tr data-book-id=\"7\"></tr>");
+                } else {
+                    respond(exchange, 200, "<input type=\"hidden\" name=\"_csrf\" value=\"token\"/>"
+                            + "<tr data-book-id=\"7\"></tr>");
+                }
+            }
+            case "/books/7" -> respond(exchange, "DELETE".equals(exchange.getRequestMethod()) ? 204 : 200, "");
+            default -> respond(exchange, 200, "");
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    /**
+     * レスポンスを返却する。
+     *
+     * @param exchange リクエストとレスポンス
+     * @param status HTTPステータス
+     * @param body ボディ
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (exchange) {
+            exchange.getResponseBody()
+                    .write(bytes);
+        }
+    }
+
+    /**
+     * フォームのパラメータを解析する。
+     *
+     * @param body リクエストのボディ
+     * @return パラメータ
+     */
+    private static Map<String, String> parseForm(String body) {
+        return Stream.of(body.split("&"))
+                     .map(pair -> pair.split("=", 2))
+                     .collect(Collectors.toMap(pair -> pair[0],
+                             pair -> URLDecoder.decode(pair[1], StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.example.bookmanage.job;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.BookmanageApplication;
+import com.example.bookmanage.repository.JobLockRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 保守処理(ロック、スケジューラ、管理者用画面)のテストプログラム
+ */
+@SpringBootTest(classes = BookmanageApplication.class)
+@AutoConfigureMockMvc
+class JobIntegrationTests {
+
+    /**
+     * Httpリクエスト・レスポンスを扱うためのMockオブジェクト
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * 保守処理のスケジューラ
+     */
+    @Autowired
+    private JobScheduler scheduler;
+
+    /**
+     * 保守処理のロックのリポジトリ
+     */
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    /**
+     * トランザクションのテンプレート
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * メトリクスのレジストリ
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void 他のノードが保持しているロックは_解放されるか有効期限が過ぎるまで取得できないことの確認() throws Exception {
+        JobLockManager node1 = new JobLockManager(jobLockRepository, transactionTemplate, "node1",
+                Duration.ofMinutes(5));
+        JobLockManager node2 = new JobLockManager(jobLockRepository, transactionTemplate, "node2",
+                Duration.ofMillis(1));
+
+        assertTrue(node1.tryLock("lock-test"));
+        // 保持しているノードは有効期限を延長できる
+        assertTrue(node1.tryLock("lock-test"));
+        assertFalse(node2.tryLock("lock-test"));
+
+        // 解放した後は取得できる
+        node1.unlock("lock-test");
+        assertTrue(node2.tryLock("lock-test"));
+
+        // 有効期限が過ぎた後は、他のノードが取得できる
+        Thread.sleep(10);
+        assertTrue(node1.tryLock("lock-test"));
+    }
+
+    @Test
+    void 統計情報の更新を実行した場合_書籍数のメトリクスが更新されることの確認() throws Exception {
+        scheduler.runNow("book-statistics")
+                 .orElseThrow()
+                 .get(10, TimeUnit.SECONDS);
+
+        JobStatus status = jobStatus("book-statistics");
+        assertEquals("COMPLETED", status.getLastResult());
+        assertEquals(1, status.getProcessed());
+        assertNotNull(meterRegistry.get("bookmanage.book.count")
+                                   .tag("state", "active")
+                                   .gauge());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", authorities = "ROLE_ADMIN")
+    void 管理者の場合_保守処理の一覧を参照し_一時停止と再開ができることの確認() throws Exception {
+        mockMvc.perform(get("/admin/jobs"))
+               .andExpect(status().isOk())
+               .andExpect(view().name("admin/jobs"))
+               .andExpect(model().attributeExists("jobs"));
+
+        mockMvc.perform(post("/admin/jobs/book-cache-rebuild/pause").with(csrf()))
+               .andExpect(redirectedUrl("/admin/jobs"));
+        assertTrue(jobStatus("book-cache-rebuild").isPauseRequested());
+
+        mockMvc.perform(post("/admin/jobs/book-cache-rebuild/resume").with(csrf()))
+               .andExpect(redirectedUrl("/admin/jobs"));
+        assertFalse(jobStatus("book-cache-rebuild").isPauseRequested());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user", authorities = "ROLE_USER")
+    void 管理者以外の場合_保守処理を実行できないことの確認() throws Exception {
+        mockMvc.perform(post("/admin/jobs/book-purge/run").with(csrf()))
+               .andExpect(status().isForbidden());
+    }
+
+    /**
+     * 保守処理の状態を返却する。
+     *
+     * @param name 保守処理の名前
+     * @return 保守処理の状態
+     */
+    private JobStatus jobStatus(String name) {
+        return scheduler.statuses()
+                        .stream()
+                        .filter(job -> job.getName()
+                                          .equals(name))
+                        .findFirst()
+                        .orElseThrow();
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.example.bookmanage.job;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * JobSchedulerのテストプログラム
+ */
+class JobSchedulerTests {
+
+    /**
+     * メトリクスのレジストリ
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * 保守処理のロック
+     */
+    private JobLockManager lockManager;
+
+    /**
+     * 処理中のリクエスト数
+     */
+    private AtomicInteger inFlightRequests;
+
+    /**
+     * 保守処理のスケジューラ
+     */
+    private JobScheduler scheduler;
+
+    /**
+     * 保守処理(10件を3件ずつ処理する)
+     */
+    private CountingJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lockManager = mock(JobLockManager.class);
+        when(lockManager.tryLock(anyString())).thenReturn(true);
+        inFlightRequests = new AtomicInteger();
+        scheduler = new JobScheduler(lockManager, inFlightRequests::get, 4, Duration.ZERO, meterRegistry);
+        job = new CountingJob(10);
+        scheduler.register(job, null, 3);
+        scheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void 処理する件数が無くなるまでチャンクごとに処理し_ロックを解放することの確認() throws Exception {
+        scheduler.runNow("counting")
+                 .orElseThrow()
+                 .get(5, TimeUnit.SECONDS);
+
+        JobStatus status = scheduler.statuses()
+                                    .get(0);
+        assertEquals(JobState.IDLE, status.getState());
+        assertEquals("COMPLETED", status.getLastResult());
+        assertEquals(10, status.getProcessed());
+        assertEquals(100, status.getProgress());
+        // 3件, 3件, 3件, 1件の4チャンク
+        assertEquals(4, job.chunks.get());
+        assertEquals(10.0, meterRegistry.get("bookmanage.job.items")
+                                        .tag("job", "counting")
+                                        .counter()
+                                        .count());
+        verify(lockManager).unlock("counting");
+    }
+
+    @Test
+    void 一時停止した場合_再開するまで次のチャンクを処理しないことの確認() throws Exception {
+        scheduler.pause("counting");
+        Future<?> run = scheduler.runNow("counting")
+                                 .orElseThrow();
+
+        awaitState(JobState.PAUSED);
+        assertEquals(0, job.chunks.get());
+        // 実行中は、同じ保守処理を実行しない
+        assertTrue(scheduler.runNow("counting")
+                            .isEmpty());
+
+        scheduler.resume("counting");
+        run.get(5, TimeUnit.SECONDS);
+        assertEquals(10, scheduler.statuses()
+                                  .get(0)
+                                  .getProcessed());
+    }
+
+    @Test
+    void 処理中のリクエストが上限を超えている場合_リクエストが減るまで待機することの確認() throws Exception {
+        inFlightRequests.set(5);
+        Future<?> run = scheduler.runNow("counting")
+                                 .orElseThrow();
+
+        awaitState(JobState.THROTTLED);
+        assertEquals(0, job.chunks.get());
+
+        inFlightRequests.set(0);
+        run.get(5, TimeUnit.SECONDS);
+        assertEquals("COMPLETED", scheduler.statuses()
+                                           .get(0)
+                                           .getLastResult());
+        assertEquals(1.0, meterRegistry.get("bookmanage.job.throttled")
+                                       .tag("job", "counting")
+                                       .counter()
+                                       .count());
+    }
+
+    @Test
+    void 他のノードがロックを保持している場合_実行しないことの確認() throws Exception {
+        when(lockManager.tryLock("counting")).thenReturn(false);
+
+        scheduler.runNow("counting")
+                 .orElseThrow()
+                 .get(5, TimeUnit.SECONDS);
+
+        assertEquals("LOCKED", scheduler.statuses()
+                                        .get(0)
+                                        .getLastResult());
+        assertEquals(0, job.chunks.get());
+    }
+
+    /**
+     * 保守処理が指定した状態になるまで待機する。
+     *
+     * @param state 状態
+     * @throws InterruptedException 割り込まれた場合
+     */
+    private void awaitState(JobState state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.statuses()
+                        .get(0)
+                        .getState() != state) {
+            assertTrue(System.nanoTime() < deadline, "state: " + state);
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * 指定した件数を処理する保守処理
+     */
+    private static class CountingJob implements MaintenanceJob {
+
+        /**
+         * 処理する件数
+         */
+        private final int size;
+
+        /**
+         * 処理したチャンクの数
+         */
+        private final AtomicInteger chunks = new AtomicInteger();
+
+        /**
+         * 残りの件数
+         */
+        private int remaining;
+
+        /**
+         * コンストラクタ
+         *
+         * @param size 処理する件数
+         */
+        CountingJob(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public String getName() {
+            return "counting";
+        }
+
+        @Override
+        public long begin() {
+            remaining = size;
+            return size;
+        }
+
+        @Override
+        public int processChunk(int chunkSize) {
+            chunks.incrementAndGet();
+            int count = Math.min(chunkSize, remaining);
+            remaining -= count;
+            return count;
+        }
+
+    }
+
+}
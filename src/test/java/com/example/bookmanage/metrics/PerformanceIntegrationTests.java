@@ -0,0 +1,60 @@
+package com.example.bookmanage.metrics;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookmanage.BookmanageApplication;
+
+/**
+ * パフォーマンスの画面のテストプログラム
+ */
+@SpringBootTest(classes = BookmanageApplication.class)
+@AutoConfigureMockMvc
+class PerformanceIntegrationTests {
+
+    /**
+     * Httpリクエスト・レスポンスを扱うためのMockオブジェクト
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", authorities = "ROLE_ADMIN")
+    void メトリクスをJSON形式で取得した場合_リクエストの処理時間とJVMのメトリクスが返却されることの確認() throws Exception {
+        mockMvc.perform(get("/books"))
+               .andExpect(status().isOk());
+
+        mockMvc.perform(get("/admin/performance").accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.endpoints[?(@.method == 'GET' && @.uri == '/books')].p95").isNotEmpty())
+               .andExpect(jsonPath("$.pools[0].max").isNumber())
+               .andExpect(jsonPath("$.jvm.heapUsed", greaterThan(0.0)))
+               .andExpect(jsonPath("$.jvm.threadsLive", greaterThan(0.0)));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", authorities = "ROLE_ADMIN")
+    void 管理者の場合_パフォーマンスの画面を参照できることの確認() throws Exception {
+        mockMvc.perform(get("/admin/performance"))
+               .andExpect(status().isOk())
+               .andExpect(view().name("admin/performance"))
+               .andExpect(model().attributeExists("performance"));
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user", authorities = "ROLE_USER")
+    void 管理者以外の場合_パフォーマンスの画面を参照できないことの確認() throws Exception {
+        mockMvc.perform(get("/admin/performance").accept(MediaType.APPLICATION_JSON))
+               .andExpect(status().isForbidden());
+    }
+
+}
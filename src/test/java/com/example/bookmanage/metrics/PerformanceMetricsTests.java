@@ -0,0 +1,110 @@
+package com.example.bookmanage.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * PerformanceMetricsのテストプログラム
+ */
+class PerformanceMetricsTests {
+
+    /**
+     * メトリクスのレジストリ
+     */
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * テスト対象
+     */
+    private final PerformanceMetrics metrics = new PerformanceMetrics(registry);
+
+    @Test
+    void リクエストの件数と処理時間のパーセンタイルがエンドポイントごとに取得できることの確認() {
+        Timer books = Timer.builder("http.server.requests")
+                           .tags("method", "GET", "uri", "/books", "status", "200")
+                           .publishPercentiles(0.5, 0.95, 0.99)
+                           .register(registry);
+        for (int i = 1; i <= 100; i++) {
+            books.record(Duration.ofMillis(i));
+        }
+        Timer.builder("http.server.requests")
+             .tags("method", "POST", "uri", "/books", "status", "201")
+             .register(registry)
+             .record(Duration.ofMillis(10));
+
+        PerformanceSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(2, snapshot.getEndpoints()
+                                .size());
+        PerformanceSnapshot.Endpoint endpoint = snapshot.getEndpoints()
+                                                        .get(0);
+        assertEquals("GET", endpoint.getMethod());
+        assertEquals("/books", endpoint.getUri());
+        assertEquals(100, endpoint.getCount());
+        assertEquals(50.5, endpoint.getMean(), 0.01);
+        // パーセンタイルは近似値
+        assertEquals(50, endpoint.getP50(), 5);
+        assertEquals(95, endpoint.getP95(), 5);
+        assertEquals(100, endpoint.getMax(), 0.01);
+        // パーセンタイルを設定していないTimerは、パーセンタイルを取得できない
+        assertNull(snapshot.getEndpoints()
+                           .get(1)
+                           .getP95());
+    }
+
+    @Test
+    void キャッシュのヒット率とコネクションプールの使用状況が取得できることの確認() {
+        Counter.builder("cache.gets")
+               .tags("cache", "books", "result", "hit")
+               .register(registry)
+               .increment(3);
+        Counter.builder("cache.gets")
+               .tags("cache", "books", "result", "miss")
+               .register(registry)
+               .increment();
+        AtomicInteger active = new AtomicInteger(2);
+        Gauge.builder("hikaricp.connections.active", active, AtomicInteger::get)
+             .tag("pool", "HikariPool-1")
+             .register(registry);
+        Gauge.builder("hikaricp.connections.max", () -> 10)
+             .tag("pool", "HikariPool-1")
+             .register(registry);
+
+        PerformanceSnapshot snapshot = metrics.snapshot();
+
+        PerformanceSnapshot.Cache cache = snapshot.getCaches()
+                                                  .get(0);
+        assertEquals("books", cache.getName());
+        assertEquals(0.75, cache.getHitRatio());
+        PerformanceSnapshot.Pool pool = snapshot.getPools()
+                                                .get(0);
+        assertEquals(2.0, pool.getActive());
+        assertEquals(10.0, pool.getMax());
+        assertNull(pool.getIdle());
+    }
+
+    @Test
+    void メトリクスが登録されていない場合_空の一覧とnullを返却することの確認() {
+        PerformanceSnapshot snapshot = metrics.snapshot();
+
+        assertTrue(snapshot.getEndpoints()
+                           .isEmpty());
+        assertTrue(snapshot.getCaches()
+                           .isEmpty());
+        assertNull(snapshot.getJvm()
+                           .getHeapUsed());
+        assertEquals(0, snapshot.getJvm()
+                                .getGcCount());
+    }
+
+}
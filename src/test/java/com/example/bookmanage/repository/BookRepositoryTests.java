@@ -2,11 +2,19 @@ package com.example.bookmanage.repository;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
 import org.junit.jupiter.api.Test;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.bookmanage.domain.Book;
 
@@ -53,6 +61,12 @@ class BookRepositoryTests {
     @Autowired
     private BookRepository repository;
 
+    /**
+     * トランザクションのテンプレート(更新系のクエリの実行に使用する)
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     /**
      * 新規登録した書籍のエンティティ
      */
@@ -80,6 +94,147 @@ class BookRepositoryTests {
         assertNotNull(newBook.getUpdatedDateTime());
         assertNotNull(newBook.getCreatedUser());
         assertNotNull(newBook.getUpdatedUser());
+        assertEquals(newBook.getTenant(), newBook.getCreatedUser());
+    }
+
+    @Test
+    @WithMockUser(username = "tenant-test")
+    void テナントを指定した検索では他のテナントの書籍が取得されないことの確認() {
+        // ログインユーザのテナントと、他のテナントの書籍を登録
+        Book own = repository.saveAndFlush(Book.builder()
+                                               .title(TEST_TITLE_NEW)
+                                               .author(TEST_AUTHOR_NEW)
+                                               .build());
+        Book other = repository.saveAndFlush(Book.builder()
+                                                 .title(TEST_TITLE_NEW)
+                                                 .author(TEST_AUTHOR_NEW)
+                                                 .tenant("other-tenant")
+                                                 .build());
+
+        // ログインユーザのテナントの書籍のみが取得される
+        assertEquals(repository.findByTenantAndTitleStartingWithAndAuthorStartingWith("tenant-test", "", "",
+                PageRequest.of(0, 20, Sort.by("id")))
+                               .stream()
+                               .map(Book::getId)
+                               .toList(),
+                List.of(own.getId()));
+        // 前方一致で絞り込まれる(LIKEの特殊文字はエスケープされる)
+        assertEquals(repository.findByTenantAndTitleStartingWithAndAuthorStartingWith("tenant-test", "test", "test",
+                PageRequest.of(0, 20, Sort.by("id")))
+                               .getNumberOfElements(),
+                1);
+        assertEquals(repository.findByTenantAndTitleStartingWithAndAuthorStartingWith("tenant-test", "%", "",
+                PageRequest.of(0, 20, Sort.by("id")))
+                               .getNumberOfElements(),
+                0);
+        assertTrue(repository.findByIdAndTenant(own.getId(), "tenant-test")
+                             .isPresent());
+        assertTrue(repository.findByIdAndTenant(other.getId(), "tenant-test")
+                             .isEmpty());
+        assertFalse(repository.existsByIdAndTenant(other.getId(), "tenant-test"));
+    }
+
+    @Test
+    @WithMockUser(username = "dedup-test")
+    void 全角半角と大文字小文字の違いを除いて同じタイトルと著者の書籍は同じテナントに登録できないことの確認() {
+        Book book = repository.saveAndFlush(Book.builder()
+                                                .title("Spring  入門")
+                                                .author("ｙａｍａｄａ")
+                                                .build());
+        assertEquals(book.getDedupKey(), Book.dedupKeyOf("ｓｐｒｉｎｇ 入門 ", "YAMADA"));
+        assertTrue(repository.existsByTenantAndDedupKey("dedup-test", book.getDedupKey()));
+        assertFalse(repository.existsByTenantAndDedupKeyAndIdNot("dedup-test", book.getDedupKey(), book.getId()));
+
+        // 同じテナントには登録できない
+        assertThrows(DataIntegrityViolationException.class, () -> repository.saveAndFlush(Book.builder()
+                                                                                              .title("ＳＰＲＩＮＧ 入門")
+                                                                                              .author("Yamada")
+                                                                                              .build()));
+        // 他のテナントには登録できる
+        assertNotNull(repository.saveAndFlush(Book.builder()
+                                                  .title("Spring 入門")
+                                                  .author("yamada")
+                                                  .tenant("other-dedup-test")
+                                                  .build())
+                                .getId());
+    }
+
+    @Test
+    @WithMockUser(username = "delete-test")
+    void 論理削除した書籍は検索の対象外となり_削除を取り消す前に同じ書籍が登録された場合は元に戻せないことの確認() {
+        Book book = repository.saveAndFlush(Book.builder()
+                                                .title("論理削除")
+                                                .author("著者")
+                                                .build());
+        String dedupKey = book.getDedupKey();
+
+        // 論理削除する(削除済みの書籍は対象外)
+        LocalDateTime deletedDateTime = LocalDateTime.now();
+        assertEquals(Integer.valueOf(1), transactionTemplate.execute(
+                status -> repository.softDeleteByIdAndTenant(book.getId(), "delete-test", deletedDateTime)));
+        assertEquals(Integer.valueOf(0), transactionTemplate.execute(
+                status -> repository.softDeleteByIdAndTenant(book.getId(), "delete-test", deletedDateTime)));
+        assertTrue(repository.findByIdAndTenant(book.getId(), "delete-test")
+                             .isEmpty());
+        assertFalse(repository.existsByTenantAndDedupKey("delete-test", dedupKey));
+
+        // 削除日時の下限より後に削除した書籍のみ取得できる
+        assertTrue(repository.findDeletedByIdAndTenant(book.getId(), "delete-test", deletedDateTime.minusSeconds(1))
+                             .isPresent());
+        assertTrue(repository.findDeletedByIdAndTenant(book.getId(), "delete-test", deletedDateTime.plusSeconds(1))
+                             .isEmpty());
+
+        // 同じタイトルと著者で登録した場合、削除した書籍は元に戻せない
+        Book recreated = repository.saveAndFlush(Book.builder()
+                                                     .title("論理削除")
+                                                     .author("著者")
+                                                     .build());
+        assertThrows(DataIntegrityViolationException.class, () -> restore(book.getId(), deletedDateTime));
+
+        // 登録した書籍を削除すると、元に戻せる(重複判定キーも元に戻る)
+        transactionTemplate.execute(
+                status -> repository.softDeleteByIdAndTenant(recreated.getId(), "delete-test", deletedDateTime));
+        Book restored = restore(book.getId(), deletedDateTime);
+        assertNull(restored.getDeletedDateTime());
+        assertEquals(restored.getDedupKey(), dedupKey);
+        assertTrue(repository.findByIdAndTenant(book.getId(), "delete-test")
+                             .isPresent());
+    }
+
+    /**
+     * 削除した書籍を元に戻す。
+     *
+     * @param id 書籍のID
+     * @param deletedDateTime 削除日時
+     * @return 元に戻した書籍
+     */
+    private Book restore(long id, LocalDateTime deletedDateTime) {
+        return transactionTemplate.execute(status -> {
+            Book deleted = repository.findDeletedByIdAndTenant(id, "delete-test", deletedDateTime.minusSeconds(1))
+                                     .orElseThrow();
+            deleted.setDeletedDateTime(null);
+            return repository.saveAndFlush(deleted);
+        });
+    }
+
+    @Test
+    @WithMockUser(username = "stream-test")
+    void 全テナントの重複判定キーをトランザクション内のストリームで取得できることの確認() {
+        Book book = repository.saveAndFlush(Book.builder()
+                                                .title("ストリーム")
+                                                .author("重複判定キー")
+                                                .build());
+
+        List<String> dedupKeys = transactionTemplate.execute(status -> {
+            try (Stream<BookRepository.DedupKey> keys = repository.streamAllProjectedBy()) {
+                return keys.filter(key -> key.getTenant()
+                                             .equals("stream-test"))
+                           .map(BookRepository.DedupKey::getDedupKey)
+                           .toList();
+            }
+        });
+
+        assertEquals(List.of(book.getDedupKey()), dedupKeys);
     }
 
     @Test
@@ -2,10 +2,14 @@ package com.example.bookmanage.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Optional;
 
@@ -14,20 +18,38 @@ import org.junit.jupiter.api.Test;
 import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import com.example.bookmanage.BookmanageApplication;
 import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.exception.BookDuplicateException;
 import com.example.bookmanage.exception.BookNotFoundException;
+import com.example.bookmanage.exception.IdempotencyKeyMismatchException;
 import com.example.bookmanage.form.BookManagementForm;
+import com.example.bookmanage.form.BookSearchCondition;
 import com.example.bookmanage.repository.BookRepository;
+import com.example.bookmanage.service.impl.IdempotencyKeyStore;
+import com.example.bookmanage.service.impl.TenantBookCache;
 
 /**
- * BookManageServiceのテストプログラム
+ * BookManageServiceのテストプログラム<br />
+ * ログインユーザ(user)のテナントの書籍を対象とする。
  */
 @SpringBootTest(classes = {BookmanageApplication.class})
+@WithMockUser(username = "user")
 class BookManageServiceTests {
 
+    /**
+     * テストデータのテナント(ログインユーザ)
+     */
+    private static final String TEST_TENANT = "user";
+
     /**
      * テストデータのID
      */
@@ -65,11 +87,33 @@ class BookManageServiceTests {
     @MockitoBean
     private BookRepository repository;
 
+    /**
+     * テナントごとの書籍一覧のキャッシュ
+     */
+    @Autowired
+    private TenantBookCache bookCache;
+
+    /**
+     * 冪等キーごとの登録・更新の結果
+     */
+    @Autowired
+    private IdempotencyKeyStore idempotencyKeyStore;
+
     /**
      * テストデータの書籍
      */
     private Book testBook;
 
+    /**
+     * 既定の条件(先頭のページ、絞り込みなし)で書籍一覧を検索するモックの呼び出し
+     *
+     * @return 検索結果
+     */
+    private Slice<Book> findBooks() {
+        return repository.findByTenantAndTitleStartingWithAndAuthorStartingWith(eq(TEST_TENANT), eq(""), eq(""),
+                any(Pageable.class));
+    }
+
     @BeforeEach
     void setup() {
         // テストデータの生成
@@ -79,12 +123,16 @@ class BookManageServiceTests {
                        .author(TEST_AUTHOR)
                        .build();
         testBook.setVersion(TEST_VERSION);
+
+        // 他のテストでキャッシュした書籍一覧、冪等キーの結果を破棄する
+        bookCache.invalidateAll();
+        idempotencyKeyStore.invalidateAll();
     }
 
     @Test
     void initForm_戻り値の変数とメソッドの呼び出しの確認() {
         // モック
-        when(repository.findAll()).thenReturn(Arrays.asList(testBook));
+        when(findBooks()).thenReturn(new SliceImpl<>(Arrays.asList(testBook)));
 
         // initFormの呼び出し
         BookManagementForm form = service.initForm();
@@ -99,7 +147,7 @@ class BookManageServiceTests {
                          .size(),
                 1);
 
-        // booksにrepository.findAllの結果が設定されているか評価する
+        // booksにrepositoryの検索結果が設定されているか評価する
         Book book = form.getBooks()
                         .get(0);
         assertEquals(book.getTitle(), TEST_TITLE);
@@ -108,14 +156,60 @@ class BookManageServiceTests {
         assertEquals(book.getVersion(), TEST_VERSION);
 
         // repositoryのメソッドの呼び出しを確認
-        verify(repository, times(1)).findAll();
+        verify(repository, times(1)).findByTenantAndTitleStartingWithAndAuthorStartingWith(eq(TEST_TENANT), eq(""), eq(""),
+                any(Pageable.class));
+    }
+
+    @Test
+    void initForm_書籍一覧はキャッシュされ_登録後に検索し直すことの確認() throws Exception {
+        // モック
+        when(findBooks()).thenReturn(new SliceImpl<>(Arrays.asList(testBook)));
+
+        // 2回目はキャッシュから取得する
+        service.initForm();
+        service.initForm();
+        verify(repository, times(1)).findByTenantAndTitleStartingWithAndAuthorStartingWith(eq(TEST_TENANT), eq(""), eq(""),
+                any(Pageable.class));
+
+        // 登録するとテナントの書籍一覧が破棄される
+        service.createBook(BookManagementForm.builder()
+                                             .title(TEST_TITLE)
+                                             .author(TEST_AUTHOR)
+                                             .build());
+        service.initForm();
+        verify(repository, times(2)).findByTenantAndTitleStartingWithAndAuthorStartingWith(eq(TEST_TENANT), eq(""), eq(""),
+                any(Pageable.class));
+    }
+
+    @Test
+    void initForm_並び順と絞り込みとページがリポジトリの検索条件に変換されることの確認() {
+        // モック
+        Slice<Book> books = new SliceImpl<>(Arrays.asList(testBook), PageRequest.of(1, BookSearchCondition.PAGE_SIZE),
+                true);
+        when(repository.findByTenantAndTitleStartingWithAndAuthorStartingWith(eq(TEST_TENANT), eq("test"), eq(""),
+                any(Pageable.class))).thenReturn(books);
+
+        // タイトルの降順、タイトルで絞り込み、2ページ目
+        BookSearchCondition condition = new BookSearchCondition();
+        condition.setSort("title");
+        condition.setDir("desc");
+        condition.setTitle("test");
+        condition.setPage(1);
+        BookManagementForm form = service.initForm(condition);
+
+        // 次のページの有無が設定される
+        assertTrue(form.isHasNext());
+
+        // 並び順が同じ書籍はIDで並べる
+        verify(repository).findByTenantAndTitleStartingWithAndAuthorStartingWith(TEST_TENANT, "test", "",
+                PageRequest.of(1, BookSearchCondition.PAGE_SIZE, Sort.by(Sort.Direction.DESC, "title", "id")));
     }
 
     @Test
     void readOneBook_戻り値とメソッドの呼び出しの確認() {
         // モック
-        when(repository.findById(TEST_ID)).thenReturn(Optional.of(testBook));
-        when(repository.findAll()).thenReturn(Arrays.asList(testBook));
+        when(repository.findByIdAndTenant(TEST_ID, TEST_TENANT)).thenReturn(Optional.of(testBook));
+        when(findBooks()).thenReturn(new SliceImpl<>(Arrays.asList(testBook)));
 
         try {
             // readOneBookを呼び出す
@@ -132,8 +226,9 @@ class BookManageServiceTests {
                     1);
 
             // repositoryのメソッドの呼び出しを確認
-            verify(repository, times(1)).findAll();
-            verify(repository, times(1)).findById(TEST_ID);
+            verify(repository, times(1)).findByTenantAndTitleStartingWithAndAuthorStartingWith(eq(TEST_TENANT), eq(""), eq(""),
+                any(Pageable.class));
+            verify(repository, times(1)).findByIdAndTenant(TEST_ID, TEST_TENANT);
         } catch (BookNotFoundException e) {
             // Exceptionが発生したらエラー
             fail();
@@ -143,8 +238,8 @@ class BookManageServiceTests {
     @Test
     void readOneBook_指定したIDのデータが取得できない場合_例外が発生することの確認() {
         // モック
-        when(repository.findById(TEST_ID)).thenReturn(Optional.ofNullable(null));
-        when(repository.findAll()).thenReturn(Arrays.asList());
+        when(repository.findByIdAndTenant(TEST_ID, TEST_TENANT)).thenReturn(Optional.ofNullable(null));
+        when(findBooks()).thenReturn(new SliceImpl<>(Arrays.asList()));
 
         try {
             // readOneBookを呼び出す
@@ -157,9 +252,41 @@ class BookManageServiceTests {
     }
 
     @Test
-    void updateBook_戻り値と保存処理の呼び出しの確認() {
+    void findBookForm_書籍の一覧を取得せずにフォーム情報が返却されることの確認() {
+        // モック
+        when(repository.findByIdAndTenant(TEST_ID, TEST_TENANT)).thenReturn(Optional.of(testBook));
+
+        // findBookFormを呼び出す
+        BookManagementForm form = service.findBookForm(TEST_ID)
+                                         .orElseThrow();
+
+        // 変数を評価する
+        assertEquals(form.getTitle(), TEST_TITLE);
+        assertEquals(form.getAuthor(), TEST_AUTHOR);
+        assertEquals(form.isNewBook(), false);
+        assertEquals(form.getVersion(), TEST_VERSION);
+        assertNull(form.getBooks());
+
+        // repositoryのメソッドの呼び出しを確認
+        verify(repository, never()).findByTenantAndTitleStartingWithAndAuthorStartingWith(eq(TEST_TENANT), eq(""), eq(""),
+                any(Pageable.class));
+        verify(repository, times(1)).findByIdAndTenant(TEST_ID, TEST_TENANT);
+    }
+
+    @Test
+    void findBookForm_指定したIDのデータが取得できない場合_例外を発生させずに空が返却されることの確認() {
         // モック
-        when(repository.findById(TEST_ID)).thenReturn(Optional.of(testBook));
+        when(repository.findByIdAndTenant(TEST_ID, TEST_TENANT)).thenReturn(Optional.empty());
+
+        // findBookFormを呼び出す
+        assertTrue(service.findBookForm(TEST_ID)
+                          .isEmpty());
+    }
+
+    @Test
+    void updateBook_戻り値と保存処理の呼び出しの確認() throws Exception {
+        // モック
+        when(repository.findByIdAndTenant(TEST_ID, TEST_TENANT)).thenReturn(Optional.of(testBook));
         when(repository.save(testBook)).thenReturn(testBook);
 
         // updateBookを呼び出す
@@ -185,9 +312,9 @@ class BookManageServiceTests {
     }
 
     @Test
-    void updateBook_DBのバージョンと異なるバージョンを指定した場合_例外が発生することの確認() {
+    void updateBook_DBのバージョンと異なるバージョンを指定した場合_例外が発生することの確認() throws Exception {
         // モック
-        when(repository.findById(TEST_ID)).thenReturn(Optional.of(testBook));
+        when(repository.findByIdAndTenant(TEST_ID, TEST_TENANT)).thenReturn(Optional.of(testBook));
 
         // updateBookを呼び出す
         BookManagementForm form = BookManagementForm.builder()
@@ -211,9 +338,9 @@ class BookManageServiceTests {
     }
 
     @Test
-    void updateBook_指定したIDでデータが取得できない場合_例外が発生することの確認() {
+    void updateBook_指定したIDでデータが取得できない場合_例外が発生することの確認() throws Exception {
         // モック
-        when(repository.findById(TEST_ID)).thenReturn(Optional.ofNullable(null));
+        when(repository.findByIdAndTenant(TEST_ID, TEST_TENANT)).thenReturn(Optional.ofNullable(null));
 
         // updateBookを呼び出す
         BookManagementForm form = BookManagementForm.builder()
@@ -233,7 +360,7 @@ class BookManageServiceTests {
     }
 
     @Test
-    void createBook_戻り値と保存処理の呼び出しを確認() {
+    void createBook_戻り値と保存処理の呼び出しを確認() throws Exception {
         // 引数を作成
         BookManagementForm form = BookManagementForm.builder()
                                                     .title(TEST_TITLE)
@@ -255,16 +382,135 @@ class BookManageServiceTests {
     }
 
     @Test
-    void deleteBook_削除処理の呼び出しの確認() {
+    void createBook_同じ冪等キーで再送した場合_登録せずに最初の書籍を返却することの確認() throws Exception {
+        // 引数を作成
+        BookManagementForm form = BookManagementForm.builder()
+                                                    .title(TEST_TITLE)
+                                                    .author(TEST_AUTHOR)
+                                                    .idempotencyKey("create-key")
+                                                    .build();
+        Book inputBook = new ModelMapper().map(form, Book.class);
+
+        // モック
+        when(repository.save(inputBook)).thenReturn(testBook);
+
+        // 同じフォームで2回createBookを呼び出す
+        Book first = service.createBook(form);
+        Book second = service.createBook(form);
+
+        // 最初の書籍が返却され、saveは1回のみ呼び出されることを確認
+        assertThat(second).isSameAs(first);
+        verify(repository, times(1)).save(inputBook);
+    }
+
+    @Test
+    void createBook_同じ冪等キーで内容の異なる登録をした場合_例外が発生することの確認() throws Exception {
+        // 引数を作成
+        BookManagementForm form = BookManagementForm.builder()
+                                                    .title(TEST_TITLE)
+                                                    .author(TEST_AUTHOR)
+                                                    .idempotencyKey("reused-key")
+                                                    .build();
+        Book inputBook = new ModelMapper().map(form, Book.class);
+
+        // モック
+        when(repository.save(inputBook)).thenReturn(testBook);
+        service.createBook(form);
+
+        // 同じ冪等キーで、タイトルの異なるcreateBookを呼び出す
+        BookManagementForm other = BookManagementForm.builder()
+                                                     .title(TEST_TITLE + "2")
+                                                     .author(TEST_AUTHOR)
+                                                     .idempotencyKey("reused-key")
+                                                     .build();
+        assertThrows(IdempotencyKeyMismatchException.class, () -> service.createBook(other));
+
+        // 最初の書籍は返却されず、saveは1回のみ呼び出されることを確認
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    void updateBook_同じ冪等キーで再送した場合_楽観排他エラーにせずに最初の結果を返却することの確認() throws Exception {
+        // モック
+        when(repository.findByIdAndTenant(TEST_ID, TEST_TENANT)).thenReturn(Optional.of(testBook));
+        when(repository.save(testBook)).thenAnswer(invocation -> {
+            // 更新でバージョンが進む
+            testBook.setVersion(TEST_VERSION + 1);
+            return testBook;
+        });
+
+        BookManagementForm form = BookManagementForm.builder()
+                                                    .title(TEST_TITLE)
+                                                    .author(TEST_AUTHOR)
+                                                    .version(TEST_VERSION)
+                                                    .idempotencyKey("update-key")
+                                                    .build();
+
+        // 同じフォーム(更新前のバージョン)で2回updateBookを呼び出す
+        Book first = service.updateBook(TEST_ID, form);
+        Book second = service.updateBook(TEST_ID, form);
+
+        // 最初の結果が返却され、saveは1回のみ呼び出されることを確認
+        assertThat(second).isSameAs(first);
+        verify(repository, times(1)).save(testBook);
+
+        // 冪等キーが異なる場合は、古いバージョンの更新として楽観排他エラーになる
+        form.setIdempotencyKey("other-key");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> service.updateBook(TEST_ID, form));
+    }
+
+    @Test
+    void createBook_同じタイトルと著者の書籍が登録済みでない場合_重複チェックのSQLを発行しないことの確認() throws Exception {
         // モック
-        when(repository.existsById(TEST_ID)).thenReturn(true);
+        when(repository.save(any(Book.class))).thenReturn(testBook);
+
+        // 登録したことのないタイトルと著者でcreateBookを呼び出す
+        service.createBook(BookManagementForm.builder()
+                                             .title("重複チェック")
+                                             .author("未登録")
+                                             .build());
+
+        // Bloomフィルタで未登録と判定し、重複チェックのSQLを発行しないことを確認
+        verify(repository, never()).existsByTenantAndDedupKey(any(), any());
+        verify(repository, times(1)).save(any(Book.class));
+    }
+
+    @Test
+    void createBook_同じタイトルと著者の書籍が登録済みの場合_例外が発生することの確認() throws Exception {
+        // モック
+        when(repository.save(any(Book.class))).thenReturn(testBook);
+        when(repository.existsByTenantAndDedupKey(TEST_TENANT, Book.dedupKeyOf("Book重複チェック", "登録済み"))).thenReturn(true);
+
+        // 登録する
+        service.createBook(BookManagementForm.builder()
+                                             .title("Book重複チェック")
+                                             .author("登録済み")
+                                             .build());
+
+        // 全角半角と大文字小文字のみが異なるタイトルと著者で、createBookを呼び出す
+        BookManagementForm form = BookManagementForm.builder()
+                                                    .title(" ＢＯＯＫ重複チェック")
+                                                    .author("登録済み ")
+                                                    .build();
+        assertThrows(BookDuplicateException.class, () -> service.createBook(form));
+
+        // saveは1回のみ呼び出されることを確認
+        verify(repository, times(1)).save(any(Book.class));
+    }
+
+    @Test
+    void deleteBook_論理削除の呼び出しの確認() {
+        // モック
+        when(repository.softDeleteByIdAndTenant(eq(TEST_ID), eq(TEST_TENANT), any(LocalDateTime.class))).thenReturn(1);
 
         try {
             // deleteBookを呼び出す
             service.deleteBook(TEST_ID);
 
-            // deleteByIdが呼び出されることを確認
-            verify(repository, times(1)).deleteById(TEST_ID);
+            // 物理削除せずに、論理削除が呼び出されることを確認
+            verify(repository, times(1)).softDeleteByIdAndTenant(eq(TEST_ID), eq(TEST_TENANT),
+                    any(LocalDateTime.class));
+            verify(repository, never()).deleteById(TEST_ID);
         } catch (BookNotFoundException e) {
             // Exceptionが発生したら、エラー
             fail();
@@ -274,7 +520,7 @@ class BookManageServiceTests {
     @Test
     void deleteBook_指定したIDのデータが存在しない場合_例外が発生することの確認() {
         // モック
-        when(repository.existsById(TEST_ID)).thenReturn(false);
+        when(repository.softDeleteByIdAndTenant(eq(TEST_ID), eq(TEST_TENANT), any(LocalDateTime.class))).thenReturn(0);
 
         try {
             // deleteBookを呼び出す
@@ -286,4 +532,31 @@ class BookManageServiceTests {
         }
     }
 
+    @Test
+    void restoreBook_削除を取り消せる書籍の削除日時を解除して保存することの確認() throws Exception {
+        // モック
+        testBook.setDeletedDateTime(LocalDateTime.now());
+        when(repository.findDeletedByIdAndTenant(eq(TEST_ID), eq(TEST_TENANT), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(testBook));
+        when(repository.saveAndFlush(any(Book.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // restoreBookを呼び出す
+        Book book = service.restoreBook(TEST_ID);
+
+        // 削除日時が解除されて保存されることを確認
+        assertNull(book.getDeletedDateTime());
+        verify(repository, times(1)).saveAndFlush(testBook);
+    }
+
+    @Test
+    void restoreBook_削除を取り消せる書籍が存在しない場合_例外が発生することの確認() {
+        // モック
+        when(repository.findDeletedByIdAndTenant(eq(TEST_ID), eq(TEST_TENANT), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+
+        // restoreBookを呼び出す
+        assertThrows(BookNotFoundException.class, () -> service.restoreBook(TEST_ID));
+        verify(repository, never()).saveAndFlush(any(Book.class));
+    }
+
 }
@@ -0,0 +1,50 @@
+package com.example.bookmanage.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.bookmanage.service.impl.BookBackupFormat.Header;
+import com.example.bookmanage.service.impl.BookBackupFormat.Row;
+
+/**
+ * BookBackupFormatのテストプログラム
+ */
+class BookBackupFormatTests {
+
+    @Test
+    void 書き込んだヘッダと書籍を_nullを含めて読み込めることの確認() throws IOException {
+        Row book = new Row(1, "タイトル", "著者", "tenant", "key", "0123456789abcdef0123456789abcdef.png", null,
+                "user", LocalDateTime.of(2020, 1, 2, 3, 4, 5, 123_456_789), null, LocalDateTime.of(2020, 1, 2, 3, 4),
+                3);
+        Row deleted = new Row(2, "削除", null, "tenant", "key2", null, LocalDateTime.of(2021, 1, 1, 0, 0), null,
+                null, null, null, 0);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            BookBackupFormat.writeHeader(output, new Header(2, 2));
+            book.write(output);
+            deleted.write(output);
+            BookBackupFormat.writeEnd(output);
+        }
+
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(new Header(2, 2), BookBackupFormat.readHeader(input));
+        assertEquals(book, Row.read(input));
+        assertEquals(deleted, Row.read(input));
+        assertNull(Row.read(input));
+    }
+
+    @Test
+    void 書籍のバックアップでない場合_例外が発生することの確認() {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6 }));
+        assertThrows(IOException.class, () -> BookBackupFormat.readHeader(input));
+    }
+
+}
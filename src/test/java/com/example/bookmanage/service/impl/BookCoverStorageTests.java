@@ -0,0 +1,110 @@
+package com.example.bookmanage.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.bookmanage.exception.BookCoverException;
+
+/**
+ * BookCoverStorageのテストプログラム
+ */
+class BookCoverStorageTests {
+
+    /**
+     * 保存先のディレクトリ
+     */
+    @TempDir
+    Path directory;
+
+    /**
+     * 表紙の画像の保存先(サイズの上限は10KB、画素数の上限は100万)
+     */
+    private BookCoverStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new BookCoverStorage(directory, 10 * 1024, 1_000_000);
+    }
+
+    @Test
+    void 画像を保存した場合_内容のハッシュ値と拡張子のファイル名で参照できることの確認() throws Exception {
+        byte[] png = image(40, 60, "png");
+
+        String name = storage.store(1, new ByteArrayInputStream(png));
+
+        assertTrue(name.matches("[0-9a-f]{32}\\.png"), name);
+        Path file = storage.resolve(1, name)
+                           .orElseThrow();
+        assertArrayEquals(png, Files.readAllBytes(file));
+        // 同じ内容は同じファイル名になる
+        assertEquals(name, storage.store(1, new ByteArrayInputStream(png)));
+        assertTrue(storage.store(1, new ByteArrayInputStream(image(40, 60, "jpg")))
+                          .endsWith(".jpg"));
+        // 他の書籍、不正なファイル名では参照できない
+        assertTrue(storage.resolve(2, name)
+                          .isEmpty());
+        assertTrue(storage.resolve(1, "../1/" + name)
+                          .isEmpty());
+    }
+
+    @Test
+    void 以前の画像は_retainで削除され_deleteで全て削除されることの確認() throws Exception {
+        String first = storage.store(1, new ByteArrayInputStream(image(40, 60, "png")));
+        String second = storage.store(1, new ByteArrayInputStream(image(60, 40, "png")));
+
+        storage.retain(1, second);
+        assertTrue(storage.resolve(1, first)
+                          .isEmpty());
+        assertTrue(storage.resolve(1, second)
+                          .isPresent());
+
+        storage.delete(1);
+        assertTrue(storage.resolve(1, second)
+                          .isEmpty());
+    }
+
+    @Test
+    void 画像でない場合_サイズか画素数が上限を超えている場合_保存せず一時ファイルも残さないことの確認() throws Exception {
+        assertThrows(BookCoverException.class, () -> storage.store(1, new ByteArrayInputStream("not an image"
+                .getBytes(StandardCharsets.UTF_8))));
+        assertThrows(BookCoverException.class, () -> storage.store(1, new ByteArrayInputStream(new byte[20 * 1024])));
+        // 単色のPNGは圧縮されるため、サイズの上限は超えない
+        assertThrows(BookCoverException.class, () -> storage.store(1, new ByteArrayInputStream(image(2000, 1000,
+                "png"))));
+
+        try (Stream<Path> files = Files.walk(directory)) {
+            assertEquals(0, files.filter(Files::isRegularFile)
+                                 .count());
+        }
+    }
+
+    /**
+     * 単色の画像を生成する。
+     *
+     * @param width 幅
+     * @param height 高さ
+     * @param format 形式
+     * @return 画像
+     * @throws IOException 生成に失敗した場合
+     */
+    private static byte[] image(int width, int height, String format) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), format, output);
+        return output.toByteArray();
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.example.bookmanage.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.bookmanage.domain.Book;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * BookDedupFilterのテストプログラム
+ */
+class BookDedupFilterTests {
+
+    @Test
+    void 登録した重複判定キーは必ず登録済みの可能性ありと判定されることの確認() {
+        BookDedupFilter filter = new BookDedupFilter(1000, 0.01, new SimpleMeterRegistry());
+        IntStream.range(0, 1000)
+                 .forEach(i -> filter.put("a", Book.dedupKeyOf("title" + i, "author")));
+
+        assertTrue(IntStream.range(0, 1000)
+                            .allMatch(i -> filter.mightContain("a", Book.dedupKeyOf("title" + i, "author"))));
+    }
+
+    @Test
+    void 登録していない重複判定キーの誤判定率が想定の範囲内であることの確認() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookDedupFilter filter = new BookDedupFilter(1000, 0.01, meterRegistry);
+        IntStream.range(0, 1000)
+                 .forEach(i -> filter.put("a", Book.dedupKeyOf("title" + i, "author")));
+
+        // 他のテナントの同じキー、登録していないキー
+        long falsePositives = IntStream.range(0, 10000)
+                                       .filter(i -> filter.mightContain(i % 2 == 0 ? "b" : "a",
+                                               Book.dedupKeyOf("other" + i, "author")))
+                                       .count();
+        assertTrue(falsePositives < 300, "falsePositives = " + falsePositives);
+
+        // 判定結果がメトリクスに記録される
+        assertEquals(10000 - falsePositives, meterRegistry.get("bookmanage.book.dedup.checks")
+                                                          .tag("result", "absent")
+                                                          .counter()
+                                                          .count());
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.example.bookmanage.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.repository.BookRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * BookDedupReindexJobのテストプログラム
+ */
+@SpringBootTest
+@WithMockUser(username = "reindex-test")
+class BookDedupReindexJobTests {
+
+    /**
+     * 書籍のリポジトリ
+     */
+    @Autowired
+    private BookRepository repository;
+
+    /**
+     * トランザクションのテンプレート
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 書籍の重複判定キーのBloomフィルタ
+     */
+    @Autowired
+    private BookDedupFilter dedupFilter;
+
+    /**
+     * JDBCのテンプレート(重複判定キーを直接書き換える)
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void 計算し直した重複判定キーが他の書籍と重複した場合_その書籍のみ更新せずに最後まで処理することの確認() {
+        Book existing = create("再索引", "著者");
+        Book colliding = create("再索引(旧)", "著者");
+        Book stale = create("再索引(更新)", "著者");
+        // 正規化の規則が変わった状態を再現する(タイトルを既存の書籍と同じにし、重複判定キーを古い値にする)
+        jdbcTemplate.update("update book set title = ?, dedup_key = ? where id = ?", "再索引", "stale-colliding",
+                colliding.getId());
+        jdbcTemplate.update("update book set dedup_key = ? where id = ?", "stale", stale.getId());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookDedupReindexJob job = new BookDedupReindexJob(repository, transactionTemplate, dedupFilter,
+                meterRegistry);
+
+        long total = job.begin();
+        int processed = 0;
+        int count;
+        while ((count = job.processChunk(100)) > 0) {
+            processed += count;
+        }
+        assertEquals(total, processed);
+
+        assertEquals(existing.getDedupKey(), dedupKey(existing));
+        assertEquals("stale-colliding", dedupKey(colliding));
+        assertEquals(Book.dedupKeyOf("再索引(更新)", "著者"), dedupKey(stale));
+        assertEquals(1, meterRegistry.get("bookmanage.book.dedup.collisions")
+                                     .counter()
+                                     .count());
+    }
+
+    /**
+     * 書籍を登録する。
+     *
+     * @param title タイトル
+     * @param author 著者
+     * @return 書籍
+     */
+    private Book create(String title, String author) {
+        return repository.saveAndFlush(Book.builder()
+                                           .title(title)
+                                           .author(author)
+                                           .build());
+    }
+
+    /**
+     * 書籍の重複判定キーを、データベースから直接取得する。
+     *
+     * @param book 書籍
+     * @return 重複判定キー
+     */
+    private String dedupKey(Book book) {
+        return jdbcTemplate.queryForObject("select dedup_key from book where id = ?", String.class, book.getId());
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.example.bookmanage.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.repository.BookRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * BookPurgeJobのテストプログラム<br />
+ * 定期実行(削除を取り消せる時間は30秒)の対象にならないよう、削除した直後の書籍を対象にする。
+ */
+@SpringBootTest
+@WithMockUser(username = "purge-test")
+class BookPurgeJobTests {
+
+    /**
+     * テストデータのテナント
+     */
+    private static final String TEST_TENANT = "purge-test";
+
+    /**
+     * 削除した書籍を取得する場合の削除日時の下限
+     */
+    private static final LocalDateTime DELETED_AFTER = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    /**
+     * 書籍のリポジトリ
+     */
+    @Autowired
+    private BookRepository repository;
+
+    /**
+     * トランザクションのテンプレート
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 表紙の画像の保存先
+     */
+    @Autowired
+    private BookCoverStorage coverStorage;
+
+    @Test
+    void 削除を取り消せる時間が過ぎた書籍が一定件数ごとに物理削除されることの確認() throws Exception {
+        Book first = delete("物理削除1");
+        Book second = delete("物理削除2");
+        String coverName = coverStorage.store(first.getId(), new ByteArrayInputStream(png()));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        BookPurgeJob job = new BookPurgeJob(repository, transactionTemplate, coverStorage, Duration.ZERO,
+                meterRegistry);
+
+        // 1件ずつ、対象が無くなるまで物理削除する
+        long total = job.begin();
+        assertTrue(total >= 2);
+        int purged = 0;
+        int count;
+        while ((count = job.processChunk(1)) == 1) {
+            purged += count;
+        }
+        assertEquals(0, count);
+        assertTrue(purged >= 2);
+        assertEquals(purged, meterRegistry.get("bookmanage.book.purged")
+                                          .counter()
+                                          .count());
+        assertFalse(repository.existsById(first.getId()));
+        assertTrue(repository.findDeletedByIdAndTenant(first.getId(), TEST_TENANT, DELETED_AFTER)
+                             .isEmpty());
+        assertTrue(repository.findDeletedByIdAndTenant(second.getId(), TEST_TENANT, DELETED_AFTER)
+                             .isEmpty());
+        // 物理削除した書籍の表紙の画像も削除する
+        assertTrue(coverStorage.resolve(first.getId(), coverName)
+                               .isEmpty());
+    }
+
+    @Test
+    void 削除を取り消せる時間内の書籍は物理削除されないことの確認() {
+        Book book = delete("物理削除の対象外");
+        BookPurgeJob job = new BookPurgeJob(repository, transactionTemplate, coverStorage, Duration.ofMinutes(10),
+                new SimpleMeterRegistry());
+
+        job.begin();
+        while (job.processChunk(100) == 100) {
+            // 削除を取り消せる時間が過ぎた書籍を全て物理削除する
+        }
+        assertTrue(repository.findDeletedByIdAndTenant(book.getId(), TEST_TENANT, DELETED_AFTER)
+                             .isPresent());
+    }
+
+    /**
+     * PNGの画像を生成する。
+     *
+     * @return 画像
+     * @throws IOException 生成に失敗した場合
+     */
+    private static byte[] png() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB), "png", output);
+        return output.toByteArray();
+    }
+
+    /**
+     * 書籍を登録して、論理削除する。
+     *
+     * @param title タイトル
+     * @return 論理削除した書籍
+     */
+    private Book delete(String title) {
+        Book book = repository.saveAndFlush(Book.builder()
+                                                .title(title)
+                                                .author("著者")
+                                                .build());
+        transactionTemplate.execute(
+                status -> repository.softDeleteByIdAndTenant(book.getId(), TEST_TENANT, LocalDateTime.now()));
+        return book;
+    }
+
+}
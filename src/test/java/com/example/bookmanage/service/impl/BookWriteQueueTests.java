@@ -0,0 +1,165 @@
+package com.example.bookmanage.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import com.example.bookmanage.domain.Book;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * BookWriteQueueのテストプログラム
+ */
+class BookWriteQueueTests {
+
+    /**
+     * テストデータのID
+     */
+    private static final long TEST_ID = 1;
+
+    /**
+     * メトリクスのレジストリ
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * 書籍のIDごとの更新待ち行列
+     */
+    private BookWriteQueue queue;
+
+    /**
+     * 更新を並行して実行するためのExecutor
+     */
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queue = new BookWriteQueue(meterRegistry);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void 同じバージョンへの更新が待機していた場合_先行する更新のコミット後にトランザクションを開始せずエラーになることの確認()
+            throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        AtomicInteger writes = new AtomicInteger();
+
+        // 1件目の更新(バージョン0→1)
+        Future<Book> first = executor.submit(() -> queue.update(TEST_ID, 0, () -> {
+            writes.incrementAndGet();
+            firstStarted.countDown();
+            await(releaseFirst);
+            return book(1);
+        }));
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+
+        // 2件目の更新(バージョン0)は1件目の完了まで待機する
+        Future<Book> second = executor.submit(() -> queue.update(TEST_ID, 0, () -> {
+            writes.incrementAndGet();
+            return book(1);
+        }));
+        awaitWaitingUpdates(1);
+        assertFalse(second.isDone());
+        releaseFirst.countDown();
+
+        assertEquals(1, first.get(5, TimeUnit.SECONDS)
+                             .getVersion());
+        Exception e = assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ObjectOptimisticLockingFailureException.class, e.getCause());
+        assertEquals(1, writes.get());
+        assertEquals(1.0, count("coalesced"));
+        assertEquals(1.0, count("committed"));
+        assertEquals(0, queue.activeSlots());
+        assertEquals(0, queue.waitingUpdates(TEST_ID));
+    }
+
+    @Test
+    void 更新処理で楽観排他エラーが発生した場合_競合として記録されることの確認() {
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> queue.update(TEST_ID, 0, () -> {
+            throw new ObjectOptimisticLockingFailureException(Book.class, TEST_ID);
+        }));
+
+        assertEquals(1.0, count("conflict"));
+        assertEquals(0, queue.activeSlots());
+    }
+
+    @Test
+    void 書籍が存在しない場合_nullが返却されることの確認() {
+        assertNull(queue.update(TEST_ID, 0, () -> null));
+        assertEquals(0.0, count("committed"));
+    }
+
+    /**
+     * 結果ごとの更新件数を返却する。
+     *
+     * @param result 結果
+     * @return 更新件数
+     */
+    private double count(String result) {
+        return meterRegistry.get("bookmanage.book.updates")
+                            .tag("result", result)
+                            .counter()
+                            .count();
+    }
+
+    /**
+     * 書籍の順番を待機している更新が指定した件数になるまで待機する。
+     *
+     * @param expected 待機している更新の件数
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    private void awaitWaitingUpdates(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (queue.waitingUpdates(TEST_ID) != expected) {
+            assertTrue(System.nanoTime() < deadline, "waiting updates: " + queue.waitingUpdates(TEST_ID));
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * 指定したバージョンの書籍を生成する。
+     *
+     * @param version バージョン
+     * @return 書籍
+     */
+    private static Book book(long version) {
+        Book book = Book.builder()
+                        .id(TEST_ID)
+                        .build();
+        book.setVersion(version);
+        return book;
+    }
+
+    /**
+     * ラッチが解放されるまで待機する。
+     *
+     * @param latch ラッチ
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+        }
+    }
+
+}
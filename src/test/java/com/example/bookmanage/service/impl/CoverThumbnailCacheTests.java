@@ -0,0 +1,119 @@
+package com.example.bookmanage.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * CoverThumbnailCacheのテストプログラム
+ */
+class CoverThumbnailCacheTests {
+
+    /**
+     * 縮小画像の幅
+     */
+    private static final int WIDTH = 96;
+
+    /**
+     * 表紙の画像
+     */
+    @TempDir
+    Path coverDirectory;
+
+    /**
+     * 縮小画像を保存するディレクトリ
+     */
+    @TempDir
+    Path thumbnailDirectory;
+
+    /**
+     * 表紙の画像のファイル(400x600)
+     */
+    private Path cover;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cover = coverDirectory.resolve("cover.png");
+        ImageIO.write(new BufferedImage(400, 600, BufferedImage.TYPE_INT_ARGB), "png", cover.toFile());
+    }
+
+    @Test
+    void 縮小画像は1回だけ生成し_メモリとディスクから返却することの確認() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CoverThumbnailCache cache = new CoverThumbnailCache(thumbnailDirectory, WIDTH, 1024 * 1024, 1024 * 1024,
+                meterRegistry);
+
+        byte[] thumbnail = cache.get("0123.png", cover);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(thumbnail));
+        assertEquals(WIDTH, image.getWidth());
+        assertEquals(144, image.getHeight());
+        assertSame(thumbnail, cache.get("0123.png", cover));
+        assertEquals(1.0, count(meterRegistry, "generated"));
+        assertEquals(1, thumbnailFiles());
+
+        // 再起動後はディスクから読み込む
+        SimpleMeterRegistry restarted = new SimpleMeterRegistry();
+        CoverThumbnailCache reloaded = new CoverThumbnailCache(thumbnailDirectory, WIDTH, 1024 * 1024, 1024 * 1024,
+                restarted);
+        assertArrayEquals(thumbnail, reloaded.get("0123.png", cover));
+        assertEquals(0.0, count(restarted, "generated"));
+        assertEquals(1.0, count(restarted, "disk"));
+    }
+
+    @Test
+    void ディスクの上限を超えた場合_縮小画像のファイルを削除することの確認() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        int size = new CoverThumbnailCache(thumbnailDirectory.resolve("size"), WIDTH, 1024 * 1024, 1024 * 1024,
+                meterRegistry).get("size.png", cover).length;
+        CoverThumbnailCache cache = new CoverThumbnailCache(thumbnailDirectory, WIDTH, 1024 * 1024, size * 3 / 2,
+                meterRegistry);
+
+        cache.get("0001.png", cover);
+        cache.get("0002.png", cover);
+        cache.get("0003.png", cover);
+
+        assertEquals(1, thumbnailFiles());
+    }
+
+    /**
+     * 縮小画像のファイル数を返却する。
+     *
+     * @return ファイル数
+     * @throws IOException ディレクトリを読み込めない場合
+     */
+    private long thumbnailFiles() throws IOException {
+        try (Stream<Path> files = Files.list(thumbnailDirectory)) {
+            return files.filter(file -> file.toString()
+                                            .endsWith(".jpg"))
+                        .count();
+        }
+    }
+
+    /**
+     * メモリに無かった縮小画像の取得元ごとの件数を返却する。
+     *
+     * @param meterRegistry メトリクスのレジストリ
+     * @param source 取得元
+     * @return 件数
+     */
+    private static double count(SimpleMeterRegistry meterRegistry, String source) {
+        return meterRegistry.get("bookmanage.book.cover.thumbnails")
+                            .tag("source", source)
+                            .counter()
+                            .count();
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.example.bookmanage.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.exception.IdempotencyKeyMismatchException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * IdempotencyKeyStoreのテストプログラム
+ */
+class IdempotencyKeyStoreTests {
+
+    /**
+     * 冪等キーごとの登録・更新の結果
+     */
+    private IdempotencyKeyStore store;
+
+    /**
+     * 処理を実行した回数
+     */
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        store = new IdempotencyKeyStore(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    void 同じキーの再送は処理せずに最初の結果を返却し_テナントか処理かキーが異なる場合は処理することの確認() throws Exception {
+        Book first = store.execute("a", "create", "key", "fp", this::create);
+
+        assertSame(first, store.execute("a", "create", "key", "fp", this::create));
+        assertEquals(1, executions.get());
+
+        store.execute("b", "create", "key", "fp", this::create);
+        store.execute("a", "update:1", "key", "fp", this::create);
+        store.execute("a", "create", "other", "fp", this::create);
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void 同じキーで内容の異なる送信は_最初の結果を返却せずに例外が発生することの確認() throws Exception {
+        Book first = store.execute("a", "create", "key", "fp", this::create);
+
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> store.execute("a", "create", "key", "other", this::create));
+        assertEquals(1, executions.get());
+
+        // 最初の結果は破棄しない
+        assertSame(first, store.execute("a", "create", "key", "fp", this::create));
+    }
+
+    @Test
+    void キーが未指定の場合は毎回処理することの確認() throws Exception {
+        store.execute("a", "create", null, "fp", this::create);
+        store.execute("a", "create", "", "fp", this::create);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void 失敗した処理の結果は保持せず_同じキーで再実行できることの確認() throws Exception {
+        assertThrows(IllegalStateException.class, () -> store.execute("a", "create", "key", "fp", () -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        // 書籍が存在しない(null)場合も保持しない
+        assertNull(store.execute("a", "update:1", "key", "fp", () -> {
+            executions.incrementAndGet();
+            return null;
+        }));
+
+        // 失敗した送信と内容が異なっても処理する
+        assertNotNull(store.execute("a", "create", "key", "other", this::create));
+        assertNotNull(store.execute("a", "update:1", "key", "other", this::create));
+        assertEquals(4, executions.get());
+    }
+
+    @Test
+    void 実行中の処理と同じキーの再送は_完了を待って同じ結果を返却することの確認() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Book> first = CompletableFuture.supplyAsync(() -> execute(() -> {
+            started.countDown();
+            await(release);
+            return create();
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        // 最初の処理の実行中に再送する
+        CompletableFuture<Book> second = CompletableFuture.supplyAsync(() -> execute(this::create));
+        assertFalse(second.isDone());
+        release.countDown();
+
+        assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * 書籍を登録する(登録した回数を数える)。
+     *
+     * @return 書籍
+     */
+    private Book create() {
+        return Book.builder()
+                   .id((long) executions.incrementAndGet())
+                   .build();
+    }
+
+    /**
+     * テナントa、処理create、キーkeyで処理を1回だけ実行する(別スレッドから呼び出すため、例外を検査しない)。
+     *
+     * @param action 処理
+     * @return 処理の結果
+     */
+    private Book execute(IdempotencyKeyStore.Action<RuntimeException> action) {
+        try {
+            return store.execute("a", "create", "key", "fp", action);
+        } catch (IdempotencyKeyMismatchException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * ラッチが解放されるまで待つ。
+     *
+     * @param latch ラッチ
+     */
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
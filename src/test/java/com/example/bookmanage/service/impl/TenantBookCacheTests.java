@@ -0,0 +1,119 @@
+package com.example.bookmanage.service.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.example.bookmanage.domain.Book;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * TenantBookCacheのテストプログラム
+ */
+class TenantBookCacheTests {
+
+    /**
+     * メトリクスのレジストリ
+     */
+    private SimpleMeterRegistry meterRegistry;
+
+    /**
+     * テナントごとの書籍一覧のキャッシュ
+     */
+    private TenantBookCache cache;
+
+    /**
+     * 書籍一覧を読み込んだ回数
+     */
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new TenantBookCache(1000, Duration.ofMinutes(1), meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void テナントと検索条件ごとにキャッシュされ_破棄したテナントのみ読み込み直すことの確認() {
+        cache.get("a", 0, () -> load("a"));
+        cache.get("a", 1, () -> load("a"));
+        cache.get("b", 0, () -> load("b"));
+        cache.get("a", 0, () -> load("a"));
+        assertEquals(3, loads.get());
+
+        // テナントの全ページが破棄される
+        cache.invalidate("a");
+        assertEquals("a", cache.get("a", 0, () -> load("a"))
+                               .getContent()
+                               .get(0)
+                               .getTenant());
+        cache.get("a", 1, () -> load("a"));
+        cache.get("b", 0, () -> load("b"));
+        assertEquals(5, loads.get());
+
+        // ヒット・ミスがメトリクスに記録される
+        assertEquals(2.0, meterRegistry.get("cache.gets")
+                                       .tag("cache", "books")
+                                       .tag("result", "hit")
+                                       .functionCounter()
+                                       .count());
+    }
+
+    @Test
+    void 読み込み中に破棄された場合_読み込んだ一覧は以降参照されないことの確認() {
+        // 読み込み中に他のリクエストが書籍を更新した(コミット後に破棄した)
+        cache.get("a", 0, () -> {
+            cache.invalidate("a");
+            return load("a");
+        });
+        cache.get("a", 0, () -> load("a"));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void トランザクション中の破棄はコミット後に行われることの確認() {
+        cache.get("a", 0, () -> load("a"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate("a");
+            cache.get("a", 0, () -> load("a"));
+            assertEquals(1, loads.get());
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cache.get("a", 0, () -> load("a"));
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * テナントの書籍一覧を読み込む。
+     *
+     * @param tenant テナント
+     * @return 書籍一覧のページ
+     */
+    private Slice<Book> load(String tenant) {
+        loads.incrementAndGet();
+        return new SliceImpl<>(List.of(Book.builder()
+                                           .id(1L)
+                                           .title("title")
+                                           .author("author")
+                                           .tenant(tenant)
+                                           .build()));
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.example.bookmanage.trace;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * QueryGuardのテストプログラム
+ */
+class QueryGuardTests {
+
+    /**
+     * テスト対象(上限は3件、ハンドラ"BookManageController.readBooks"は1件、同じSQLは2回まで)
+     */
+    private final QueryGuard guard = new QueryGuard(3, Map.of("BookManageController.readBooks", 1), 2);
+
+    @AfterEach
+    void tearDown() {
+        Tracer.end(200);
+    }
+
+    @Test
+    void SQLの件数が上限以内の場合_検査に合格することの確認() {
+        Trace trace = trace("BookManageController.readOneBook", "select a", "select b", "select c");
+
+        assertTrue(guard.check(trace));
+        assertEquals(3, trace.getQueryBudget());
+        assertFalse(trace.isOverBudget());
+    }
+
+    @Test
+    void ハンドラごとの上限を超えた場合_検査に合格しないことの確認() {
+        Trace trace = trace("BookManageController.readBooks", "select a", "select b");
+
+        assertFalse(guard.check(trace));
+        assertEquals(1, trace.getQueryBudget());
+        assertTrue(trace.isOverBudget());
+    }
+
+    @Test
+    void 同じSQLを繰り返し実行した場合_検査に合格しないことの確認() {
+        Trace trace = trace(null, "select a where id=?", "select a where id=?", "select a where id=?");
+
+        assertFalse(guard.check(trace));
+        assertFalse(trace.isOverBudget());
+        assertEquals(Map.of("select a where id=?", 3), trace.getRepeatedSql());
+    }
+
+    /**
+     * SQLを実行したトレースを作成する。
+     *
+     * @param endpoint ハンドラ
+     * @param sqls SQL
+     * @return トレース
+     */
+    private static Trace trace(String endpoint, String... sqls) {
+        Tracer.begin("id", "GET", "/books", "user");
+        for (String sql : sqls) {
+            Tracer.recordSql(sql, "", 1, false, false);
+        }
+        Trace trace = Tracer.end(200);
+        trace.setEndpoint(endpoint);
+        return trace;
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.example.bookmanage.trace;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookmanage.BookmanageApplication;
+import com.example.bookmanage.service.impl.TenantBookCache;
+import com.example.bookmanage.web.MdcFilter;
+
+/**
+ * リクエストのトレースのテストプログラム
+ */
+@SpringBootTest(classes = BookmanageApplication.class)
+@AutoConfigureMockMvc
+class TraceIntegrationTests {
+
+    /**
+     * Httpリクエスト・レスポンスを扱うためのMockオブジェクト
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * 終了したトレースの保存先
+     */
+    @Autowired
+    private TraceCollector collector;
+
+    /**
+     * テナントごとの書籍一覧のキャッシュ
+     */
+    @Autowired
+    private TenantBookCache bookCache;
+
+    @BeforeEach
+    void setUp() {
+        // 書籍一覧をキャッシュから取得するとSQLが発行されないため、破棄しておく
+        bookCache.invalidateAll();
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user", authorities = "ROLE_USER")
+    void 書籍一覧を表示した場合_コントローラからSQLまでの区間が記録されることの確認() throws Exception {
+        mockMvc.perform(get("/books").header(MdcFilter.REQUEST_ID_HEADER, "trace-test"))
+               .andExpect(status().isOk())
+               .andExpect(TraceMatchers.sqlCount(collector, 1))
+               .andExpect(TraceMatchers.withinQueryBudget(collector));
+
+        Trace trace = collector.find("trace-test")
+                               .orElseThrow();
+        assertEquals("user", trace.getUser());
+        assertEquals(200, trace.getStatus());
+        assertEquals("BookManageController.readBooks", trace.getEndpoint());
+        assertEquals(1, trace.getQueryBudget());
+
+        List<String> layers = trace.getSpans()
+                                   .stream()
+                                   .map(Span::getLayer)
+                                   .distinct()
+                                   .toList();
+        assertEquals(List.of("http", "web", "service", "repository", "jdbc"), layers);
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user", authorities = "ROLE_USER")
+    void 管理者以外の場合_トレースを参照できないことの確認() throws Exception {
+        mockMvc.perform(get("/admin/traces"))
+               .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user", authorities = "ROLE_USER")
+    void 書籍を参照した場合_SQLのパラメータが記録されることの確認() throws Exception {
+        mockMvc.perform(get("/books/1").header(MdcFilter.REQUEST_ID_HEADER, "trace-parameters"))
+               .andExpect(status().isOk())
+               .andExpect(TraceMatchers.withinQueryBudget(collector));
+
+        Span jdbc = collector.find("trace-parameters")
+                             .orElseThrow()
+                             .getSpans()
+                             .stream()
+                             .filter(span -> span.getLayer()
+                                                 .equals("jdbc"))
+                             .findFirst()
+                             .orElseThrow();
+        // IDとテナント(ログインユーザ)で検索する
+        assertEquals("[1, user]", jdbc.getParameters());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", authorities = "ROLE_ADMIN")
+    void 管理者の場合_トレースの一覧とSQLの一覧を参照できることの確認() throws Exception {
+        mockMvc.perform(get("/admin/traces"))
+               .andExpect(status().isOk());
+        mockMvc.perform(get("/admin/queries"))
+               .andExpect(status().isOk());
+    }
+
+}
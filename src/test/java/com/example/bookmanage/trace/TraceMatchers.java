@@ -0,0 +1,66 @@
+package com.example.bookmanage.trace;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import com.example.bookmanage.web.MdcFilter;
+
+/**
+ * リクエストのトレース(実行したSQL)を検証するResultMatcher<br />
+ * レスポンスヘッダのリクエストIDで、TraceCollectorからトレースを取得する。
+ */
+public final class TraceMatchers {
+
+    /**
+     * インスタンスを生成しない。
+     */
+    private TraceMatchers() {
+    }
+
+    /**
+     * 実行したSQLの件数を検証する。
+     *
+     * @param collector 終了したトレースの保存先
+     * @param expected SQLの件数
+     * @return ResultMatcher
+     */
+    public static ResultMatcher sqlCount(TraceCollector collector, int expected) {
+        return result -> {
+            Trace trace = trace(collector, result.getResponse()
+                                                 .getHeader(MdcFilter.REQUEST_ID_HEADER));
+            assertEquals(expected, trace.getSqlCount(), "SQLの件数");
+        };
+    }
+
+    /**
+     * SQLの件数が上限以内で、同じSQLを繰り返し実行していないことを検証する。
+     *
+     * @param collector 終了したトレースの保存先
+     * @return ResultMatcher
+     */
+    public static ResultMatcher withinQueryBudget(TraceCollector collector) {
+        return result -> {
+            Trace trace = trace(collector, result.getResponse()
+                                                 .getHeader(MdcFilter.REQUEST_ID_HEADER));
+            assertFalse(trace.isOverBudget(),
+                    () -> "SQLの件数(" + trace.getSqlCount() + ")が上限(" + trace.getQueryBudget() + ")を超えています");
+            assertTrue(trace.getRepeatedSql()
+                            .isEmpty(),
+                    () -> "同じSQLを繰り返し実行しています: " + trace.getRepeatedSql());
+        };
+    }
+
+    /**
+     * 指定したIDのトレースを返却する。
+     *
+     * @param collector 終了したトレースの保存先
+     * @param id トレースID
+     * @return トレース
+     */
+    private static Trace trace(TraceCollector collector, String id) {
+        return collector.find(id)
+                        .orElseThrow(() -> new AssertionError("トレースが存在しません: " + id));
+    }
+
+}
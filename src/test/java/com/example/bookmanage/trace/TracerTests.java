@@ -0,0 +1,104 @@
+package com.example.bookmanage.trace;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * TracerとTraceCollectorのテストプログラム
+ */
+class TracerTests {
+
+    @AfterEach
+    void tearDown() {
+        Tracer.end(200);
+    }
+
+    @Test
+    void 区間が入れ子で記録され_SQLの件数が親の区間に加算されることの確認() {
+        Tracer.begin("id", "GET", "/books", "user");
+        Span web = Tracer.startSpan("web", "readBooks");
+        Span service = Tracer.startSpan("service", "initForm");
+        Span repository = Tracer.startSpan("repository", "findAll");
+        Tracer.recordSql("select 1", "[1]", 1_000_000, false, false);
+        Tracer.recordSql("select 2", "[2]", 2_000_000, true, false);
+        Tracer.endSpan(repository, false);
+        Tracer.endSpan(service, false);
+        Tracer.endSpan(web, false);
+        Trace trace = Tracer.end(200);
+
+        List<Span> spans = trace.getSpans();
+        assertEquals(List.of("http", "web", "service", "repository", "jdbc", "jdbc"),
+                spans.stream()
+                     .map(Span::getLayer)
+                     .toList());
+        assertEquals(List.of(0, 1, 2, 3, 4, 4),
+                spans.stream()
+                     .map(Span::getDepth)
+                     .toList());
+        assertEquals(2, web.getSqlCount());
+        assertEquals(2, trace.getSqlCount());
+        assertEquals(3.0, trace.getSqlMillis());
+        assertEquals(1, trace.getSlowSqlCount());
+        assertEquals("[2]", spans.get(5)
+                                 .getParameters());
+        assertTrue(spans.get(5)
+                        .isSlow());
+        assertEquals(200, trace.getStatus());
+    }
+
+    @Test
+    void 終了していない区間がある場合_トレースの終了時にエラーとして終了することの確認() {
+        Tracer.begin("id", "GET", "/books", "user");
+        Span web = Tracer.startSpan("web", "readBooks");
+        Tracer.startSpan("service", "initForm");
+        Trace trace = Tracer.end(500);
+
+        assertTrue(web.isError());
+        assertTrue(trace.getRoot()
+                        .isError());
+    }
+
+    @Test
+    void 区間の上限を超えた場合_記録せずに件数を数えることの確認() {
+        Tracer.begin("id", "GET", "/books", "user");
+        for (int i = 0; i < Tracer.MAX_SPANS + 3; i++) {
+            Tracer.recordSql("select " + i, null, 1, false, false);
+        }
+        Trace trace = Tracer.end(200);
+
+        assertEquals(Tracer.MAX_SPANS + 1, trace.getSpans()
+                                                .size());
+        assertEquals(3, trace.getDroppedSpans());
+        // SQLの件数は上限を超えても数える
+        assertEquals(Tracer.MAX_SPANS + 3, trace.getSqlCount());
+    }
+
+    @Test
+    void トレースを開始していない場合_区間を記録しないことの確認() {
+        assertNull(Tracer.startSpan("web", "readBooks"));
+        Tracer.recordSql("select 1", null, 1, false, false);
+        assertNull(Tracer.end(200));
+    }
+
+    @Test
+    void 保持する件数を超えた場合_古いトレースから破棄することの確認() {
+        TraceCollector collector = new TraceCollector(2);
+        for (String id : List.of("1", "2", "3")) {
+            Tracer.begin(id, "GET", "/books", "user");
+            collector.add(Tracer.end(200));
+        }
+
+        assertEquals(List.of("3", "2"),
+                collector.recent()
+                         .stream()
+                         .map(Trace::getId)
+                         .toList());
+        assertTrue(collector.find("1")
+                            .isEmpty());
+    }
+
+}
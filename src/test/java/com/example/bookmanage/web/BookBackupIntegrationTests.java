@@ -0,0 +1,192 @@
+package com.example.bookmanage.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.bookmanage.BookmanageApplication;
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.repository.BookRepository;
+import com.example.bookmanage.service.BackupStatus;
+import com.example.bookmanage.service.BookBackupService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * 書籍のバックアップ・復元(取得、復元、管理者用画面、ダウンロード)のテストプログラム
+ */
+@SpringBootTest(classes = BookmanageApplication.class)
+@AutoConfigureMockMvc
+@WithMockUser(username = "backup-test", authorities = "ROLE_ADMIN")
+class BookBackupIntegrationTests {
+
+    /**
+     * テストデータのテナント
+     */
+    private static final String TEST_TENANT = "backup-test";
+
+    /**
+     * 削除した書籍を取得する場合の削除日時の下限
+     */
+    private static final LocalDateTime DELETED_AFTER = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    /**
+     * Httpリクエスト・レスポンスを扱うためのMockオブジェクト
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * 書籍のバックアップ・復元のサービス
+     */
+    @Autowired
+    private BookBackupService service;
+
+    /**
+     * 書籍のリポジトリ
+     */
+    @Autowired
+    private BookRepository repository;
+
+    /**
+     * トランザクションのテンプレート
+     */
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * メトリクスのレジストリ
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void 復元した場合_バックアップ後の変更が取り消されることの確認() throws Exception {
+        Book kept = createBook("バックアップ前");
+        Book deleted = createBook("論理削除");
+        transactionTemplate.execute(
+                status -> repository.softDeleteByIdAndTenant(deleted.getId(), TEST_TENANT, LocalDateTime.now()));
+
+        String name = backup();
+        BackupStatus backupStatus = service.status();
+        assertEquals("COMPLETED", backupStatus.getResult());
+        assertTrue(backupStatus.getTotal() >= 2);
+        assertEquals(backupStatus.getTotal(), backupStatus.getProcessed());
+
+        // バックアップ後に更新・登録する
+        Book changed = repository.findById(kept.getId())
+                                 .orElseThrow();
+        changed.setTitle("バックアップ後");
+        repository.saveAndFlush(changed);
+        Book added = createBook("バックアップ後に登録");
+
+        service.startRestore(name)
+               .orElseThrow()
+               .get(30, TimeUnit.SECONDS);
+        BackupStatus restoreStatus = service.status();
+        assertEquals("restore", restoreStatus.getOperation());
+        assertEquals("COMPLETED", restoreStatus.getResult());
+        assertEquals(backupStatus.getTotal(), restoreStatus.getProcessed());
+
+        Book restored = repository.findById(kept.getId())
+                                  .orElseThrow();
+        assertEquals("バックアップ前", restored.getTitle());
+        assertEquals(kept.getVersion(), restored.getVersion());
+        assertFalse(repository.existsById(added.getId()));
+        // 論理削除した書籍も復元する
+        assertTrue(repository.findDeletedByIdAndTenant(deleted.getId(), TEST_TENANT, DELETED_AFTER)
+                             .isPresent());
+        // 復元後に登録した書籍のIDは、復元した書籍・復元前の書籍と重複しない
+        assertTrue(createBook("復元後に登録").getId() > added.getId());
+        assertTrue(meterRegistry.get("bookmanage.book.backup.duration")
+                                .tag("operation", "restore")
+                                .tag("result", "COMPLETED")
+                                .timer()
+                                .count() >= 1);
+    }
+
+    @Test
+    void 管理者の場合_バックアップの一覧を参照し_ダウンロードできることの確認() throws Exception {
+        createBook("ダウンロード");
+        String name = backup();
+
+        mockMvc.perform(get("/admin/backups"))
+               .andExpect(status().isOk())
+               .andExpect(view().name("admin/backups"))
+               .andExpect(model().attributeExists("backups", "status"))
+               .andExpect(content().string(Matchers.containsString(name)));
+        long size = service.readBackup(name)
+                           .orElseThrow()
+                           .contentLength();
+        byte[] body = mockMvc.perform(get("/admin/backups/{name}", name))
+                             .andExpect(status().isOk())
+                             .andExpect(content().contentType("application/gzip"))
+                             .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                                     Matchers.startsWith("attachment")))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsByteArray();
+        assertEquals(size, body.length);
+        // gzipの識別子
+        assertEquals((byte) 0x1f, body[0]);
+        assertEquals((byte) 0x8b, body[1]);
+
+        mockMvc.perform(get("/admin/backups/{name}", "books-00000000-000000000.gz"))
+               .andExpect(status().isNotFound());
+        assertTrue(service.startRestore("books-00000000-000000000.gz")
+                          .isEmpty());
+        assertTrue(service.startRestore("../books-00000000-000000000.gz")
+                          .isEmpty());
+    }
+
+    @Test
+    void 管理者以外の場合_バックアップを取得できないことの確認() throws Exception {
+        mockMvc.perform(post("/admin/backups").with(user("user"))
+                                              .with(csrf()))
+               .andExpect(status().isForbidden());
+    }
+
+    /**
+     * バックアップを取得し、終了を待つ。
+     *
+     * @return バックアップのファイル名
+     * @throws Exception 終了を待てない場合
+     */
+    private String backup() throws Exception {
+        service.startBackup()
+               .orElseThrow()
+               .get(30, TimeUnit.SECONDS);
+        return service.status()
+                      .getFileName();
+    }
+
+    /**
+     * 書籍を登録する。
+     *
+     * @param title タイトル
+     * @return 書籍
+     */
+    private Book createBook(String title) {
+        return repository.saveAndFlush(Book.builder()
+                                           .title(title)
+                                           .author("バックアップ")
+                                           .build());
+    }
+
+}
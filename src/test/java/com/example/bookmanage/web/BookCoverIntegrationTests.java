@@ -0,0 +1,253 @@
+package com.example.bookmanage.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookmanage.BookmanageApplication;
+import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.repository.BookRepository;
+
+/**
+ * 書籍の表紙の画像(登録、参照、縮小画像、キャッシュ、範囲指定)のテストプログラム
+ */
+@SpringBootTest(classes = BookmanageApplication.class)
+@AutoConfigureMockMvc
+@WithMockUser(username = "cover-test")
+class BookCoverIntegrationTests {
+
+    /**
+     * Httpリクエスト・レスポンスを扱うためのMockオブジェクト
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * 書籍のリポジトリ
+     */
+    @Autowired
+    private BookRepository repository;
+
+    @Test
+    void 登録した表紙の画像を_ETagとRangeヘッダに応じて返却することの確認() throws Exception {
+        Book book = createBook("表紙の画像");
+        byte[] png = image(300, 450);
+
+        mockMvc.perform(multipart("/books/{id}/cover", book.getId())
+                .file(new MockMultipartFile("file", "cover.png", MediaType.IMAGE_PNG_VALUE, png))
+                .with(csrf()))
+               .andExpect(redirectedUrl("/books/" + book.getId()));
+        String coverName = repository.findById(book.getId())
+                                     .orElseThrow()
+                                     .getCoverName();
+        assertNotNull(coverName);
+        // 表紙の画像の登録では、バージョンを進めない(編集中のフォームを楽観排他のエラーにしない)
+        assertEquals(book.getVersion(), repository.findById(book.getId())
+                                                  .orElseThrow()
+                                                  .getVersion());
+
+        String url = "/books/" + book.getId() + "/cover/" + coverName;
+        mockMvc.perform(get(url))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.IMAGE_PNG))
+               .andExpect(content().bytes(png))
+               .andExpect(header().string(HttpHeaders.ETAG, "\"" + coverName + "\""))
+               .andExpect(header().string(HttpHeaders.CACHE_CONTROL, Matchers.containsString("immutable")));
+        mockMvc.perform(get(url).header(HttpHeaders.IF_NONE_MATCH, "\"" + coverName + "\""))
+               .andExpect(status().isNotModified());
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=0-9"))
+               .andExpect(status().isPartialContent())
+               .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 0-9/" + png.length))
+               .andExpect(content().bytes(Arrays.copyOf(png, 10)));
+
+        mockMvc.perform(get(url + "/thumbnail"))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.IMAGE_JPEG));
+        mockMvc.perform(get("/books"))
+               .andExpect(content().string(Matchers.containsString(url + "/thumbnail")));
+    }
+
+    @Test
+    void sendfileに対応している場合_表紙の画像をTomcatに送信させることの確認() throws Exception {
+        Book book = createBook("sendfile");
+        mockMvc.perform(put("/books/{id}/cover", book.getId()).contentType(MediaType.IMAGE_PNG)
+                                                              .content(noise(300, 300))
+                                                              .with(csrf()))
+               .andExpect(status().isNoContent());
+        String coverName = repository.findById(book.getId())
+                                     .orElseThrow()
+                                     .getCoverName();
+
+        mockMvc.perform(get("/books/{id}/cover/{name}", book.getId(), coverName)
+                .requestAttr(FileTransfer.SENDFILE_SUPPORT, Boolean.TRUE))
+               .andExpect(status().isOk())
+               .andExpect(request().attribute(FileTransfer.SENDFILE_FILENAME, Matchers.endsWith(coverName)))
+               .andExpect(request().attribute(FileTransfer.SENDFILE_START, 0L))
+               .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/books/{id}/cover/{name}", book.getId(), coverName)
+                .requestAttr(FileTransfer.SENDFILE_SUPPORT, Boolean.TRUE)
+                .header(HttpHeaders.RANGE, "bytes=100-"))
+               .andExpect(status().isPartialContent())
+               .andExpect(request().attribute(FileTransfer.SENDFILE_START, 100L));
+    }
+
+    @Test
+    void 他のテナントの書籍と以前の表紙の画像は参照できないことの確認() throws Exception {
+        Book book = createBook("他のテナント");
+        mockMvc.perform(put("/books/{id}/cover", book.getId()).contentType(MediaType.IMAGE_PNG)
+                                                              .content(image(30, 40))
+                                                              .with(csrf()))
+               .andExpect(status().isNoContent());
+        String first = repository.findById(book.getId())
+                                 .orElseThrow()
+                                 .getCoverName();
+        mockMvc.perform(put("/books/{id}/cover", book.getId()).contentType(MediaType.IMAGE_PNG)
+                                                              .content(image(40, 30))
+                                                              .with(csrf()))
+               .andExpect(status().isNoContent());
+        String second = repository.findById(book.getId())
+                                  .orElseThrow()
+                                  .getCoverName();
+
+        mockMvc.perform(get("/books/{id}/cover/{name}", book.getId(), first))
+               .andExpect(status().isNotFound());
+        mockMvc.perform(get("/books/{id}/cover/{name}", book.getId(), second).with(user("other")))
+               .andExpect(status().isNotFound());
+        mockMvc.perform(put("/books/{id}/cover", book.getId()).contentType(MediaType.IMAGE_PNG)
+                                                              .content(image(40, 30))
+                                                              .with(user("other"))
+                                                              .with(csrf()))
+               .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "cover-concurrent-test")
+    void 同じ書籍に同時にアップロードした場合_反映した表紙の画像が削除されないことの確認() throws Exception {
+        Book book = createBook("同時のアップロード");
+        byte[] png = image(60, 90);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> uploads = new ArrayList<>();
+            // リクエスト数の制限(表紙の画像の登録)の範囲内で同時にアップロードする
+            for (int i = 0; i < 4; i++) {
+                uploads.add(executor.submit(() -> {
+                    mockMvc.perform(put("/books/{id}/cover", book.getId()).contentType(MediaType.IMAGE_PNG)
+                                                                          .content(png)
+                                                                          .with(user("cover-concurrent-test"))
+                                                                          .with(csrf()))
+                           .andExpect(status().isNoContent());
+                    return null;
+                }));
+            }
+            for (Future<?> upload : uploads) {
+                upload.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        String coverName = repository.findById(book.getId())
+                                     .orElseThrow()
+                                     .getCoverName();
+        mockMvc.perform(get("/books/{id}/cover/{name}", book.getId(), coverName))
+               .andExpect(status().isOk())
+               .andExpect(content().bytes(png));
+    }
+
+    @Test
+    void 画像でない場合_表紙の画像を登録しないことの確認() throws Exception {
+        Book book = createBook("画像でない");
+
+        mockMvc.perform(put("/books/{id}/cover", book.getId()).contentType(MediaType.IMAGE_PNG)
+                                                              .content("not an image")
+                                                              .with(csrf()))
+               .andExpect(status().isUnprocessableEntity())
+               .andExpect(jsonPath("$.errorMessage").isNotEmpty());
+        mockMvc.perform(multipart("/books/{id}/cover", book.getId())
+                .file(new MockMultipartFile("file", "cover.txt", MediaType.TEXT_PLAIN_VALUE, new byte[] { 1, 2, 3 }))
+                .with(csrf()))
+               .andExpect(redirectedUrl("/books/" + book.getId()))
+               .andExpect(flash().attributeExists("errorMessage"));
+        assertNull(repository.findById(book.getId())
+                             .orElseThrow()
+                             .getCoverName());
+    }
+
+    /**
+     * 書籍を登録する。
+     *
+     * @param title タイトル
+     * @return 書籍
+     */
+    private Book createBook(String title) {
+        return repository.saveAndFlush(Book.builder()
+                                           .title(title)
+                                           .author("表紙")
+                                           .build());
+    }
+
+    /**
+     * PNGの画像を生成する。
+     *
+     * @param width 幅
+     * @param height 高さ
+     * @return 画像
+     * @throws IOException 生成に失敗した場合
+     */
+    private static byte[] image(int width, int height) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", output);
+        return output.toByteArray();
+    }
+
+    /**
+     * 圧縮が効かない(ファイルが大きくなる)PNGの画像を生成する。
+     *
+     * @param width 幅
+     * @param height 高さ
+     * @return 画像
+     * @throws IOException 生成に失敗した場合
+     */
+    private static byte[] noise(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(1);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+}
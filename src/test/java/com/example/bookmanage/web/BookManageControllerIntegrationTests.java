@@ -10,10 +10,12 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.log;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
 
+import org.hamcrest.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -96,6 +98,43 @@ class BookManageControllerIntegrationTests {
         assertNotNull(form.getBooks());
     }
 
+    @Test
+    @WithMockUser(username = "user", password = "user", authorities = "ROLE_USER")
+    void Ajaxで書籍一覧を読み込み直す場合_表示中の条件を引き継いだ書籍一覧の部品が返却されることの確認() throws Exception {
+        // X-Requested-Withヘッダと表示中の条件を指定して、getリクエストでbooksを指定する
+        this.mockMvc.perform(get("/books").header("X-Requested-With", "XMLHttpRequest")
+                                          .param("part", "list")
+                                          .param("sort", "title")
+                                          .param("dir", "desc"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(Matchers.startsWith("<div id=\"book-list-panel\"")))
+                    .andExpect(content().string(Matchers.containsString(
+                            "data-list-url=\"/books?part=list&amp;sort=title&amp;dir=desc")))
+                    .andExpect(content().string(Matchers.not(Matchers.containsString("id=\"book-form\""))));
+    }
+
+    @Test
+    @WithMockUser(username = "ajax-create-test", authorities = "ROLE_USER")
+    void Ajaxで登録した場合_表示中の条件で描画し直した書籍一覧と新規登録用のフォームが1回で返却されることの確認() throws Exception {
+        // X-Requested-Withヘッダと表示中の書籍一覧のURLを指定して、postリクエストでbooksを指定する
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("title", "Ajaxで登録");
+        params.add("author", TEST_AUTHOR);
+        params.add("newBook", "true");
+        params.add("idempotencyKey", "ajax-create-key");
+        this.mockMvc.perform(post("/books").with(csrf())
+                                           .params(params)
+                                           .header("X-Requested-With", "XMLHttpRequest")
+                                           .header("X-Book-List-Url", "/books?part=list&sort=title&dir=desc"))
+                    .andExpect(status().isCreated())
+                    .andExpect(content().string(Matchers.containsString("id=\"book-form\"")))
+                    .andExpect(content().string(Matchers.containsString(
+                            "data-list-url=\"/books?part=list&amp;sort=title&amp;dir=desc")))
+                    .andExpect(content().string(Matchers.containsString("Ajaxで登録")))
+                    // 新規登録用のフォームには、次の登録用の冪等キーを発行する
+                    .andExpect(content().string(Matchers.not(Matchers.containsString("ajax-create-key"))));
+    }
+
     @Test
     @WithMockUser(username = "user", password = "user", authorities = "ROLE_USER")
     public void 認証ありでpostリクエストでbooksにアクセスする場合のステータスとリダイレクトURLの確認() throws Exception {
@@ -7,6 +7,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +18,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.MessageSource;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.http.MediaType;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.test.web.servlet.MockMvc;
@@ -27,8 +31,11 @@ import org.springframework.web.servlet.view.InternalResourceViewResolver;
 
 import com.example.bookmanage.BookmanageApplication;
 import com.example.bookmanage.domain.Book;
+import com.example.bookmanage.exception.BookDuplicateException;
 import com.example.bookmanage.exception.BookNotFoundException;
+import com.example.bookmanage.exception.IdempotencyKeyMismatchException;
 import com.example.bookmanage.form.BookManagementForm;
+import com.example.bookmanage.form.BookSearchCondition;
 import com.example.bookmanage.service.BookManageService;
 
 /**
@@ -77,6 +84,11 @@ public class BookManageControllerUnitTests {
      */
     private static final String TEST_MESSAGE = "test message";
 
+    /**
+     * テスト用のリクエストのロケール(エラーメッセージの取得に使われることを確認する)
+     */
+    private static final Locale TEST_LOCALE = Locale.JAPAN;
+
     /**
      * テストデータの書籍
      */
@@ -129,6 +141,7 @@ public class BookManageControllerUnitTests {
         mockMvc = MockMvcBuilders.standaloneSetup(controller)
                                  .setControllerAdvice(new BookManageExceptionHandler())
                                  .setViewResolvers(viewResolver)
+                                 .defaultRequest(get("/").locale(TEST_LOCALE))
                                  .alwaysDo(log())
                                  .build();
     }
@@ -145,7 +158,7 @@ public class BookManageControllerUnitTests {
                                                         .newBook(true)
                                                         .books(Arrays.asList())
                                                         .build();
-        when(service.initForm()).thenReturn(initForm);
+        when(service.initForm(any(BookSearchCondition.class))).thenReturn(initForm);
         // 認証情報のモック
         Authentication mockPrincipal = mock(Authentication.class);
         when(mockPrincipal.getName()).thenReturn("user");
@@ -185,7 +198,7 @@ public class BookManageControllerUnitTests {
                                                         .newBook(true)
                                                         .books(Arrays.asList(testBook))
                                                         .build();
-        when(service.initForm()).thenReturn(initForm);
+        when(service.initForm(any(BookSearchCondition.class))).thenReturn(initForm);
         // 認証情報のモック
         Authentication mockPrincipal = mock(Authentication.class);
         when(mockPrincipal.getName()).thenReturn("user");
@@ -213,6 +226,48 @@ public class BookManageControllerUnitTests {
                 1);
     }
 
+    /**
+     * 並び順・絞り込み・ページを指定してgetリクエストでbooksを指定し、サービスに渡す条件で成否を判定
+     * 
+     * @throws Exception MockMvcのメソッド呼び出し時に発生する
+     */
+    @Test
+    public void readBooks_並び順と絞り込みとページを指定した時にサービスに条件が渡されることの確認() throws Exception {
+        // モックを登録
+        BookManagementForm initForm = BookManagementForm.builder()
+                                                        .newBook(true)
+                                                        .books(Arrays.asList(testBook))
+                                                        .hasNext(true)
+                                                        .build();
+        when(service.initForm(any(BookSearchCondition.class))).thenReturn(initForm);
+        // 認証情報のモック
+        Authentication mockPrincipal = mock(Authentication.class);
+        when(mockPrincipal.getName()).thenReturn("user");
+
+        // getリクエストでbooksを指定する(不正な並び順の方向は既定値になる)
+        mockMvc.perform(get("/books").principal(mockPrincipal)
+                                     .param("sort", "title")
+                                     .param("dir", "invalid")
+                                     .param("title", " test ")
+                                     .param("page", "2"))
+               .andExpect(status().isOk())
+               .andExpect(model().attributeExists("search"));
+
+        // サービスに渡された条件を評価する
+        ArgumentCaptor<BookSearchCondition> condition = ArgumentCaptor.forClass(BookSearchCondition.class);
+        verify(service).initForm(condition.capture());
+        assertEquals("title", condition.getValue()
+                                       .getSort());
+        assertEquals("asc", condition.getValue()
+                                     .getDir());
+        assertEquals("test", condition.getValue()
+                                      .getTitle());
+        assertEquals("", condition.getValue()
+                                  .getAuthor());
+        assertEquals(2, condition.getValue()
+                                 .getPage());
+    }
+
     /**
      * getリクエストでbooks/{id}を指定し、存在しないidを指定した時のhttpステータスとビュー名とモデルに設定されている変数で成否を判定
      * 
@@ -228,7 +283,7 @@ public class BookManageControllerUnitTests {
                                                            .version(TEST_VERSION)
                                                            .books(Arrays.asList(testBook))
                                                            .build();
-        when(service.readOneBook(TEST_ID)).thenReturn(readOneForm);
+        when(service.readOneBook(eq(TEST_ID), any(BookSearchCondition.class))).thenReturn(readOneForm);
 
         // getリクエストでbooks/{id}を指定する
         MvcResult result = mockMvc.perform(get("/books/1"))
@@ -267,7 +322,7 @@ public class BookManageControllerUnitTests {
     @Test
     public void readOneBook_データが存在しないidを指定した時のステータスとビューとモデルの確認() throws Exception {
         // モックを登録
-        when(service.readOneBook(INVALID_TEST_ID)).thenThrow(new BookNotFoundException(INVALID_TEST_ID));
+        when(service.readOneBook(eq(INVALID_TEST_ID), any(BookSearchCondition.class))).thenThrow(new BookNotFoundException(INVALID_TEST_ID));
         BookManagementForm initForm = BookManagementForm.builder()
                                                         .newBook(true)
                                                         .books(Arrays.asList(testBook))
@@ -347,7 +402,7 @@ public class BookManageControllerUnitTests {
 
         // モックを登録
         when(service.initForm()).thenReturn(initForm);
-        when(mockMessageSource.getMessage("error.validation", null, null)).thenReturn(TEST_MESSAGE);
+        when(mockMessageSource.getMessage("error.validation", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
 
         // postリクエストでbooksを指定する
         MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
@@ -428,7 +483,7 @@ public class BookManageControllerUnitTests {
         // モックを登録
         when(service.updateBook(INVALID_TEST_ID, inputForm)).thenThrow(new BookNotFoundException(INVALID_TEST_ID));
         when(service.initForm()).thenReturn(initForm);
-        when(mockMessageSource.getMessage("error.booknotfound", null, null)).thenReturn(TEST_MESSAGE);
+        when(mockMessageSource.getMessage("error.booknotfound", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
 
         // putリクエストでbooks/{id}を指定する
         MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
@@ -587,11 +642,37 @@ public class BookManageControllerUnitTests {
 
         // deleteリクエストでbooksを指定する
         mockMvc.perform(delete("/books/1"))
+               .andDo(print())
+               .andExpect(status().is3xxRedirection()) // HTTPステータスが3xxか否か(リダイレクト)
+               .andExpect(redirectedUrl("/books")) // /booksにリダイレクトするか否か
+               .andExpect(flash().attribute("deletedBookId", TEST_ID)); // 削除を取り消せるか否か
+    }
+
+    @Test
+    void restoreOneBook_正常に元に戻した場合_書籍一覧にリダイレクトすることの確認() throws Exception {
+        // モックを登録
+        when(service.restoreBook(TEST_ID)).thenReturn(testBook);
+
+        // postリクエストでbooks/1/restoreを指定する
+        mockMvc.perform(post("/books/1/restore"))
                .andDo(print())
                .andExpect(status().is3xxRedirection()) // HTTPステータスが3xxか否か(リダイレクト)
                .andExpect(redirectedUrl("/books")); // /booksにリダイレクトするか否か
     }
 
+    @Test
+    void restoreOneBookAsJson_同じタイトルと著者の書籍が登録済みの場合_409が返却されることの確認() throws Exception {
+        // モックを登録
+        when(service.restoreBook(TEST_ID)).thenThrow(new BookDuplicateException(TEST_TITLE, TEST_AUTHOR));
+        when(mockMessageSource.getMessage("error.bookduplicate", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
+
+        // Acceptヘッダにapplication/jsonを指定して、postリクエストでbooks/1/restoreを指定する
+        mockMvc.perform(post("/books/1/restore").accept(MediaType.APPLICATION_JSON))
+               .andDo(print())
+               .andExpect(status().isConflict()) // HTTPステータスが409か否か
+               .andExpect(jsonPath("$.errorMessage").value(TEST_MESSAGE));
+    }
+
     @Test
     public void deleteOneBook_指定したIDのデータが存在しない場合のステータスとビューとモデルの確認() throws Exception {
         // モックを登録
@@ -602,7 +683,7 @@ public class BookManageControllerUnitTests {
                                                         .books(Arrays.asList(testBook))
                                                         .build();
         when(service.initForm()).thenReturn(initForm);
-        when(mockMessageSource.getMessage("error.booknotfound", null, null)).thenReturn(TEST_MESSAGE);
+        when(mockMessageSource.getMessage("error.booknotfound", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
 
         // deleteリクエストでbooks/{id}を指定する
         MvcResult result = mockMvc.perform(delete("/books/2"))
@@ -705,7 +786,7 @@ public class BookManageControllerUnitTests {
                                                         .newBook(true)
                                                         .books(Arrays.asList(testBook))
                                                         .build();
-        when(service.initForm()).thenReturn(initForm);
+        when(service.initForm(any(BookSearchCondition.class))).thenReturn(initForm);
         // 認証情報のモック
         Authentication mockPrincipal = mock(Authentication.class);
         when(mockPrincipal.getName()).thenReturn("user");
@@ -733,4 +814,321 @@ public class BookManageControllerUnitTests {
                 1);
     }
 
+    @Test
+    void createOneBookAsJson_入力エラーが発生した場合_書籍一覧を取得せずにエラーメッセージが返却されることの確認() throws Exception {
+        // モックを登録
+        when(mockMessageSource.getMessage("error.validation", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
+        when(mockMessageSource.getMessage(any(MessageSourceResolvable.class), any())).thenReturn(TEST_MESSAGE);
+
+        // Acceptヘッダにapplication/jsonを指定して、postリクエストでbooksを指定する
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("title", "");
+        params.add("author", TEST_AUTHOR);
+        params.add("newBook", "true");
+        params.add("version", "0");
+        mockMvc.perform(post("/books").params(params)
+                                      .accept(MediaType.APPLICATION_JSON))
+               .andDo(print())
+               .andExpect(status().isBadRequest()) // HTTPステータスが400か否か
+               .andExpect(jsonPath("$.errorMessage").value(TEST_MESSAGE))
+               .andExpect(jsonPath("$.fieldErrors.title").value(TEST_MESSAGE))
+               .andExpect(jsonPath("$.fieldErrors.author").doesNotExist());
+
+        // 書籍一覧を取得し直さないことを確認
+        verify(service, never()).initForm();
+        verify(service, never()).createBook(any());
+    }
+
+    @Test
+    void createOneBookAsJson_正常に登録した場合_IDとバージョンが返却されることの確認() throws Exception {
+        // モックを登録
+        when(service.createBook(any())).thenReturn(testBook);
+
+        // Acceptヘッダにapplication/jsonを指定して、postリクエストでbooksを指定する
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("title", TEST_TITLE);
+        params.add("author", TEST_AUTHOR);
+        params.add("newBook", "true");
+        params.add("version", "0");
+        mockMvc.perform(post("/books").params(params)
+                                      .accept(MediaType.APPLICATION_JSON))
+               .andDo(print())
+               .andExpect(status().isCreated()) // HTTPステータスが201か否か
+               .andExpect(jsonPath("$.id").value(TEST_ID))
+               .andExpect(jsonPath("$.version").value(TEST_VERSION));
+    }
+
+    @Test
+    void createOneBookAsJson_冪等キーのヘッダを指定した場合_フォーム情報の冪等キーとして登録されることの確認() throws Exception {
+        // モックを登録
+        when(service.createBook(any())).thenReturn(testBook);
+
+        // Idempotency-Keyヘッダを指定して、postリクエストでbooksを指定する
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("title", TEST_TITLE);
+        params.add("author", TEST_AUTHOR);
+        params.add("newBook", "true");
+        params.add("idempotencyKey", "form-key");
+        mockMvc.perform(post("/books").params(params)
+                                      .header("Idempotency-Key", "header-key")
+                                      .accept(MediaType.APPLICATION_JSON))
+               .andDo(print())
+               .andExpect(status().isCreated()); // HTTPステータスが201か否か
+
+        // ヘッダの冪等キーが優先されることを確認
+        ArgumentCaptor<BookManagementForm> form = ArgumentCaptor.forClass(BookManagementForm.class);
+        verify(service).createBook(form.capture());
+        assertEquals("header-key", form.getValue()
+                                       .getIdempotencyKey());
+    }
+
+    @Test
+    void createOneBookAsJson_同じタイトルと著者の書籍が存在する場合_409が返却されることの確認() throws Exception {
+        // モックを登録
+        when(service.createBook(any())).thenThrow(new BookDuplicateException(TEST_TITLE, TEST_AUTHOR));
+        when(mockMessageSource.getMessage("error.bookduplicate", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
+
+        // Acceptヘッダにapplication/jsonを指定して、postリクエストでbooksを指定する
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("title", TEST_TITLE);
+        params.add("author", TEST_AUTHOR);
+        params.add("newBook", "true");
+        mockMvc.perform(post("/books").params(params)
+                                      .accept(MediaType.APPLICATION_JSON))
+               .andDo(print())
+               .andExpect(status().isConflict()) // HTTPステータスが409か否か
+               .andExpect(jsonPath("$.errorMessage").value(TEST_MESSAGE));
+
+        // 書籍一覧を取得し直さないことを確認
+        verify(service, never()).initForm();
+    }
+
+    @Test
+    void createOneBookAsJson_冪等キーを内容の異なる登録に使い回した場合_422が返却されることの確認() throws Exception {
+        // モックを登録
+        when(service.createBook(any())).thenThrow(new IdempotencyKeyMismatchException("create", "reused-key"));
+        when(mockMessageSource.getMessage("error.idempotencykeymismatch", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
+
+        // Acceptヘッダにapplication/jsonを指定して、postリクエストでbooksを指定する
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("title", TEST_TITLE);
+        params.add("author", TEST_AUTHOR);
+        params.add("newBook", "true");
+        mockMvc.perform(post("/books").params(params)
+                                      .header("Idempotency-Key", "reused-key")
+                                      .accept(MediaType.APPLICATION_JSON))
+               .andDo(print())
+               .andExpect(status().isUnprocessableEntity()) // HTTPステータスが422か否か
+               .andExpect(jsonPath("$.errorMessage").value(TEST_MESSAGE));
+    }
+
+    @Test
+    void createOneBook_冪等キーを内容の異なる登録に使い回した場合_冪等キーを採番し直したフォームが返却されることの確認() throws Exception {
+        // モックを登録
+        when(service.createBook(any())).thenThrow(new IdempotencyKeyMismatchException("create", "reused-key"));
+        when(service.initForm()).thenReturn(new BookManagementForm());
+        when(mockMessageSource.getMessage("error.idempotencykeymismatch", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
+
+        // postリクエストでbooksを指定する
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("title", TEST_TITLE);
+        params.add("author", TEST_AUTHOR);
+        params.add("newBook", "true");
+        params.add("idempotencyKey", "reused-key");
+        MvcResult mvcResult = mockMvc.perform(post("/books").params(params))
+                                     .andDo(print())
+                                     .andExpect(status().isOk())
+                                     .andExpect(model().attribute("errorMessage", TEST_MESSAGE))
+                                     .andReturn();
+
+        // 同じキーで送信し直さないよう、冪等キーが採番し直されていることを確認
+        BookManagementForm form = (BookManagementForm) mvcResult.getModelAndView()
+                                                                .getModel()
+                                                                .get("bookManageForm");
+        assertNotNull(form.getIdempotencyKey());
+        assertNotEquals("reused-key", form.getIdempotencyKey());
+    }
+
+    @Test
+    void updateOneBookAsJson_楽観排他エラーが発生した場合_書籍一覧を取得せずに409が返却されることの確認() throws Exception {
+        // モックを登録
+        when(service.updateBook(eq(TEST_ID), any())).thenThrow(
+                new ObjectOptimisticLockingFailureException(Book.class, TEST_ID));
+        when(mockMessageSource.getMessage("error.optlockfailure", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
+
+        // Acceptヘッダにapplication/jsonを指定して、putリクエストでbooks/1を指定する
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("title", TEST_TITLE);
+        params.add("author", TEST_AUTHOR);
+        params.add("newBook", "false");
+        params.add("version", "0");
+        mockMvc.perform(put("/books/1").params(params)
+                                       .accept(MediaType.APPLICATION_JSON))
+               .andDo(print())
+               .andExpect(status().isConflict()) // HTTPステータスが409か否か
+               .andExpect(jsonPath("$.errorMessage").value(TEST_MESSAGE));
+
+        // 書籍一覧を取得し直さないことを確認
+        verify(service, never()).initForm();
+    }
+
+    @Test
+    void deleteOneBookAsJson_書籍が存在しない場合_404が返却されることの確認() throws Exception {
+        // モックを登録
+        doThrow(new BookNotFoundException(INVALID_TEST_ID)).when(service)
+                                                           .deleteBook(INVALID_TEST_ID);
+        when(mockMessageSource.getMessage("error.booknotfound", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
+
+        // Acceptヘッダにapplication/jsonを指定して、deleteリクエストでbooks/2を指定する
+        mockMvc.perform(delete("/books/2").accept(MediaType.APPLICATION_JSON))
+               .andDo(print())
+               .andExpect(status().isNotFound()) // HTTPステータスが404か否か
+               .andExpect(jsonPath("$.errorMessage").value(TEST_MESSAGE));
+
+        // 書籍一覧を取得し直さないことを確認
+        verify(service, never()).initForm();
+    }
+
+
+    @Test
+    void readBookListFragment_Ajaxで書籍一覧を読み込み直す場合_表示中の条件の書籍一覧の部品が返却されることの確認() throws Exception {
+        // モックを登録
+        BookManagementForm initForm = BookManagementForm.builder()
+                                                        .books(Arrays.asList(testBook))
+                                                        .build();
+        when(service.initForm(any(BookSearchCondition.class))).thenReturn(initForm);
+
+        // X-Requested-Withヘッダと表示中の条件を指定して、getリクエストでbooksを指定する
+        mockMvc.perform(get("/books").header("X-Requested-With", "XMLHttpRequest")
+                                     .param("part", "list")
+                                     .param("sort", "title")
+                                     .param("dir", "desc")
+                                     .param("page", "1"))
+               .andDo(print())
+               .andExpect(status().isOk()) // HTTPステータスが200か否か
+               .andExpect(view().name("fragments/book :: bookList(baseUrl='/books')")) // ビュー名が書籍一覧の部品か否か
+               .andExpect(model().attribute("bookManageForm", initForm))
+               .andExpect(model().attributeExists("search"));
+
+        // サービスに渡された条件を評価する
+        ArgumentCaptor<BookSearchCondition> condition = ArgumentCaptor.forClass(BookSearchCondition.class);
+        verify(service).initForm(condition.capture());
+        assertEquals("title", condition.getValue()
+                                       .getSort());
+        assertEquals("desc", condition.getValue()
+                                      .getDir());
+        assertEquals(1, condition.getValue()
+                                 .getPage());
+    }
+
+    @Test
+    void readOneBookFragment_Ajaxで編集する場合_書籍一覧を取得せずにフォームの部品が返却されることの確認() throws Exception {
+        // モックを登録
+        BookManagementForm form = BookManagementForm.builder()
+                                                    .title(TEST_TITLE)
+                                                    .author(TEST_AUTHOR)
+                                                    .version(TEST_VERSION)
+                                                    .build();
+        when(service.findBookForm(TEST_ID)).thenReturn(Optional.of(form));
+
+        // X-Requested-Withヘッダを指定して、getリクエストでbooks/1を指定する
+        mockMvc.perform(get("/books/1").header("X-Requested-With", "XMLHttpRequest"))
+               .andDo(print())
+               .andExpect(status().isOk()) // HTTPステータスが200か否か
+               .andExpect(view().name("fragments/book :: bookForm")) // ビュー名が登録・更新フォームの部品か否か
+               .andExpect(model().attribute("bookId", TEST_ID))
+               .andExpect(model().attribute("bookManageForm", form));
+
+        // 書籍一覧を取得しないことを確認
+        verify(service, never()).initForm();
+        verify(service, never()).readOneBook(anyLong());
+    }
+
+    @Test
+    void readOneBookFragment_Ajaxで書籍が存在しない場合_エラーメッセージを設定したフォームの部品が返却されることの確認() throws Exception {
+        // モックを登録
+        when(service.findBookForm(INVALID_TEST_ID)).thenReturn(Optional.empty());
+        when(mockMessageSource.getMessage("error.booknotfound", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
+
+        // X-Requested-Withヘッダを指定して、getリクエストでbooks/2を指定する
+        mockMvc.perform(get("/books/2").header("X-Requested-With", "XMLHttpRequest"))
+               .andDo(print())
+               .andExpect(status().isNotFound()) // HTTPステータスが404か否か
+               .andExpect(view().name("fragments/book :: bookForm")) // ビュー名が登録・更新フォームの部品か否か
+               .andExpect(model().attribute("errorMessage", TEST_MESSAGE))
+               .andExpect(model().attributeDoesNotExist("bookId"));
+    }
+
+    @Test
+    void createOneBookFragment_Ajaxで正常に登録した場合_表示中の条件の書籍一覧と新規登録用のフォームの部品が返却されることの確認() throws Exception {
+        // モックを登録
+        when(service.createBook(any())).thenReturn(testBook);
+        when(service.initForm(any(BookSearchCondition.class))).thenReturn(new BookManagementForm(true, null));
+
+        // X-Requested-Withヘッダと表示中の書籍一覧のURLを指定して、postリクエストでbooksを指定する
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("title", TEST_TITLE);
+        params.add("author", TEST_AUTHOR);
+        params.add("newBook", "true");
+        params.add("version", "0");
+        mockMvc.perform(post("/books").params(params)
+                                      .header("X-Requested-With", "XMLHttpRequest")
+                                      .header("X-Book-List-Url",
+                                              "/admin?part=list&sort=title&dir=asc&title=%E6%9B%B8%E7%B1%8D&page=2"))
+               .andDo(print())
+               .andExpect(status().isCreated()) // HTTPステータスが201か否か
+               // ビュー名が登録・更新の結果(フォームと書籍一覧)の部品か否か
+               .andExpect(view().name("fragments/book :: bookSaved(baseUrl='/admin')"));
+
+        // 表示中の条件で書籍一覧を取得し直すことを確認(行の部品は返却しない)
+        ArgumentCaptor<BookSearchCondition> search = ArgumentCaptor.forClass(BookSearchCondition.class);
+        verify(service).initForm(search.capture());
+        assertEquals("title", search.getValue()
+                                    .getSort());
+        assertEquals("asc", search.getValue()
+                                  .getDir());
+        assertEquals("書籍", search.getValue()
+                                 .getTitle());
+        assertEquals(2, search.getValue()
+                              .getPage());
+    }
+
+    @Test
+    void updateOneBookFragment_Ajaxで楽観排他エラーが発生した場合_エラーメッセージを設定したフォームの部品が返却されることの確認() throws Exception {
+        // モックを登録
+        when(service.updateBook(eq(TEST_ID), any())).thenThrow(
+                new ObjectOptimisticLockingFailureException(Book.class, TEST_ID));
+        when(mockMessageSource.getMessage("error.optlockfailure", null, TEST_LOCALE)).thenReturn(TEST_MESSAGE);
+
+        // X-Requested-Withヘッダを指定して、putリクエストでbooks/1を指定する
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("title", TEST_TITLE);
+        params.add("author", TEST_AUTHOR);
+        params.add("newBook", "false");
+        params.add("version", "0");
+        mockMvc.perform(put("/books/1").params(params)
+                                       .header("X-Requested-With", "XMLHttpRequest"))
+               .andDo(print())
+               .andExpect(status().isConflict()) // HTTPステータスが409か否か
+               .andExpect(view().name("fragments/book :: bookForm")) // ビュー名が登録・更新フォームの部品か否か
+               .andExpect(model().attribute("errorMessage", TEST_MESSAGE))
+               .andExpect(model().attribute("bookId", TEST_ID));
+
+        // 書籍一覧を取得し直さないことを確認
+        verify(service, never()).initForm();
+    }
+
+    @Test
+    void deleteOneBookFragment_Ajaxで正常に削除した場合_本文を返却せずに204が返却されることの確認() throws Exception {
+        // X-Requested-Withヘッダを指定して、deleteリクエストでbooks/1を指定する
+        mockMvc.perform(delete("/books/1").header("X-Requested-With", "XMLHttpRequest"))
+               .andDo(print())
+               .andExpect(status().isNoContent()) // HTTPステータスが204か否か
+               .andExpect(content().string(""));
+
+        // 書籍を削除し、書籍一覧を取得し直さないことを確認
+        verify(service, times(1)).deleteBook(TEST_ID);
+        verify(service, never()).initForm();
+    }
+
 }
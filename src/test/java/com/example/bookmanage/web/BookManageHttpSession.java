@@ -0,0 +1,255 @@
+package com.example.bookmanage.web;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 起動済みの書籍管理システムにブラウザと同じ手順でアクセスするためのHTTPセッション<br />
+ *
+ * クッキー(JSESSIONID)を保持し、画面のHTMLからCSRFトークンを取得してフォームを送信する。
+ * PUT/DELETEはHiddenHttpMethodFilterを使うため、"_method"を付けてPOSTする。
+ */
+public class BookManageHttpSession {
+
+    /**
+     * CSRFトークンを取得するためのパターン
+     */
+    private static final Pattern CSRF_PATTERN = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+
+    /**
+     * 書籍の編集リンクを取得するためのパターン
+     */
+    private static final Pattern BOOK_LINK_PATTERN = Pattern.compile("href=\"/books/(\\d+)\"");
+
+    /**
+     * 書籍一覧の行から書籍のIDを取得するためのパターン(表紙の列を読み飛ばす。タイトルは後から連結する)
+     */
+    private static final String BOOK_ROW_PATTERN = "data-book-id=\"(\\d+)\"\\s*>(?:(?!</tr>)[\\s\\S])*?<td>";
+
+    /**
+     * バージョンを取得するためのパターン
+     */
+    private static final Pattern VERSION_PATTERN = Pattern.compile("id=\"version\"\\s+name=\"version\"\\s+value=\"(\\d+)\"");
+
+    /**
+     * 接続先のURL(例：http://localhost:8080)
+     */
+    private final String baseUrl;
+
+    /**
+     * HTTPクライアント
+     */
+    private final HttpClient client;
+
+    /**
+     * 直前に取得したCSRFトークン
+     */
+    private String csrfToken;
+
+    /**
+     * コンストラクタ
+     *
+     * @param baseUrl 接続先のURL
+     */
+    public BookManageHttpSession(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                                .cookieHandler(new CookieManager())
+                                .followRedirects(HttpClient.Redirect.NORMAL)
+                                .connectTimeout(Duration.ofSeconds(10))
+                                .build();
+    }
+
+    /**
+     * ログイン画面を表示してから、ログインする。
+     *
+     * @param username ユーザ名
+     * @param password パスワード
+     * @return ログイン後に遷移した画面のレスポンス
+     * @throws IOException 通信エラーが発生した場合
+     * @throws InterruptedException 通信中に割り込まれた場合
+     */
+    public HttpResponse<String> login(String username, String password) throws IOException, InterruptedException {
+        get("/login");
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("username", username);
+        params.put("password", password);
+        return post("/authenticate", params);
+    }
+
+    /**
+     * GETリクエストを送信する。<br />
+     * レスポンスにCSRFトークンが含まれている場合、以降のPOSTで使用する。
+     *
+     * @param path パス
+     * @return レスポンス
+     * @throws IOException 通信エラーが発生した場合
+     * @throws InterruptedException 通信中に割り込まれた場合
+     */
+    public HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                         .GET()
+                                         .build();
+        return send(request);
+    }
+
+    /**
+     * CSRFトークンを付けてフォームをPOSTする。
+     *
+     * @param path パス
+     * @param params フォームのパラメータ
+     * @return レスポンス(リダイレクト後)
+     * @throws IOException 通信エラーが発生した場合
+     * @throws InterruptedException 通信中に割り込まれた場合
+     */
+    public HttpResponse<String> post(String path, Map<String, String> params) throws IOException, InterruptedException {
+        Map<String, String> form = new LinkedHashMap<>(params);
+        if (csrfToken != null) {
+            form.put("_csrf", csrfToken);
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                                         .header("Content-Type", "application/x-www-form-urlencoded")
+                                         .POST(HttpRequest.BodyPublishers.ofString(encode(form)))
+                                         .build();
+        return send(request);
+    }
+
+    /**
+     * 書籍を新規登録する。
+     *
+     * @param title タイトル
+     * @param author 著者
+     * @return レスポンス(リダイレクト後)
+     * @throws IOException 通信エラーが発生した場合
+     * @throws InterruptedException 通信中に割り込まれた場合
+     */
+    public HttpResponse<String> createBook(String title, String author) throws IOException, InterruptedException {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("title", title);
+        params.put("author", author);
+        params.put("newBook", "true");
+        params.put("version", "0");
+        return post("/books", params);
+    }
+
+    /**
+     * 書籍を更新する。<br />
+     * 事前に{@link #get(String)}で編集画面("/books/{id}")を表示しておくこと。
+     *
+     * @param id 書籍のID
+     * @param title タイトル
+     * @param author 著者
+     * @param version バージョン
+     * @return レスポンス(リダイレクト後)
+     * @throws IOException 通信エラーが発生した場合
+     * @throws InterruptedException 通信中に割り込まれた場合
+     */
+    public HttpResponse<String> updateBook(long id, String title, String author, long version)
+            throws IOException, InterruptedException {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("_method", "put");
+        params.put("title", title);
+        params.put("author", author);
+        params.put("newBook", "false");
+        params.put("version", String.valueOf(version));
+        return post("/books/" + id, params);
+    }
+
+    /**
+     * 書籍を削除する。
+     *
+     * @param id 書籍のID
+     * @return レスポンス(リダイレクト後)
+     * @throws IOException 通信エラーが発生した場合
+     * @throws InterruptedException 通信中に割り込まれた場合
+     */
+    public HttpResponse<String> deleteBook(long id) throws IOException, InterruptedException {
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("_method", "delete");
+        return post("/books/" + id, params);
+    }
+
+    /**
+     * 書籍一覧のHTMLから、最後に表示されている書籍のIDを取得する。
+     *
+     * @param html 書籍一覧のHTML
+     * @return 書籍のID(書籍が表示されていない場合、-1)
+     */
+    public static long lastBookId(String html) {
+        Matcher matcher = BOOK_LINK_PATTERN.matcher(html);
+        long id = -1;
+        while (matcher.find()) {
+            id = Long.parseLong(matcher.group(1));
+        }
+        return id;
+    }
+
+    /**
+     * 書籍一覧のHTMLから、指定したタイトルの書籍のIDを取得する。<br />
+     * 複数のセッションが同時に書籍を登録する場合、{@link #lastBookId(String)}の代わりに使用する。
+     *
+     * @param html 書籍一覧のHTML
+     * @param title タイトル(HTMLのエスケープが不要な文字列)
+     * @return 書籍のID(書籍が表示されていない場合、-1)
+     */
+    public static long bookId(String html, String title) {
+        Matcher matcher = Pattern.compile(BOOK_ROW_PATTERN + Pattern.quote(title) + "</td>")
+                                 .matcher(html);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /**
+     * 編集画面のHTMLから、書籍のバージョンを取得する。
+     *
+     * @param html 編集画面のHTML
+     * @return バージョン(取得できない場合、-1)
+     */
+    public static long version(String html) {
+        Matcher matcher = VERSION_PATTERN.matcher(html);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /**
+     * リクエストを送信し、CSRFトークンを更新する。
+     *
+     * @param request リクエスト
+     * @return レスポンス
+     * @throws IOException 通信エラーが発生した場合
+     * @throws InterruptedException 通信中に割り込まれた場合
+     */
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        Matcher matcher = CSRF_PATTERN.matcher(response.body());
+        if (matcher.find()) {
+            csrfToken = matcher.group(1);
+        }
+        return response;
+    }
+
+    /**
+     * フォームのパラメータをURLエンコードする。
+     *
+     * @param params フォームのパラメータ
+     * @return URLエンコードした文字列
+     */
+    private static String encode(Map<String, String> params) {
+        return params.entrySet()
+                     .stream()
+                     .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "="
+                             + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                     .collect(Collectors.joining("&"));
+    }
+
+}
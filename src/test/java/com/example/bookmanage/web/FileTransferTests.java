@@ -0,0 +1,109 @@
+package com.example.bookmanage.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * FileTransferのテストプログラム
+ */
+class FileTransferTests {
+
+    /**
+     * テスト用のファイルを作成するディレクトリ
+     */
+    @TempDir
+    private Path directory;
+
+    /**
+     * リクエスト
+     */
+    private MockHttpServletRequest request;
+
+    /**
+     * レスポンス
+     */
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void sendfileに対応していない場合_指定した範囲をレスポンスに書き込むことの確認() throws Exception {
+        byte[] content = content(100_000);
+        Path file = Files.write(directory.resolve("file.bin"), content);
+
+        assertTrue(FileTransfer.write(new FileSystemResource(file), 1000, 70_000,
+                new ServletServerHttpResponse(response)));
+        assertArrayEquals(Arrays.copyOfRange(content, 1000, 71_000), response.getContentAsByteArray());
+        assertNull(request.getAttribute(FileTransfer.SENDFILE_FILENAME));
+    }
+
+    @Test
+    void sendfileに対応している場合_大きい範囲はTomcatに送信させることの確認() throws Exception {
+        Path file = Files.write(directory.resolve("file.bin"), content(100_000));
+        request.setAttribute(FileTransfer.SENDFILE_SUPPORT, Boolean.TRUE);
+
+        assertTrue(FileTransfer.write(new FileSystemResource(file), 10, 60_000,
+                new ServletServerHttpResponse(response)));
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.toAbsolutePath()
+                         .toString(),
+                request.getAttribute(FileTransfer.SENDFILE_FILENAME));
+        assertEquals(10L, request.getAttribute(FileTransfer.SENDFILE_START));
+        assertEquals(60_010L, request.getAttribute(FileTransfer.SENDFILE_END));
+
+        // 小さい範囲はsendfileを使用せず、書き込む
+        MockHttpServletRequest smallRequest = new MockHttpServletRequest();
+        smallRequest.setAttribute(FileTransfer.SENDFILE_SUPPORT, Boolean.TRUE);
+        MockHttpServletResponse smallResponse = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(smallRequest, smallResponse));
+        assertTrue(FileTransfer.write(new FileSystemResource(file), 0, 100, new ServletServerHttpResponse(smallResponse)));
+        assertEquals(100, smallResponse.getContentAsByteArray().length);
+        assertNull(smallRequest.getAttribute(FileTransfer.SENDFILE_FILENAME));
+    }
+
+    @Test
+    void ファイルでないリソースは書き込まないことの確認() throws Exception {
+        assertFalse(FileTransfer.write(new ByteArrayResource(new byte[10]), 0, 10,
+                new ServletServerHttpResponse(response)));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    /**
+     * ランダムな内容を生成する。
+     *
+     * @param size サイズ
+     * @return 内容
+     */
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(1).nextBytes(content);
+        return content;
+    }
+
+}
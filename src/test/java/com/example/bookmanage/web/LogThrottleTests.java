@@ -0,0 +1,43 @@
+package com.example.bookmanage.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * LogThrottleのテストプログラム
+ */
+class LogThrottleTests {
+
+    /**
+     * 10秒(ナノ秒)
+     */
+    private static final long TEN_SECONDS = TimeUnit.SECONDS.toNanos(10);
+
+    @Test
+    void 間隔内に同じ種類のエラーが続いた場合_最初の1件のみ許可されることの確認() {
+        LogThrottle throttle = new LogThrottle(Duration.ofSeconds(10));
+
+        assertEquals(0, throttle.acquire("error", 0));
+        assertEquals(-1, throttle.acquire("error", 1));
+        assertEquals(-1, throttle.acquire("error", TEN_SECONDS - 1));
+        // 種類が異なるエラーは間引かない
+        assertEquals(0, throttle.acquire("other", 1));
+    }
+
+    @Test
+    void 間隔が経過した場合_間引いた件数が返却されることの確認() {
+        LogThrottle throttle = new LogThrottle(Duration.ofSeconds(10));
+        throttle.acquire("error", 0);
+        throttle.acquire("error", 1);
+        throttle.acquire("error", 2);
+
+        assertEquals(2, throttle.acquire("error", TEN_SECONDS));
+        assertEquals(-1, throttle.acquire("error", TEN_SECONDS + 1));
+        assertEquals(1, throttle.acquire("error", TEN_SECONDS * 2));
+    }
+
+}
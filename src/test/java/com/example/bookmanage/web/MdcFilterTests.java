@@ -0,0 +1,64 @@
+package com.example.bookmanage.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * MdcFilterのテストプログラム
+ */
+class MdcFilterTests {
+
+    /**
+     * リクエストの処理中に取得したMDC
+     */
+    private final Map<String, String> mdc = new HashMap<>();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void 認証済みの場合_リクエストIDとユーザIDが設定され_処理後に削除されることの確認() throws Exception {
+        SecurityContextHolder.getContext()
+                             .setAuthentication(new UsernamePasswordAuthenticationToken("user", null,
+                                     List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books");
+        request.addHeader(MdcFilter.REQUEST_ID_HEADER, "req-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new MdcFilter().doFilter(request, response, (req, res) -> mdc.putAll(MDC.getCopyOfContextMap()));
+
+        assertEquals("req-1", mdc.get(MdcFilter.REQUEST_ID));
+        assertEquals("user", mdc.get(MdcFilter.USER_ID));
+        assertEquals("req-1", response.getHeader(MdcFilter.REQUEST_ID_HEADER));
+        assertNull(MDC.get(MdcFilter.REQUEST_ID));
+        assertNull(MDC.get(MdcFilter.USER_ID));
+    }
+
+    @Test
+    void 未認証で不正なリクエストIDの場合_リクエストIDを生成しユーザIDを設定しないことの確認() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/login");
+        request.addHeader(MdcFilter.REQUEST_ID_HEADER, "<script>");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new MdcFilter().doFilter(request, response, (req, res) -> mdc.putAll(MDC.getCopyOfContextMap()));
+
+        assertNotEquals("<script>", mdc.get(MdcFilter.REQUEST_ID));
+        assertEquals(mdc.get(MdcFilter.REQUEST_ID), response.getHeader(MdcFilter.REQUEST_ID_HEADER));
+        assertFalse(mdc.containsKey(MdcFilter.USER_ID));
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.example.bookmanage.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * MdcUserFilterのテストプログラム
+ */
+class MdcUserFilterTests {
+
+    /**
+     * リクエストの処理中に取得したMDC
+     */
+    private final Map<String, String> mdc = new HashMap<>();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        MDC.clear();
+    }
+
+    @Test
+    void MdcFilterの後に認証情報を読み込んだ場合_ユーザIDが設定され_処理後に削除されることの確認() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/books");
+        request.addHeader(MdcFilter.REQUEST_ID_HEADER, "req-1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // MdcFilter(認証情報の読み込み前)→認証情報の読み込み→MdcUserFilterの順に実行する
+        new MdcFilter().doFilter(request, response, (req, res) -> {
+            SecurityContextHolder.getContext()
+                                 .setAuthentication(new UsernamePasswordAuthenticationToken("user", null,
+                                         List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+            new MdcUserFilter().doFilter(req, res, (innerReq, innerRes) -> mdc.putAll(MDC.getCopyOfContextMap()));
+        });
+
+        assertEquals("req-1", mdc.get(MdcFilter.REQUEST_ID));
+        assertEquals("user", mdc.get(MdcFilter.USER_ID));
+        assertNull(MDC.get(MdcFilter.USER_ID));
+    }
+
+    @Test
+    void 匿名ユーザの場合_ユーザIDを設定しないことの確認() throws Exception {
+        SecurityContextHolder.getContext()
+                             .setAuthentication(new AnonymousAuthenticationToken("key", "anonymousUser",
+                                     List.of(new SimpleGrantedAuthority("ROLE_ANONYMOUS"))));
+
+        new MdcUserFilter().doFilter(new MockHttpServletRequest("GET", "/login"), new MockHttpServletResponse(),
+                (req, res) -> {
+                    Map<String, String> context = MDC.getCopyOfContextMap();
+                    if (context != null) {
+                        mdc.putAll(context);
+                    }
+                });
+
+        assertFalse(mdc.containsKey(MdcFilter.USER_ID));
+    }
+
+}
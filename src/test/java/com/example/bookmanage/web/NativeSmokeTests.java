@@ -0,0 +1,78 @@
+package com.example.bookmanage.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * native imageで起動した書籍管理システムのスモークテスト<br />
+ * "./gradlew nativeSmokeTest"でnative imageをビルド、起動してから実行する。
+ */
+@Tag("native-smoke")
+@EnabledIfSystemProperty(named = "smoke.baseUrl", matches = ".+")
+class NativeSmokeTests {
+
+    /**
+     * テストデータのタイトル
+     */
+    private static final String TEST_TITLE = "スモークテストのタイトル";
+
+    /**
+     * テストデータのタイトル(更新時)
+     */
+    private static final String TEST_TITLE_UPD = "スモークテストのタイトル(更新)";
+
+    /**
+     * テストデータの著者名
+     */
+    private static final String TEST_AUTHOR = "スモークテストの著者";
+
+    /**
+     * 起動済みの書籍管理システムへのセッション
+     */
+    private BookManageHttpSession session;
+
+    @BeforeEach
+    void setUp() {
+        session = new BookManageHttpSession(System.getProperty("smoke.baseUrl"));
+    }
+
+    @Test
+    void ログインして書籍の登録_更新_削除ができることの確認() throws Exception {
+        // ログインすると書籍一覧が表示される
+        HttpResponse<String> response = session.login("user", "user");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.uri()
+                           .getPath()
+                           .endsWith("/books"));
+
+        // 登録
+        response = session.createBook(TEST_TITLE, TEST_AUTHOR);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body()
+                           .contains(TEST_TITLE));
+        long id = BookManageHttpSession.bookId(response.body(), TEST_TITLE);
+        assertTrue(id > 0);
+
+        // 編集画面の表示と更新
+        response = session.get("/books/" + id);
+        assertEquals(200, response.statusCode());
+        long version = BookManageHttpSession.version(response.body());
+        response = session.updateBook(id, TEST_TITLE_UPD, TEST_AUTHOR, version);
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body()
+                           .contains(TEST_TITLE_UPD));
+
+        // 削除
+        response = session.deleteBook(id);
+        assertEquals(200, response.statusCode());
+        assertFalse(response.body()
+                            .contains(TEST_TITLE_UPD));
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.example.bookmanage.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookmanage.BookmanageApplication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * リクエスト数の制限のテストプログラム
+ */
+@SpringBootTest(classes = BookmanageApplication.class, properties = {
+        "bookmanage.rate-limit.endpoints.delete.capacity=1",
+        "bookmanage.rate-limit.endpoints.delete.permits-per-second=0.001" })
+@AutoConfigureMockMvc
+class RateLimitIntegrationTests {
+
+    /**
+     * Httpリクエスト・レスポンスを扱うためのMockオブジェクト
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * メトリクスのレジストリ
+     */
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @WithMockUser(username = "user", password = "user", authorities = "ROLE_USER")
+    void 制限を超えてリクエストした場合_429が返却されることの確認() throws Exception {
+        // 1回目は制限内(書籍が存在しないため、エラーメッセージ付きの画面が表示される)
+        mockMvc.perform(delete("/books/999").with(csrf()))
+               .andExpect(status().isOk());
+
+        // 2回目は制限を超える
+        mockMvc.perform(delete("/books/999").with(csrf()))
+               .andExpect(status().isTooManyRequests())
+               .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        // 拒否した件数がメトリクスに記録されていることを確認
+        assertEquals(1.0, meterRegistry.get("bookmanage.ratelimit.requests")
+                                       .tag("endpoint", "delete")
+                                       .tag("result", "rejected")
+                                       .counter()
+                                       .count());
+    }
+
+    @Test
+    @WithMockUser(username = "restore-user", password = "user", authorities = "ROLE_USER")
+    void 削除の取り消しは削除とは別のエンドポイントとして制限されることの確認() throws Exception {
+        mockMvc.perform(delete("/books/999").with(csrf()))
+               .andExpect(status().isOk());
+        mockMvc.perform(delete("/books/999").with(csrf()))
+               .andExpect(status().isTooManyRequests());
+
+        // 同じPOSTでも、削除の取り消しは登録・削除のバケットを使用しない
+        double allowed = meterRegistry.get("bookmanage.ratelimit.requests")
+                                      .tag("endpoint", "restore")
+                                      .tag("result", "allowed")
+                                      .counter()
+                                      .count();
+        mockMvc.perform(post("/books/999/restore").with(csrf()))
+               .andExpect(result -> assertNotEquals(HttpStatus.TOO_MANY_REQUESTS.value(), result.getResponse()
+                                                                                                .getStatus()));
+        assertEquals(allowed + 1, meterRegistry.get("bookmanage.ratelimit.requests")
+                                               .tag("endpoint", "restore")
+                                               .tag("result", "allowed")
+                                               .counter()
+                                               .count());
+    }
+
+    @Test
+    @WithMockUser(username = "admin", password = "admin", authorities = "ROLE_ADMIN")
+    void 別のユーザのリクエストは制限されないことの確認() throws Exception {
+        mockMvc.perform(delete("/books/999").with(csrf()))
+               .andExpect(status().isOk());
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.example.bookmanage.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.bookmanage.BookmanageApplication;
+
+/**
+ * 静的リソースのURLとキャッシュ、圧縮のテストプログラム
+ */
+@SpringBootTest(classes = BookmanageApplication.class)
+@AutoConfigureMockMvc
+class StaticResourceTests {
+
+    /**
+     * ハッシュ値付きのcssのURLのパターン
+     */
+    private static final Pattern VERSIONED_CSS = Pattern.compile("/css/bootstrap-4\\.4\\.1\\.min-[0-9a-f]{32}\\.css");
+
+    /**
+     * Httpリクエスト・レスポンスを扱うためのMockオブジェクト
+     */
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(username = "user", password = "user", authorities = "ROLE_USER")
+    void 画面の静的リソースのURLにハッシュ値が付与されることの確認() throws Exception {
+        String html = mockMvc.perform(get("/books"))
+                             .andExpect(status().isOk())
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsString();
+
+        assertTrue(VERSIONED_CSS.matcher(html)
+                                .find());
+    }
+
+    @Test
+    void ハッシュ値付きのURLで静的リソースがimmutableとして返却されることの確認() throws Exception {
+        mockMvc.perform(get(versionedCssUrl()))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+    }
+
+    @Test
+    void 圧縮版の静的リソースがAccept_Encodingに応じて返却されることの確認() throws Exception {
+        mockMvc.perform(get(versionedCssUrl()).header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "br"));
+        mockMvc.perform(get(versionedCssUrl()).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    /**
+     * ログイン画面からハッシュ値付きのcssのURLを取得する。
+     *
+     * @return ハッシュ値付きのcssのURL
+     * @throws Exception MockMvcのメソッド呼び出し時に発生する
+     */
+    private String versionedCssUrl() throws Exception {
+        String html = mockMvc.perform(get("/login"))
+                             .andReturn()
+                             .getResponse()
+                             .getContentAsString();
+        Matcher matcher = VERSIONED_CSS.matcher(html);
+        assertTrue(matcher.find());
+        return matcher.group();
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.example.bookmanage.web;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * TokenBucketのテストプログラム
+ */
+class TokenBucketTests {
+
+    /**
+     * 1秒(ナノ秒)
+     */
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void 容量を超えて取得しようとした場合_取得できないことの確認() {
+        TokenBucket bucket = new TokenBucket(2, 1);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+        assertEquals(ONE_SECOND, bucket.nanosUntilAvailable(0));
+    }
+
+    @Test
+    void 時間が経過した場合_回復した分だけ取得できることの確認() {
+        TokenBucket bucket = new TokenBucket(2, 1);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        assertTrue(bucket.tryAcquire(ONE_SECOND));
+        assertFalse(bucket.tryAcquire(ONE_SECOND));
+    }
+
+    @Test
+    void 複数スレッドから取得した場合_容量分だけ取得できることの確認() throws Exception {
+        TokenBucket bucket = new TokenBucket(100, 0.001);
+        long now = System.nanoTime();
+        int[] acquired = new int[8];
+        Thread[] threads = new Thread[acquired.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 100; j++) {
+                    if (bucket.tryAcquire(now)) {
+                        acquired[index]++;
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        int total = 0;
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+            total += acquired[i];
+        }
+
+        assertEquals(100, total);
+    }
+
+}